@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Exposes an {@link Appendable} as a {@link Writer} for the json providers which only write to
+ * the latter, counting the chars written. Closing it flushes the appendable, if it is
+ * {@link Flushable}, but never closes it.
+ */
+public final class AppendableWriter extends Writer {
+  private final Appendable out;
+  private long count;
+
+  AppendableWriter(Appendable out) {
+    this.out = out;
+  }
+
+  /**
+   * Returns {@code out} itself when it already is a {@link Writer}, an {@link AppendableWriter}
+   * over it otherwise.
+   */
+  public static Writer of(Appendable out) {
+    return out instanceof Writer ? (Writer) out : new AppendableWriter(out);
+  }
+
+  /**
+   * Flushes {@code out} when it is {@link Flushable}.
+   */
+  public static void flush(Appendable out) throws RuntimeException {
+    if (!(out instanceof Flushable)) return;
+    try {
+      ((Flushable) out).flush();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  long count() {
+    return count;
+  }
+
+  @Override public void write(int c) throws IOException {
+    out.append((char) c);
+    count++;
+  }
+
+  @Override public void write(char[] cbuf, int off, int len) throws IOException {
+    if (out instanceof Writer) {
+      ((Writer) out).write(cbuf, off, len);
+    } else if (out instanceof StringBuilder) {
+      ((StringBuilder) out).append(cbuf, off, len);
+    } else {
+      out.append(CharBuffer.wrap(cbuf, off, len));
+    }
+    count += len;
+  }
+
+  @Override public void write(String str, int off, int len) throws IOException {
+    out.append(str, off, off + len);
+    count += len;
+  }
+
+  @Override public Writer append(CharSequence csq) throws IOException {
+    CharSequence chars = csq != null ? csq : "null";
+    out.append(chars);
+    count += chars.length();
+    return this;
+  }
+
+  @Override public Writer append(CharSequence csq, int start, int end) throws IOException {
+    CharSequence chars = csq != null ? csq : "null";
+    out.append(chars, start, end);
+    count += end - start;
+    return this;
+  }
+
+  @Override public void flush() throws IOException {
+    if (out instanceof Flushable) ((Flushable) out).flush();
+  }
+
+  @Override public void close() throws IOException {
+    flush();
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes to a temporary file next to the target one through a large buffer, and only replaces the
+ * target once {@link #commit()} is called, by moving the temporary file into place. Readers thus
+ * see either the previous content of the target or the whole new one, never a torn file. Closing
+ * the stream before committing discards what was written.
+ */
+public final class AtomicFileOutputStream extends OutputStream {
+  private static final boolean NIO_FILES = hasNioFiles();
+
+  private final File file;
+  private final File temp;
+  private final boolean force;
+  private final FileOutputStream out;
+  private final FileChannel channel;
+  private final byte[] buffer;
+  private final ByteBuffer byteBuffer;
+  private int count;
+  private boolean committed;
+  private boolean closed;
+
+  AtomicFileOutputStream(File file, boolean force, int bufferSize) throws IOException {
+    File parent = file.getAbsoluteFile().getParentFile();
+    this.file = file;
+    this.temp = File.createTempFile(file.getName() + ".", ".tmp", parent);
+    this.force = force;
+    this.out = new FileOutputStream(temp);
+    this.channel = out.getChannel();
+    this.buffer = new byte[bufferSize];
+    this.byteBuffer = ByteBuffer.wrap(buffer);
+  }
+
+  @Override public void write(int b) throws IOException {
+    if (count == buffer.length) flushBuffer();
+    buffer[count++] = (byte) b;
+  }
+
+  @Override public void write(byte[] b, int off, int len) throws IOException {
+    if (len >= buffer.length) {
+      flushBuffer();
+      writeFully(ByteBuffer.wrap(b, off, len));
+      return;
+    }
+    if (len > buffer.length - count) flushBuffer();
+    System.arraycopy(b, off, buffer, count, len);
+    count += len;
+  }
+
+  /**
+   * Writes the buffered bytes to the temporary file. The target is left untouched until
+   * {@link #commit()}.
+   */
+  @Override public void flush() throws IOException {
+    flushBuffer();
+  }
+
+  /**
+   * Writes the buffered bytes, forces them to the storage device if requested, and moves the
+   * temporary file over the target, atomically where the file system supports it. Without
+   * {@code java.nio.file}, as on Android before API 26, the temporary file is renamed instead, and
+   * where the rename can not replace an existing file the target is deleted first, so the
+   * replacement is not atomic there. If the target was deleted but the temporary file could not
+   * take its place, the temporary file is kept and its path is reported in the exception.
+   */
+  public void commit() throws IOException {
+    if (closed) throw new IOException("Stream closed");
+    flushBuffer();
+    if (force) channel.force(true);
+    closed = true;
+    out.close();
+    if (NIO_FILES) {
+      try {
+        NioFiles.move(temp, file);
+      } catch (IOException e) {
+        if (file.exists()) temp.delete();
+        throw e;
+      }
+    } else if (!temp.renameTo(file)) {
+      if (!file.delete()) {
+        temp.delete();
+        throw new IOException("Failed to rename " + temp + " to " + file);
+      }
+      if (!temp.renameTo(file)) {
+        throw new IOException("Deleted " + file + " but failed to rename " + temp
+            + " to it, the new content is kept in " + temp);
+      }
+    }
+    committed = true;
+  }
+
+  /**
+   * Discards the temporary file unless {@link #commit()} was called.
+   */
+  @Override public void close() throws IOException {
+    if (closed) return;
+    closed = true;
+    try {
+      out.close();
+    } finally {
+      if (!committed) temp.delete();
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    if (count == 0) return;
+    byteBuffer.clear().limit(count);
+    writeFully(byteBuffer);
+    count = 0;
+  }
+
+  private void writeFully(ByteBuffer source) throws IOException {
+    while (source.hasRemaining()) {
+      channel.write(source);
+    }
+  }
+
+  private static boolean hasNioFiles() {
+    try {
+      Class.forName("java.nio.file.Files");
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Holds the references to {@code java.nio.file}, so they are only resolved where it exists.
+   */
+  private static final class NioFiles {
+
+    static void move(File source, File target) throws IOException {
+      try {
+        Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+  }
+}
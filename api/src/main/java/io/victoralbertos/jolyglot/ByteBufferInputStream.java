@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.InvalidMarkException;
+
+/**
+ * Reads the remaining bytes of a {@link ByteBuffer}, typically a memory mapped region, without
+ * copying them anywhere else than into the arrays supplied by the reader.
+ */
+class ByteBufferInputStream extends InputStream {
+  ByteBuffer buffer;
+
+  ByteBufferInputStream(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  @Override public int read() {
+    if (!hasRemaining()) return -1;
+    return buffer.get() & 0xff;
+  }
+
+  @Override public int read(byte[] b, int off, int len) {
+    if (len == 0) return 0;
+    if (!hasRemaining()) return -1;
+    int read = Math.min(len, buffer.remaining());
+    buffer.get(b, off, read);
+    return read;
+  }
+
+  @Override public long skip(long n) {
+    if (n <= 0 || !hasRemaining()) return 0;
+    int skipped = (int) Math.min(n, buffer.remaining());
+    buffer.position(buffer.position() + skipped);
+    return skipped;
+  }
+
+  @Override public int available() {
+    return hasRemaining() ? buffer.remaining() : 0;
+  }
+
+  @Override public boolean markSupported() {
+    return true;
+  }
+
+  @Override public void mark(int readLimit) {
+    if (buffer != null) buffer.mark();
+  }
+
+  @Override public void reset() throws IOException {
+    try {
+      if (buffer == null) throw new IOException("Stream closed");
+      buffer.reset();
+    } catch (InvalidMarkException e) {
+      throw new IOException("Stream not marked");
+    }
+  }
+
+  @Override public void close() {
+    buffer = null;
+  }
+
+  /**
+   * Returns whether there are bytes left to read, moving to the next buffer when the current one
+   * has been consumed.
+   */
+  private boolean hasRemaining() {
+    while (buffer != null && !buffer.hasRemaining()) {
+      buffer = nextBuffer();
+    }
+    return buffer != null;
+  }
+
+  /**
+   * Returns the buffer to continue reading from once the current one has been consumed, or null if
+   * there is none.
+   */
+  ByteBuffer nextBuffer() {
+    return null;
+  }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorates a {@link JolyglotGenerics} memoizing the objects bound from files, so reading the same
+ * file as the same type again costs a few file attribute lookups instead of reading and parsing
+ * it. Entries are keyed by the canonical path of the file and the type, and are bound again once
+ * the last modified time or the size of the file change. Files written through this instance are
+ * bound again as well, whatever their attributes.
+ *
+ * <p>Entries are evicted in least recently used order once there are more than
+ * {@code maxEntries} of them or their files add up to more than {@code maxBytes}. Concurrent calls
+ * missing the same entry share a single load, and failed loads are not cached.
+ *
+ * <p>Every call hitting an entry returns the same instance, so cached objects must not be
+ * modified. Changes made to a file within the resolution of its last modified time and keeping
+ * its size are not noticed, unless written through this instance.
+ */
+public final class CachingJolyglot implements JolyglotGenerics {
+  public static final int DEFAULT_MAX_ENTRIES = 256;
+  private final JolyglotGenerics jolyglot;
+  private final int maxEntries;
+  private final long maxBytes;
+  private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong loadFailures = new AtomicLong();
+
+  /**
+   * Caches up to {@link #DEFAULT_MAX_ENTRIES} entries, whatever the size of their files.
+   */
+  public CachingJolyglot(JolyglotGenerics jolyglot) {
+    this(jolyglot, DEFAULT_MAX_ENTRIES, Long.MAX_VALUE);
+  }
+
+  /**
+   * @param maxEntries the number of entries above which the least recently used are evicted.
+   * @param maxBytes the size of the cached files, in bytes, above which the least recently used
+   * entries are evicted. Files larger than it are bound but not kept.
+   */
+  public CachingJolyglot(JolyglotGenerics jolyglot, int maxEntries, long maxBytes) {
+    if (maxEntries < 1) throw new IllegalArgumentException("maxEntries < 1: " + maxEntries);
+    if (maxBytes < 0) throw new IllegalArgumentException("maxBytes < 0: " + maxBytes);
+    this.jolyglot = jolyglot;
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Returns a snapshot of the statistics of this cache.
+   */
+  public Stats stats() {
+    synchronized (entries) {
+      return new Stats(hits.get(), misses.get(), evictions.get(), loadFailures.get(),
+          entries.size(), bytes);
+    }
+  }
+
+  /**
+   * Discards the entries bound from {@code file}, whatever their type.
+   */
+  public void invalidate(File file) {
+    String path = canonicalPath(file);
+    synchronized (entries) {
+      Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<Key, Entry> entry = iterator.next();
+        if (entry.getKey().path.equals(path)) {
+          bytes -= entry.getValue().length;
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Discards every entry.
+   */
+  public void invalidateAll() {
+    synchronized (entries) {
+      entries.clear();
+      bytes = 0;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(File file, Class<T> classOfT) throws RuntimeException {
+    return fromJson(file, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(final File file, final Type typeOfT) throws RuntimeException {
+    Key key = new Key(canonicalPath(file), typeOfT);
+    long lastModified = file.lastModified();
+    long length = file.length();
+
+    if (length > maxBytes) {
+      // Keeping it would evict every entry, itself included.
+      synchronized (entries) {
+        Entry stale = entries.remove(key);
+        if (stale != null) bytes -= stale.length;
+      }
+      misses.incrementAndGet();
+      return jolyglot.fromJson(file, typeOfT);
+    }
+
+    Entry entry;
+    boolean load = false;
+    synchronized (entries) {
+      entry = entries.get(key);
+      if (entry == null || entry.lastModified != lastModified || entry.length != length) {
+        if (entry != null) bytes -= entry.length;
+        entry = new Entry(lastModified, length, new FutureTask<>(new Callable<Object>() {
+          @Override public Object call() {
+            return jolyglot.fromJson(file, typeOfT);
+          }
+        }));
+        entries.put(key, entry);
+        bytes += length;
+        load = true;
+        evict();
+      }
+    }
+
+    if (load) {
+      misses.incrementAndGet();
+      entry.value.run();
+    } else {
+      hits.incrementAndGet();
+    }
+    return value(key, entry, load);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T value(Key key, Entry entry, boolean loaded) {
+    try {
+      return (T) entry.value.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (loaded) {
+        loadFailures.incrementAndGet();
+        synchronized (entries) {
+          if (entries.get(key) == entry) {
+            entries.remove(key);
+            bytes -= entry.length;
+          }
+        }
+      }
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new RuntimeException(cause);
+    }
+  }
+
+  /**
+   * Evicts the least recently used entries until the bounds are honored. Must hold the lock.
+   */
+  private void evict() {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while ((entries.size() > maxEntries || bytes > maxBytes) && iterator.hasNext()) {
+      bytes -= iterator.next().length;
+      iterator.remove();
+      evictions.incrementAndGet();
+    }
+  }
+
+  private static String canonicalPath(File file) {
+    try {
+      return file.getCanonicalPath();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public String toJson(Object src) {
+    return jolyglot.toJson(src);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public String toJson(Object src, Type typeOfSrc) {
+    return jolyglot.toJson(src, typeOfSrc);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, OutputStream out) throws RuntimeException {
+    jolyglot.toJson(src, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, OutputStream out)
+      throws RuntimeException {
+    jolyglot.toJson(src, typeOfSrc, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Appendable out) throws RuntimeException {
+    jolyglot.toJson(src, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, Appendable out)
+      throws RuntimeException {
+    jolyglot.toJson(src, typeOfSrc, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, File file) throws RuntimeException {
+    try {
+      jolyglot.toJson(src, file);
+    } finally {
+      invalidate(file);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, File file) throws RuntimeException {
+    try {
+      jolyglot.toJson(src, typeOfSrc, file);
+    } finally {
+      invalidate(file);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(String json, Class<T> classOfT) throws RuntimeException {
+    return jolyglot.fromJson(json, classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(String json, Type type) throws RuntimeException {
+    return jolyglot.fromJson(json, type);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Class<T> classOfT) throws RuntimeException {
+    return jolyglot.fromJson(in, classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Type typeOfT) throws RuntimeException {
+    return jolyglot.fromJson(in, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Class<T> classOfT) throws RuntimeException {
+    return jolyglot.fromJson(json, classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Type typeOfT) throws RuntimeException {
+    return jolyglot.fromJson(json, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public GenericArrayType arrayOf(Type componentType) {
+    return jolyglot.arrayOf(componentType);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public ParameterizedType newParameterizedType(Type rawType, Type... typeArguments) {
+    return jolyglot.newParameterizedType(rawType, typeArguments);
+  }
+
+  private static final class Key {
+    final String path;
+    final Type type;
+
+    Key(String path, Type type) {
+      this.path = path;
+      this.type = type;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (!(o instanceof Key)) return false;
+      Key other = (Key) o;
+      return path.equals(other.path) && type.equals(other.type);
+    }
+
+    @Override public int hashCode() {
+      return 31 * path.hashCode() + type.hashCode();
+    }
+  }
+
+  /**
+   * The object bound from a file, or being bound, along with the attributes of the file read
+   * before binding it.
+   */
+  private static final class Entry {
+    final long lastModified;
+    final long length;
+    final FutureTask<Object> value;
+
+    Entry(long lastModified, long length, FutureTask<Object> value) {
+      this.lastModified = lastModified;
+      this.length = length;
+      this.value = value;
+    }
+  }
+
+  /**
+   * Statistics of a {@link CachingJolyglot}, as of the time they were taken.
+   */
+  public static final class Stats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long loadFailures;
+    private final int entries;
+    private final long bytes;
+
+    Stats(long hits, long misses, long evictions, long loadFailures, int entries, long bytes) {
+      this.hits = hits;
+      this.misses = misses;
+      this.evictions = evictions;
+      this.loadFailures = loadFailures;
+      this.entries = entries;
+      this.bytes = bytes;
+    }
+
+    /** Returns how many calls were served by an entry, loaded or being loaded. */
+    public long hits() {
+      return hits;
+    }
+
+    /** Returns how many calls loaded an entry. */
+    public long misses() {
+      return misses;
+    }
+
+    /** Returns the ratio of calls served by an entry, or 0 when there were none. */
+    public double hitRate() {
+      long calls = hits + misses;
+      return calls == 0 ? 0 : (double) hits / calls;
+    }
+
+    /** Returns how many entries were evicted to honor the bounds of the cache. */
+    public long evictions() {
+      return evictions;
+    }
+
+    /** Returns how many loads failed. */
+    public long loadFailures() {
+      return loadFailures;
+    }
+
+    /** Returns how many entries were cached. */
+    public int entries() {
+      return entries;
+    }
+
+    /** Returns the size of the files of the cached entries, in bytes. */
+    public long bytes() {
+      return bytes;
+    }
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Decorates a {@link JolyglotGenerics} compressing the Json it writes into streams and files with
+ * a {@link JolyglotCodec}, as it is serialized, and decompressing the Json it reads from streams,
+ * bytes and files, as it is parsed. The format of what is read is detected by its magic bytes, so
+ * compressed and uncompressed Json can be read alike, whatever the codec used for writing.
+ *
+ * <p>Json written to or read from a {@code String} or an {@link Appendable} is never compressed.
+ * Streams read ahead of the compressed data, and are left open as by every speaker.
+ */
+public final class CompressingJolyglot implements JolyglotGenerics {
+  private final JolyglotGenerics jolyglot;
+  private final JolyglotCodec codec;
+
+  /**
+   * Writes Json compressed with {@link JolyglotCodec#GZIP}.
+   */
+  public CompressingJolyglot(JolyglotGenerics jolyglot) {
+    this(jolyglot, JolyglotCodec.GZIP);
+  }
+
+  /**
+   * @param codec the codec compressing the Json written.
+   */
+  public CompressingJolyglot(JolyglotGenerics jolyglot, JolyglotCodec codec) {
+    if (!codec.isAvailable()) {
+      throw new IllegalArgumentException(codec + " is not available on the classpath");
+    }
+    this.jolyglot = jolyglot;
+    this.codec = codec;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public String toJson(Object src) {
+    return jolyglot.toJson(src);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public String toJson(Object src, Type typeOfSrc) {
+    return jolyglot.toJson(src, typeOfSrc);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, OutputStream out) throws RuntimeException {
+    toJson(src, null, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, OutputStream out)
+      throws RuntimeException {
+    OutputStream compressed = null;
+    try {
+      compressed = codec.compress(out);
+      write(src, typeOfSrc, compressed);
+      compressed.close();
+      compressed = null;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      close(compressed);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Appendable out) throws RuntimeException {
+    jolyglot.toJson(src, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, Appendable out)
+      throws RuntimeException {
+    jolyglot.toJson(src, typeOfSrc, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, File file) throws RuntimeException {
+    toJson(src, null, file);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, File file) throws RuntimeException {
+    AtomicFileOutputStream out = null;
+    OutputStream compressed = null;
+    try {
+      out = JolyglotFiles.create(file);
+      compressed = codec.compress(out);
+      write(src, typeOfSrc, compressed);
+      compressed.close();
+      compressed = null;
+      out.commit();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      close(compressed);
+      close(out);
+    }
+  }
+
+  private void write(Object src, Type typeOfSrc, OutputStream out) {
+    if (typeOfSrc == null) {
+      jolyglot.toJson(src, out);
+    } else {
+      jolyglot.toJson(src, typeOfSrc, out);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(String json, Class<T> classOfT) throws RuntimeException {
+    return jolyglot.fromJson(json, classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(String json, Type type) throws RuntimeException {
+    return jolyglot.fromJson(json, type);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(File file, Class<T> classOfT) throws RuntimeException {
+    return jolyglot.fromJson(file, classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(File file, Type typeOfT) throws RuntimeException {
+    return jolyglot.fromJson(file, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Class<T> classOfT) throws RuntimeException {
+    return fromJson(in, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Type typeOfT) throws RuntimeException {
+    InputStream decompressed = null;
+    try {
+      decompressed = JolyglotCodec.decompressing(new JolyglotCodec.NonClosingInputStream(in));
+      return jolyglot.fromJson(decompressed, typeOfT);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      close(decompressed);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Class<T> classOfT) throws RuntimeException {
+    return fromJson(json, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Type typeOfT) throws RuntimeException {
+    if (JolyglotCodec.detect(json, json.length) == JolyglotCodec.IDENTITY) {
+      return jolyglot.fromJson(json, typeOfT);
+    }
+    return fromJson(new ByteArrayInputStream(json), typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public GenericArrayType arrayOf(Type componentType) {
+    return jolyglot.arrayOf(componentType);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public ParameterizedType newParameterizedType(Type rawType, Type... typeArguments) {
+    return jolyglot.newParameterizedType(rawType, typeArguments);
+  }
+
+  private static void close(Closeable closeable) {
+    if (closeable != null) {
+      try {
+        closeable.close();
+      } catch (IOException i) {}
+    }
+  }
+}
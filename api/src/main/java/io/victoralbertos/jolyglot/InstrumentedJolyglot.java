@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Decorates a {@link Jolyglot} reporting the latency, payload size and outcome of every operation
+ * to a {@link JolyglotListener}. The overhead per operation is two {@link System#nanoTime()} calls
+ * plus whatever the listener costs, so it can stay enabled in production.
+ */
+public class InstrumentedJolyglot implements Jolyglot {
+  private final Jolyglot jolyglot;
+  private final JolyglotListener listener;
+
+  public InstrumentedJolyglot(Jolyglot jolyglot, JolyglotListener listener) {
+    this.jolyglot = jolyglot;
+    this.listener = listener;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public String toJson(Object src) {
+    Type type = typeOf(src);
+    long start = System.nanoTime();
+    String json;
+    try {
+      json = jolyglot.toJson(src);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.TO_JSON_STRING, type, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.TO_JSON_STRING, type, start, json.length());
+    return json;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, OutputStream out) throws RuntimeException {
+    Type type = typeOf(src);
+    CountingOutputStream countingOut = new CountingOutputStream(out);
+    long start = System.nanoTime();
+    try {
+      jolyglot.toJson(src, countingOut);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.TO_JSON_STREAM, type, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.TO_JSON_STREAM, type, start, countingOut.count());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Appendable out) throws RuntimeException {
+    Type type = typeOf(src);
+    AppendableWriter countingOut = new AppendableWriter(out);
+    long start = System.nanoTime();
+    try {
+      jolyglot.toJson(src, countingOut);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.TO_JSON_APPENDABLE, type, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.TO_JSON_APPENDABLE, type, start, countingOut.count());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, File file) throws RuntimeException {
+    Type type = typeOf(src);
+    long start = System.nanoTime();
+    try {
+      jolyglot.toJson(src, file);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.TO_JSON_FILE, type, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.TO_JSON_FILE, type, start, file.length());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(String json, Class<T> classOfT) throws RuntimeException {
+    long start = System.nanoTime();
+    T object;
+    try {
+      object = jolyglot.fromJson(json, classOfT);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.FROM_JSON_STRING, classOfT, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.FROM_JSON_STRING, classOfT, start, length(json));
+    return object;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(File file, Class<T> classOfT) throws RuntimeException {
+    long start = System.nanoTime();
+    T object;
+    try {
+      object = jolyglot.fromJson(file, classOfT);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.FROM_JSON_FILE, classOfT, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.FROM_JSON_FILE, classOfT, start, file.length());
+    return object;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Class<T> classOfT) throws RuntimeException {
+    CountingInputStream countingIn = new CountingInputStream(in);
+    long start = System.nanoTime();
+    T object;
+    try {
+      object = jolyglot.fromJson(countingIn, classOfT);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.FROM_JSON_STREAM, classOfT, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.FROM_JSON_STREAM, classOfT, start, countingIn.count());
+    return object;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Class<T> classOfT) throws RuntimeException {
+    long start = System.nanoTime();
+    T object;
+    try {
+      object = jolyglot.fromJson(json, classOfT);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.FROM_JSON_BYTES, classOfT, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.FROM_JSON_BYTES, classOfT, start, json.length);
+    return object;
+  }
+
+  void succeeded(JolyglotOperation operation, Type type, long start, long payloadSize) {
+    listener.onSuccess(operation, type, System.nanoTime() - start, payloadSize);
+  }
+
+  void failed(JolyglotOperation operation, Type type, long start, Throwable error) {
+    listener.onFailure(operation, type, System.nanoTime() - start, error);
+  }
+
+  static Type typeOf(Object src) {
+    return src == null ? Object.class : src.getClass();
+  }
+
+  /**
+   * Returns the length of {@code json}, or 0 if it is null, as some speakers read null from it.
+   */
+  static long length(String json) {
+    return json == null ? 0 : json.length();
+  }
+}
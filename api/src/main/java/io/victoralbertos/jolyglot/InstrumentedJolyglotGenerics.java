@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * {@link InstrumentedJolyglot} for speakers supporting generic types. Operations on a supplied
+ * {@link Type} are reported against that type.
+ */
+public class InstrumentedJolyglotGenerics extends InstrumentedJolyglot implements JolyglotGenerics {
+  private final JolyglotGenerics jolyglot;
+
+  public InstrumentedJolyglotGenerics(JolyglotGenerics jolyglot, JolyglotListener listener) {
+    super(jolyglot, listener);
+    this.jolyglot = jolyglot;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public String toJson(Object src, Type typeOfSrc) {
+    long start = System.nanoTime();
+    String json;
+    try {
+      json = jolyglot.toJson(src, typeOfSrc);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.TO_JSON_STRING, typeOfSrc, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.TO_JSON_STRING, typeOfSrc, start, json.length());
+    return json;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, OutputStream out)
+      throws RuntimeException {
+    CountingOutputStream countingOut = new CountingOutputStream(out);
+    long start = System.nanoTime();
+    try {
+      jolyglot.toJson(src, typeOfSrc, countingOut);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.TO_JSON_STREAM, typeOfSrc, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.TO_JSON_STREAM, typeOfSrc, start, countingOut.count());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, Appendable out)
+      throws RuntimeException {
+    AppendableWriter countingOut = new AppendableWriter(out);
+    long start = System.nanoTime();
+    try {
+      jolyglot.toJson(src, typeOfSrc, countingOut);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.TO_JSON_APPENDABLE, typeOfSrc, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.TO_JSON_APPENDABLE, typeOfSrc, start, countingOut.count());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, File file) throws RuntimeException {
+    long start = System.nanoTime();
+    try {
+      jolyglot.toJson(src, typeOfSrc, file);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.TO_JSON_FILE, typeOfSrc, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.TO_JSON_FILE, typeOfSrc, start, file.length());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(String json, Type typeOfT) throws RuntimeException {
+    long start = System.nanoTime();
+    T object;
+    try {
+      object = jolyglot.fromJson(json, typeOfT);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.FROM_JSON_STRING, typeOfT, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.FROM_JSON_STRING, typeOfT, start, length(json));
+    return object;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(File file, Type typeOfT) throws RuntimeException {
+    long start = System.nanoTime();
+    T object;
+    try {
+      object = jolyglot.fromJson(file, typeOfT);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.FROM_JSON_FILE, typeOfT, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.FROM_JSON_FILE, typeOfT, start, file.length());
+    return object;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Type typeOfT) throws RuntimeException {
+    CountingInputStream countingIn = new CountingInputStream(in);
+    long start = System.nanoTime();
+    T object;
+    try {
+      object = jolyglot.fromJson(countingIn, typeOfT);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.FROM_JSON_STREAM, typeOfT, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.FROM_JSON_STREAM, typeOfT, start, countingIn.count());
+    return object;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Type typeOfT) throws RuntimeException {
+    long start = System.nanoTime();
+    T object;
+    try {
+      object = jolyglot.fromJson(json, typeOfT);
+    } catch (RuntimeException | Error e) {
+      failed(JolyglotOperation.FROM_JSON_BYTES, typeOfT, start, e);
+      throw e;
+    }
+    succeeded(JolyglotOperation.FROM_JSON_BYTES, typeOfT, start, json.length);
+    return object;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public GenericArrayType arrayOf(Type componentType) {
+    return jolyglot.arrayOf(componentType);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public ParameterizedType newParameterizedType(Type rawType, Type... typeArguments) {
+    return jolyglot.newParameterizedType(rawType, typeArguments);
+  }
+}
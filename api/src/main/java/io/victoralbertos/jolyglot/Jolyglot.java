@@ -17,6 +17,8 @@
 package io.victoralbertos.jolyglot;
 
 import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
 
 /**
@@ -34,6 +36,38 @@ public interface Jolyglot {
    */
   String toJson(Object src);
 
+  /**
+   * This method serializes the specified object into its equivalent Json representation, writing
+   * it as UTF-8 encoded bytes to the specified stream without building an intermediate String.
+   * This method should be used when the specified object is not a generic type. The stream is
+   * flushed but not closed.
+   * @param src the object for which Json representation is to be created.
+   * @param out the stream to which the Json representation of {@code src} is written.
+   */
+  void toJson(Object src, OutputStream out) throws RuntimeException;
+
+  /**
+   * This method serializes the specified object into its equivalent Json representation, appending
+   * it to the specified {@link Appendable}, such as a {@link java.io.Writer} or a
+   * {@link StringBuilder}, without building an intermediate String. This method should be used
+   * when the specified object is not a generic type. If {@code out} is {@link java.io.Flushable}
+   * it is flushed, it is never closed.
+   * @param src the object for which Json representation is to be created.
+   * @param out the appendable to which the Json representation of {@code src} is appended.
+   */
+  void toJson(Object src, Appendable out) throws RuntimeException;
+
+  /**
+   * This method serializes the specified object into its equivalent Json representation, writing
+   * it as UTF-8 encoded bytes to the specified file. The Json is written to a temporary file which
+   * replaces {@code file} once complete, so {@code file} is never left half written. This method
+   * should be used when the specified object is not a generic type.
+   * @param src the object for which Json representation is to be created.
+   * @param file the file to which the Json representation of {@code src} is written.
+   * @see JolyglotFiles#FORCE_PROPERTY
+   */
+  void toJson(Object src, File file) throws RuntimeException;
+
   /**
    * This method deserializes the specified Json into an object of the specified class. It is not
    * suitable to use if the specified class is a generic type since it will not have the generic
@@ -65,4 +99,27 @@ public interface Jolyglot {
    * @return an object of type T from the string.
    */
   <T> T fromJson(File file, Class<T> classOfT) throws RuntimeException;
+
+  /**
+   * This method deserializes the UTF-8 encoded Json read from the specified stream into an object of
+   * the specified class, without building an intermediate String. It is not suitable to use if the
+   * specified class is a generic type, for those cases invoke
+   * {@link JolyglotGenerics#fromJson(InputStream, Type)}. The stream is not closed.
+   * @param <T> the type of the desired object
+   * @param in the stream producing the Json from which the object is to be deserialized.
+   * @param classOfT the class of T
+   * @return an object of type T from the stream.
+   */
+  <T> T fromJson(InputStream in, Class<T> classOfT) throws RuntimeException;
+
+  /**
+   * This method deserializes the specified UTF-8 encoded Json into an object of the specified
+   * class, without building an intermediate String. It is not suitable to use if the specified
+   * class is a generic type, for those cases invoke {@link JolyglotGenerics#fromJson(byte[], Type)}.
+   * @param <T> the type of the desired object
+   * @param json the UTF-8 encoded bytes from which the object is to be deserialized
+   * @param classOfT the class of T
+   * @return an object of type T from the bytes.
+   */
+  <T> T fromJson(byte[] json, Class<T> classOfT) throws RuntimeException;
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Serialization and deserialization of many values of the same type at once. The adapter, or its
+ * equivalent, bound to the type is resolved once per batch instead of once per value, and the
+ * writers and buffers are reused for every value of the batch. Large batches can be split across
+ * threads with {@link ParallelJolyglotBatch}.
+ */
+public interface JolyglotBatch {
+
+  /**
+   * Serializes every value of {@code srcs} as {@code typeOfSrc}.
+   * @param srcs the values to serialize.
+   * @param typeOfSrc the type of every value.
+   * @return the Json of every value, in the iteration order of {@code srcs}.
+   */
+  List<String> toJsonAll(Collection<?> srcs, Type typeOfSrc) throws RuntimeException;
+
+  /**
+   * Serializes every value of {@code srcs} as {@code typeOfSrc} into UTF-8 encoded bytes.
+   * @param srcs the values to serialize.
+   * @param typeOfSrc the type of every value.
+   * @return the UTF-8 encoded Json of every value, in the iteration order of {@code srcs}.
+   */
+  List<byte[]> toJsonBytesAll(Collection<?> srcs, Type typeOfSrc) throws RuntimeException;
+
+  /**
+   * Deserializes every Json of {@code jsons} as {@code typeOfT}.
+   * @param <T> the type of the values
+   * @param jsons the Json of every value.
+   * @param typeOfT the type of every value.
+   * @return the value of every Json, in the order of {@code jsons}.
+   */
+  <T> List<T> fromJsonAll(List<String> jsons, Type typeOfT) throws RuntimeException;
+
+  /**
+   * Deserializes every UTF-8 encoded Json of {@code jsons} as {@code typeOfT}.
+   * @param <T> the type of the values
+   * @param jsons the UTF-8 encoded Json of every value.
+   * @param typeOfT the type of every value.
+   * @return the value of every Json, in the order of {@code jsons}.
+   */
+  <T> List<T> fromJsonBytesAll(List<byte[]> jsons, Type typeOfT) throws RuntimeException;
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.IOException;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+/**
+ * Reads and writes a {@link JolyglotModel} class field by field through the streaming api of a
+ * json provider, without reflection. Bindings are generated by the {@code processor} module, and
+ * bridged into every provider by its factory: {@code JolyglotModelTypeAdapterFactory} for Gson,
+ * {@code JolyglotModelModule} for Jackson and {@code JolyglotModelAdapterFactory} for Moshi.
+ *
+ * <p>Fields of types other than primitives, their boxes and strings are delegated to the adapter
+ * of the provider for their type, as declared by {@link #types()} and referred to by its index.
+ * @param <T> the type of the model.
+ */
+public abstract class JolyglotBinding<T> {
+  static final String SUFFIX = "_JolyglotBinding";
+  private final Type[] types;
+
+  protected JolyglotBinding(Type... types) {
+    this.types = types;
+  }
+
+  /**
+   * Returns the binding generated for {@code type}, or null if it is not annotated with
+   * {@link JolyglotModel}. Every call looks it up and creates it again, providers are expected to
+   * keep the adapters they build from it, as they already do.
+   * @throws IllegalStateException if {@code type} is annotated but its binding was not generated.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> JolyglotBinding<T> of(Class<T> type) {
+    if (!type.isAnnotationPresent(JolyglotModel.class)) return null;
+    try {
+      Class<?> binding = Class.forName(type.getName() + SUFFIX, true, type.getClassLoader());
+      return (JolyglotBinding<T>) binding.newInstance();
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("No binding was generated for " + type.getName()
+          + ", add the Jolyglot processor to the annotation processors of the build", e);
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Returns the types of the fields delegated to the adapters of the provider, in the order of
+   * their indexes.
+   */
+  public final Type[] types() {
+    return types.clone();
+  }
+
+  /**
+   * Reads a model from the object {@code reader} is positioned at. Null values are handled by the
+   * provider before calling it.
+   */
+  public abstract T read(Reader reader) throws IOException;
+
+  /**
+   * Writes {@code value} as an object. Null values are handled by the provider before calling it.
+   */
+  public abstract void write(Writer writer, T value) throws IOException;
+
+  /**
+   * Returns the parameterized type {@code rawType<typeArguments>}, for generated bindings.
+   */
+  protected static Type parameterized(Class<?> rawType, Type... typeArguments) {
+    return new ParameterizedTypeImpl(rawType, typeArguments);
+  }
+
+  /**
+   * Returns the array type of {@code componentType}, for generated bindings.
+   */
+  protected static Type arrayOf(Type componentType) {
+    return new GenericArrayTypeImpl(componentType);
+  }
+
+  /**
+   * Returns {@code value} as a short, for generated bindings.
+   * @throws NumberFormatException if it is out of the range of short.
+   */
+  protected static short toShort(int value) {
+    if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+      throw new NumberFormatException("Expected a short but was " + value);
+    }
+    return (short) value;
+  }
+
+  /**
+   * Returns {@code value} as a byte, for generated bindings.
+   * @throws NumberFormatException if it is out of the range of byte.
+   */
+  protected static byte toByte(int value) {
+    if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+      throw new NumberFormatException("Expected a byte but was " + value);
+    }
+    return (byte) value;
+  }
+
+  /**
+   * Returns the only character of {@code value}, for generated bindings.
+   * @throws IllegalStateException if it is not exactly one character long.
+   */
+  protected static char toChar(String value) {
+    if (value.length() != 1) {
+      throw new IllegalStateException("Expected a char but was \"" + value + "\"");
+    }
+    return value.charAt(0);
+  }
+
+  /**
+   * The streaming reader of a provider, as used by generated bindings.
+   */
+  public interface Reader {
+    void beginObject() throws IOException;
+
+    void endObject() throws IOException;
+
+    /**
+     * Returns whether the current object has more members.
+     */
+    boolean hasNext() throws IOException;
+
+    String nextName() throws IOException;
+
+    /**
+     * Consumes the next value if it is null.
+     * @return whether the next value was null.
+     */
+    boolean nextNull() throws IOException;
+
+    String nextString() throws IOException;
+
+    boolean nextBoolean() throws IOException;
+
+    int nextInt() throws IOException;
+
+    long nextLong() throws IOException;
+
+    double nextDouble() throws IOException;
+
+    void skipValue() throws IOException;
+
+    /**
+     * Reads the next value with the adapter of the provider for {@code types()[type]}.
+     */
+    <V> V read(int type) throws IOException;
+  }
+
+  /**
+   * The streaming writer of a provider, as used by generated bindings.
+   */
+  public interface Writer {
+    void beginObject() throws IOException;
+
+    void endObject() throws IOException;
+
+    void name(String name) throws IOException;
+
+    void nullValue() throws IOException;
+
+    /**
+     * Writes {@code value}, or null if it is null.
+     */
+    void value(String value) throws IOException;
+
+    void value(boolean value) throws IOException;
+
+    void value(long value) throws IOException;
+
+    void value(float value) throws IOException;
+
+    void value(double value) throws IOException;
+
+    /**
+     * Writes {@code value} with the adapter of the provider for {@code types()[type]}, or null if
+     * it is null.
+     */
+    void write(int type, Object value) throws IOException;
+  }
+
+  private static final class ParameterizedTypeImpl implements ParameterizedType {
+    private final Class<?> rawType;
+    private final Type[] typeArguments;
+
+    ParameterizedTypeImpl(Class<?> rawType, Type[] typeArguments) {
+      this.rawType = rawType;
+      this.typeArguments = typeArguments.clone();
+    }
+
+    @Override public Type[] getActualTypeArguments() {
+      return typeArguments.clone();
+    }
+
+    @Override public Type getRawType() {
+      return rawType;
+    }
+
+    @Override public Type getOwnerType() {
+      return rawType.getDeclaringClass();
+    }
+
+    @Override public boolean equals(Object other) {
+      if (!(other instanceof ParameterizedType)) return false;
+      ParameterizedType that = (ParameterizedType) other;
+      Type ownerType = getOwnerType();
+      return rawType.equals(that.getRawType())
+          && (ownerType == null ? that.getOwnerType() == null
+              : ownerType.equals(that.getOwnerType()))
+          && Arrays.equals(typeArguments, that.getActualTypeArguments());
+    }
+
+    @Override public int hashCode() {
+      Type ownerType = getOwnerType();
+      return Arrays.hashCode(typeArguments) ^ rawType.hashCode()
+          ^ (ownerType == null ? 0 : ownerType.hashCode());
+    }
+
+    @Override public String toString() {
+      StringBuilder builder = new StringBuilder(rawType.getName()).append('<');
+      for (int i = 0; i < typeArguments.length; i++) {
+        if (i > 0) builder.append(", ");
+        builder.append(typeArguments[i] instanceof Class
+            ? ((Class<?>) typeArguments[i]).getName() : typeArguments[i].toString());
+      }
+      return builder.append('>').toString();
+    }
+  }
+
+  private static final class GenericArrayTypeImpl implements GenericArrayType {
+    private final Type componentType;
+
+    GenericArrayTypeImpl(Type componentType) {
+      this.componentType = componentType;
+    }
+
+    @Override public Type getGenericComponentType() {
+      return componentType;
+    }
+
+    @Override public boolean equals(Object other) {
+      return other instanceof GenericArrayType
+          && componentType.equals(((GenericArrayType) other).getGenericComponentType());
+    }
+
+    @Override public int hashCode() {
+      return componentType.hashCode();
+    }
+
+    @Override public String toString() {
+      return componentType + "[]";
+    }
+  }
+}
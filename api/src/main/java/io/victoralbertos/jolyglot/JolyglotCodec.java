@@ -0,0 +1,218 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression formats Json can be read from and written to, streaming through the parsers and
+ * writers of the speakers instead of through temporary files. The format of compressed Json is
+ * detected by its magic bytes, so every speaker reads compressed files transparently.
+ *
+ * <p>{@link #ZSTD} relies on <a href="https://github.com/luben/zstd-jni">zstd-jni</a>, which is
+ * loaded reflectively and only needs to be on the classpath when Zstandard is used.
+ */
+public enum JolyglotCodec {
+  /**
+   * Uncompressed Json.
+   */
+  IDENTITY {
+    @Override public InputStream decompress(InputStream in) {
+      return in;
+    }
+
+    @Override public OutputStream compress(OutputStream out) {
+      return new NonClosingOutputStream(out);
+    }
+
+    @Override boolean matches(byte[] header, int length) {
+      return false;
+    }
+  },
+
+  /**
+   * Gzip, as written by {@code gzip} or {@link GZIPOutputStream}.
+   */
+  GZIP {
+    @Override public InputStream decompress(InputStream in) throws IOException {
+      return new GZIPInputStream(in, BUFFER_SIZE);
+    }
+
+    @Override public OutputStream compress(OutputStream out) throws IOException {
+      return new GZIPOutputStream(new NonClosingOutputStream(out), BUFFER_SIZE);
+    }
+
+    @Override boolean matches(byte[] header, int length) {
+      return length >= 2 && header[0] == (byte) 0x1f && header[1] == (byte) 0x8b;
+    }
+  },
+
+  /**
+   * Zstandard, as written by {@code zstd}. Requires zstd-jni.
+   */
+  ZSTD {
+    @Override public InputStream decompress(InputStream in) throws IOException {
+      return (InputStream) Zstd.newInstance(Zstd.INPUT, in);
+    }
+
+    @Override public OutputStream compress(OutputStream out) throws IOException {
+      return (OutputStream) Zstd.newInstance(Zstd.OUTPUT, new NonClosingOutputStream(out));
+    }
+
+    @Override public boolean isAvailable() {
+      return Zstd.INPUT != null && Zstd.OUTPUT != null;
+    }
+
+    @Override boolean matches(byte[] header, int length) {
+      return length >= 4 && header[0] == (byte) 0x28 && header[1] == (byte) 0xb5
+          && header[2] == (byte) 0x2f && header[3] == (byte) 0xfd;
+    }
+  };
+
+  static final int BUFFER_SIZE = 64 * 1024;
+  private static final int HEADER_SIZE = 4;
+
+  /**
+   * Returns a stream decompressing {@code in}. Closing it closes {@code in}.
+   */
+  public abstract InputStream decompress(InputStream in) throws IOException;
+
+  /**
+   * Returns a stream compressing into {@code out}. Closing it writes the end of the compressed
+   * data and flushes {@code out}, but leaves it open.
+   */
+  public abstract OutputStream compress(OutputStream out) throws IOException;
+
+  /**
+   * Returns whether the libraries this codec relies on are available.
+   */
+  public boolean isAvailable() {
+    return true;
+  }
+
+  abstract boolean matches(byte[] header, int length);
+
+  /**
+   * Returns the codec whose magic bytes start {@code header}, or {@link #IDENTITY} if none does.
+   */
+  public static JolyglotCodec detect(byte[] header, int length) {
+    for (JolyglotCodec codec : values()) {
+      if (codec.matches(header, length)) return codec;
+    }
+    return IDENTITY;
+  }
+
+  /**
+   * Returns a stream reading {@code in} decompressed with the codec detected from its first
+   * bytes, which are read ahead. Closing it closes {@code in}.
+   */
+  public static InputStream decompressing(InputStream in) throws IOException {
+    if (!in.markSupported()) in = new BufferedInputStream(in, HEADER_SIZE);
+    byte[] header = new byte[HEADER_SIZE];
+    in.mark(HEADER_SIZE);
+    int length = 0;
+    int read;
+    while (length < HEADER_SIZE && (read = in.read(header, length, HEADER_SIZE - length)) != -1) {
+      length += read;
+    }
+    in.reset();
+    return detect(header, length).decompress(in);
+  }
+
+  /**
+   * Detects the codec of the file read by {@code channel} from its first bytes, without moving
+   * the position of the channel.
+   */
+  static JolyglotCodec detect(FileChannel channel) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining() && channel.read(header, header.position()) != -1) {
+    }
+    return detect(header.array(), header.position());
+  }
+
+  private static final class Zstd {
+    static final Constructor<?> INPUT =
+        constructor("com.github.luben.zstd.ZstdInputStream", InputStream.class);
+    static final Constructor<?> OUTPUT =
+        constructor("com.github.luben.zstd.ZstdOutputStream", OutputStream.class);
+
+    private static Constructor<?> constructor(String className, Class<?> parameter) {
+      try {
+        return Class.forName(className).getConstructor(parameter);
+      } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+        return null;
+      }
+    }
+
+    static Object newInstance(Constructor<?> constructor, Object stream) throws IOException {
+      if (constructor == null) {
+        throw new IllegalStateException("Zstandard requires zstd-jni on the classpath");
+      }
+      try {
+        return constructor.newInstance(stream);
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) throw (IOException) cause;
+        if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+        if (cause instanceof Error) throw (Error) cause;
+        throw new IOException(cause);
+      } catch (InstantiationException | IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  /**
+   * Leaves the wrapped stream open when closed, only flushing it.
+   */
+  static final class NonClosingOutputStream extends FilterOutputStream {
+    NonClosingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override public void close() throws IOException {
+      out.flush();
+    }
+  }
+
+  /**
+   * Leaves the wrapped stream open when closed.
+   */
+  static final class NonClosingInputStream extends FilterInputStream {
+    NonClosingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override public void close() {
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * File access shared by every speaker. Files are read through a {@link FileChannel} as raw bytes,
+ * which the speakers feed straight into their byte-level UTF-8 parsers. Files smaller than the map
+ * threshold are read in one pass into a byte array, larger ones are memory mapped so they are
+ * paged in by the OS instead of copied through intermediate buffers.
+ *
+ * <p>The threshold defaults to 1 MB and can be configured with the
+ * {@value #MAP_THRESHOLD_PROPERTY} system property, in bytes.
+ *
+ * <p>Compressed files are detected by their magic bytes and decompressed as they are read, see
+ * {@link JolyglotCodec}.
+ *
+ * <p>Files are written atomically through an {@link AtomicFileOutputStream}. Setting the
+ * {@value #FORCE_PROPERTY} system property to {@code true} forces their content to the storage
+ * device before they replace the previous file, trading throughput for durability on crashes.
+ */
+public final class JolyglotFiles {
+  public static final String MAP_THRESHOLD_PROPERTY = "io.victoralbertos.jolyglot.mapThreshold";
+  public static final String FORCE_PROPERTY = "io.victoralbertos.jolyglot.force";
+  static final long DEFAULT_MAP_THRESHOLD = 1024 * 1024;
+  static final int WRITE_BUFFER_SIZE = 64 * 1024;
+  // Some VMs reserve header words in arrays, so larger ones may fail to be allocated.
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+  private static final long MAP_THRESHOLD = Long.getLong(MAP_THRESHOLD_PROPERTY,
+      DEFAULT_MAP_THRESHOLD);
+  private static final boolean FORCE = Boolean.getBoolean(FORCE_PROPERTY);
+
+  private JolyglotFiles() {
+  }
+
+  /**
+   * Opens {@code file} for reading, memory mapping it if it is at least as large as the configured
+   * map threshold, and decompressing it if compressed. The caller is responsible for closing the
+   * returned stream.
+   */
+  public static InputStream open(File file) throws IOException {
+    return open(file, MAP_THRESHOLD);
+  }
+
+  /**
+   * Opens {@code file} for reading, memory mapping it if it is at least {@code mapThreshold} bytes
+   * long or too large for a byte array, and decompressing it if compressed. The caller is
+   * responsible for closing the returned stream.
+   */
+  public static InputStream open(File file, long mapThreshold) throws IOException {
+    FileInputStream fileInputStream = new FileInputStream(file);
+    try {
+      FileChannel channel = fileInputStream.getChannel();
+      long size = channel.size();
+      JolyglotCodec codec = JolyglotCodec.detect(channel);
+      if (size >= mapThreshold || size > MAX_ARRAY_SIZE) {
+        return codec.decompress(new MappedFileInputStream(channel, size));
+      } else {
+        return codec.decompress(new ByteArrayInputStream(readFully(channel, (int) size)));
+      }
+    } finally {
+      fileInputStream.close();
+    }
+  }
+
+  /**
+   * Creates a stream replacing {@code file} once committed, forcing its content to the storage
+   * device first if the {@value #FORCE_PROPERTY} system property is set. The caller is
+   * responsible for closing the returned stream, which discards it unless committed.
+   */
+  public static AtomicFileOutputStream create(File file) throws IOException {
+    return create(file, FORCE);
+  }
+
+  /**
+   * Creates a stream replacing {@code file} once committed, forcing its content to the storage
+   * device first if {@code force} is set. The caller is responsible for closing the returned
+   * stream, which discards it unless committed.
+   */
+  public static AtomicFileOutputStream create(File file, boolean force) throws IOException {
+    return new AtomicFileOutputStream(file, force, WRITE_BUFFER_SIZE);
+  }
+
+  private static byte[] readFully(FileChannel channel, int size) throws IOException {
+    byte[] bytes = new byte[size];
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) == -1) throw new EOFException();
+    }
+    return bytes;
+  }
+}
@@ -17,6 +17,8 @@
 package io.victoralbertos.jolyglot;
 
 import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -37,6 +39,41 @@ public interface JolyglotGenerics extends Jolyglot {
    */
   String toJson(Object src, Type typeOfSrc);
 
+  /**
+   * This method serializes the specified object, including those of generic types, into its
+   * equivalent Json representation, writing it as UTF-8 encoded bytes to the specified stream. For
+   * non-generic objects, use {@link #toJson(Object, OutputStream)} instead. The stream is flushed
+   * but not closed.
+   * @param src the object for which JSON representation is to be created
+   * @param typeOfSrc The specific genericized type of src.
+   * @param out the stream to which the Json representation of {@code src} is written.
+   */
+  void toJson(Object src, Type typeOfSrc, OutputStream out) throws RuntimeException;
+
+  /**
+   * This method serializes the specified object, including those of generic types, into its
+   * equivalent Json representation, appending it to the specified {@link Appendable} without
+   * building an intermediate String. For non-generic objects, use
+   * {@link #toJson(Object, Appendable)} instead. If {@code out} is {@link java.io.Flushable} it is
+   * flushed, it is never closed.
+   * @param src the object for which JSON representation is to be created
+   * @param typeOfSrc The specific genericized type of src.
+   * @param out the appendable to which the Json representation of {@code src} is appended.
+   */
+  void toJson(Object src, Type typeOfSrc, Appendable out) throws RuntimeException;
+
+  /**
+   * This method serializes the specified object, including those of generic types, into its
+   * equivalent Json representation, writing it as UTF-8 encoded bytes to the specified file. The
+   * Json is written to a temporary file which replaces {@code file} once complete, so {@code file}
+   * is never left half written. For non-generic objects, use {@link #toJson(Object, File)} instead.
+   * @param src the object for which JSON representation is to be created
+   * @param typeOfSrc The specific genericized type of src.
+   * @param file the file to which the Json representation of {@code src} is written.
+   * @see JolyglotFiles#FORCE_PROPERTY
+   */
+  void toJson(Object src, Type typeOfSrc, File file) throws RuntimeException;
+
   /**
    * This method deserializes the specified Json into an object of the specified type. This method
    * is useful if the specified object is a generic type. For non-generic objects, use
@@ -57,6 +94,28 @@ public interface JolyglotGenerics extends Jolyglot {
    */
   <T> T fromJson(File file, Type typeOfT) throws RuntimeException;
 
+  /**
+   * This method deserializes the UTF-8 encoded Json read from the specified stream into an object of
+   * the specified type. This method is useful if the specified object is a generic type. For
+   * non-generic objects, use {@link #fromJson(InputStream, Class)} instead. The stream is not closed.
+   * @param <T> the type of the desired object
+   * @param in the stream producing Json from which the object is to be deserialized
+   * @param typeOfT The specific genericized type of src.
+   * @return an object of type T from the json.
+   */
+  <T> T fromJson(InputStream in, Type typeOfT) throws RuntimeException;
+
+  /**
+   * This method deserializes the specified UTF-8 encoded Json into an object of the specified type.
+   * This method is useful if the specified object is a generic type. For non-generic objects, use
+   * {@link #fromJson(byte[], Class)} instead.
+   * @param <T> the type of the desired object
+   * @param json the UTF-8 encoded bytes from which the object is to be deserialized
+   * @param typeOfT The specific genericized type of src.
+   * @return an object of type T from the json.
+   */
+  <T> T fromJson(byte[] json, Type typeOfT) throws RuntimeException;
+
   /** Returns an array type whose elements are all instances of {@code componentType}. */
   GenericArrayType arrayOf(Type componentType);
 
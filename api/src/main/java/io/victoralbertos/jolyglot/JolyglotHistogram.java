@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A log-linear histogram of non negative long values in the style of HdrHistogram. Every power of
+ * two range is split in 32 linear buckets, so any recorded value is reported with a relative
+ * error below 3.2% over the full long range, using a fixed 15 KB footprint.
+ *
+ * <p>Recording is lock-free and wait-free for the counts, a couple of atomic increments, so it can
+ * be left enabled in hot paths. Reads are not atomic snapshots: percentiles computed while values
+ * are being recorded may miss the latest of them.
+ */
+public final class JolyglotHistogram {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+  private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) << SUB_BUCKET_BITS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records {@code value}, negative values are recorded as zero.
+   */
+  public void record(long value) {
+    if (value < 0) value = 0;
+    counts.incrementAndGet(indexOf(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+
+    long currentMax = max.get();
+    while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+      currentMax = max.get();
+    }
+  }
+
+  /** Returns how many values have been recorded. */
+  public long count() {
+    return count.get();
+  }
+
+  /** Returns the sum of every recorded value. */
+  public long sum() {
+    return sum.get();
+  }
+
+  /** Returns the highest recorded value, or zero if none has been recorded. */
+  public long max() {
+    return max.get();
+  }
+
+  /** Returns the arithmetic mean of the recorded values, or zero if none has been recorded. */
+  public double mean() {
+    long count = this.count.get();
+    return count == 0 ? 0 : (double) sum.get() / count;
+  }
+
+  /**
+   * Returns the value below which {@code percentile} percent of the recorded values fall, reported
+   * as the highest value equivalent to it within the precision of the histogram.
+   * @param percentile a number between 0 and 100.
+   */
+  public long valueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+    }
+
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      total += counts.get(i);
+    }
+    if (total == 0) return 0;
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) return Math.min(highestEquivalentValue(i), max.get());
+    }
+    return max.get();
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) return (int) value;
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return ((shift + 1) << SUB_BUCKET_BITS) | (int) ((value >>> shift) & SUB_BUCKET_MASK);
+  }
+
+  static long lowestEquivalentValue(int index) {
+    int bucket = index >>> SUB_BUCKET_BITS;
+    long subBucket = index & SUB_BUCKET_MASK;
+    if (bucket == 0) return subBucket;
+    return (SUB_BUCKET_COUNT + subBucket) << (bucket - 1);
+  }
+
+  static long highestEquivalentValue(int index) {
+    int bucket = index >>> SUB_BUCKET_BITS;
+    if (bucket == 0) return index;
+    return lowestEquivalentValue(index) + (1L << (bucket - 1)) - 1;
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * Iterates the elements of a Json source one at a time, binding each of them only when it is
+ * requested. Failures reading the source are thrown as {@link RuntimeException}.
+ * {@link #remove()} is not supported.
+ * @param <T> the type of the elements.
+ */
+public interface JolyglotIterator<T> extends Iterator<T>, Closeable {
+
+  /**
+   * Releases the resources held by this iterator. Sources opened by Jolyglot, such as files, are
+   * closed, while streams supplied by the caller are left open.
+   */
+  @Override void close();
+}
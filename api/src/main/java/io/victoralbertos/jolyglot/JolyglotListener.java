@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.lang.reflect.Type;
+
+/**
+ * Receives the outcome of every operation performed through an {@link InstrumentedJolyglot}, so
+ * its timings can be bridged to any metrics system. Implementations are called synchronously on
+ * the thread which performed the operation, so they must be thread safe and cheap.
+ * {@link JolyglotMetrics} is the built-in implementation.
+ */
+public interface JolyglotListener {
+
+  /**
+   * Called after an operation completes.
+   * @param operation the operation performed.
+   * @param type the type the Json was bound to or from, the runtime class of the source object
+   * when no type was supplied.
+   * @param durationNanos the wall time spent by the operation.
+   * @param payloadSize the length of the Json, in chars for Strings and appendables and in bytes
+   * otherwise.
+   */
+  void onSuccess(JolyglotOperation operation, Type type, long durationNanos, long payloadSize);
+
+  /**
+   * Called after an operation fails, before {@code error} is rethrown to the caller.
+   * @param operation the operation performed.
+   * @param type the type the Json was bound to or from.
+   * @param durationNanos the wall time spent until the failure.
+   * @param error the failure.
+   */
+  void onFailure(JolyglotOperation operation, Type type, long durationNanos, Throwable error);
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link JolyglotListener} which keeps, for every operation and type, a latency histogram, a
+ * payload size histogram and a failure count. Recording allocates nothing once the pair has been
+ * seen, it costs a map read plus a few atomic increments.
+ */
+public final class JolyglotMetrics implements JolyglotListener {
+  private final ConcurrentMap<Type, Stats>[] statsByOperation;
+
+  @SuppressWarnings("unchecked")
+  public JolyglotMetrics() {
+    JolyglotOperation[] operations = JolyglotOperation.values();
+    statsByOperation = (ConcurrentMap<Type, Stats>[]) new ConcurrentMap<?, ?>[operations.length];
+    for (int i = 0; i < operations.length; i++) {
+      statsByOperation[i] = new ConcurrentHashMap<Type, Stats>();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void onSuccess(JolyglotOperation operation, Type type, long durationNanos,
+      long payloadSize) {
+    Stats stats = statsFor(operation, type);
+    stats.latencies.record(durationNanos);
+    if (payloadSize >= 0) stats.payloadSizes.record(payloadSize);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void onFailure(JolyglotOperation operation, Type type, long durationNanos,
+      Throwable error) {
+    Stats stats = statsFor(operation, type);
+    stats.latencies.record(durationNanos);
+    stats.failures.incrementAndGet();
+  }
+
+  /**
+   * Returns the stats recorded for {@code operation} on {@code type}, or null if none has been.
+   */
+  public Stats stats(JolyglotOperation operation, Type type) {
+    return statsByOperation[operation.ordinal()].get(type);
+  }
+
+  /**
+   * Returns a live, read only view of the stats recorded for {@code operation} by type.
+   */
+  public Map<Type, Stats> stats(JolyglotOperation operation) {
+    return Collections.unmodifiableMap(statsByOperation[operation.ordinal()]);
+  }
+
+  private Stats statsFor(JolyglotOperation operation, Type type) {
+    ConcurrentMap<Type, Stats> statsByType = statsByOperation[operation.ordinal()];
+    Stats stats = statsByType.get(type);
+    if (stats == null) {
+      stats = new Stats();
+      Stats previous = statsByType.putIfAbsent(type, stats);
+      if (previous != null) stats = previous;
+    }
+    return stats;
+  }
+
+  /**
+   * Metrics recorded for one operation on one type.
+   */
+  public static final class Stats {
+    private final JolyglotHistogram latencies = new JolyglotHistogram();
+    private final JolyglotHistogram payloadSizes = new JolyglotHistogram();
+    private final AtomicLong failures = new AtomicLong();
+
+    Stats() {
+    }
+
+    /** Returns the histogram of latencies in nanoseconds, failed operations included. */
+    public JolyglotHistogram latencies() {
+      return latencies;
+    }
+
+    /**
+     * Returns the histogram of payload sizes of the successful operations, in chars for Strings
+     * and in bytes otherwise.
+     */
+    public JolyglotHistogram payloadSizes() {
+      return payloadSizes;
+    }
+
+    /** Returns how many operations have failed. */
+    public long failures() {
+      return failures.get();
+    }
+  }
+}
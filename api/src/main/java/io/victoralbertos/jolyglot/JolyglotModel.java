@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose {@link JolyglotBinding} is generated at compile time by the
+ * {@code processor} module, so Gson, Jackson and Moshi read and write it without reflection.
+ *
+ * <p>The class must not be private, abstract nor generic, nested classes must be static, and it
+ * needs a constructor without parameters which is not private. Every field which is neither
+ * static nor transient is bound, including the ones inherited, so they must not be private nor
+ * final. A field is named as declared unless it is annotated with Gson {@code SerializedName},
+ * Jackson {@code JsonProperty} or Moshi {@code Json}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface JolyglotModel {
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A lazy, read-only view of a Json value held as UTF-8 encoded bytes, for documents whose shape is
+ * not known up front or of which only a few values are needed. Unlike binding the document as
+ * {@code Object}, which builds every map and list of the tree, nothing is decoded until it is
+ * accessed: the first access to a member or element of an object or array indexes the offsets of
+ * its direct children, skipping over their content, and a child node is only created once it is
+ * accessed. Any node can be bound as a type by the {@link JolyglotGenerics} it was created with,
+ * which parses only its bytes.
+ *
+ * <p>The bytes are not copied, so they must not be modified while nodes are in use. Malformed Json
+ * is only detected once the malformed part is indexed or decoded, failing with an
+ * {@link IllegalStateException}. Nodes can be shared between threads.
+ */
+public final class JolyglotNode {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int[] EMPTY = new int[0];
+
+  /**
+   * The kinds of Json values.
+   */
+  public enum Kind {
+    OBJECT, ARRAY, STRING, NUMBER, BOOLEAN, NULL
+  }
+
+  private final byte[] bytes;
+  private final int start;
+  private final int end;
+  private final Kind kind;
+  private final JolyglotGenerics jolyglot;
+  /**
+   * The offsets of the children, two per element of an array, or four per member of an object
+   * where the offsets of the name, quotes included, precede those of the value. Built on first
+   * access.
+   */
+  private volatile int[] offsets;
+  private volatile JolyglotNode[] children;
+
+  private JolyglotNode(byte[] bytes, int start, int end, JolyglotGenerics jolyglot) {
+    this.bytes = bytes;
+    this.start = start;
+    this.end = end;
+    this.kind = kind(bytes, start);
+    this.jolyglot = jolyglot;
+  }
+
+  /**
+   * Returns the node of the Json value held by {@code json}, which is neither copied nor scanned
+   * past its first byte until accessed.
+   * @param json the UTF-8 encoded Json value.
+   * @param jolyglot the speaker binding the nodes as types.
+   */
+  public static JolyglotNode of(byte[] json, JolyglotGenerics jolyglot) {
+    int start = skipWhitespace(json, 0, json.length);
+    int end = json.length;
+    while (end > start && isWhitespace(json[end - 1])) {
+      end--;
+    }
+    if (start == end) throw new IllegalStateException("Empty Json");
+    return new JolyglotNode(json, start, end, jolyglot);
+  }
+
+  /**
+   * Returns the node of the Json value held by {@code json}.
+   * @param json the Json value.
+   * @param jolyglot the speaker binding the nodes as types.
+   */
+  public static JolyglotNode of(String json, JolyglotGenerics jolyglot) {
+    return of(json.getBytes(UTF_8), jolyglot);
+  }
+
+  /**
+   * Returns the kind of this value.
+   */
+  public Kind kind() {
+    return kind;
+  }
+
+  /**
+   * Returns the number of members of this object or elements of this array, or 0 for any other
+   * kind of value.
+   */
+  public int size() {
+    return offsets().length / stride();
+  }
+
+  /**
+   * Returns the value of the member named {@code name} of this object, or null if this is not an
+   * object or it has no such member. Names are compared against the bytes of the document, so the
+   * names of the other members are not decoded.
+   */
+  public JolyglotNode get(String name) {
+    if (kind != Kind.OBJECT) return null;
+    int[] offsets = offsets();
+    byte[] encoded = name.getBytes(UTF_8);
+    for (int i = 0; i < offsets.length; i += 4) {
+      if (nameEquals(offsets[i], offsets[i + 1], encoded, name)) return child(i / 4);
+    }
+    return null;
+  }
+
+  /**
+   * Returns the element at {@code index} of this array, or null if this is not an array or
+   * {@code index} is out of its bounds.
+   */
+  public JolyglotNode get(int index) {
+    if (kind != Kind.ARRAY || index < 0 || index >= size()) return null;
+    return child(index);
+  }
+
+  /**
+   * Returns the node {@code pointer} refers to from this one, or null if there is none.
+   */
+  public JolyglotNode at(JolyglotPointer pointer) {
+    JolyglotNode node = this;
+    for (int i = 0; i < pointer.size() && node != null; i++) {
+      if (node.kind == Kind.OBJECT) {
+        node = node.get(pointer.token(i));
+      } else {
+        int index = pointer.index(i);
+        node = index < 0 ? null : node.get(index);
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Returns the names of the members of this object, in the order of the document, or an empty
+   * list for any other kind of value.
+   */
+  public List<String> names() {
+    if (kind != Kind.OBJECT) return Collections.emptyList();
+    int[] offsets = offsets();
+    List<String> names = new ArrayList<>(offsets.length / 4);
+    for (int i = 0; i < offsets.length; i += 4) {
+      names.add(decode(offsets[i], offsets[i + 1]));
+    }
+    return names;
+  }
+
+  /**
+   * Returns the decoded value of this string.
+   * @throws IllegalStateException if this is not a string.
+   */
+  public String asString() {
+    check(Kind.STRING);
+    return decode(start, end);
+  }
+
+  /**
+   * Returns the value of this number as a long.
+   * @throws IllegalStateException if this is not a number.
+   * @throws NumberFormatException if it does not fit a long.
+   */
+  public long asLong() {
+    check(Kind.NUMBER);
+    return Long.parseLong(toString());
+  }
+
+  /**
+   * Returns the value of this number as a double.
+   * @throws IllegalStateException if this is not a number.
+   */
+  public double asDouble() {
+    check(Kind.NUMBER);
+    return Double.parseDouble(toString());
+  }
+
+  /**
+   * Returns the value of this boolean.
+   * @throws IllegalStateException if this is not a boolean.
+   */
+  public boolean asBoolean() {
+    check(Kind.BOOLEAN);
+    return bytes[start] == 't';
+  }
+
+  /**
+   * Returns whether this value is null.
+   */
+  public boolean isNull() {
+    return kind == Kind.NULL;
+  }
+
+  /**
+   * Binds this value as {@code classOfT} through the speaker this node was created with.
+   */
+  public <T> T as(Class<T> classOfT) {
+    return as((Type) classOfT);
+  }
+
+  /**
+   * Binds this value as {@code typeOfT} through the speaker this node was created with, which
+   * parses only the bytes of this value.
+   */
+  public <T> T as(Type typeOfT) {
+    return jolyglot.fromJson(new ByteArrayInputStream(bytes, start, end - start), typeOfT);
+  }
+
+  /**
+   * Returns the Json of this value, as it is in the document.
+   */
+  @Override public String toString() {
+    return new String(bytes, start, end - start, UTF_8);
+  }
+
+  private int stride() {
+    return kind == Kind.OBJECT ? 4 : 2;
+  }
+
+  private void check(Kind expected) {
+    if (kind != expected) {
+      throw new IllegalStateException("Expected " + expected + " but was " + kind);
+    }
+  }
+
+  private JolyglotNode child(int index) {
+    JolyglotNode[] children = this.children;
+    if (children == null) {
+      children = new JolyglotNode[size()];
+      this.children = children;
+    }
+    JolyglotNode child = children[index];
+    if (child == null) {
+      int[] offsets = offsets();
+      int value = index * stride() + stride() - 2;
+      child = new JolyglotNode(bytes, offsets[value], offsets[value + 1], jolyglot);
+      children[index] = child;
+    }
+    return child;
+  }
+
+  private int[] offsets() {
+    int[] offsets = this.offsets;
+    if (offsets == null) {
+      offsets = kind == Kind.OBJECT || kind == Kind.ARRAY ? index() : EMPTY;
+      this.offsets = offsets;
+    }
+    return offsets;
+  }
+
+  /**
+   * Records the offsets of the direct children of this object or array, skipping over their
+   * content.
+   */
+  private int[] index() {
+    boolean object = kind == Kind.OBJECT;
+    byte close = (byte) (object ? '}' : ']');
+    int[] offsets = new int[16];
+    int count = 0;
+    int i = skipWhitespace(bytes, start + 1, end);
+    if (i < end && bytes[i] == close) return EMPTY;
+    while (true) {
+      if (count + 4 > offsets.length) {
+        int[] grown = new int[offsets.length * 2];
+        System.arraycopy(offsets, 0, grown, 0, count);
+        offsets = grown;
+      }
+      if (object) {
+        if (i >= end || bytes[i] != '"') throw malformed(i);
+        offsets[count++] = i;
+        i = skipString(i);
+        offsets[count++] = i;
+        i = skipWhitespace(bytes, i, end);
+        if (i >= end || bytes[i] != ':') throw malformed(i);
+        i = skipWhitespace(bytes, i + 1, end);
+      }
+      offsets[count++] = i;
+      i = skipValue(i);
+      offsets[count++] = i;
+      i = skipWhitespace(bytes, i, end);
+      if (i >= end) throw malformed(i);
+      if (bytes[i] == close) break;
+      if (bytes[i] != ',') throw malformed(i);
+      i = skipWhitespace(bytes, i + 1, end);
+    }
+    int[] trimmed = new int[count];
+    System.arraycopy(offsets, 0, trimmed, 0, count);
+    return trimmed;
+  }
+
+  /**
+   * Returns the offset following the value starting at {@code i}.
+   */
+  private int skipValue(int i) {
+    if (i >= end) throw malformed(i);
+    byte b = bytes[i];
+    if (b == '"') return skipString(i);
+    if (b == '{' || b == '[') {
+      int depth = 0;
+      while (i < end) {
+        b = bytes[i];
+        if (b == '"') {
+          i = skipString(i);
+          continue;
+        }
+        if (b == '{' || b == '[') {
+          depth++;
+        } else if (b == '}' || b == ']') {
+          if (--depth == 0) return i + 1;
+        }
+        i++;
+      }
+      throw malformed(i);
+    }
+    int from = i;
+    while (i < end && !isWhitespace(bytes[i]) && bytes[i] != ',' && bytes[i] != '}'
+        && bytes[i] != ']') {
+      i++;
+    }
+    if (i == from) throw malformed(i);
+    return i;
+  }
+
+  /**
+   * Returns the offset following the closing quote of the string starting at {@code i}.
+   */
+  private int skipString(int i) {
+    for (i++; i < end; i++) {
+      byte b = bytes[i];
+      if (b == '"') return i + 1;
+      if (b == '\\') i++;
+    }
+    throw malformed(i);
+  }
+
+  private boolean nameEquals(int from, int to, byte[] encoded, String name) {
+    int length = to - from - 2;
+    for (int i = from + 1; i < to - 1; i++) {
+      if (bytes[i] == '\\') return decode(from, to).equals(name);
+    }
+    if (length != encoded.length) return false;
+    for (int i = 0; i < length; i++) {
+      if (bytes[from + 1 + i] != encoded[i]) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Decodes the string whose quotes are at {@code from} and {@code to - 1}.
+   */
+  private String decode(int from, int to) {
+    int first = from + 1;
+    int last = to - 1;
+    int escape = first;
+    while (escape < last && bytes[escape] != '\\') {
+      escape++;
+    }
+    if (escape == last) return new String(bytes, first, last - first, UTF_8);
+
+    StringBuilder builder = new StringBuilder(last - first);
+    int run = first;
+    for (int i = escape; i < last; i++) {
+      if (bytes[i] != '\\') continue;
+      builder.append(new String(bytes, run, i - run, UTF_8));
+      if (++i >= last) throw malformed(i);
+      switch (bytes[i]) {
+        case '"': builder.append('"'); break;
+        case '\\': builder.append('\\'); break;
+        case '/': builder.append('/'); break;
+        case 'b': builder.append('\b'); break;
+        case 'f': builder.append('\f'); break;
+        case 'n': builder.append('\n'); break;
+        case 'r': builder.append('\r'); break;
+        case 't': builder.append('\t'); break;
+        case 'u':
+          if (i + 4 >= last) throw malformed(i);
+          builder.append((char) Integer.parseInt(new String(bytes, i + 1, 4, UTF_8), 16));
+          i += 4;
+          break;
+        default:
+          throw malformed(i);
+      }
+      run = i + 1;
+    }
+    builder.append(new String(bytes, run, last - run, UTF_8));
+    return builder.toString();
+  }
+
+  private static Kind kind(byte[] bytes, int i) {
+    switch (bytes[i]) {
+      case '{': return Kind.OBJECT;
+      case '[': return Kind.ARRAY;
+      case '"': return Kind.STRING;
+      case 't':
+      case 'f': return Kind.BOOLEAN;
+      case 'n': return Kind.NULL;
+      default:
+        if (bytes[i] == '-' || (bytes[i] >= '0' && bytes[i] <= '9')) return Kind.NUMBER;
+        throw new IllegalStateException("Malformed Json at offset " + i);
+    }
+  }
+
+  private static int skipWhitespace(byte[] bytes, int i, int end) {
+    while (i < end && isWhitespace(bytes[i])) {
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  private static IllegalStateException malformed(int offset) {
+    return new IllegalStateException("Malformed Json at offset " + offset);
+  }
+}
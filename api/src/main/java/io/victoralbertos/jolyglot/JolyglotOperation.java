@@ -0,0 +1,32 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+/**
+ * The data binding operations reported to a {@link JolyglotListener}, one per kind of source or
+ * target of the Json.
+ */
+public enum JolyglotOperation {
+  TO_JSON_STRING,
+  TO_JSON_STREAM,
+  TO_JSON_APPENDABLE,
+  TO_JSON_FILE,
+  FROM_JSON_STRING,
+  FROM_JSON_BYTES,
+  FROM_JSON_STREAM,
+  FROM_JSON_FILE
+}
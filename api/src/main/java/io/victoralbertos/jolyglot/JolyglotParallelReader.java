@@ -0,0 +1,332 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Reads newline delimited Json files in parallel. The file is split into chunks of about
+ * {@code chunkSize} bytes, whose ends are moved forward to the next line feed so every chunk holds
+ * whole lines. Chunks are memory mapped and bound on a {@link ForkJoinPool}, through
+ * {@link JolyglotStreaming#iterateLines(InputStream, Type)} when the speaker supports it, or line by
+ * line through {@code fromJson(byte[], ...)} otherwise.
+ *
+ * <p>{@link #forEach(File, Type, JolyglotConsumer)} hands every record to the consumer from the
+ * worker thread which bound it, as soon as it is bound. {@link #forEachOrdered(File, Type,
+ * JolyglotConsumer)} hands them from the calling thread in the order of the file, holding the
+ * records of up to twice as many chunks as threads until their turn comes.
+ *
+ * <p>Compressed files can not be split into chunks, so they are rejected.
+ */
+public final class JolyglotParallelReader {
+  public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+  private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+  private final Jolyglot jolyglot;
+  private final ForkJoinPool pool;
+  private final int parallelism;
+  private final int chunkSize;
+
+  /**
+   * Binds chunks of {@value #DEFAULT_CHUNK_SIZE} bytes with as many threads as processors.
+   */
+  public JolyglotParallelReader(Jolyglot jolyglot) {
+    this(jolyglot, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Binds chunks of about {@code chunkSize} bytes on a pool of {@code parallelism} threads, which
+   * is started for every file and shut down once it has been read.
+   */
+  public JolyglotParallelReader(Jolyglot jolyglot, int parallelism, int chunkSize) {
+    this(jolyglot, null, parallelism, chunkSize);
+  }
+
+  /**
+   * Binds chunks of about {@code chunkSize} bytes on {@code pool}, which is not shut down.
+   */
+  public JolyglotParallelReader(Jolyglot jolyglot, ForkJoinPool pool, int chunkSize) {
+    this(jolyglot, pool, pool.getParallelism(), chunkSize);
+  }
+
+  private JolyglotParallelReader(Jolyglot jolyglot, ForkJoinPool pool, int parallelism,
+      int chunkSize) {
+    if (parallelism < 1) throw new IllegalArgumentException("parallelism < 1: " + parallelism);
+    if (chunkSize < 1) throw new IllegalArgumentException("chunkSize < 1: " + chunkSize);
+    this.jolyglot = jolyglot;
+    this.pool = pool;
+    this.parallelism = parallelism;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Binds every line of the specified file as {@code typeOfRecord} and hands it to
+   * {@code consumer}, which is called concurrently from the worker threads and in no particular
+   * order. Blank lines are skipped.
+   * @param <T> the type of the records
+   * @param file the file holding one Json value per line.
+   * @param typeOfRecord the type of every record.
+   * @param consumer the thread safe consumer of the records.
+   */
+  public <T> void forEach(File file, Type typeOfRecord, JolyglotConsumer<? super T> consumer)
+      throws RuntimeException {
+    read(file, typeOfRecord, consumer, false);
+  }
+
+  /**
+   * Binds every line of the specified file as {@code typeOfRecord} and hands it to
+   * {@code consumer} from the calling thread, in the order of the file. Blank lines are skipped.
+   * @param <T> the type of the records
+   * @param file the file holding one Json value per line.
+   * @param typeOfRecord the type of every record.
+   * @param consumer the consumer of the records.
+   */
+  public <T> void forEachOrdered(File file, Type typeOfRecord,
+      JolyglotConsumer<? super T> consumer) throws RuntimeException {
+    read(file, typeOfRecord, consumer, true);
+  }
+
+  private <T> void read(File file, Type type, JolyglotConsumer<? super T> consumer,
+      boolean ordered) {
+    if (!(jolyglot instanceof JolyglotStreaming || jolyglot instanceof JolyglotGenerics
+        || type instanceof Class)) {
+      throw new IllegalArgumentException(jolyglot.getClass().getName()
+          + " does not support generics, " + type + " is not a class");
+    }
+
+    FileInputStream in = null;
+    ForkJoinPool pool = this.pool != null ? this.pool : new ForkJoinPool(parallelism);
+    try {
+      in = new FileInputStream(file);
+      FileChannel channel = in.getChannel();
+      if (JolyglotCodec.detect(channel) != JolyglotCodec.IDENTITY) {
+        throw new IllegalArgumentException(file + " is compressed, it can not be read in chunks");
+      }
+      long[] bounds = chunks(channel, chunkSize);
+      if (bounds.length < 2) return;
+
+      if (ordered) {
+        forEachOrdered(pool, channel, bounds, type, consumer);
+      } else {
+        pool.invoke(new ChunksAction<T>(channel, bounds, 0, bounds.length - 1, type, consumer));
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (pool != this.pool) pool.shutdown();
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * Keeps up to twice as many chunks as threads being bound ahead of the one whose records are
+   * handed to {@code consumer}, so workers are not idle while the caller consumes.
+   */
+  private <T> void forEachOrdered(ForkJoinPool pool, FileChannel channel, long[] bounds, Type type,
+      JolyglotConsumer<? super T> consumer) {
+    Deque<ForkJoinTask<List<T>>> window = new ArrayDeque<>();
+    int windowSize = 2 * pool.getParallelism();
+    int chunks = bounds.length - 1;
+    int next = 0;
+    try {
+      while (next < chunks || !window.isEmpty()) {
+        while (next < chunks && window.size() < windowSize) {
+          window.add(pool.submit(new ChunkTask<T>(channel, bounds, next++, type)));
+        }
+        for (T record : window.poll().join()) {
+          consumer.accept(record);
+        }
+      }
+    } finally {
+      for (ForkJoinTask<List<T>> task : window) {
+        task.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Binds every record of {@code chunk} and hands it to {@code consumer}.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> void bind(ByteBuffer chunk, Type type, JolyglotConsumer<? super T> consumer) {
+    if (jolyglot instanceof JolyglotStreaming) {
+      JolyglotIterator<T> records =
+          ((JolyglotStreaming) jolyglot).iterateLines(new ByteBufferInputStream(chunk), type);
+      try {
+        while (records.hasNext()) {
+          consumer.accept(records.next());
+        }
+      } finally {
+        records.close();
+      }
+      return;
+    }
+
+    while (chunk.hasRemaining()) {
+      int start = chunk.position();
+      int end = start;
+      while (end < chunk.limit() && chunk.get(end) != '\n') end++;
+
+      byte[] line = new byte[end - start];
+      chunk.get(line);
+      if (chunk.hasRemaining()) chunk.get();
+      if (isBlank(line)) continue;
+
+      if (jolyglot instanceof JolyglotGenerics) {
+        consumer.accept(((JolyglotGenerics) jolyglot).<T>fromJson(line, type));
+      } else {
+        consumer.accept(jolyglot.fromJson(line, (Class<T>) type));
+      }
+    }
+  }
+
+  private static boolean isBlank(byte[] line) {
+    for (byte b : line) {
+      if (b != ' ' && b != '\t' && b != '\r') return false;
+    }
+    return true;
+  }
+
+  private static ByteBuffer map(FileChannel channel, long start, long end) {
+    try {
+      return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Returns the offsets splitting the file read through {@code channel} into chunks of whole lines,
+   * all of them at least {@code chunkSize} bytes long but the last one. Chunk {@code i} spans from
+   * {@code bounds[i]} to {@code bounds[i + 1]}.
+   */
+  static long[] chunks(FileChannel channel, int chunkSize) throws IOException {
+    long size = channel.size();
+    if (size == 0) return new long[0];
+
+    long[] bounds = new long[16];
+    ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+    int count = 1;
+    for (long start = 0; start < size; start = bounds[count++]) {
+      long end = nextLine(channel, start + chunkSize - 1, size, scan);
+      if (end - start > Integer.MAX_VALUE) {
+        throw new IllegalStateException("The line ending at offset " + end + " is too long to map");
+      }
+      if (count == bounds.length) bounds = Arrays.copyOf(bounds, count * 2);
+      bounds[count] = end;
+    }
+    return Arrays.copyOf(bounds, count);
+  }
+
+  /**
+   * Returns the offset following the first line feed found from {@code position}, or the size of
+   * the file if there is none.
+   */
+  private static long nextLine(FileChannel channel, long position, long size, ByteBuffer scan)
+      throws IOException {
+    while (position < size) {
+      scan.clear();
+      int read = channel.read(scan, position);
+      if (read <= 0) break;
+      for (int i = 0; i < read; i++) {
+        if (scan.get(i) == '\n') return position + i + 1;
+      }
+      position += read;
+    }
+    return size;
+  }
+
+  /**
+   * Binds the chunks from {@code from}, inclusive, to {@code to}, exclusive, splitting the range in
+   * halves until every task is left with a single chunk.
+   */
+  @SuppressWarnings("serial")
+  private final class ChunksAction<T> extends RecursiveAction {
+    private final FileChannel channel;
+    private final long[] bounds;
+    private final int from;
+    private final int to;
+    private final Type type;
+    private final JolyglotConsumer<? super T> consumer;
+
+    ChunksAction(FileChannel channel, long[] bounds, int from, int to, Type type,
+        JolyglotConsumer<? super T> consumer) {
+      this.channel = channel;
+      this.bounds = bounds;
+      this.from = from;
+      this.to = to;
+      this.type = type;
+      this.consumer = consumer;
+    }
+
+    @Override protected void compute() {
+      if (to - from == 1) {
+        bind(map(channel, bounds[from], bounds[to]), type, consumer);
+      } else {
+        int middle = (from + to) >>> 1;
+        invokeAll(new ChunksAction<T>(channel, bounds, from, middle, type, consumer),
+            new ChunksAction<T>(channel, bounds, middle, to, type, consumer));
+      }
+    }
+  }
+
+  /**
+   * Binds the records of a single chunk into a list, to be consumed once its turn comes.
+   */
+  @SuppressWarnings("serial")
+  private final class ChunkTask<T> extends RecursiveTask<List<T>> {
+    private final FileChannel channel;
+    private final long[] bounds;
+    private final int index;
+    private final Type type;
+
+    ChunkTask(FileChannel channel, long[] bounds, int index, Type type) {
+      this.channel = channel;
+      this.bounds = bounds;
+      this.index = index;
+      this.type = type;
+    }
+
+    @Override protected List<T> compute() {
+      final List<T> records = new ArrayList<>();
+      bind(map(channel, bounds[index], bounds[index + 1]), type, new JolyglotConsumer<T>() {
+        @Override public void accept(T record) {
+          records.add(record);
+        }
+      });
+      return records;
+    }
+  }
+}
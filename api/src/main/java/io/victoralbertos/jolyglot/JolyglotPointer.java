@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.Arrays;
+
+/**
+ * A <a href="https://tools.ietf.org/html/rfc6901">JSON Pointer</a>, the path to a value within a
+ * Json document as a list of reference tokens. Every token is the name of a member when the value
+ * it is applied to is an object, or the index of an element when it is an array. The pointer with
+ * no tokens refers to the whole document.
+ */
+public final class JolyglotPointer {
+  private static final JolyglotPointer ROOT = new JolyglotPointer(new String[0]);
+  private static final int MAX_INDEX_DIGITS = 9;
+  private final String[] tokens;
+
+  private JolyglotPointer(String[] tokens) {
+    this.tokens = tokens;
+  }
+
+  /**
+   * Parses a JSON Pointer such as {@code /items/0/id}, where {@code ~1} stands for {@code /} and
+   * {@code ~0} for {@code ~} within a token.
+   * @throws IllegalArgumentException if {@code pointer} is not empty and does not start with
+   * {@code /}, or holds an invalid escape sequence.
+   */
+  public static JolyglotPointer parse(String pointer) {
+    if (pointer.isEmpty()) return ROOT;
+    if (pointer.charAt(0) != '/') {
+      throw new IllegalArgumentException("A JSON Pointer must start with '/': " + pointer);
+    }
+    String[] tokens = pointer.substring(1).split("/", -1);
+    for (int i = 0; i < tokens.length; i++) {
+      tokens[i] = unescape(tokens[i], pointer);
+    }
+    return new JolyglotPointer(tokens);
+  }
+
+  /**
+   * Returns the pointer made of {@code tokens}, taken as they are, without escape sequences.
+   */
+  public static JolyglotPointer of(String... tokens) {
+    if (tokens.length == 0) return ROOT;
+    String[] copy = tokens.clone();
+    for (String token : copy) {
+      if (token == null) throw new IllegalArgumentException("null token: " + Arrays.toString(copy));
+    }
+    return new JolyglotPointer(copy);
+  }
+
+  /**
+   * Returns the number of reference tokens.
+   */
+  public int size() {
+    return tokens.length;
+  }
+
+  /**
+   * Returns the reference token at {@code position}, unescaped.
+   */
+  public String token(int position) {
+    return tokens[position];
+  }
+
+  /**
+   * Returns the array index the reference token at {@code position} stands for, or -1 if it is
+   * not a valid index, such as {@code -} or a number with leading zeros.
+   */
+  public int index(int position) {
+    String token = tokens[position];
+    int length = token.length();
+    if (length == 0 || length > MAX_INDEX_DIGITS || (length > 1 && token.charAt(0) == '0')) {
+      return -1;
+    }
+    int index = 0;
+    for (int i = 0; i < length; i++) {
+      char c = token.charAt(i);
+      if (c < '0' || c > '9') return -1;
+      index = index * 10 + (c - '0');
+    }
+    return index;
+  }
+
+  private static String unescape(String token, String pointer) {
+    int tilde = token.indexOf('~');
+    if (tilde == -1) return token;
+    StringBuilder builder = new StringBuilder(token.length());
+    for (int i = 0; i < token.length(); i++) {
+      char c = token.charAt(i);
+      if (c != '~') {
+        builder.append(c);
+        continue;
+      }
+      char next = i + 1 < token.length() ? token.charAt(++i) : 0;
+      if (next == '0') {
+        builder.append('~');
+      } else if (next == '1') {
+        builder.append('/');
+      } else {
+        throw new IllegalArgumentException("Invalid escape sequence in JSON Pointer: " + pointer);
+      }
+    }
+    return builder.toString();
+  }
+
+  @Override public boolean equals(Object o) {
+    return o instanceof JolyglotPointer && Arrays.equals(tokens, ((JolyglotPointer) o).tokens);
+  }
+
+  @Override public int hashCode() {
+    return Arrays.hashCode(tokens);
+  }
+
+  /**
+   * Returns this pointer in its JSON Pointer representation, with escape sequences.
+   */
+  @Override public String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (String token : tokens) {
+      builder.append('/').append(token.replace("~", "~0").replace("/", "~1"));
+    }
+    return builder.toString();
+  }
+}
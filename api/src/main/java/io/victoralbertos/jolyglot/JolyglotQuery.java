@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Partial deserialization of the value a {@link JolyglotPointer} refers to. Instead of binding the
+ * whole document, its tokens are scanned and every subtree off the path to the value is skipped
+ * without being bound, so reading a field or two of a large document allocates little more than
+ * the value itself. Only the value found is bound, and the document is not read past it.
+ */
+public interface JolyglotQuery {
+
+  /**
+   * Binds the value {@code pointer} refers to within the specified Json as {@code typeOfT}.
+   * @param <T> the type of the value
+   * @param json the Json document.
+   * @param pointer the path to the value.
+   * @param typeOfT the type of the value.
+   * @return the value, or null if the document holds no value at {@code pointer}.
+   */
+  <T> T query(String json, JolyglotPointer pointer, Type typeOfT) throws RuntimeException;
+
+  /**
+   * Binds the value {@code pointer} refers to within the specified UTF-8 encoded Json as
+   * {@code typeOfT}.
+   * @param <T> the type of the value
+   * @param json the UTF-8 encoded Json document.
+   * @param pointer the path to the value.
+   * @param typeOfT the type of the value.
+   * @return the value, or null if the document holds no value at {@code pointer}.
+   */
+  <T> T query(byte[] json, JolyglotPointer pointer, Type typeOfT) throws RuntimeException;
+
+  /**
+   * Binds the value {@code pointer} refers to within the Json read from the specified stream, which
+   * must produce UTF-8 encoded Json, as {@code typeOfT}. The stream is not closed.
+   * @param <T> the type of the value
+   * @param in the stream producing the Json document.
+   * @param pointer the path to the value.
+   * @param typeOfT the type of the value.
+   * @return the value, or null if the document holds no value at {@code pointer}.
+   */
+  <T> T query(InputStream in, JolyglotPointer pointer, Type typeOfT) throws RuntimeException;
+
+  /**
+   * Binds the value {@code pointer} refers to within the Json of the specified file as
+   * {@code typeOfT}.
+   * @param <T> the type of the value
+   * @param file the file holding the Json document.
+   * @param pointer the path to the value.
+   * @param typeOfT the type of the value.
+   * @return the value, or null if the document holds no value at {@code pointer}.
+   */
+  <T> T query(File file, JolyglotPointer pointer, Type typeOfT) throws RuntimeException;
+}
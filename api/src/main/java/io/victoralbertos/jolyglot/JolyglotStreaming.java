@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Streaming deserialization of top-level Json arrays. Unlike {@link JolyglotGenerics#fromJson(File,
+ * Type)}, which binds the whole array before returning it, elements are pulled from the source
+ * one at a time, so the memory needed is bounded by the size of one element rather than by the
+ * size of the source.
+ *
+ * <p>Newline delimited Json (NDJSON, also known as JSON Lines), where every line holds one Json
+ * value, is supported as well. Records are read and written through a single parser or encoder,
+ * without splitting the source into a {@code String} per line.
+ */
+public interface JolyglotStreaming {
+
+  /**
+   * Returns an iterator over the elements of the top-level Json array read from the specified
+   * stream, which must produce UTF-8 encoded Json. The stream is not closed by the iterator.
+   * @param <T> the type of the elements
+   * @param in the stream producing the Json array.
+   * @param typeOfElement the type of every element of the array.
+   * @return an iterator which binds every element when it is requested.
+   */
+  <T> JolyglotIterator<T> iterate(InputStream in, Type typeOfElement) throws RuntimeException;
+
+  /**
+   * Returns an iterator over the elements of the top-level Json array read from the specified
+   * file. The file stays open until the iterator is closed.
+   * @param <T> the type of the elements
+   * @param file the file holding the Json array.
+   * @param typeOfElement the type of every element of the array.
+   * @return an iterator which binds every element when it is requested.
+   */
+  <T> JolyglotIterator<T> iterate(File file, Type typeOfElement) throws RuntimeException;
+
+  /**
+   * Returns an iterator over the records of the newline delimited Json read from the specified
+   * stream, which must produce UTF-8 encoded Json. Blank lines are skipped. The stream is not
+   * closed by the iterator.
+   * @param <T> the type of the records
+   * @param in the stream producing one Json value per line.
+   * @param typeOfRecord the type of every record.
+   * @return an iterator which binds every record when it is requested.
+   */
+  <T> JolyglotIterator<T> iterateLines(InputStream in, Type typeOfRecord) throws RuntimeException;
+
+  /**
+   * Returns an iterator over the records of the newline delimited Json read from the specified
+   * file. Blank lines are skipped. The file stays open until the iterator is closed.
+   * @param <T> the type of the records
+   * @param file the file holding one Json value per line.
+   * @param typeOfRecord the type of every record.
+   * @return an iterator which binds every record when it is requested.
+   */
+  <T> JolyglotIterator<T> iterateLines(File file, Type typeOfRecord) throws RuntimeException;
+
+  /**
+   * Returns a writer which appends every record to the specified stream as UTF-8 encoded Json
+   * followed by a line feed. The stream is not closed by the writer.
+   * @param <T> the type of the records
+   * @param out the stream where the records are written.
+   * @param typeOfRecord the type of every record.
+   * @return a writer of newline delimited Json.
+   */
+  <T> JolyglotWriter<T> newLineWriter(OutputStream out, Type typeOfRecord)
+      throws RuntimeException;
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.Closeable;
+import java.io.Flushable;
+
+/**
+ * Writes records one after another to a destination, reusing the same encoder for all of them.
+ * Failures writing to the destination are thrown as {@link RuntimeException}.
+ * @param <T> the type of the records.
+ */
+public interface JolyglotWriter<T> extends Flushable, Closeable {
+
+  /**
+   * Serializes the specified record and appends it to the destination.
+   * @param record the record to be written, which may be buffered until {@link #flush()}.
+   */
+  void write(T record);
+
+  /**
+   * Writes any buffered record to the destination, and flushes it.
+   */
+  @Override void flush();
+
+  /**
+   * Flushes this writer and releases its resources. Streams supplied by the caller are left open.
+   */
+  @Override void close();
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Reads a file through consecutive read only memory mapped regions, so files above the 2 GB limit
+ * of a single {@link java.nio.MappedByteBuffer} are supported. Regions stay valid once the channel
+ * has been closed, and are unmapped when garbage collected.
+ */
+final class MappedFileInputStream extends ByteBufferInputStream {
+  static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+  private final Deque<ByteBuffer> regions = new ArrayDeque<ByteBuffer>();
+
+  MappedFileInputStream(FileChannel channel, long size) throws IOException {
+    this(channel, size, MAX_REGION_SIZE);
+  }
+
+  /**
+   * Maps {@code size} bytes of {@code channel} up front in regions of at most
+   * {@code maxRegionSize} bytes, so the caller can close the channel right away.
+   */
+  MappedFileInputStream(FileChannel channel, long size, long maxRegionSize) throws IOException {
+    super(null);
+    for (long position = 0; position < size; position += maxRegionSize) {
+      long regionSize = Math.min(maxRegionSize, size - position);
+      regions.add(channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize));
+    }
+    buffer = regions.poll();
+  }
+
+  @Override ByteBuffer nextBuffer() {
+    return regions.poll();
+  }
+
+  @Override public boolean markSupported() {
+    return false;
+  }
+
+  @Override public void mark(int readLimit) {
+  }
+
+  @Override public void reset() throws IOException {
+    throw new IOException("mark/reset not supported");
+  }
+
+  @Override public void close() {
+    super.close();
+    regions.clear();
+  }
+}
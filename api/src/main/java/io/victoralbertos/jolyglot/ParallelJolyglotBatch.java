@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Decorates a {@link JolyglotBatch} splitting large batches into chunks of about
+ * {@code chunkSize} values, which are handled in parallel on a {@link ForkJoinPool} by the
+ * decorated batch, so every chunk still resolves its adapter once and reuses its buffers. Results
+ * keep the order of the values. Batches no larger than a chunk are handled on the calling thread.
+ */
+public final class ParallelJolyglotBatch implements JolyglotBatch {
+  public static final int DEFAULT_CHUNK_SIZE = 256;
+  private final JolyglotBatch batch;
+  private final ForkJoinPool pool;
+  private final int chunkSize;
+
+  /**
+   * Handles chunks of {@value #DEFAULT_CHUNK_SIZE} values on a pool of as many threads as
+   * processors, owned by this instance. Its threads are daemon ones, so it needs no shut down.
+   */
+  public ParallelJolyglotBatch(JolyglotBatch batch) {
+    this(batch, new ForkJoinPool(), DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Handles chunks of about {@code chunkSize} values on {@code pool}, which is not shut down.
+   */
+  public ParallelJolyglotBatch(JolyglotBatch batch, ForkJoinPool pool, int chunkSize) {
+    if (chunkSize < 1) throw new IllegalArgumentException("chunkSize < 1: " + chunkSize);
+    this.batch = batch;
+    this.pool = pool;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public List<String> toJsonAll(Collection<?> srcs, final Type typeOfSrc)
+      throws RuntimeException {
+    return split(list(srcs), new Chunk<Object, String>() {
+      @Override public List<String> apply(List<Object> chunk) {
+        return batch.toJsonAll(chunk, typeOfSrc);
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public List<byte[]> toJsonBytesAll(Collection<?> srcs, final Type typeOfSrc)
+      throws RuntimeException {
+    return split(list(srcs), new Chunk<Object, byte[]>() {
+      @Override public List<byte[]> apply(List<Object> chunk) {
+        return batch.toJsonBytesAll(chunk, typeOfSrc);
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> List<T> fromJsonAll(List<String> jsons, final Type typeOfT)
+      throws RuntimeException {
+    return split(jsons, new Chunk<String, T>() {
+      @Override public List<T> apply(List<String> chunk) {
+        return batch.fromJsonAll(chunk, typeOfT);
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> List<T> fromJsonBytesAll(List<byte[]> jsons, final Type typeOfT)
+      throws RuntimeException {
+    return split(jsons, new Chunk<byte[], T>() {
+      @Override public List<T> apply(List<byte[]> chunk) {
+        return batch.fromJsonBytesAll(chunk, typeOfT);
+      }
+    });
+  }
+
+  private <S, R> List<R> split(List<S> sources, Chunk<S, R> chunk) {
+    if (sources.size() <= chunkSize) return chunk.apply(sources);
+    return pool.invoke(new SplitTask<>(sources, chunk, chunkSize));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> list(Collection<?> srcs) {
+    return srcs instanceof List ? (List<Object>) srcs : new ArrayList<Object>(srcs);
+  }
+
+  /**
+   * Handles a chunk of a batch with the decorated batch.
+   */
+  private interface Chunk<S, R> {
+    List<R> apply(List<S> chunk);
+  }
+
+  /**
+   * Halves its values until they fit a chunk, and concatenates the results of both halves in
+   * order.
+   */
+  @SuppressWarnings("serial")
+  private static final class SplitTask<S, R> extends RecursiveTask<List<R>> {
+    private final List<S> sources;
+    private final Chunk<S, R> chunk;
+    private final int chunkSize;
+
+    SplitTask(List<S> sources, Chunk<S, R> chunk, int chunkSize) {
+      this.sources = sources;
+      this.chunk = chunk;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override protected List<R> compute() {
+      int size = sources.size();
+      if (size <= chunkSize) return chunk.apply(sources);
+
+      int middle = size >>> 1;
+      SplitTask<S, R> left = new SplitTask<>(sources.subList(0, middle), chunk, chunkSize);
+      SplitTask<S, R> right = new SplitTask<>(sources.subList(middle, size), chunk, chunkSize);
+      left.fork();
+      List<R> rightResults = right.compute();
+      List<R> results = new ArrayList<>(size);
+      results.addAll(left.join());
+      results.addAll(rightResults);
+      return results;
+    }
+  }
+}
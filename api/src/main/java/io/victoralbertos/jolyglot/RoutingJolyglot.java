@@ -0,0 +1,408 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Routes every {@link Type} to the fastest of several speakers. The first speaker is the primary
+ * one: until a type has a route, its calls are answered by the primary speaker, while every other
+ * speaker is timed on the same input and its result checked against the primary one. Once a type
+ * has been sampled enough times it is pinned to the fastest speaker whose results always matched,
+ * as Json trees read by the primary speaker.
+ *
+ * <p>Only the {@code String} and {@code byte[]} based calls are sampled, because their input can be
+ * replayed. Stream, appendable and file based calls follow the route of their type once it is
+ * pinned, and go to the primary speaker before.
+ *
+ * <p>The chosen routes are exposed through {@link #routes()}, so they can be reviewed and applied
+ * again with {@link #pin(Type, JolyglotGenerics)}, and {@link #freeze()} stops any further
+ * sampling.
+ */
+public final class RoutingJolyglot implements JolyglotGenerics {
+  public static final int DEFAULT_WARMUP_CALLS = 16;
+  public static final int DEFAULT_SAMPLE_CALLS = 64;
+  private final List<JolyglotGenerics> speakers;
+  private final JolyglotGenerics primary;
+  private final int warmupCalls;
+  private final int sampleCalls;
+  private final ConcurrentMap<Type, Route> routes = new ConcurrentHashMap<>();
+  private volatile boolean frozen;
+
+  public RoutingJolyglot(List<? extends JolyglotGenerics> speakers) {
+    this(speakers, DEFAULT_WARMUP_CALLS, DEFAULT_SAMPLE_CALLS);
+  }
+
+  /**
+   * @param speakers the speakers to route to, the first one being the primary speaker.
+   * @param warmupCalls the calls per type whose timings are discarded, while the speakers warm up.
+   * @param sampleCalls the calls per type timed after the warmup before pinning its route.
+   */
+  public RoutingJolyglot(List<? extends JolyglotGenerics> speakers, int warmupCalls,
+      int sampleCalls) {
+    if (speakers.isEmpty()) throw new IllegalArgumentException("No speakers to route to");
+    if (warmupCalls < 0) throw new IllegalArgumentException("warmupCalls < 0: " + warmupCalls);
+    if (sampleCalls < 1) throw new IllegalArgumentException("sampleCalls < 1: " + sampleCalls);
+    this.speakers = Collections.unmodifiableList(new ArrayList<JolyglotGenerics>(speakers));
+    this.primary = this.speakers.get(0);
+    this.warmupCalls = warmupCalls;
+    this.sampleCalls = sampleCalls;
+  }
+
+  /**
+   * Returns the types which have been pinned so far, and the speaker each of them is routed to.
+   */
+  public Map<Type, JolyglotGenerics> routes() {
+    Map<Type, JolyglotGenerics> pinned = new LinkedHashMap<>();
+    for (Map.Entry<Type, Route> entry : routes.entrySet()) {
+      JolyglotGenerics speaker = entry.getValue().speaker;
+      if (speaker != null) pinned.put(entry.getKey(), speaker);
+    }
+    return pinned;
+  }
+
+  /**
+   * Routes {@code type} to {@code speaker}, whether it has been sampled or not.
+   * @param speaker one of the speakers this instance was created with.
+   */
+  public void pin(Type type, JolyglotGenerics speaker) {
+    if (!containsSpeaker(speaker)) {
+      throw new IllegalArgumentException(speaker + " is not one of the speakers routed to");
+    }
+    route(type).speaker = speaker;
+  }
+
+  /**
+   * Stops sampling. Types already pinned keep their route, the rest go to the primary speaker.
+   */
+  public void freeze() {
+    frozen = true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public String toJson(final Object src) {
+    return sample(src == null ? Object.class : src.getClass(), new Call<String>() {
+      @Override String call(JolyglotGenerics speaker) {
+        return speaker.toJson(src);
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public String toJson(final Object src, final Type typeOfSrc) {
+    return sample(typeOfSrc, new Call<String>() {
+      @Override String call(JolyglotGenerics speaker) {
+        return speaker.toJson(src, typeOfSrc);
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, OutputStream out) throws RuntimeException {
+    speaker(src == null ? Object.class : src.getClass()).toJson(src, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, OutputStream out)
+      throws RuntimeException {
+    speaker(typeOfSrc).toJson(src, typeOfSrc, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Appendable out) throws RuntimeException {
+    speaker(src == null ? Object.class : src.getClass()).toJson(src, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, Appendable out)
+      throws RuntimeException {
+    speaker(typeOfSrc).toJson(src, typeOfSrc, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, File file) throws RuntimeException {
+    speaker(src == null ? Object.class : src.getClass()).toJson(src, file);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, File file) throws RuntimeException {
+    speaker(typeOfSrc).toJson(src, typeOfSrc, file);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(final String json, final Class<T> classOfT)
+      throws RuntimeException {
+    return sample(classOfT, new ObjectCall<T>(classOfT) {
+      @Override T call(JolyglotGenerics speaker) {
+        return speaker.fromJson(json, classOfT);
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(final String json, final Type type) throws RuntimeException {
+    return sample(type, new ObjectCall<T>(type) {
+      @Override T call(JolyglotGenerics speaker) {
+        return speaker.fromJson(json, type);
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(final byte[] json, final Class<T> classOfT)
+      throws RuntimeException {
+    return sample(classOfT, new ObjectCall<T>(classOfT) {
+      @Override T call(JolyglotGenerics speaker) {
+        return speaker.fromJson(json, classOfT);
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(final byte[] json, final Type typeOfT) throws RuntimeException {
+    return sample(typeOfT, new ObjectCall<T>(typeOfT) {
+      @Override T call(JolyglotGenerics speaker) {
+        return speaker.fromJson(json, typeOfT);
+      }
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(File file, Class<T> classOfT) throws RuntimeException {
+    return speaker(classOfT).fromJson(file, classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(File file, Type typeOfT) throws RuntimeException {
+    return speaker(typeOfT).fromJson(file, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Class<T> classOfT) throws RuntimeException {
+    return speaker(classOfT).fromJson(in, classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Type typeOfT) throws RuntimeException {
+    return speaker(typeOfT).fromJson(in, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public GenericArrayType arrayOf(Type componentType) {
+    return primary.arrayOf(componentType);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public ParameterizedType newParameterizedType(Type rawType, Type... typeArguments) {
+    return primary.newParameterizedType(rawType, typeArguments);
+  }
+
+  private JolyglotGenerics speaker(Type type) {
+    Route route = routes.get(type);
+    JolyglotGenerics speaker = route != null ? route.speaker : null;
+    return speaker != null ? speaker : primary;
+  }
+
+  private Route route(Type type) {
+    Route route = routes.get(type);
+    if (route == null) {
+      route = new Route(speakers.size());
+      Route previous = routes.putIfAbsent(type, route);
+      if (previous != null) route = previous;
+    }
+    return route;
+  }
+
+  /**
+   * Runs {@code call} on the speaker {@code type} is routed to or, if it has not been pinned yet,
+   * on every speaker, returning the result of the primary one.
+   */
+  private <R> R sample(Type type, Call<R> call) {
+    Route route = frozen ? routes.get(type) : route(type);
+    JolyglotGenerics pinned = route != null ? route.speaker : null;
+    if (pinned != null) return call.call(pinned);
+    if (route == null || speakers.size() == 1) return call.call(primary);
+
+    // Rotates the order the speakers are called in, so none of them always runs with cold caches.
+    int count = speakers.size();
+    int offset = route.calls() % count;
+    long[] nanos = new long[count];
+    boolean[] mismatched = new boolean[count];
+    Object[] results = new Object[count];
+    for (int i = 0; i < count; i++) {
+      int index = (offset + i) % count;
+      if (index != 0 && route.mismatched[index]) continue;
+      long start = System.nanoTime();
+      try {
+        results[index] = call.call(speakers.get(index));
+      } catch (RuntimeException e) {
+        if (index == 0) throw e;
+        mismatched[index] = true;
+      }
+      nanos[index] = System.nanoTime() - start;
+    }
+
+    @SuppressWarnings("unchecked")
+    R expected = (R) results[0];
+    String expectedJson = call.json(expected);
+    for (int index = 1; index < count; index++) {
+      if (mismatched[index] || route.mismatched[index]) continue;
+      mismatched[index] = !sameJson(expectedJson, call.json(results[index]));
+    }
+    route.record(nanos, mismatched);
+    return expected;
+  }
+
+  /**
+   * Returns whether both Json texts hold the same tree, as read by the primary speaker.
+   */
+  private boolean sameJson(String expected, String actual) {
+    if (expected == null || actual == null) return false;
+    if (expected.equals(actual)) return true;
+    try {
+      Object expectedTree = primary.fromJson(expected, Object.class);
+      Object actualTree = primary.fromJson(actual, Object.class);
+      return expectedTree == null ? actualTree == null : expectedTree.equals(actualTree);
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  private boolean containsSpeaker(JolyglotGenerics speaker) {
+    for (JolyglotGenerics candidate : speakers) {
+      if (candidate == speaker) return true;
+    }
+    return false;
+  }
+
+  /**
+   * A call to be run on every speaker being sampled.
+   */
+  private abstract class Call<R> {
+
+    abstract R call(JolyglotGenerics speaker);
+
+    /**
+     * Returns the Json text the results of every speaker are compared by.
+     */
+    String json(Object result) {
+      return (String) result;
+    }
+  }
+
+  /**
+   * A call binding Json to an object of {@code type}, whose results are compared by their Json as
+   * written by the primary speaker.
+   */
+  private abstract class ObjectCall<R> extends Call<R> {
+    private final Type type;
+
+    ObjectCall(Type type) {
+      this.type = type;
+    }
+
+    @Override String json(Object result) {
+      try {
+        return primary.toJson(result, type);
+      } catch (RuntimeException e) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * The timings of every speaker for one type, and the speaker it is pinned to once decided.
+   */
+  private final class Route {
+    volatile JolyglotGenerics speaker;
+    final boolean[] mismatched;
+    private final long[] nanos;
+    private int calls;
+
+    Route(int speakers) {
+      this.mismatched = new boolean[speakers];
+      this.nanos = new long[speakers];
+    }
+
+    synchronized int calls() {
+      return calls;
+    }
+
+    synchronized void record(long[] sampleNanos, boolean[] sampleMismatched) {
+      if (speaker != null) return;
+      for (int i = 0; i < nanos.length; i++) {
+        mismatched[i] |= sampleMismatched[i];
+        if (calls >= warmupCalls) nanos[i] += sampleNanos[i];
+      }
+      if (++calls < warmupCalls + sampleCalls) return;
+
+      int fastest = 0;
+      for (int i = 1; i < nanos.length; i++) {
+        if (!mismatched[i] && nanos[i] < nanos[fastest]) fastest = i;
+      }
+      speaker = speakers.get(fastest);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.Writer;
+
+/**
+ * A {@link Writer} over a {@link StringBuilder} recycled per thread, so building the Json of an
+ * object as a String allocates nothing but the String itself once the buffer has grown to the
+ * size of the payloads. Unlike {@link java.io.StringWriter} it is not synchronized.
+ *
+ * <p>A writer is taken out of the pool by {@link #acquire()} until handed back with
+ * {@link #recycle()}, so nested serializations on the same thread, such as those performed by a
+ * custom adapter, get a writer of their own.
+ */
+public final class StringBuilderWriter extends Writer {
+  private static final int INITIAL_CAPACITY = 256;
+  /**
+   * Buffers grown past this number of chars are dropped instead of recycled, so a single large
+   * payload is not retained by the thread.
+   */
+  static final int MAX_RECYCLED_CAPACITY = 256 * 1024;
+  private static final ThreadLocal<StringBuilderWriter> POOL = new ThreadLocal<>();
+  private final StringBuilder builder;
+
+  StringBuilderWriter(int capacity) {
+    this.builder = new StringBuilder(capacity);
+  }
+
+  /**
+   * Returns an empty writer, the one recycled by the current thread when it is not in use.
+   */
+  public static StringBuilderWriter acquire() {
+    StringBuilderWriter writer = POOL.get();
+    if (writer == null) return new StringBuilderWriter(INITIAL_CAPACITY);
+    POOL.set(null);
+    return writer;
+  }
+
+  /**
+   * Empties this writer and hands it back to the pool of the current thread. It must not be used
+   * afterwards.
+   */
+  public void recycle() {
+    if (builder.capacity() > MAX_RECYCLED_CAPACITY) return;
+    builder.setLength(0);
+    POOL.set(this);
+  }
+
+  /**
+   * Empties this writer, so it can be written again.
+   */
+  public void reset() {
+    builder.setLength(0);
+  }
+
+  @Override public void write(int c) {
+    builder.append((char) c);
+  }
+
+  @Override public void write(char[] cbuf, int off, int len) {
+    builder.append(cbuf, off, len);
+  }
+
+  @Override public void write(String str) {
+    builder.append(str);
+  }
+
+  @Override public void write(String str, int off, int len) {
+    builder.append(str, off, off + len);
+  }
+
+  @Override public StringBuilderWriter append(CharSequence csq) {
+    builder.append(csq);
+    return this;
+  }
+
+  @Override public StringBuilderWriter append(CharSequence csq, int start, int end) {
+    builder.append(csq, start, end);
+    return this;
+  }
+
+  @Override public StringBuilderWriter append(char c) {
+    builder.append(c);
+    return this;
+  }
+
+  @Override public void flush() {
+  }
+
+  @Override public void close() {
+  }
+
+  /**
+   * Returns the chars written so far.
+   */
+  @Override public String toString() {
+    return builder.toString();
+  }
+}
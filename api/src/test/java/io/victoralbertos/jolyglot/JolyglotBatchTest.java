@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Base test to be extended from every json provider which supports batches.
+ */
+public abstract class JolyglotBatchTest {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private JolyglotBatch jolyglot;
+
+  @Before public void setUp() {
+    jolyglot = jolyglot();
+  }
+
+  @Test public void toJsonAllThenFromJsonAll() {
+    List<MockLine> lines = lines(10);
+    List<String> jsons = jolyglot.toJsonAll(lines, MockLine.class);
+    assertThat(jsons.size(), is(10));
+
+    List<MockLine> values = jolyglot.fromJsonAll(jsons, MockLine.class);
+    assertIndexes(values, 10);
+  }
+
+  @Test public void toJsonBytesAllThenFromJsonBytesAll() {
+    List<MockLine> lines = lines(10);
+    List<byte[]> jsons = jolyglot.toJsonBytesAll(lines, MockLine.class);
+    assertThat(jsons.size(), is(10));
+    assertThat(new String(jsons.get(3), UTF_8), is(jolyglot.toJsonAll(
+        Collections.singletonList(lines.get(3)), MockLine.class).get(0)));
+
+    List<MockLine> values = jolyglot.fromJsonBytesAll(jsons, MockLine.class);
+    assertIndexes(values, 10);
+  }
+
+  @Test public void eachJsonIsIndependent() {
+    MockLine line = new MockLine();
+    line.index = 5;
+    List<String> jsons = jolyglot.toJsonAll(Arrays.asList(line, line, line), MockLine.class);
+
+    assertThat(jsons.get(0), is(jsons.get(1)));
+    assertThat(jsons.get(0), is(jsons.get(2)));
+    List<MockLine> values = jolyglot.fromJsonAll(jsons, MockLine.class);
+    assertThat(values.get(2).index, is(5));
+  }
+
+  @Test public void fromJsonAllArrays() {
+    List<Integer[]> values = jolyglot.fromJsonAll(Arrays.asList("[1,2]", "[]", "[3]"),
+        Integer[].class);
+
+    assertThat(values.size(), is(3));
+    assertThat(values.get(0)[1], is(2));
+    assertThat(values.get(1).length, is(0));
+    assertThat(values.get(2)[0], is(3));
+  }
+
+  @Test public void emptyBatches() {
+    assertThat(jolyglot.toJsonAll(Collections.emptyList(), MockLine.class).size(), is(0));
+    assertThat(jolyglot.toJsonBytesAll(Collections.emptyList(), MockLine.class).size(), is(0));
+    List<MockLine> values = jolyglot.fromJsonAll(Collections.<String>emptyList(),
+        MockLine.class);
+    assertThat(values.size(), is(0));
+  }
+
+  @Test(expected = RuntimeException.class) public void fromJsonAllMalformed() {
+    jolyglot.fromJsonAll(Arrays.asList("{\"index\":1}", "{\"index\":"), MockLine.class);
+  }
+
+  protected static List<MockLine> lines(int size) {
+    List<MockLine> lines = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      MockLine line = new MockLine();
+      line.index = i;
+      lines.add(line);
+    }
+    return lines;
+  }
+
+  protected static void assertIndexes(List<MockLine> values, int size) {
+    assertThat(values.size(), is(size));
+    for (int i = 0; i < size; i++) {
+      assertThat(values.get(i).index, is(i));
+    }
+  }
+
+  protected abstract JolyglotBatch jolyglot();
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public final class JolyglotBindingTest {
+  List<MockLine> lines;
+  Map<String, Integer> counts;
+
+  @Test public void bindingOfModel() {
+    JolyglotBinding<ModelMock> binding = JolyglotBinding.of(ModelMock.class);
+    assertThat(binding.getClass().getName(), is(ModelMock.class.getName() + "_JolyglotBinding"));
+
+    Type[] types = binding.types();
+    assertThat(types.length, is(5));
+    assertThat(types[0], is((Type) MockLine.class));
+    assertThat(types[1], is(genericType("lines")));
+    assertThat(types[2], is(genericType("counts")));
+    assertThat(types[3], is((Type) String[].class));
+    assertThat(types[4], is((Type) ModelMock.class));
+    assertThat(types[1].hashCode(), is(genericType("lines").hashCode()));
+  }
+
+  @Test public void bindingOfNestedModel() {
+    JolyglotBinding<ModelMock.Sub> binding = JolyglotBinding.of(ModelMock.Sub.class);
+    assertThat(binding.types()[0], is(genericType("lines")));
+  }
+
+  @Test public void noBindingWithoutAnnotation() {
+    assertThat(JolyglotBinding.of(MockLine.class), is(nullValue()));
+  }
+
+  private static Type genericType(String field) {
+    try {
+      return JolyglotBindingTest.class.getDeclaredField(field).getGenericType();
+    } catch (NoSuchFieldException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public final class JolyglotCodecTest {
+  private static final String JSON = "[{\"s1\":\"\u00f1\"},{\"s1\":\"s1\"}]";
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test public void detectsByMagicBytes() throws IOException {
+    byte[] gzip = compress(JolyglotCodec.GZIP);
+    assertThat(JolyglotCodec.detect(gzip, gzip.length), is(JolyglotCodec.GZIP));
+    byte[] json = JSON.getBytes("UTF-8");
+    assertThat(JolyglotCodec.detect(json, json.length), is(JolyglotCodec.IDENTITY));
+    assertThat(JolyglotCodec.detect(gzip, 1), is(JolyglotCodec.IDENTITY));
+    assertThat(JolyglotCodec.detect(new byte[0], 0), is(JolyglotCodec.IDENTITY));
+  }
+
+  @Test public void roundTripsGzip() throws IOException {
+    assertThat(read(JolyglotCodec.decompressing(
+        new ByteArrayInputStream(compress(JolyglotCodec.GZIP)))), is(JSON));
+  }
+
+  @Test public void roundTripsZstd() throws IOException {
+    assumeTrue(JolyglotCodec.ZSTD.isAvailable());
+    byte[] zstd = compress(JolyglotCodec.ZSTD);
+    assertThat(JolyglotCodec.detect(zstd, zstd.length), is(JolyglotCodec.ZSTD));
+    assertThat(read(JolyglotCodec.decompressing(new ByteArrayInputStream(zstd))), is(JSON));
+  }
+
+  @Test public void readsUncompressedStreamsAsIs() throws IOException {
+    assertThat(read(JolyglotCodec.decompressing(new ByteArrayInputStream(new byte[0]))),
+        is(""));
+    assertThat(read(JolyglotCodec.decompressing(
+        new ByteArrayInputStream(JSON.getBytes("UTF-8")))), is(JSON));
+  }
+
+  @Test public void compressingLeavesTheStreamOpen() throws IOException {
+    final boolean[] closed = new boolean[1];
+    OutputStream out = new ByteArrayOutputStream() {
+      @Override public void close() {
+        closed[0] = true;
+      }
+    };
+    JolyglotCodec.GZIP.compress(out).close();
+    assertTrue(!closed[0]);
+  }
+
+  @Test public void filesAreDecompressedWhenRead() throws IOException {
+    File file = temporaryFolder.newFile("mocks.json.gz");
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(compress(JolyglotCodec.GZIP));
+    out.close();
+
+    assertThat(read(JolyglotFiles.open(file, Long.MAX_VALUE)), is(JSON));
+    assertThat(read(JolyglotFiles.open(file, 0)), is(JSON));
+  }
+
+  private static byte[] compress(JolyglotCodec codec) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OutputStream compressed = codec.compress(out);
+    compressed.write(JSON.getBytes("UTF-8"));
+    compressed.close();
+    return out.toByteArray();
+  }
+
+  private static String read(InputStream in) throws IOException {
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toString("UTF-8");
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public final class JolyglotFilesTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test public void readsSmallFilesFully() throws IOException {
+    File file = write("{\"s1\":\"\u00f1\"}");
+    assertThat(read(JolyglotFiles.open(file, Long.MAX_VALUE)), is("{\"s1\":\"\u00f1\"}"));
+  }
+
+  @Test public void mapsLargeFiles() throws IOException {
+    File file = write("{\"s1\":\"\u00f1\"}");
+    assertThat(read(JolyglotFiles.open(file, 0)), is("{\"s1\":\"\u00f1\"}"));
+  }
+
+  @Test public void readsEmptyFiles() throws IOException {
+    File file = write("");
+    assertThat(read(JolyglotFiles.open(file, 0)), is(""));
+    assertThat(read(JolyglotFiles.open(file, Long.MAX_VALUE)), is(""));
+  }
+
+  @Test public void mapsFilesTooLargeForAnArray() throws IOException {
+    File file = temporaryFolder.newFile("sparse.json");
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      randomAccessFile.setLength(Integer.MAX_VALUE + 1L);
+    } finally {
+      randomAccessFile.close();
+    }
+    InputStream in = JolyglotFiles.open(file, Long.MAX_VALUE);
+    try {
+      assertThat(in.read(), is(0));
+    } finally {
+      in.close();
+    }
+  }
+
+  @Test public void readsAcrossMappedRegions() throws IOException {
+    File file = write("[{\"s1\":\"s1\"},{\"s1\":\"s1\"}]");
+    FileInputStream fileInputStream = new FileInputStream(file);
+    try {
+      InputStream in = new MappedFileInputStream(fileInputStream.getChannel(), file.length(), 3);
+      assertThat(read(in), is("[{\"s1\":\"s1\"},{\"s1\":\"s1\"}]"));
+    } finally {
+      fileInputStream.close();
+    }
+  }
+
+  @Test public void replacesFilesOnceCommitted() throws IOException {
+    File file = write("previous");
+    AtomicFileOutputStream out = JolyglotFiles.create(file, true);
+    out.write("{\"s1\":\"\u00f1\"}".getBytes("UTF-8"));
+    out.flush();
+    assertThat(read(new FileInputStream(file)), is("previous"));
+
+    out.commit();
+    out.close();
+    assertThat(read(new FileInputStream(file)), is("{\"s1\":\"\u00f1\"}"));
+    assertThat(temporaryFolder.getRoot().list().length, is(1));
+  }
+
+  @Test public void discardsFilesClosedBeforeCommitted() throws IOException {
+    File file = write("previous");
+    AtomicFileOutputStream out = JolyglotFiles.create(file);
+    out.write("{}".getBytes("UTF-8"));
+    out.close();
+
+    assertThat(read(new FileInputStream(file)), is("previous"));
+    assertThat(temporaryFolder.getRoot().list().length, is(1));
+  }
+
+  @Test public void writesAcrossBuffers() throws IOException {
+    File file = new File(temporaryFolder.getRoot(), "large.json");
+    byte[] bytes = new byte[JolyglotFiles.WRITE_BUFFER_SIZE * 3 + 7];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) ('a' + i % 26);
+    }
+    AtomicFileOutputStream out = JolyglotFiles.create(file);
+    out.write(bytes, 0, 10);
+    out.write(bytes[10]);
+    out.write(bytes, 11, JolyglotFiles.WRITE_BUFFER_SIZE);
+    out.write(bytes, 11 + JolyglotFiles.WRITE_BUFFER_SIZE,
+        bytes.length - 11 - JolyglotFiles.WRITE_BUFFER_SIZE);
+    out.commit();
+    out.close();
+
+    assertThat(read(new FileInputStream(file)), is(new String(bytes, "UTF-8")));
+  }
+
+  private File write(String content) throws IOException {
+    File file = temporaryFolder.newFile();
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(content.getBytes("UTF-8"));
+    out.close();
+    return file;
+  }
+
+  private String read(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[2];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    in.close();
+    return out.toString("UTF-8");
+  }
+}
@@ -1,5 +1,7 @@
 package io.victoralbertos.jolyglot;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.lang.reflect.GenericArrayType;
@@ -137,6 +139,74 @@ public abstract class JolyglotGenericsTest {
     }
   }
 
+  @Test public void toJsonTypeOutputStream() throws Exception {
+    Method method = Types.class.getDeclaredMethod("mockParameterized");
+    Type type = method.getGenericReturnType();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    jolyglot.toJson(new MockParameterized<>(new Mock()), type, out);
+    String json = out.toString("UTF-8");
+
+    try {
+      assertThat(json, is(jsonMockParameterizedSample()));
+    } catch (AssertionError i) {
+      assertThat(json, is(jsonMockParameterizedSampleReverse()));
+    }
+  }
+
+  @Test public void toJsonTypeAppendable() throws Exception {
+    Method method = Types.class.getDeclaredMethod("mockParameterized");
+    Type type = method.getGenericReturnType();
+
+    StringBuilder out = new StringBuilder();
+    jolyglot.toJson(new MockParameterized<>(new Mock()), type, out);
+    String json = out.toString();
+
+    try {
+      assertThat(json, is(jsonMockParameterizedSample()));
+    } catch (AssertionError i) {
+      assertThat(json, is(jsonMockParameterizedSampleReverse()));
+    }
+  }
+
+  @Test public void toJsonTypeFile() throws Exception {
+    Method method = Types.class.getDeclaredMethod("mockParameterized");
+    Type type = method.getGenericReturnType();
+    File file = new File(temporaryFolder.getRoot(), "mockParameterized.json");
+
+    jolyglot.toJson(new MockParameterized<>(new Mock()), type, file);
+    MockParameterized<Mock> mockParameterized = jolyglot.fromJson(file, type);
+    assertThat(mockParameterized.getT().getS1(), is("s1"));
+    assertThat(temporaryFolder.getRoot().list().length, is(1));
+  }
+
+  @Test public void fromInputStreamJsonType() throws Exception {
+    Method method = Types.class.getDeclaredMethod("mockParameterized");
+    Type type = method.getGenericReturnType();
+
+    ByteArrayInputStream in =
+        new ByteArrayInputStream(jsonMockParameterizedSample().getBytes("UTF-8"));
+    MockParameterized<Mock> mockParameterized = jolyglot.fromJson(in, type);
+
+    try {
+      assertThat(jolyglot.toJson(mockParameterized, type),
+          is(jsonMockParameterizedSample()));
+    } catch (AssertionError i) {
+      assertThat(jolyglot.toJson(mockParameterized, type),
+          is(jsonMockParameterizedSampleReverse()));
+    }
+  }
+
+  @Test public void fromBytesJsonType() throws Exception {
+    Method method = Types.class.getDeclaredMethod("mockList");
+    Type type = method.getGenericReturnType();
+
+    List<Mock> mocks = jolyglot.fromJson(jsonMockListSample().getBytes("UTF-8"), type);
+
+    assertThat(jolyglot.toJson(mocks, type),
+        is(jsonMockListSample()));
+  }
+
   @Test public void arrayOf() {
     Mock[] mocks = {new Mock(), new Mock()};
     Class classMocksArray = mocks.getClass();
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class JolyglotHistogramTest {
+
+  @Test public void emptyHistogram() {
+    JolyglotHistogram histogram = new JolyglotHistogram();
+    assertThat(histogram.count(), is(0L));
+    assertThat(histogram.valueAtPercentile(99), is(0L));
+    assertThat(histogram.mean(), is(0d));
+  }
+
+  @Test public void smallValuesAreExact() {
+    JolyglotHistogram histogram = new JolyglotHistogram();
+    for (long value = 1; value <= 10; value++) {
+      histogram.record(value);
+    }
+
+    assertThat(histogram.count(), is(10L));
+    assertThat(histogram.sum(), is(55L));
+    assertThat(histogram.max(), is(10L));
+    assertThat(histogram.valueAtPercentile(50), is(5L));
+    assertThat(histogram.valueAtPercentile(100), is(10L));
+  }
+
+  @Test public void largeValuesKeepRelativePrecision() {
+    JolyglotHistogram histogram = new JolyglotHistogram();
+    for (long value = 1000; value <= 1000000; value += 1000) {
+      histogram.record(value);
+    }
+
+    long p50 = histogram.valueAtPercentile(50);
+    long p99 = histogram.valueAtPercentile(99);
+    assertTrue(p50 + " not within 3.2% of 500000", Math.abs(p50 - 500000) <= 500000 * 0.032);
+    assertTrue(p99 + " not within 3.2% of 990000", Math.abs(p99 - 990000) <= 990000 * 0.032);
+  }
+
+  @Test public void bucketsCoverTheLongRange() {
+    long[] values = {0, 1, 31, 32, 33, 63, 64, 1000, 1L << 40, Long.MAX_VALUE};
+    for (long value : values) {
+      int index = JolyglotHistogram.indexOf(value);
+      assertTrue(value + " below its bucket", JolyglotHistogram.lowestEquivalentValue(index) <= value);
+      assertTrue(value + " above its bucket", JolyglotHistogram.highestEquivalentValue(index) >= value);
+    }
+  }
+
+  @Test public void negativeValuesAreRecordedAsZero() {
+    JolyglotHistogram histogram = new JolyglotHistogram();
+    histogram.record(-5);
+    assertThat(histogram.count(), is(1L));
+    assertThat(histogram.max(), is(0L));
+  }
+}
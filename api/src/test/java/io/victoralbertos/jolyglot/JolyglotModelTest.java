@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Base test to be extended from every json provider which binds {@link JolyglotModel} classes.
+ */
+public abstract class JolyglotModelTest {
+  private Jolyglot jolyglot;
+
+  @Before public void setUp() {
+    jolyglot = jolyglot();
+  }
+
+  @Test public void roundTrip() {
+    ModelMock model = model();
+    ModelMock child = new ModelMock();
+    child.id = 2;
+    child.name = "child";
+    model.child = child;
+
+    String json = jolyglot.toJson(model);
+    assertThat(json, containsString("\"id\":1"));
+    assertThat(json, not(containsString("ignored")));
+
+    ModelMock read = jolyglot.fromJson(json, ModelMock.class);
+    assertThat(read.id, is(1));
+    assertThat(read.total, is(10000000000L));
+    assertThat(read.ratio, is(0.5));
+    assertThat(read.weight, is(1.1f));
+    assertThat(read.active, is(true));
+    assertThat(read.grade, is('A'));
+    assertThat(read.small, is((short) 300));
+    assertThat(read.tiny, is((byte) -3));
+    assertThat(read.name, is("n\u00f1\"ame"));
+    assertThat(read.count, is(7));
+    assertThat(read.flag, is(false));
+    assertThat(read.letter, is('z'));
+    assertThat(read.line.index, is(3));
+    assertThat(read.lines.size(), is(2));
+    assertThat(read.lines.get(1).index, is(5));
+    assertThat(read.counts.get("a"), is(1));
+    assertThat(read.tags[1], is("t2"));
+    assertThat(read.child.id, is(2));
+    assertThat(read.child.name, is("child"));
+    assertThat(read.child.child, is(nullValue()));
+    assertThat(read.ignored, is(nullValue()));
+  }
+
+  @Test public void nullsAndMissingMembers() {
+    ModelMock read = jolyglot.fromJson("{\"id\":null,\"name\":null,\"count\":null,"
+        + "\"line\":null,\"lines\":null}", ModelMock.class);
+    assertThat(read.id, is(0));
+    assertThat(read.name, is(nullValue()));
+    assertThat(read.count, is(nullValue()));
+    assertThat(read.line, is(nullValue()));
+    assertThat(read.lines, is(nullValue()));
+
+    read = jolyglot.fromJson("{}", ModelMock.class);
+    assertThat(read.total, is(0L));
+    assertThat(read.tags, is(nullValue()));
+
+    ModelMock written = jolyglot.fromJson(jolyglot.toJson(new ModelMock()), ModelMock.class);
+    assertThat(written.name, is(nullValue()));
+    assertThat(written.child, is(nullValue()));
+  }
+
+  @Test public void unknownMembersAreSkipped() {
+    ModelMock read = jolyglot.fromJson("{\"unknown\":{\"a\":[1,{\"b\":null}]},\"id\":3,"
+        + "\"other\":[\"x\"],\"name\":\"n\"}", ModelMock.class);
+    assertThat(read.id, is(3));
+    assertThat(read.name, is("n"));
+  }
+
+  @Test public void inheritedFields() {
+    ModelMock.Sub sub = new ModelMock.Sub();
+    sub.id = 4;
+    MockLine line = new MockLine();
+    line.index = 8;
+    sub.more = Collections.singletonList(line);
+
+    ModelMock.Sub read = jolyglot.fromJson(jolyglot.toJson(sub), ModelMock.Sub.class);
+    assertThat(read.id, is(4));
+    assertThat(read.more.get(0).index, is(8));
+  }
+
+  @Test(expected = RuntimeException.class) public void nonNumericStringsFailAsInts() {
+    jolyglot.fromJson("{\"id\":\"abc\"}", ModelMock.class);
+  }
+
+  @Test(expected = RuntimeException.class) public void fractionsFailAsInts() {
+    jolyglot.fromJson("{\"id\":1.9}", ModelMock.class);
+  }
+
+  @Test(expected = RuntimeException.class) public void otherStringsFailAsBooleans() {
+    jolyglot.fromJson("{\"active\":\"yes\"}", ModelMock.class);
+  }
+
+  @Test(expected = RuntimeException.class) public void objectsFailAsDoubles() {
+    jolyglot.fromJson("{\"ratio\":{}}", ModelMock.class);
+  }
+
+  @Test(expected = RuntimeException.class) public void outOfRangeValuesFailAsShorts() {
+    jolyglot.fromJson("{\"small\":70000}", ModelMock.class);
+  }
+
+  @Test(expected = RuntimeException.class) public void outOfRangeValuesFailAsBytes() {
+    jolyglot.fromJson("{\"tiny\":300}", ModelMock.class);
+  }
+
+  @Test(expected = RuntimeException.class) public void emptyStringsFailAsChars() {
+    jolyglot.fromJson("{\"grade\":\"\"}", ModelMock.class);
+  }
+
+  @Test(expected = RuntimeException.class) public void longerStringsFailAsChars() {
+    jolyglot.fromJson("{\"grade\":\"ab\"}", ModelMock.class);
+  }
+
+  private static ModelMock model() {
+    ModelMock model = new ModelMock();
+    model.id = 1;
+    model.total = 10000000000L;
+    model.ratio = 0.5;
+    model.weight = 1.1f;
+    model.active = true;
+    model.grade = 'A';
+    model.small = 300;
+    model.tiny = -3;
+    model.name = "n\u00f1\"ame";
+    model.count = 7;
+    model.flag = false;
+    model.letter = 'z';
+    model.line = line(3);
+    model.lines = Arrays.asList(line(4), line(5));
+    model.counts = Collections.singletonMap("a", 1);
+    model.tags = new String[] {"t1", "t2"};
+    model.ignored = "ignored";
+    return model;
+  }
+
+  private static MockLine line(int index) {
+    MockLine line = new MockLine();
+    line.index = index;
+    return line;
+  }
+
+  protected abstract Jolyglot jolyglot();
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Base test to be extended from every json provider supporting generics, which binds the nodes.
+ */
+public abstract class JolyglotNodeTest {
+  private static final String JSON = " {\"id\":7,\"score\":-2.5e1,\"active\":true,\"none\":null,"
+      + "\"lines\":[{\"index\":1},{\"index\":2}],"
+      + "\"name\":\"a\\\"b\\\\c\\u00f1\\n\",\"\u00f1\":\"\u00f1\",\"a\\/b\":[],\"empty\":{}} ";
+  private JolyglotGenerics jolyglot;
+
+  @Before public void setUp() {
+    jolyglot = jolyglot();
+  }
+
+  @Test public void navigatesObjects() {
+    JolyglotNode node = JolyglotNode.of(JSON, jolyglot);
+    assertThat(node.kind(), is(JolyglotNode.Kind.OBJECT));
+    assertThat(node.size(), is(9));
+    assertThat(node.names(), is(Arrays.asList("id", "score", "active", "none", "lines", "name",
+        "\u00f1", "a/b", "empty")));
+    assertThat(node.get("missing"), is(nullValue()));
+    assertThat(node.get(0), is(nullValue()));
+    assertThat(node.get("lines"), is(sameInstance(node.get("lines"))));
+    assertThat(node.get("empty").size(), is(0));
+    assertThat(node.get("a/b").kind(), is(JolyglotNode.Kind.ARRAY));
+  }
+
+  @Test public void navigatesArrays() {
+    JolyglotNode lines = JolyglotNode.of(JSON, jolyglot).get("lines");
+    assertThat(lines.size(), is(2));
+    assertThat(lines.get(1).get("index").asLong(), is(2L));
+    assertThat(lines.get(2), is(nullValue()));
+    assertThat(lines.get(-1), is(nullValue()));
+    assertThat(lines.get("index"), is(nullValue()));
+    assertThat(JolyglotNode.of("[ ]", jolyglot).size(), is(0));
+  }
+
+  @Test public void readsScalars() {
+    JolyglotNode node = JolyglotNode.of(JSON, jolyglot);
+    assertThat(node.get("id").asLong(), is(7L));
+    assertThat(node.get("score").asDouble(), is(-25d));
+    assertTrue(node.get("active").asBoolean());
+    assertTrue(node.get("none").isNull());
+    assertFalse(node.get("id").isNull());
+    assertThat(node.get("name").asString(), is("a\"b\\c\u00f1\n"));
+    assertThat(node.get("\u00f1").asString(), is("\u00f1"));
+    assertThat(node.get("name").toString(), is("\"a\\\"b\\\\c\\u00f1\\n\""));
+    assertThat(node.get("lines").get(0).toString(), is("{\"index\":1}"));
+  }
+
+  @Test public void resolvesPointers() {
+    JolyglotNode node = JolyglotNode.of(JSON, jolyglot);
+    assertThat(node.at(JolyglotPointer.parse("/lines/0/index")).asLong(), is(1L));
+    assertThat(node.at(JolyglotPointer.parse("")), is(sameInstance(node)));
+    assertThat(node.at(JolyglotPointer.parse("/lines/01")), is(nullValue()));
+    assertThat(node.at(JolyglotPointer.parse("/id/0")), is(nullValue()));
+  }
+
+  @Test public void bindsNodesThroughTheSpeaker() {
+    JolyglotNode lines = JolyglotNode.of(JSON, jolyglot).get("lines");
+    assertThat(lines.get(1).as(MockLine.class).index, is(2));
+
+    Type type = jolyglot.newParameterizedType(List.class, MockLine.class);
+    List<MockLine> list = lines.as(type);
+    assertThat(list.size(), is(2));
+    assertThat(list.get(0).index, is(1));
+  }
+
+  @Test public void onlyIndexesWhatIsAccessed() {
+    JolyglotNode node = JolyglotNode.of("{\"ok\":1,\"bad\":[1,,{\"x\"]}}", jolyglot);
+    assertThat(node.get("ok").asLong(), is(1L));
+    assertThat(JolyglotNode.of("[1,tru", jolyglot).kind(), is(JolyglotNode.Kind.ARRAY));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void failsOnMalformedJsonWhenAccessed() {
+    JolyglotNode.of("{\"a\" 1}", jolyglot).get("a");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void failsOnMismatchedKinds() {
+    JolyglotNode.of(JSON, jolyglot).get("id").asString();
+  }
+
+  protected abstract JolyglotGenerics jolyglot();
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Base test to be extended from every json provider, to check it can be used to read newline
+ * delimited json in parallel.
+ */
+public abstract class JolyglotParallelReaderTest {
+  private static final int LINES = 5000;
+  private Jolyglot jolyglot;
+  private File file;
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Before public void setUp() throws IOException {
+    jolyglot = jolyglot();
+    file = temporaryFolder.newFile("lines.ndjson");
+    StringBuilder lines = new StringBuilder();
+    for (int i = 0; i < LINES; i++) {
+      if (i % 100 == 0) lines.append("\r\n");
+      lines.append("{\"index\":").append(i).append('}');
+      if (i < LINES - 1) lines.append('\n');
+    }
+    write(file, lines.toString());
+  }
+
+  @Test public void forEachOrderedKeepsTheOrderOfTheFile() {
+    for (int chunkSize : new int[] {1, 100, 4096, Integer.MAX_VALUE}) {
+      JolyglotParallelReader reader = new JolyglotParallelReader(jolyglot, 4, chunkSize);
+      List<Integer> indexes = new ArrayList<>();
+      reader.forEachOrdered(file, MockLine.class, collect(indexes));
+      assertThat(indexes, is(expectedIndexes()));
+    }
+  }
+
+  @Test public void forEachBindsEveryLine() {
+    for (int chunkSize : new int[] {1, 100, 4096, Integer.MAX_VALUE}) {
+      JolyglotParallelReader reader = new JolyglotParallelReader(jolyglot, 4, chunkSize);
+      List<Integer> indexes = Collections.synchronizedList(new ArrayList<Integer>());
+      reader.forEach(file, MockLine.class, collect(indexes));
+      Collections.sort(indexes);
+      assertThat(indexes, is(expectedIndexes()));
+    }
+  }
+
+  @Test public void speakersWithoutStreamingAreBoundLineByLine() {
+    Jolyglot instrumented = new InstrumentedJolyglot(jolyglot, new JolyglotMetrics());
+    JolyglotParallelReader reader = new JolyglotParallelReader(instrumented, 4, 100);
+    List<Integer> indexes = new ArrayList<>();
+    reader.forEachOrdered(file, MockLine.class, collect(indexes));
+    assertThat(indexes, is(expectedIndexes()));
+  }
+
+  @Test public void emptyFile() throws IOException {
+    File empty = temporaryFolder.newFile("empty.ndjson");
+    List<Integer> indexes = new ArrayList<>();
+    new JolyglotParallelReader(jolyglot).forEach(empty, MockLine.class, collect(indexes));
+    new JolyglotParallelReader(jolyglot).forEachOrdered(empty, MockLine.class, collect(indexes));
+    assertTrue(indexes.isEmpty());
+  }
+
+  @Test public void malformedLineFailsTheRead() throws IOException {
+    write(file, "{\"index\":0}\n{\"index\":\n{\"index\":2}\n");
+    JolyglotParallelReader reader = new JolyglotParallelReader(jolyglot, 2, 1);
+    List<Integer> indexes = new ArrayList<>();
+
+    try {
+      reader.forEach(file, MockLine.class, collect(indexes));
+      fail();
+    } catch (RuntimeException expected) {
+    }
+
+    try {
+      reader.forEachOrdered(file, MockLine.class, collect(indexes));
+      fail();
+    } catch (RuntimeException expected) {
+    }
+  }
+
+  @Test public void suppliedPoolIsNotShutDown() {
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      JolyglotParallelReader reader = new JolyglotParallelReader(jolyglot, pool, 4096);
+      List<Integer> indexes = new ArrayList<>();
+      reader.forEachOrdered(file, MockLine.class, collect(indexes));
+      assertThat(indexes.size(), is(LINES));
+      assertFalse(pool.isShutdown());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private JolyglotConsumer<MockLine> collect(final List<Integer> indexes) {
+    return new JolyglotConsumer<MockLine>() {
+      @Override public void accept(MockLine record) {
+        indexes.add(record.index);
+      }
+    };
+  }
+
+  private List<Integer> expectedIndexes() {
+    List<Integer> indexes = new ArrayList<>();
+    for (int i = 0; i < LINES; i++) {
+      indexes.add(i);
+    }
+    return indexes;
+  }
+
+  private void write(File file, String content) throws IOException {
+    OutputStream out = new FileOutputStream(file);
+    try {
+      out.write(content.getBytes("UTF-8"));
+    } finally {
+      out.close();
+    }
+  }
+
+  protected abstract Jolyglot jolyglot();
+}
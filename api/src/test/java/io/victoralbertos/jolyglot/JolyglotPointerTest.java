@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public final class JolyglotPointerTest {
+
+  @Test public void parsesTokens() {
+    JolyglotPointer pointer = JolyglotPointer.parse("/items/0/a~1b/m~0n/");
+    assertThat(pointer.size(), is(5));
+    assertThat(pointer.token(0), is("items"));
+    assertThat(pointer.token(2), is("a/b"));
+    assertThat(pointer.token(3), is("m~n"));
+    assertThat(pointer.token(4), is(""));
+    assertThat(pointer.toString(), is("/items/0/a~1b/m~0n/"));
+    assertThat(pointer, is(JolyglotPointer.of("items", "0", "a/b", "m~n", "")));
+  }
+
+  @Test public void parsesTheWholeDocument() {
+    assertThat(JolyglotPointer.parse("").size(), is(0));
+    assertThat(JolyglotPointer.of().toString(), is(""));
+  }
+
+  @Test public void parsesIndexes() {
+    JolyglotPointer pointer = JolyglotPointer.of("0", "12", "01", "-", "1a", "", "9999999999");
+    assertThat(pointer.index(0), is(0));
+    assertThat(pointer.index(1), is(12));
+    for (int i = 2; i < pointer.size(); i++) {
+      assertThat(pointer.index(i), is(-1));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsPointersWithoutLeadingSlash() {
+    JolyglotPointer.parse("items/0");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsInvalidEscapes() {
+    JolyglotPointer.parse("/a~2");
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Base test to be extended from every json provider which supports queries.
+ */
+public abstract class JolyglotQueryTest {
+  private JolyglotQuery jolyglot;
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Before public void setUp() {
+    jolyglot = jolyglot();
+  }
+
+  @Test public void queryMember() {
+    int id = jolyglot.query(document(), JolyglotPointer.parse("/id"), Integer.class);
+    assertThat(id, is(7));
+  }
+
+  @Test public void queryNestedValues() {
+    MockLine line = jolyglot.query(document(), JolyglotPointer.parse("/items/1"), MockLine.class);
+    assertThat(line.index, is(2));
+
+    int index = jolyglot.query(document(), JolyglotPointer.of("items", "0", "index"),
+        Integer.class);
+    assertThat(index, is(1));
+
+    String name = jolyglot.query(document(), JolyglotPointer.parse("/meta/name"), String.class);
+    assertThat(name, is("x"));
+
+    String[] tags = jolyglot.query(document(), JolyglotPointer.parse("/meta/tags"), String[].class);
+    assertThat(tags.length, is(2));
+    assertThat(tags[1], is("b"));
+  }
+
+  @Test public void queryWholeDocument() {
+    Mock mock = jolyglot.query("{\"s1\":\"s1\"}", JolyglotPointer.parse(""), Mock.class);
+    assertThat(mock.getS1(), is("s1"));
+  }
+
+  @Test public void queryEscapedTokens() {
+    String json = "{\"a\":0,\"a/b\":{\"m~n\":1}}";
+    int value = jolyglot.query(json, JolyglotPointer.parse("/a~1b/m~0n"), Integer.class);
+    assertThat(value, is(1));
+  }
+
+  @Test public void queryMissingValues() {
+    assertThat(query("/missing"), is(nullValue()));
+    assertThat(query("/items/2"), is(nullValue()));
+    assertThat(query("/items/-"), is(nullValue()));
+    assertThat(query("/items/01"), is(nullValue()));
+    assertThat(query("/items/index"), is(nullValue()));
+    assertThat(query("/id/index"), is(nullValue()));
+    assertThat(query("/meta/empty/0"), is(nullValue()));
+    assertThat(query("/meta/none/index"), is(nullValue()));
+  }
+
+  @Test public void queryNull() {
+    assertThat(query("/meta/nothing"), is(nullValue()));
+  }
+
+  @Test public void queryBytes() throws IOException {
+    MockLine line = jolyglot.query(document().getBytes("UTF-8"), JolyglotPointer.parse("/items/1"),
+        MockLine.class);
+    assertThat(line.index, is(2));
+  }
+
+  @Test public void queryStream() throws IOException {
+    InputStream in = new ByteArrayInputStream(document().getBytes("UTF-8"));
+    MockLine line = jolyglot.query(in, JolyglotPointer.parse("/items/0"), MockLine.class);
+    assertThat(line.index, is(1));
+  }
+
+  @Test public void queryFile() throws IOException {
+    File file = temporaryFolder.newFile("test.json");
+    FileWriter writer = new FileWriter(file);
+    writer.write(document());
+    writer.close();
+
+    int id = jolyglot.query(file, JolyglotPointer.parse("/id"), Integer.class);
+    assertThat(id, is(7));
+  }
+
+  @Test public void doesNotReadPastTheValue() throws IOException {
+    InputStream in = new ByteArrayInputStream("{\"id\":1,\"rest\":[".getBytes("UTF-8"));
+    int id = jolyglot.query(in, JolyglotPointer.parse("/id"), Integer.class);
+    assertThat(id, is(1));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void failsOnTruncatedJson() {
+    jolyglot.query("{\"skip\":[1,2", JolyglotPointer.parse("/id"), Integer.class);
+  }
+
+  private MockLine query(String pointer) {
+    return jolyglot.query(document(), JolyglotPointer.parse(pointer), MockLine.class);
+  }
+
+  /**
+   * Puts nested subtrees of every kind before the values queried, so they have to be skipped.
+   */
+  private String document() {
+    return "{\"skip\":{\"deep\":[1,[2.5,{\"a\":null,\"b\":true}],\"s\\\"]\",{}],\"e\":[]},"
+        + "\"id\":7,"
+        + "\"items\":[{\"n\":{\"index\":9},\"index\":1},{\"index\":2}],"
+        + "\"meta\":{\"name\":\"x\",\"nothing\":null,\"empty\":[],\"none\":{},"
+        + "\"tags\":[\"a\",\"b\"]}}";
+  }
+
+  protected abstract JolyglotQuery jolyglot();
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Base test to be extended from every json provider which supports streaming.
+ */
+public abstract class JolyglotStreamingTest {
+  private JolyglotStreaming jolyglot;
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Before public void setUp() {
+    jolyglot = jolyglot();
+  }
+
+  @Test public void iterateStream() throws IOException {
+    JolyglotIterator<Mock> mocks = jolyglot.iterate(stream(jsonMockArraySample()), Mock.class);
+    assertThat(count(mocks), is(3));
+  }
+
+  @Test public void iterateFile() throws IOException {
+    File file = temporaryFolder.newFile("test.txt");
+    FileWriter printWriter = new FileWriter(file);
+    printWriter.write(jsonMockArraySample());
+    printWriter.flush();
+    printWriter.close();
+
+    JolyglotIterator<Mock> mocks = jolyglot.iterate(file, Mock.class);
+    assertThat(count(mocks), is(3));
+  }
+
+  @Test public void iterateEmptyArray() throws IOException {
+    JolyglotIterator<Mock> mocks = jolyglot.iterate(stream("[]"), Mock.class);
+    assertFalse(mocks.hasNext());
+    try {
+      mocks.next();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+    mocks.close();
+  }
+
+  @Test public void elementsAreBoundOnDemand() throws IOException {
+    JolyglotIterator<Mock> mocks =
+        jolyglot.iterate(stream("[{\"s1\":\"s1\"},{\"s1\":\"s1\"},{\"s1\":"), Mock.class);
+    assertNotNull(mocks.next());
+    assertNotNull(mocks.next());
+    try {
+      mocks.next();
+      fail();
+    } catch (RuntimeException expected) {
+    }
+    mocks.close();
+  }
+
+  @Test public void callerStreamIsNotClosed() throws IOException {
+    final boolean[] closed = {false};
+    InputStream in = new ByteArrayInputStream(jsonMockArraySample().getBytes("UTF-8")) {
+      @Override public void close() throws IOException {
+        closed[0] = true;
+        super.close();
+      }
+    };
+
+    JolyglotIterator<Mock> mocks = jolyglot.iterate(in, Mock.class);
+    count(mocks);
+    assertFalse(closed[0]);
+  }
+
+  @Test public void iteratorIsExhaustedAfterClose() throws IOException {
+    JolyglotIterator<Mock> mocks = jolyglot.iterate(stream(jsonMockArraySample()), Mock.class);
+    assertTrue(mocks.hasNext());
+    mocks.close();
+    assertFalse(mocks.hasNext());
+  }
+
+  @Test public void iterateLinesStream() throws IOException {
+    JolyglotIterator<Mock> mocks = jolyglot.iterateLines(stream(jsonMockLinesSample()), Mock.class);
+    assertThat(count(mocks), is(3));
+  }
+
+  @Test public void iterateLinesFile() throws IOException {
+    File file = temporaryFolder.newFile("test.ndjson");
+    FileWriter printWriter = new FileWriter(file);
+    printWriter.write(jsonMockLinesSample());
+    printWriter.flush();
+    printWriter.close();
+
+    JolyglotIterator<Mock> mocks = jolyglot.iterateLines(file, Mock.class);
+    assertThat(count(mocks), is(3));
+  }
+
+  @Test public void iterateLinesSkipsBlankLines() throws IOException {
+    String json = "\n{\"s1\":\"s1\"}\r\n\n  \n{\"s1\":\"s1\"}";
+    JolyglotIterator<Mock> mocks = jolyglot.iterateLines(stream(json), Mock.class);
+    assertThat(count(mocks), is(2));
+  }
+
+  @Test public void iterateLinesEmptyStream() throws IOException {
+    JolyglotIterator<Mock> mocks = jolyglot.iterateLines(stream(""), Mock.class);
+    assertFalse(mocks.hasNext());
+    mocks.close();
+
+    mocks = jolyglot.iterateLines(stream("\n\n"), Mock.class);
+    assertFalse(mocks.hasNext());
+    mocks.close();
+  }
+
+  @Test public void linesAreBoundOnDemand() throws IOException {
+    JolyglotIterator<Mock> mocks =
+        jolyglot.iterateLines(stream("{\"s1\":\"s1\"}\n{\"s1\":"), Mock.class);
+    assertNotNull(mocks.next());
+    try {
+      mocks.next();
+      fail();
+    } catch (RuntimeException expected) {
+    }
+    mocks.close();
+  }
+
+  @Test public void writeLines() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JolyglotWriter<Mock> writer = jolyglot.newLineWriter(out, Mock.class);
+    for (int i = 0; i < 3; i++) {
+      writer.write(new Mock());
+    }
+    writer.close();
+
+    assertThat(out.toString("UTF-8"), is(jsonMockLinesSample()));
+  }
+
+  @Test public void writtenLinesAreIterable() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JolyglotWriter<Mock> writer = jolyglot.newLineWriter(out, Mock.class);
+    for (int i = 0; i < 1000; i++) {
+      writer.write(new Mock());
+    }
+    writer.close();
+
+    JolyglotIterator<Mock> mocks =
+        jolyglot.iterateLines(new ByteArrayInputStream(out.toByteArray()), Mock.class);
+    assertThat(count(mocks), is(1000));
+  }
+
+  @Test public void lineWriterFlushesWithoutClosingCallerStream() throws IOException {
+    final boolean[] closed = {false};
+    final int[] flushed = {0};
+    ByteArrayOutputStream out = new ByteArrayOutputStream() {
+      @Override public void flush() throws IOException {
+        flushed[0]++;
+        super.flush();
+      }
+
+      @Override public void close() throws IOException {
+        closed[0] = true;
+        super.close();
+      }
+    };
+
+    JolyglotWriter<Mock> writer = jolyglot.newLineWriter(out, Mock.class);
+    writer.write(new Mock());
+    writer.flush();
+    assertThat(out.toString("UTF-8"), is(jsonMockSample() + "\n"));
+    assertTrue(flushed[0] > 0);
+
+    writer.close();
+    writer.close();
+    assertFalse(closed[0]);
+  }
+
+  private int count(JolyglotIterator<Mock> mocks) {
+    int count = 0;
+    try {
+      while (mocks.hasNext()) {
+        assertNotNull(mocks.next());
+        count++;
+      }
+    } finally {
+      mocks.close();
+    }
+    return count;
+  }
+
+  private InputStream stream(String json) throws IOException {
+    return new ByteArrayInputStream(json.getBytes("UTF-8"));
+  }
+
+  private String jsonMockSample() {
+    return "{\"s1\":\"s1\"}";
+  }
+
+  private String jsonMockLinesSample() {
+    return jsonMockSample() + "\n" + jsonMockSample() + "\n" + jsonMockSample() + "\n";
+  }
+
+  private String jsonMockArraySample() {
+    return "[{\"s1\":\"s1\"},{\"s1\":\"s1\"},{\"s1\":\"s1\"}]";
+  }
+
+  protected abstract JolyglotStreaming jolyglot();
+}
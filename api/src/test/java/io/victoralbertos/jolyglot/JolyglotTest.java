@@ -16,9 +16,15 @@
 
 package io.victoralbertos.jolyglot;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.zip.GZIPOutputStream;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -60,6 +66,66 @@ public abstract class JolyglotTest {
     assertThat(jolyglot.toJson(mock), is(jsonMockSample()));
   }
 
+  @Test public void fromGzipFileJsonClass() throws IOException {
+    File file = temporaryFolder.newFile("test.json.gz");
+    OutputStream out = new GZIPOutputStream(new FileOutputStream(file));
+    out.write(jsonMockSample().getBytes("UTF-8"));
+    out.close();
+
+    Mock mock = jolyglot.fromJson(file, Mock.class);
+    assertThat(jolyglot.toJson(mock), is(jsonMockSample()));
+  }
+
+  @Test public void toJsonOutputStream() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    jolyglot.toJson(new Mock(), out);
+    assertThat(out.toString("UTF-8"), is(jsonMockSample()));
+  }
+
+  @Test public void toJsonAppendable() {
+    StringBuilder out = new StringBuilder("[");
+    jolyglot.toJson(new Mock(), out);
+    jolyglot.toJson(new Mock(), out.append(','));
+    assertThat(out.append(']').toString(),
+        is("[" + jsonMockSample() + "," + jsonMockSample() + "]"));
+  }
+
+  @Test public void toJsonWriter() {
+    StringWriter out = new StringWriter();
+    jolyglot.toJson(new Mock(), out);
+    assertThat(out.toString(), is(jsonMockSample()));
+  }
+
+  @Test public void toJsonDoesNotShareBuffersBetweenCalls() {
+    String first = jolyglot.toJson(new Mock());
+    String second = jolyglot.toJson(new Mock());
+    assertThat(first, is(jsonMockSample()));
+    assertThat(second, is(jsonMockSample()));
+  }
+
+  @Test public void toJsonFile() throws IOException {
+    File file = temporaryFolder.newFile("mock.json");
+    FileWriter writer = new FileWriter(file);
+    writer.write("previous content, longer than the new one");
+    writer.close();
+
+    jolyglot.toJson(new Mock(), file);
+    assertThat(jolyglot.fromJson(file, Mock.class).getS1(), is("s1"));
+    assertThat(file.length(), is((long) jsonMockSample().length()));
+    assertThat(temporaryFolder.getRoot().list().length, is(1));
+  }
+
+  @Test public void fromInputStreamJsonClass() throws IOException {
+    ByteArrayInputStream in = new ByteArrayInputStream(jsonMockSample().getBytes("UTF-8"));
+    Mock mock = jolyglot.fromJson(in, Mock.class);
+    assertThat(jolyglot.toJson(mock), is(jsonMockSample()));
+  }
+
+  @Test public void fromBytesJsonClass() throws IOException {
+    Mock mock = jolyglot.fromJson(jsonMockSample().getBytes("UTF-8"), Mock.class);
+    assertThat(jolyglot.toJson(mock), is(jsonMockSample()));
+  }
+
   private String jsonMockSample() {
     return "{\"s1\":\"s1\"}";
   }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Its fields are package private, which Jackson does not bind by reflection, so it is only bound
+ * by every provider through its generated binding.
+ */
+@JolyglotModel
+public class ModelMock {
+  int id;
+  long total;
+  double ratio;
+  float weight;
+  boolean active;
+  char grade;
+  short small;
+  byte tiny;
+  String name;
+  Integer count;
+  Boolean flag;
+  Character letter;
+  MockLine line;
+  List<MockLine> lines;
+  Map<String, Integer> counts;
+  String[] tags;
+  ModelMock child;
+  transient String ignored;
+  static String shared;
+
+  @JolyglotModel
+  static class Sub extends ModelMock {
+    List<? extends MockLine> more;
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public final class StringBuilderWriterTest {
+
+  @Test public void recyclesTheWriterOfTheThread() {
+    StringBuilderWriter writer = StringBuilderWriter.acquire();
+    writer.write("{}");
+    assertThat(writer.toString(), is("{}"));
+    writer.recycle();
+
+    StringBuilderWriter recycled = StringBuilderWriter.acquire();
+    assertThat(recycled, is(sameInstance(writer)));
+    assertThat(recycled.toString(), is(""));
+    recycled.recycle();
+  }
+
+  @Test public void nestedAcquiresGetWritersOfTheirOwn() {
+    StringBuilderWriter outer = StringBuilderWriter.acquire();
+    outer.write("[");
+    StringBuilderWriter inner = StringBuilderWriter.acquire();
+    inner.write("{}");
+    assertThat(inner, is(not(sameInstance(outer))));
+
+    outer.append(inner.toString()).append(']');
+    inner.recycle();
+    assertThat(outer.toString(), is("[{}]"));
+    outer.recycle();
+  }
+
+  @Test public void dropsWritersGrownPastTheMaxRecycledCapacity() {
+    StringBuilderWriter writer = StringBuilderWriter.acquire();
+    char[] chars = new char[StringBuilderWriter.MAX_RECYCLED_CAPACITY + 1];
+    writer.write(chars, 0, chars.length);
+    writer.recycle();
+
+    StringBuilderWriter next = StringBuilderWriter.acquire();
+    assertThat(next, is(not(sameInstance(writer))));
+    next.recycle();
+  }
+}
@@ -15,3 +15,9 @@
 #-keepclassmembers class fqcn.of.javascript.interface.for.webview {
 #   public *;
 #}
+
+# Bindings generated for @JolyglotModel classes are looked up by the name of the model.
+-keepnames @io.victoralbertos.jolyglot.JolyglotModel class *
+-keep class **_JolyglotBinding {
+    public <init>();
+}
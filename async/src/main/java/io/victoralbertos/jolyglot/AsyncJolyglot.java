@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs the operations of a {@link Jolyglot} on an {@link Executor}, so callers such as event loops
+ * are not blocked by reading files and streams or by serializing large objects. Every operation
+ * returns a {@link CompletableFuture} completed with its result, or exceptionally with the
+ * {@link RuntimeException} thrown by the speaker.
+ *
+ * <p>Streams and appendables are used from the executor thread, so they must not be used by the
+ * caller until the returned future completes.
+ */
+public class AsyncJolyglot {
+  private final Jolyglot jolyglot;
+  private final Executor executor;
+
+  /**
+   * Runs the operations on {@link JolyglotExecutors#defaultExecutor()}, which uses virtual threads
+   * when the JVM supports them.
+   */
+  public AsyncJolyglot(Jolyglot jolyglot) {
+    this(jolyglot, JolyglotExecutors.defaultExecutor());
+  }
+
+  /**
+   * @param executor runs every operation. Wrap it with a {@link BatchingExecutor} to run many small
+   * operations per task.
+   */
+  public AsyncJolyglot(Jolyglot jolyglot, Executor executor) {
+    if (jolyglot == null || executor == null) {
+      throw new IllegalArgumentException("jolyglot and executor can not be null");
+    }
+    this.jolyglot = jolyglot;
+    this.executor = executor;
+  }
+
+  /**
+   * @see Jolyglot#toJson(Object)
+   */
+  public CompletableFuture<String> toJson(Object src) {
+    return supply(() -> jolyglot.toJson(src));
+  }
+
+  /**
+   * @see Jolyglot#toJson(Object, OutputStream)
+   */
+  public CompletableFuture<Void> toJson(Object src, OutputStream out) {
+    return run(() -> jolyglot.toJson(src, out));
+  }
+
+  /**
+   * @see Jolyglot#toJson(Object, Appendable)
+   */
+  public CompletableFuture<Void> toJson(Object src, Appendable out) {
+    return run(() -> jolyglot.toJson(src, out));
+  }
+
+  /**
+   * @see Jolyglot#toJson(Object, File)
+   */
+  public CompletableFuture<Void> toJson(Object src, File file) {
+    return run(() -> jolyglot.toJson(src, file));
+  }
+
+  /**
+   * @see Jolyglot#fromJson(String, Class)
+   */
+  public <T> CompletableFuture<T> fromJson(String json, Class<T> classOfT) {
+    return supply(() -> jolyglot.fromJson(json, classOfT));
+  }
+
+  /**
+   * @see Jolyglot#fromJson(File, Class)
+   */
+  public <T> CompletableFuture<T> fromJson(File file, Class<T> classOfT) {
+    return supply(() -> jolyglot.fromJson(file, classOfT));
+  }
+
+  /**
+   * @see Jolyglot#fromJson(InputStream, Class)
+   */
+  public <T> CompletableFuture<T> fromJson(InputStream in, Class<T> classOfT) {
+    return supply(() -> jolyglot.fromJson(in, classOfT));
+  }
+
+  /**
+   * @see Jolyglot#fromJson(byte[], Class)
+   */
+  public <T> CompletableFuture<T> fromJson(byte[] json, Class<T> classOfT) {
+    return supply(() -> jolyglot.fromJson(json, classOfT));
+  }
+
+  <T> CompletableFuture<T> supply(Supplier<T> operation) {
+    return CompletableFuture.supplyAsync(operation, executor);
+  }
+
+  CompletableFuture<Void> run(Runnable operation) {
+    return CompletableFuture.runAsync(operation, executor);
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AsyncJolyglot} for speakers supporting generic types.
+ */
+public class AsyncJolyglotGenerics extends AsyncJolyglot {
+  private final JolyglotGenerics jolyglot;
+
+  public AsyncJolyglotGenerics(JolyglotGenerics jolyglot) {
+    super(jolyglot);
+    this.jolyglot = jolyglot;
+  }
+
+  public AsyncJolyglotGenerics(JolyglotGenerics jolyglot, Executor executor) {
+    super(jolyglot, executor);
+    this.jolyglot = jolyglot;
+  }
+
+  /**
+   * @see JolyglotGenerics#toJson(Object, Type)
+   */
+  public CompletableFuture<String> toJson(Object src, Type typeOfSrc) {
+    return supply(() -> jolyglot.toJson(src, typeOfSrc));
+  }
+
+  /**
+   * @see JolyglotGenerics#toJson(Object, Type, OutputStream)
+   */
+  public CompletableFuture<Void> toJson(Object src, Type typeOfSrc, OutputStream out) {
+    return run(() -> jolyglot.toJson(src, typeOfSrc, out));
+  }
+
+  /**
+   * @see JolyglotGenerics#toJson(Object, Type, Appendable)
+   */
+  public CompletableFuture<Void> toJson(Object src, Type typeOfSrc, Appendable out) {
+    return run(() -> jolyglot.toJson(src, typeOfSrc, out));
+  }
+
+  /**
+   * @see JolyglotGenerics#toJson(Object, Type, File)
+   */
+  public CompletableFuture<Void> toJson(Object src, Type typeOfSrc, File file) {
+    return run(() -> jolyglot.toJson(src, typeOfSrc, file));
+  }
+
+  /**
+   * @see JolyglotGenerics#fromJson(String, Type)
+   */
+  public <T> CompletableFuture<T> fromJson(String json, Type typeOfT) {
+    return supply(() -> jolyglot.<T>fromJson(json, typeOfT));
+  }
+
+  /**
+   * @see JolyglotGenerics#fromJson(File, Type)
+   */
+  public <T> CompletableFuture<T> fromJson(File file, Type typeOfT) {
+    return supply(() -> jolyglot.<T>fromJson(file, typeOfT));
+  }
+
+  /**
+   * @see JolyglotGenerics#fromJson(InputStream, Type)
+   */
+  public <T> CompletableFuture<T> fromJson(InputStream in, Type typeOfT) {
+    return supply(() -> jolyglot.<T>fromJson(in, typeOfT));
+  }
+
+  /**
+   * @see JolyglotGenerics#fromJson(byte[], Type)
+   */
+  public <T> CompletableFuture<T> fromJson(byte[] json, Type typeOfT) {
+    return supply(() -> jolyglot.<T>fromJson(json, typeOfT));
+  }
+}
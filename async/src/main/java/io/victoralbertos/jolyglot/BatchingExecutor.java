@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queues the tasks submitted and hands them over to a delegate {@link Executor} in batches, so
+ * many small operations, such as binding small payloads, cost one handoff per batch rather than
+ * per task. At most {@code maxConcurrentBatches} batches run at once; each runs up to
+ * {@code maxBatchSize} tasks in submission order and then hands the queue over to a new batch, so
+ * a long queue does not hog a thread of the delegate.
+ *
+ * <p>A task throwing a {@link RuntimeException} is reported to the uncaught exception handler of
+ * its thread and does not stop the batch.
+ */
+public final class BatchingExecutor implements Executor {
+  public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+  private final Executor delegate;
+  private final int maxBatchSize;
+  private final int maxConcurrentBatches;
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger batches = new AtomicInteger();
+  private final Runnable batch = this::runBatch;
+
+  /**
+   * Runs batches of up to {@link #DEFAULT_MAX_BATCH_SIZE} tasks, as many at once as processors.
+   */
+  public BatchingExecutor(Executor delegate) {
+    this(delegate, DEFAULT_MAX_BATCH_SIZE, Runtime.getRuntime().availableProcessors());
+  }
+
+  public BatchingExecutor(Executor delegate, int maxBatchSize, int maxConcurrentBatches) {
+    if (delegate == null) throw new IllegalArgumentException("delegate can not be null");
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+    }
+    if (maxConcurrentBatches < 1) {
+      throw new IllegalArgumentException(
+          "maxConcurrentBatches must be positive: " + maxConcurrentBatches);
+    }
+    this.delegate = delegate;
+    this.maxBatchSize = maxBatchSize;
+    this.maxConcurrentBatches = maxConcurrentBatches;
+  }
+
+  @Override public void execute(Runnable task) {
+    if (task == null) throw new NullPointerException("task == null");
+    tasks.add(task);
+    schedule();
+  }
+
+  /**
+   * Hands a new batch over to the delegate unless {@code maxConcurrentBatches} are running, in
+   * which case one of them picks the queued tasks up.
+   */
+  private void schedule() {
+    while (true) {
+      int running = batches.get();
+      if (running >= maxConcurrentBatches) return;
+      if (batches.compareAndSet(running, running + 1)) break;
+    }
+    try {
+      delegate.execute(batch);
+    } catch (RejectedExecutionException e) {
+      batches.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private void runBatch() {
+    try {
+      for (int i = 0; i < maxBatchSize; i++) {
+        Runnable task = tasks.poll();
+        if (task == null) break;
+        try {
+          task.run();
+        } catch (RuntimeException e) {
+          Thread thread = Thread.currentThread();
+          thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+      }
+    } finally {
+      batches.decrementAndGet();
+      // Tasks queued while this batch was the last one running would be left behind otherwise.
+      if (!tasks.isEmpty()) schedule();
+    }
+  }
+}
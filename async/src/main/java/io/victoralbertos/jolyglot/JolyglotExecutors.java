@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors suited to the blocking work handed over by {@link AsyncJolyglot}, such as reading
+ * files, which should not run on event loops nor on the common {@link
+ * java.util.concurrent.ForkJoinPool}.
+ */
+public final class JolyglotExecutors {
+
+  private JolyglotExecutors() {
+  }
+
+  /**
+   * Returns the executor shared by every {@link AsyncJolyglot} created without one, see
+   * {@link #newDefaultExecutor()}.
+   */
+  public static ExecutorService defaultExecutor() {
+    return DefaultExecutorHolder.EXECUTOR;
+  }
+
+  /**
+   * Returns a new executor starting a virtual thread per task when the JVM supports them, or one
+   * caching daemon threads otherwise.
+   */
+  public static ExecutorService newDefaultExecutor() {
+    ExecutorService executor = newVirtualThreadPerTaskExecutor();
+    return executor != null ? executor : newCachedDaemonThreadPool();
+  }
+
+  /**
+   * Returns whether the JVM supports virtual threads.
+   */
+  public static boolean virtualThreadsAvailable() {
+    ExecutorService executor = newVirtualThreadPerTaskExecutor();
+    if (executor == null) return false;
+    executor.shutdown();
+    return true;
+  }
+
+  /**
+   * Looks {@code Executors.newVirtualThreadPerTaskExecutor()} up reflectively, so this module
+   * still targets Java 8. Returns null when it does not exist, or when it does but virtual threads
+   * are a preview feature not enabled.
+   */
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) method.invoke(null);
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+      return null;
+    }
+  }
+
+  private static ExecutorService newCachedDaemonThreadPool() {
+    AtomicInteger threads = new AtomicInteger();
+    return Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "jolyglot-async-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private static final class DefaultExecutorHolder {
+    static final ExecutorService EXECUTOR = newDefaultExecutor();
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public final class AsyncJolyglotTest {
+  private static final String JSON = "{\"s1\":\"s1\"}";
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private ExecutorService executor;
+  private AsyncJolyglotGenerics jolyglot;
+
+  @Before public void setUp() {
+    executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "async-test"));
+    jolyglot = new AsyncJolyglotGenerics(new GsonSpeaker(), executor);
+  }
+
+  @After public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test public void runsOperationsOnTheGivenExecutor() throws Exception {
+    AsyncJolyglot jolyglot = new AsyncJolyglot(new GsonSpeaker() {
+      @Override public String toJson(Object src) {
+        return Thread.currentThread().getName();
+      }
+    }, executor);
+    assertThat(jolyglot.toJson(new Mock()).get(1, TimeUnit.SECONDS), is("async-test"));
+  }
+
+  @Test public void toJson() throws Exception {
+    assertThat(jolyglot.toJson(new Mock()).get(), is(JSON));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    jolyglot.toJson(new Mock(), out).get();
+    assertThat(out.toString("UTF-8"), is(JSON));
+
+    StringBuilder builder = new StringBuilder();
+    jolyglot.toJson(new Mock(), Mock.class, builder).get();
+    assertThat(builder.toString(), is(JSON));
+  }
+
+  @Test public void fromJson() throws Exception {
+    File file = temporaryFolder.newFile("mock.json");
+    FileWriter writer = new FileWriter(file);
+    writer.write(JSON);
+    writer.close();
+
+    assertThat(jolyglot.fromJson(file, Mock.class).get().getS1(), is("s1"));
+    assertThat(jolyglot.fromJson(JSON, Mock.class).get().getS1(), is("s1"));
+    assertThat(jolyglot.fromJson(JSON.getBytes("UTF-8"), Mock.class).get().getS1(), is("s1"));
+    ByteArrayInputStream in = new ByteArrayInputStream(JSON.getBytes("UTF-8"));
+    assertThat(jolyglot.fromJson(in, Mock.class).get().getS1(), is("s1"));
+  }
+
+  @Test public void fromJsonType() throws Exception {
+    Type type = new GsonSpeaker().newParameterizedType(List.class, Mock.class);
+    CompletableFuture<List<Mock>> mocks = jolyglot.fromJson("[" + JSON + "]", type);
+    assertThat(mocks.get().get(0).getS1(), is("s1"));
+  }
+
+  @Test public void failuresCompleteTheFutureExceptionally() throws Exception {
+    try {
+      jolyglot.fromJson(new File(temporaryFolder.getRoot(), "missing"), Mock.class).get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(RuntimeException.class));
+    }
+  }
+
+  @Test public void runsOnTheDefaultExecutor() throws Exception {
+    AsyncJolyglot jolyglot = new AsyncJolyglot(new GsonSpeaker());
+    assertThat(jolyglot.toJson(new Mock()).get(1, TimeUnit.SECONDS), is(JSON));
+  }
+
+  public static final class Mock {
+    private final String s1 = "s1";
+
+    public String getS1() {
+      return s1;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class BatchingExecutorTest {
+
+  @Test public void runsTasksInBatchesInSubmissionOrder() {
+    List<Runnable> handoffs = new ArrayList<>();
+    BatchingExecutor executor = new BatchingExecutor(handoffs::add, 4, 1);
+    List<Integer> ran = new ArrayList<>();
+
+    for (int i = 0; i < 10; i++) {
+      int task = i;
+      executor.execute(() -> ran.add(task));
+    }
+    assertThat(handoffs.size(), is(1));
+
+    while (!handoffs.isEmpty()) {
+      handoffs.remove(0).run();
+    }
+    assertThat(ran.size(), is(10));
+    for (int i = 0; i < 10; i++) {
+      assertThat(ran.get(i), is(i));
+    }
+  }
+
+  @Test public void runsConcurrentBatchesUpToTheMax() throws Exception {
+    ExecutorService delegate = Executors.newCachedThreadPool();
+    try {
+      BatchingExecutor executor = new BatchingExecutor(delegate, 1, 2);
+      AtomicInteger running = new AtomicInteger();
+      AtomicInteger maxRunning = new AtomicInteger();
+      CountDownLatch done = new CountDownLatch(50);
+
+      for (int i = 0; i < 50; i++) {
+        executor.execute(() -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          sleep();
+          running.decrementAndGet();
+          done.countDown();
+        });
+      }
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertTrue(maxRunning.get() <= 2);
+    } finally {
+      delegate.shutdownNow();
+    }
+  }
+
+  @Test public void failingTasksDoNotStopTheBatch() {
+    List<Runnable> handoffs = new ArrayList<>();
+    BatchingExecutor executor = new BatchingExecutor(handoffs::add, 8, 1);
+    AtomicInteger ran = new AtomicInteger();
+    Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+    Thread.currentThread().setUncaughtExceptionHandler((thread, error) -> {});
+    try {
+      executor.execute(() -> {
+        throw new IllegalStateException();
+      });
+      executor.execute(ran::incrementAndGet);
+      handoffs.remove(0).run();
+    } finally {
+      Thread.currentThread().setUncaughtExceptionHandler(handler);
+    }
+    assertThat(ran.get(), is(1));
+    assertTrue(handoffs.isEmpty());
+  }
+
+  @Test public void rejectsNonPositiveSizes() {
+    Executor direct = Runnable::run;
+    try {
+      new BatchingExecutor(direct, 0, 1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      new BatchingExecutor(direct, 1, 0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
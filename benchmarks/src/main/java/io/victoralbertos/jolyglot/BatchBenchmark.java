@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializes and binds a batch of small items one at a time versus as a batch, sequentially and
+ * split across a fork/join pool.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+  @Param({Speakers.GSON, Speakers.JACKSON, Speakers.MOSHI, Speakers.FASTJSON,
+      Speakers.GSON_AUTO_VALUE})
+  public String speaker;
+
+  @Param({"1000", "10000"})
+  public int items;
+
+  private JolyglotGenerics jolyglot;
+  private JolyglotBatch batch;
+  private JolyglotBatch parallel;
+  private List<Item> values;
+  private List<String> jsons;
+
+  @Setup public void setUp() {
+    jolyglot = Speakers.generics(speaker);
+    batch = (JolyglotBatch) jolyglot;
+    parallel = new ParallelJolyglotBatch(batch);
+    values = Payloads.items(items);
+    jsons = batch.toJsonAll(values, Item.class);
+  }
+
+  @Benchmark public List<String> toJsonLoop() {
+    List<String> results = new ArrayList<>(values.size());
+    for (Item value : values) {
+      results.add(jolyglot.toJson(value, Item.class));
+    }
+    return results;
+  }
+
+  @Benchmark public List<String> toJsonAll() {
+    return batch.toJsonAll(values, Item.class);
+  }
+
+  @Benchmark public List<String> toJsonAllParallel() {
+    return parallel.toJsonAll(values, Item.class);
+  }
+
+  @Benchmark public List<Item> fromJsonLoop() {
+    List<Item> results = new ArrayList<>(jsons.size());
+    for (String json : jsons) {
+      results.add(jolyglot.<Item>fromJson(json, Item.class));
+    }
+    return results;
+  }
+
+  @Benchmark public List<Item> fromJsonAll() {
+    return batch.fromJsonAll(jsons, Item.class);
+  }
+
+  @Benchmark public List<Item> fromJsonAllParallel() {
+    return parallel.fromJsonAll(jsons, Item.class);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deserialization of json arrays stored in files from 1 KB to 100 MB. The array is bound as
+ * {@code Item[]} so every speaker, generics aware or not, reads the same file.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class FileBenchmark {
+  @Param({Speakers.GSON, Speakers.JACKSON, Speakers.MOSHI, Speakers.FASTJSON,
+      Speakers.GSON_AUTO_VALUE, Speakers.NATIVE})
+  public String speaker;
+
+  @Param({"1024", "1048576", "104857600"})
+  public long bytes;
+
+  private Jolyglot jolyglot;
+  private File file;
+
+  @Setup(Level.Trial) public void setUp() throws Exception {
+    jolyglot = Speakers.jolyglot(speaker);
+    file = File.createTempFile("jolyglot-" + bytes, ".json");
+    Payloads.writeItemsFile(file, bytes, jolyglot);
+  }
+
+  @TearDown(Level.Trial) public void tearDown() {
+    file.delete();
+  }
+
+  @Benchmark public Item[] fromJsonFile() {
+    return jolyglot.fromJson(file, Item[].class);
+  }
+}
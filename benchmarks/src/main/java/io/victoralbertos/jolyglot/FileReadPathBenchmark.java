@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import com.alibaba.fastjson.JSON;
+import com.google.gson.Gson;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the readers the Gson and FastJson speakers used to open files with, a
+ * {@link BufferedReader} over a {@link FileReader} and a plain {@link FileInputStream}
+ * respectively, against the {@link JolyglotFiles} path, either read in one pass or memory mapped.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class FileReadPathBenchmark {
+  @Param({"1048576", "104857600"})
+  public long bytes;
+
+  private Gson gson;
+  private GsonSpeaker gsonSpeaker;
+  private FastJsonSpeaker fastJsonSpeaker;
+  private File file;
+
+  @Setup(Level.Trial) public void setUp() throws Exception {
+    gson = new Gson();
+    gsonSpeaker = new GsonSpeaker(gson);
+    fastJsonSpeaker = new FastJsonSpeaker();
+    file = File.createTempFile("jolyglot-" + bytes, ".json");
+    Payloads.writeItemsFile(file, bytes, gsonSpeaker);
+  }
+
+  @TearDown(Level.Trial) public void tearDown() {
+    file.delete();
+  }
+
+  @Benchmark public Item[] gsonFileReader() throws IOException {
+    Reader reader = new BufferedReader(new FileReader(file));
+    try {
+      return gson.fromJson(reader, Item[].class);
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Benchmark public Item[] gsonReadFully() throws IOException {
+    return fromJson(gsonSpeaker, Long.MAX_VALUE);
+  }
+
+  @Benchmark public Item[] gsonMapped() throws IOException {
+    return fromJson(gsonSpeaker, 0);
+  }
+
+  @Benchmark public Item[] fastJsonFileInputStream() throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      return JSON.parseObject(in, Item[].class);
+    } finally {
+      in.close();
+    }
+  }
+
+  @Benchmark public Item[] fastJsonReadFully() throws IOException {
+    return fromJson(fastJsonSpeaker, Long.MAX_VALUE);
+  }
+
+  @Benchmark public Item[] fastJsonMapped() throws IOException {
+    return fromJson(fastJsonSpeaker, 0);
+  }
+
+  private Item[] fromJson(Jolyglot jolyglot, long mapThreshold) throws IOException {
+    InputStream in = JolyglotFiles.open(file, mapThreshold);
+    try {
+      return jolyglot.fromJson(in, Item[].class);
+    } finally {
+      in.close();
+    }
+  }
+}
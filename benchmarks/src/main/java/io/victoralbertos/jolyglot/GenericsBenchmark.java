@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deeply nested generics, {@code Envelope<Envelope<Envelope<List<Item>>>>}, through the
+ * {@link JolyglotGenerics} api.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenericsBenchmark {
+  @Param({Speakers.GSON, Speakers.JACKSON, Speakers.MOSHI, Speakers.FASTJSON,
+      Speakers.GSON_AUTO_VALUE, Speakers.NATIVE})
+  public String speaker;
+
+  @Param({"10"})
+  public int items;
+
+  private JolyglotGenerics jolyglot;
+  private Object nested;
+  private String json;
+
+  @Setup public void setUp() {
+    jolyglot = Speakers.generics(speaker);
+    nested = Payloads.nested(items);
+    json = jolyglot.toJson(nested, Payloads.NESTED);
+  }
+
+  @Benchmark public String toJson() {
+    return jolyglot.toJson(nested, Payloads.NESTED);
+  }
+
+  @Benchmark public Object fromJson() {
+    return jolyglot.fromJson(json, Payloads.NESTED);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A large {@code List<Item>}, both as a String and through the byte oriented api.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LargeListBenchmark {
+  @Param({Speakers.GSON, Speakers.JACKSON, Speakers.MOSHI, Speakers.FASTJSON,
+      Speakers.GSON_AUTO_VALUE, Speakers.NATIVE})
+  public String speaker;
+
+  @Param({"1000", "100000"})
+  public int items;
+
+  private JolyglotGenerics jolyglot;
+  private List<Item> list;
+  private String json;
+  private byte[] bytes;
+
+  @Setup public void setUp() throws Exception {
+    jolyglot = Speakers.generics(speaker);
+    list = Payloads.items(items);
+    json = jolyglot.toJson(list, Payloads.ITEM_LIST);
+    bytes = json.getBytes("UTF-8");
+  }
+
+  @Benchmark public String toJson() {
+    return jolyglot.toJson(list, Payloads.ITEM_LIST);
+  }
+
+  @Benchmark public int toJsonOutputStream() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+    jolyglot.toJson(list, Payloads.ITEM_LIST, out);
+    return out.size();
+  }
+
+  @Benchmark public List<Item> fromJson() {
+    return jolyglot.fromJson(json, Payloads.ITEM_LIST);
+  }
+
+  @Benchmark public List<Item> fromJsonBytes() {
+    return jolyglot.fromJson(bytes, Payloads.ITEM_LIST);
+  }
+}
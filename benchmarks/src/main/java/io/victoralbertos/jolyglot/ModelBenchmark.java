@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Binds the same small object by reflection, as {@link Item}, versus through its generated
+ * binding, as {@link ModelItem}. The first* benchmarks create a new speaker every time, so they
+ * also measure building the adapter, which is what a cold start pays. FastJson does not support
+ * generated bindings.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelBenchmark {
+  @Param({Speakers.GSON, Speakers.JACKSON, Speakers.MOSHI, Speakers.GSON_AUTO_VALUE,
+      Speakers.NATIVE})
+  public String speaker;
+
+  private Jolyglot jolyglot;
+  private Item item;
+  private ModelItem modelItem;
+  private String json;
+
+  @Setup public void setUp() {
+    jolyglot = Speakers.jolyglot(speaker);
+    item = Payloads.item(42);
+    modelItem = Payloads.modelItem(42);
+    json = jolyglot.toJson(item);
+  }
+
+  @Benchmark public String toJsonReflective() {
+    return jolyglot.toJson(item);
+  }
+
+  @Benchmark public String toJsonGenerated() {
+    return jolyglot.toJson(modelItem);
+  }
+
+  @Benchmark public Item fromJsonReflective() {
+    return jolyglot.fromJson(json, Item.class);
+  }
+
+  @Benchmark public ModelItem fromJsonGenerated() {
+    return jolyglot.fromJson(json, ModelItem.class);
+  }
+
+  @Benchmark public Item firstFromJsonReflective() {
+    return Speakers.jolyglot(speaker).fromJson(json, Item.class);
+  }
+
+  @Benchmark public ModelItem firstFromJsonGenerated() {
+    return Speakers.jolyglot(speaker).fromJson(json, ModelItem.class);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Many threads deserializing small payloads at once. {@code perCallLookup} resolves the adapter
+ * through {@link Moshi#adapter} on every call, as {@link MoshiSpeaker} used to do, while
+ * {@code speaker} goes through the adapter cache of {@link MoshiSpeaker}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class MoshiAdapterContentionBenchmark {
+  private Moshi moshi;
+  private MoshiSpeaker speaker;
+  private String json;
+
+  @Setup public void setUp() {
+    moshi = new Moshi.Builder().build();
+    speaker = new MoshiSpeaker(moshi);
+    json = speaker.toJson(Payloads.nested(1), Payloads.NESTED);
+  }
+
+  @Benchmark public Object perCallLookup() throws IOException {
+    JsonAdapter<Object> adapter = moshi.adapter(Payloads.NESTED);
+    return adapter.fromJson(json);
+  }
+
+  @Benchmark public Object speaker() {
+    return speaker.fromJson(json, Payloads.NESTED);
+  }
+}
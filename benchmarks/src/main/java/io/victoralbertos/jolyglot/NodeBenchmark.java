@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads a handful of values out of a nested envelope of 1 MB and more whose type is not known up
+ * front, binding it eagerly as a tree of maps and lists versus through a lazy {@link JolyglotNode}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NodeBenchmark {
+  @Param({Speakers.GSON, Speakers.JACKSON, Speakers.MOSHI, Speakers.FASTJSON,
+      Speakers.GSON_AUTO_VALUE, Speakers.NATIVE})
+  public String speaker;
+
+  /**
+   * About 1 MB and 10 MB of items.
+   */
+  @Param({"10000", "100000"})
+  public int items;
+
+  private JolyglotGenerics jolyglot;
+  private byte[] bytes;
+  private int last;
+
+  @Setup public void setUp() throws Exception {
+    jolyglot = Speakers.generics(speaker);
+    bytes = jolyglot.toJson(Payloads.nested(items), Payloads.NESTED).getBytes("UTF-8");
+    last = items - 1;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Benchmark public String eagerTree() {
+    Map<String, Object> root = (Map<String, Object>) jolyglot.fromJson(bytes, Object.class);
+    Map<String, Object> middle = (Map<String, Object>) root.get("t");
+    Map<String, Object> envelope = (Map<String, Object>) middle.get("t");
+    List<Object> list = (List<Object>) envelope.get("t");
+    Map<String, Object> item = (Map<String, Object>) list.get(last);
+    return (String) envelope.get("s1") + item.get("name");
+  }
+
+  @Benchmark public String lazyNode() {
+    JolyglotNode envelope = JolyglotNode.of(bytes, jolyglot).get("t").get("t");
+    JolyglotNode item = envelope.get("t").get(last);
+    return envelope.get("s1").asString() + item.get("name").asString();
+  }
+
+  @Benchmark public Item lazyNodeAsItem() {
+    return JolyglotNode.of(bytes, jolyglot).get("t").get("t").get("t").get(last).as(Item.class);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scaling of {@link JolyglotParallelReader} over a 256 MB newline delimited json file, from a
+ * single thread up to 8 of them. The time of a parallelism of 1 is the baseline the speedup of
+ * the rest is measured against.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ParallelLinesBenchmark {
+  private static final JolyglotConsumer<Item> CONSUMER = new JolyglotConsumer<Item>() {
+    @Override public void accept(Item item) {
+      if (item.name == null) throw new IllegalStateException();
+    }
+  };
+
+  @Param({Speakers.GSON, Speakers.JACKSON, Speakers.MOSHI, Speakers.FASTJSON,
+      Speakers.NATIVE})
+  public String speaker;
+
+  @Param({"1", "2", "4", "8"})
+  public int parallelism;
+
+  private File file;
+  private JolyglotParallelReader reader;
+
+  @Setup(Level.Trial) public void setUp() throws Exception {
+    Jolyglot jolyglot = Speakers.jolyglot(speaker);
+    file = File.createTempFile("jolyglot-lines", ".ndjson");
+    Payloads.writeItemLinesFile(file, 256L * 1024 * 1024, jolyglot);
+    reader = new JolyglotParallelReader(jolyglot, parallelism,
+        JolyglotParallelReader.DEFAULT_CHUNK_SIZE);
+  }
+
+  @TearDown(Level.Trial) public void tearDown() {
+    file.delete();
+  }
+
+  @Benchmark public void forEach() {
+    reader.forEach(file, Item.class, CONSUMER);
+  }
+
+  @Benchmark public void forEachOrdered() {
+    reader.forEachOrdered(file, Item.class, CONSUMER);
+  }
+}
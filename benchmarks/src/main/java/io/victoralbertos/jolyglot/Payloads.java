@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Corpora shared by every benchmark, so all the speakers are measured against the same payloads.
+ */
+final class Payloads {
+  static final Type ITEM_LIST = Types.newParameterizedType(List.class, Item.class);
+  static final Type NESTED = Types.newParameterizedType(Envelope.class,
+      Types.newParameterizedType(Envelope.class,
+          Types.newParameterizedType(Envelope.class, ITEM_LIST)));
+
+  private Payloads() {
+  }
+
+  static Item item(int i) {
+    Item item = new Item();
+    item.id = i;
+    item.name = "item-" + i;
+    item.active = i % 2 == 0;
+    item.score = i * 0.25;
+    item.tags = new ArrayList<>();
+    item.tags.add("tag-" + (i % 7));
+    item.tags.add("tag-" + (i % 11));
+    return item;
+  }
+
+  static ModelItem modelItem(int i) {
+    Item item = item(i);
+    ModelItem modelItem = new ModelItem();
+    modelItem.id = item.id;
+    modelItem.name = item.name;
+    modelItem.active = item.active;
+    modelItem.score = item.score;
+    modelItem.tags = item.tags;
+    return modelItem;
+  }
+
+  static List<Item> items(int size) {
+    List<Item> items = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      items.add(item(i));
+    }
+    return items;
+  }
+
+  /**
+   * Returns {@code Envelope<Envelope<Envelope<List<Item>>>>} holding {@code size} items.
+   */
+  static Envelope<Envelope<Envelope<List<Item>>>> nested(int size) {
+    Envelope<List<Item>> inner = envelope(items(size));
+    return envelope(envelope(inner));
+  }
+
+  private static <T> Envelope<T> envelope(T t) {
+    Envelope<T> envelope = new Envelope<>();
+    envelope.t = t;
+    envelope.s1 = "s1";
+    return envelope;
+  }
+
+  /**
+   * Writes a json array of items to {@code file} until it holds at least {@code bytes} bytes.
+   */
+  static void writeItemsFile(File file, long bytes, Jolyglot jolyglot) throws IOException {
+    Writer writer = new BufferedWriter(
+        new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8")), 1 << 16);
+    try {
+      long written = 1;
+      writer.write('[');
+      for (int i = 0; written < bytes; i++) {
+        String json = jolyglot.toJson(item(i));
+        if (i > 0) {
+          writer.write(',');
+          written++;
+        }
+        writer.write(json);
+        written += json.length();
+      }
+      writer.write(']');
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Writes newline delimited items to {@code file} until it holds at least {@code bytes} bytes.
+   */
+  static void writeItemLinesFile(File file, long bytes, Jolyglot jolyglot) throws IOException {
+    Writer writer = new BufferedWriter(
+        new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8")), 1 << 16);
+    try {
+      long written = 0;
+      for (int i = 0; written < bytes; i++) {
+        String json = jolyglot.toJson(item(i));
+        writer.write(json);
+        writer.write('\n');
+        written += json.length() + 1;
+      }
+    } finally {
+      writer.close();
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads a single value out of the nested envelope of items, binding the whole document versus
+ * querying the value by JSON Pointer.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+  private static final JolyglotPointer S1 = JolyglotPointer.parse("/t/t/s1");
+  private static final JolyglotPointer LAST_ITEM_NAME = JolyglotPointer.parse("/t/t/t/999/name");
+
+  @Param({Speakers.GSON, Speakers.JACKSON, Speakers.MOSHI, Speakers.FASTJSON,
+      Speakers.GSON_AUTO_VALUE})
+  public String speaker;
+
+  private JolyglotGenerics jolyglot;
+  private JolyglotQuery query;
+  private byte[] bytes;
+
+  @Setup public void setUp() throws Exception {
+    jolyglot = Speakers.generics(speaker);
+    query = (JolyglotQuery) jolyglot;
+    bytes = jolyglot.toJson(Payloads.nested(1000), Payloads.NESTED).getBytes("UTF-8");
+  }
+
+  @Benchmark public String fromJsonThenS1() {
+    Envelope<Envelope<Envelope<List<Item>>>> envelope = jolyglot.fromJson(bytes, Payloads.NESTED);
+    return envelope.t.t.s1;
+  }
+
+  @Benchmark public String queryS1() {
+    return query.query(bytes, S1, String.class);
+  }
+
+  @Benchmark public String fromJsonThenLastItemName() {
+    Envelope<Envelope<Envelope<List<Item>>>> envelope = jolyglot.fromJson(bytes, Payloads.NESTED);
+    return envelope.t.t.t.get(999).name;
+  }
+
+  @Benchmark public String queryLastItemName() {
+    return query.query(bytes, LAST_ITEM_NAME, String.class);
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization and deserialization of a single small object, through the non generic api which
+ * every speaker supports.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SmallObjectBenchmark {
+  @Param({Speakers.GSON, Speakers.JACKSON, Speakers.MOSHI, Speakers.FASTJSON,
+      Speakers.GSON_AUTO_VALUE, Speakers.NATIVE})
+  public String speaker;
+
+  private Jolyglot jolyglot;
+  private Item item;
+  private String json;
+  private byte[] bytes;
+  private StringBuilder out;
+
+  @Setup public void setUp() throws Exception {
+    jolyglot = Speakers.jolyglot(speaker);
+    item = Payloads.item(42);
+    json = jolyglot.toJson(item);
+    bytes = json.getBytes("UTF-8");
+    out = new StringBuilder(json.length());
+  }
+
+  @Benchmark public String toJson() {
+    return jolyglot.toJson(item);
+  }
+
+  @Benchmark public StringBuilder toJsonAppendable() {
+    out.setLength(0);
+    jolyglot.toJson(item, out);
+    return out;
+  }
+
+  @Benchmark public Item fromJson() {
+    return jolyglot.fromJson(json, Item.class);
+  }
+
+  @Benchmark public Item fromJsonBytes() {
+    return jolyglot.fromJson(bytes, Item.class);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Creates the speakers under benchmark from the names used as JMH params.
+ */
+final class Speakers {
+  static final String GSON = "gson";
+  static final String JACKSON = "jackson";
+  static final String MOSHI = "moshi";
+  static final String FASTJSON = "fastjson";
+  static final String GSON_AUTO_VALUE = "gson_auto_value";
+  static final String NATIVE = "native";
+
+  private Speakers() {
+  }
+
+  static Jolyglot jolyglot(String name) {
+    return generics(name);
+  }
+
+  static JolyglotGenerics generics(String name) {
+    switch (name) {
+      case GSON:
+        return new GsonSpeaker();
+      case JACKSON:
+        return new JacksonSpeaker();
+      case MOSHI:
+        return new MoshiSpeaker();
+      case FASTJSON:
+        return new FastJsonSpeaker();
+      case GSON_AUTO_VALUE:
+        return new GsonAutoValueSpeaker() {
+          @Override protected TypeAdapterFactory autoValueGsonTypeAdapterFactory() {
+            return new TypeAdapterFactory() {
+              @Override public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                return gson.getDelegateAdapter(this, type);
+              }
+            };
+          }
+        };
+      case NATIVE:
+        return new NativeSpeaker();
+      default:
+        throw new IllegalArgumentException(name + " is not a JolyglotGenerics speaker");
+    }
+  }
+}
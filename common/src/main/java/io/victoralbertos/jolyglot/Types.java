@@ -16,6 +16,8 @@ package io.victoralbertos.jolyglot;
  * limitations under the License.
  */
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.GenericDeclaration;
@@ -29,24 +31,64 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-/** Factory methods for types. */
+/**
+ * Factory methods for types. Parameterized and array types are interned, so structurally equal
+ * types are the same instance for as long as any of them is reachable, and caches keyed by them
+ * resolve lookups by identity and a precomputed hash code.
+ */
 public final class Types {
   static final Type[] EMPTY_TYPE_ARRAY = new Type[] {};
+  private static final ConcurrentMap<WeakKey, WeakKey> CANONICAL_TYPES =
+      new ConcurrentHashMap<>();
+  private static final ReferenceQueue<Type> STALE_TYPES = new ReferenceQueue<>();
 
   private Types() {
   }
 
   /**
-   * Returns a new parameterized type, applying {@code typeArguments} to {@code rawType}.
+   * Returns the parameterized type applying {@code typeArguments} to {@code rawType}.
    */
   public static ParameterizedType newParameterizedType(Type rawType, Type... typeArguments) {
-    return new ParameterizedTypeImpl(null, rawType, typeArguments);
+    return intern(new ParameterizedTypeImpl(null, rawType, typeArguments));
   }
 
   /** Returns an array type whose elements are all instances of {@code componentType}. */
   public static GenericArrayType arrayOf(Type componentType) {
-    return new GenericArrayTypeImpl(componentType);
+    return intern(new GenericArrayTypeImpl(componentType));
+  }
+
+  /**
+   * Returns the instance equal to {@code type} already in the canonical table, or adds
+   * {@code type} to it if there is none. The table holds its types weakly, so it does not keep
+   * alive types, nor the classes they refer to, that are no longer used anywhere else.
+   */
+  @SuppressWarnings("unchecked")
+  static <T extends Type> T intern(T type) {
+    expungeStaleTypes();
+    WeakKey key = new WeakKey(type, STALE_TYPES);
+    while (true) {
+      WeakKey canonicalKey = CANONICAL_TYPES.putIfAbsent(key, key);
+      if (canonicalKey == null) return type;
+      Type canonical = canonicalKey.get();
+      if (canonical != null) return (T) canonical;
+      // Collected since it was matched, so it is stale and can be replaced.
+      CANONICAL_TYPES.remove(canonicalKey, canonicalKey);
+    }
+  }
+
+  /** Returns the number of types in the canonical table, some of which may be stale. */
+  static int canonicalTypesSize() {
+    expungeStaleTypes();
+    return CANONICAL_TYPES.size();
+  }
+
+  private static void expungeStaleTypes() {
+    for (Object key; (key = STALE_TYPES.poll()) != null; ) {
+      CANONICAL_TYPES.remove(key);
+    }
   }
 
   /**
@@ -400,10 +442,36 @@ public final class Types {
     }
   }
 
+  /**
+   * Entry of the canonical table. The hash code is taken while the type is reachable, so stale
+   * entries can still be found and removed once it has been collected, and they are only equal to
+   * themselves.
+   */
+  private static final class WeakKey extends WeakReference<Type> {
+    private final int hashCode;
+
+    WeakKey(Type type, ReferenceQueue<Type> queue) {
+      super(type, queue);
+      this.hashCode = type.hashCode();
+    }
+
+    @Override public boolean equals(Object other) {
+      if (other == this) return true;
+      if (!(other instanceof WeakKey)) return false;
+      Type type = get();
+      return type != null && type.equals(((WeakKey) other).get());
+    }
+
+    @Override public int hashCode() {
+      return hashCode;
+    }
+  }
+
   private static final class ParameterizedTypeImpl implements ParameterizedType {
     private final Type ownerType;
     private final Type rawType;
     final Type[] typeArguments;
+    private final int hashCode;
 
     ParameterizedTypeImpl(Type ownerType, Type rawType, Type... typeArguments) {
       // require an owner type if the raw type needs it
@@ -422,6 +490,9 @@ public final class Types {
         checkNotPrimitive(this.typeArguments[t]);
         this.typeArguments[t] = canonicalize(this.typeArguments[t]);
       }
+      this.hashCode = Arrays.hashCode(this.typeArguments)
+          ^ this.rawType.hashCode()
+          ^ hashCodeOrZero(this.ownerType);
     }
 
     public Type[] getActualTypeArguments() {
@@ -442,9 +513,7 @@ public final class Types {
     }
 
     @Override public int hashCode() {
-      return Arrays.hashCode(typeArguments)
-          ^ rawType.hashCode()
-          ^ hashCodeOrZero(ownerType);
+      return hashCode;
     }
 
     @Override public String toString() {
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class TypesTest {
+
+  @Test public void equalParameterizedTypesAreTheSameInstance() {
+    ParameterizedType type = Types.newParameterizedType(Map.class, String.class,
+        Types.newParameterizedType(List.class, Integer.class));
+    ParameterizedType other = Types.newParameterizedType(Map.class, String.class,
+        Types.newParameterizedType(List.class, Integer.class));
+
+    assertThat(other, is(sameInstance(type)));
+    assertThat(Types.newParameterizedType(Map.class, String.class, Long.class),
+        is(not(sameInstance((Type) type))));
+  }
+
+  @Test public void equalArrayTypesAreTheSameInstance() {
+    GenericArrayType type = Types.arrayOf(Types.newParameterizedType(List.class, String.class));
+    GenericArrayType other = Types.arrayOf(Types.newParameterizedType(List.class, String.class));
+
+    assertThat(other, is(sameInstance(type)));
+  }
+
+  @Test public void internedTypesKeepValueSemantics() {
+    ParameterizedType type = Types.newParameterizedType(List.class, String.class);
+    ParameterizedType equivalent =
+        new ParameterizedTypeCopy(type.getRawType(), type.getActualTypeArguments());
+
+    assertTrue(type.equals(equivalent));
+    assertTrue(equivalent.equals(type));
+    assertThat(type.hashCode(), is(equivalent.hashCode()));
+    assertThat(type.getActualTypeArguments(),
+        is(not(sameInstance(type.getActualTypeArguments()))));
+  }
+
+  @Test public void unreachableTypesAreReleased() throws InterruptedException {
+    int baseline = Types.canonicalTypesSize();
+    Type type = String.class;
+    for (int i = 0; i < 1000; i++) {
+      type = Types.newParameterizedType(List.class, type);
+    }
+    assertTrue(Types.canonicalTypesSize() >= 1000);
+    type = null;
+
+    for (int i = 0; i < 50 && Types.canonicalTypesSize() > baseline; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertTrue(Types.canonicalTypesSize() <= baseline);
+  }
+
+  /**
+   * A ParameterizedType which is not created by Types, as those of other libraries.
+   */
+  private static final class ParameterizedTypeCopy implements ParameterizedType {
+    private final Type rawType;
+    private final Type[] typeArguments;
+
+    ParameterizedTypeCopy(Type rawType, Type[] typeArguments) {
+      this.rawType = rawType;
+      this.typeArguments = typeArguments;
+    }
+
+    @Override public Type[] getActualTypeArguments() {
+      return typeArguments.clone();
+    }
+
+    @Override public Type getRawType() {
+      return rawType;
+    }
+
+    @Override public Type getOwnerType() {
+      return null;
+    }
+
+    @Override public boolean equals(Object other) {
+      return other instanceof ParameterizedType && Types.equals(this, (ParameterizedType) other);
+    }
+
+    @Override public int hashCode() {
+      return Arrays.hashCode(typeArguments) ^ rawType.hashCode();
+    }
+  }
+}
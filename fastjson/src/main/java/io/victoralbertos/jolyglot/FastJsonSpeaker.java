@@ -17,45 +17,812 @@
 package io.victoralbertos.jolyglot;
 
 import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.parser.DefaultJSONParser;
+import com.alibaba.fastjson.parser.Feature;
+import com.alibaba.fastjson.parser.JSONLexer;
+import com.alibaba.fastjson.parser.JSONReaderScanner;
+import com.alibaba.fastjson.parser.JSONToken;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.parser.deserializer.JavaBeanDeserializer;
+import com.alibaba.fastjson.parser.deserializer.ObjectDeserializer;
+import com.alibaba.fastjson.serializer.JSONSerializer;
+import com.alibaba.fastjson.serializer.SerializeConfig;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * FastJson implementation of Jolyglot
+ * FastJson implementation of Jolyglot. Private fields are bound when parsing, as they are by the
+ * rest of speakers, and map keys are always written as Json strings. FastJson serializes by the
+ * runtime class of every object, so the declared types given when writing are not needed.
+ *
+ * <p>FastJson never sets final fields, so the classes declaring them are bound through their
+ * fields by a deserializer this speaker registers in its {@link ParserConfig} the first time they
+ * are reached, unless another one was registered for them.
+ *
+ * <p>By default the global {@link ParserConfig} and {@link SerializeConfig} of FastJson are used.
+ * A speaker given configs of its own keeps its (de)serializers, and the classes FastJson generates
+ * for them, apart from the rest, so they are released along with the configs.
  */
-public class FastJsonSpeaker implements Jolyglot {
+public class FastJsonSpeaker implements JolyglotGenerics, JolyglotStreaming, JolyglotQuery,
+    JolyglotBatch {
+  /**
+   * Maximum number of generic types whose deserializers are cached by a speaker created with
+   * configs of its own, unless another one is given.
+   */
+  public static final int DEFAULT_MAX_CACHED_TYPES = 1024;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final Feature[] PARSER_FEATURES = {Feature.SupportNonPublicField};
+  private static final SerializerFeature[] SERIALIZER_FEATURES =
+      {SerializerFeature.WriteNonStringKeyAsString};
+  private final ParserConfig parserConfig;
+  private final SerializeConfig serializeConfig;
+  private final Feature[] parserFeatures;
+  private final int parserFeatureValues;
+  private final SerializerFeature[] serializerFeatures;
+  private final int maxCachedTypes;
+  private final ConcurrentMap<Type, ObjectDeserializer> deserializers =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<Class<?>, Boolean> scannedClasses = new ConcurrentHashMap<>();
+
+  /**
+   * Uses the global configs of FastJson, and never evicts the deserializers cached for generic
+   * types.
+   */
+  public FastJsonSpeaker() {
+    this(ParserConfig.getGlobalInstance(), SerializeConfig.getGlobalInstance(), PARSER_FEATURES,
+        SERIALIZER_FEATURES, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Uses {@code parserConfig} and {@code serializeConfig} with the default features, caching the
+   * deserializers of up to {@link #DEFAULT_MAX_CACHED_TYPES} generic types.
+   */
+  public FastJsonSpeaker(ParserConfig parserConfig, SerializeConfig serializeConfig) {
+    this(parserConfig, serializeConfig, PARSER_FEATURES, SERIALIZER_FEATURES,
+        DEFAULT_MAX_CACHED_TYPES);
+  }
+
+  /**
+   * @param parserFeatures the features enabled when parsing, on top of the defaults of FastJson.
+   * They replace the ones of this speaker, so {@link Feature#SupportNonPublicField} must be given
+   * to keep binding private fields.
+   * @param serializerFeatures the features enabled when writing, on top of the defaults of
+   * FastJson. They replace the ones of this speaker, so
+   * {@link SerializerFeature#WriteNonStringKeyAsString} must be given to keep writing map keys as
+   * Json strings.
+   * @param maxCachedTypes the number of generic types, such as parameterized and array types, whose
+   * deserializers this speaker keeps apart from {@code parserConfig}. Once reached, they are
+   * dropped and built again on demand, while the ones of classes stay in {@code parserConfig}.
+   * Classes are not counted, as they are bounded by the classes loaded, and neither is
+   * {@code serializeConfig}: FastJson writes by the runtime class of every value, so it only
+   * caches serializers of classes.
+   */
+  public FastJsonSpeaker(ParserConfig parserConfig, SerializeConfig serializeConfig,
+      Feature[] parserFeatures, SerializerFeature[] serializerFeatures, int maxCachedTypes) {
+    if (parserConfig == null || serializeConfig == null) {
+      throw new IllegalArgumentException("parserConfig and serializeConfig can not be null");
+    }
+    if (maxCachedTypes < 1) {
+      throw new IllegalArgumentException("maxCachedTypes must be positive: " + maxCachedTypes);
+    }
+    this.parserConfig = parserConfig;
+    this.serializeConfig = serializeConfig;
+    this.parserFeatures = parserFeatures.clone();
+    this.serializerFeatures = serializerFeatures.clone();
+    this.maxCachedTypes = maxCachedTypes;
+
+    int featureValues = JSON.DEFAULT_PARSER_FEATURE;
+    for (Feature feature : this.parserFeatures) {
+      featureValues |= feature.mask;
+    }
+    this.parserFeatureValues = featureValues;
+  }
 
   /**
    * {@inheritDoc}
    */
   @Override public String toJson(Object src) {
-    return JSON.toJSONString(src);
+    return JSON.toJSONString(src, serializeConfig, serializerFeatures);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public String toJson(Object src, Type typeOfSrc) {
+    return toJson(src);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, OutputStream out) throws RuntimeException {
+    try {
+      JSON.writeJSONString(out, UTF_8, src, serializeConfig, null, null,
+          JSON.DEFAULT_GENERATE_FEATURE, serializerFeatures);
+      out.flush();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, OutputStream out)
+      throws RuntimeException {
+    toJson(src, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Appendable out) throws RuntimeException {
+    SerializeWriter serializeWriter = new SerializeWriter(AppendableWriter.of(out),
+        JSON.DEFAULT_GENERATE_FEATURE, serializerFeatures);
+    try {
+      new JSONSerializer(serializeWriter, serializeConfig).write(src);
+    } finally {
+      // Writes what is left of the buffer to out and hands it back to the pool of FastJson.
+      serializeWriter.close();
+    }
+    AppendableWriter.flush(out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, Appendable out)
+      throws RuntimeException {
+    toJson(src, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, File file) throws RuntimeException {
+    AtomicFileOutputStream out = null;
+    try {
+      out = JolyglotFiles.create(file);
+      toJson(src, out);
+      out.commit();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, File file) throws RuntimeException {
+    AtomicFileOutputStream out = null;
+    try {
+      out = JolyglotFiles.create(file);
+      toJson(src, typeOfSrc, out);
+      out.commit();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException i) {}
+      }
+    }
   }
 
   /**
    * {@inheritDoc}
    */
   @Override public <T> T fromJson(String json, Class<T> classOfT) throws RuntimeException {
-    return JSON.parseObject(json, classOfT);
+    return fromJson(json, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(String json, Type type) throws RuntimeException {
+    if (type instanceof Class) {
+      scan(type);
+      return JSON.parseObject(json, type, parserConfig, JSON.DEFAULT_PARSER_FEATURE,
+          parserFeatures);
+    }
+    if (json == null || json.isEmpty()) return null;
+    return parse(new DefaultJSONParser(json, parserConfig, parserFeatureValues), type);
   }
 
   /**
    * {@inheritDoc}
    */
   @Override public <T> T fromJson(File file, Class<T> classOfT) throws RuntimeException {
-    InputStream fileInputStream = null;
+    return fromJson(file, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(File file, Type typeOfT) throws RuntimeException {
+    InputStream in = null;
     try {
-      fileInputStream = new FileInputStream(file);
-      return JSON.parseObject(fileInputStream, classOfT);
-    } catch (Exception e) {
+      in = JolyglotFiles.open(file);
+      return fromJson(in, typeOfT);
+    } catch (IOException e) {
       throw new RuntimeException(e);
     } finally {
-      if (fileInputStream != null)
+      if (in != null) {
         try {
-          fileInputStream.close();
+          in.close();
         } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Class<T> classOfT) throws RuntimeException {
+    return fromJson(in, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Type typeOfT) throws RuntimeException {
+    if (!(typeOfT instanceof Class)) {
+      JSONReaderScanner scanner =
+          new JSONReaderScanner(new InputStreamReader(in, UTF_8), parserFeatureValues);
+      return parse(new DefaultJSONParser(scanner, parserConfig), typeOfT);
+    }
+    scan(typeOfT);
+    try {
+      return JSON.parseObject(in, UTF_8, typeOfT, parserConfig, null,
+          JSON.DEFAULT_PARSER_FEATURE, parserFeatures);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Class<T> classOfT) throws RuntimeException {
+    return fromJson(json, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Type typeOfT) throws RuntimeException {
+    if (!(typeOfT instanceof Class)) return fromJson(new String(json, UTF_8), typeOfT);
+    scan(typeOfT);
+    return JSON.parseObject(json, UTF_8, typeOfT, parserConfig, null,
+        JSON.DEFAULT_PARSER_FEATURE, parserFeatures);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public GenericArrayType arrayOf(Type componentType) {
+    return Types.arrayOf(componentType);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public ParameterizedType newParameterizedType(Type rawType, Type... typeArguments) {
+    return Types.newParameterizedType(rawType, typeArguments);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterate(InputStream in, Type typeOfElement)
+      throws RuntimeException {
+    return iterate(in, typeOfElement, null, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterate(File file, Type typeOfElement)
+      throws RuntimeException {
+    return iterate(file, typeOfElement, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterateLines(InputStream in, Type typeOfRecord)
+      throws RuntimeException {
+    return iterate(in, typeOfRecord, null, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterateLines(File file, Type typeOfRecord)
+      throws RuntimeException {
+    return iterate(file, typeOfRecord, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotWriter<T> newLineWriter(OutputStream out, Type typeOfRecord)
+      throws RuntimeException {
+    Writer writer = new OutputStreamWriter(out, UTF_8);
+    SerializeWriter serializeWriter =
+        new SerializeWriter(writer, JSON.DEFAULT_GENERATE_FEATURE, serializerFeatures);
+    return new FastJsonLineWriter<>(serializeWriter, serializeConfig, writer);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(String json, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    DefaultJSONParser parser = new DefaultJSONParser(json, parserConfig, parserFeatureValues);
+    try {
+      return query(parser, pointer, typeOfT);
+    } finally {
+      parser.getLexer().close();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(byte[] json, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    return query(new ByteArrayInputStream(json), pointer, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(InputStream in, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    JSONReaderScanner scanner =
+        new JSONReaderScanner(new InputStreamReader(in, UTF_8), parserFeatureValues);
+    return query(new DefaultJSONParser(scanner, parserConfig), pointer, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(File file, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    InputStream in = null;
+    try {
+      in = JolyglotFiles.open(file);
+      return query(in, pointer, typeOfT);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public List<String> toJsonAll(Collection<?> srcs, Type typeOfSrc)
+      throws RuntimeException {
+    List<String> jsons = new ArrayList<>(srcs.size());
+    // A writer per value, as they take their buffer from one FastJson recycles per thread.
+    for (Object src : srcs) {
+      SerializeWriter out = new SerializeWriter(null, JSON.DEFAULT_GENERATE_FEATURE,
+          serializerFeatures);
+      try {
+        new JSONSerializer(out, serializeConfig).write(src);
+        jsons.add(out.toString());
+      } finally {
+        out.close();
+      }
+    }
+    return jsons;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public List<byte[]> toJsonBytesAll(Collection<?> srcs, Type typeOfSrc)
+      throws RuntimeException {
+    List<byte[]> jsons = new ArrayList<>(srcs.size());
+    // A writer per value, as they take their buffer from one FastJson recycles per thread.
+    for (Object src : srcs) {
+      SerializeWriter out = new SerializeWriter(null, JSON.DEFAULT_GENERATE_FEATURE,
+          serializerFeatures);
+      try {
+        new JSONSerializer(out, serializeConfig).write(src);
+        jsons.add(out.toBytes(UTF_8));
+      } finally {
+        out.close();
+      }
+    }
+    return jsons;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> List<T> fromJsonAll(List<String> jsons, Type typeOfT)
+      throws RuntimeException {
+    List<T> values = new ArrayList<>(jsons.size());
+    for (String json : jsons) {
+      values.add(this.<T>fromJson(json, typeOfT));
+    }
+    return values;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> List<T> fromJsonBytesAll(List<byte[]> jsons, Type typeOfT)
+      throws RuntimeException {
+    List<T> values = new ArrayList<>(jsons.size());
+    for (byte[] json : jsons) {
+      values.add(this.<T>fromJson(json, typeOfT));
+    }
+    return values;
+  }
+
+  private <T> JolyglotIterator<T> iterate(File file, Type type, boolean lines) {
+    InputStream in = null;
+    boolean iterating = false;
+    try {
+      in = JolyglotFiles.open(file);
+      JolyglotIterator<T> iterator = iterate(in, type, in, lines);
+      iterating = true;
+      return iterator;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (!iterating && in != null) {
+        try {
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * Binds the elements of a top-level array or, when {@code lines} is set, every top-level value
+   * of newline delimited Json.
+   */
+  private <T> JolyglotIterator<T> iterate(InputStream in, Type type, Closeable source,
+      boolean lines) {
+    JSONReaderScanner scanner =
+        new JSONReaderScanner(new InputStreamReader(in, UTF_8), parserFeatureValues);
+    DefaultJSONParser parser = new DefaultJSONParser(scanner, parserConfig);
+    if (!lines) parser.accept(JSONToken.LBRACKET);
+    ObjectDeserializer deserializer;
+    if (type instanceof Class) {
+      scan(type);
+      deserializer = null;
+    } else {
+      deserializer = deserializer(type);
+    }
+    return new FastJsonIterator<>(parser, type, deserializer, source, lines);
+  }
+
+  /**
+   * Walks the tokens of the lexer of {@code parser} past every member and element off the path to
+   * the value {@code pointer} refers to, and binds only that value.
+   */
+  private <T> T query(DefaultJSONParser parser, JolyglotPointer pointer, Type type) {
+    JSONLexer lexer = parser.getLexer();
+    for (int i = 0; i < pointer.size(); i++) {
+      if (!seek(lexer, pointer, i)) return null;
+    }
+    return read(parser, type);
+  }
+
+  /**
+   * Moves {@code lexer} to the first token of the value the token of {@code pointer} at
+   * {@code position} refers to within the current one, returning false if there is no such value.
+   */
+  private static boolean seek(JSONLexer lexer, JolyglotPointer pointer, int position) {
+    if (lexer.token() == JSONToken.LBRACE) {
+      String name = pointer.token(position);
+      lexer.nextToken();
+      while (lexer.token() == JSONToken.LITERAL_STRING
+          || lexer.token() == JSONToken.IDENTIFIER) {
+        boolean matches = name.equals(lexer.stringVal());
+        lexer.nextTokenWithColon();
+        if (matches) return true;
+        skipValue(lexer);
+        if (lexer.token() != JSONToken.COMMA) return false;
+        lexer.nextToken();
+      }
+      return false;
+    } else if (lexer.token() == JSONToken.LBRACKET) {
+      int index = pointer.index(position);
+      if (index < 0) return false;
+      lexer.nextToken();
+      for (int i = 0; lexer.token() != JSONToken.RBRACKET; i++) {
+        if (i == index) return true;
+        skipValue(lexer);
+        if (lexer.token() != JSONToken.COMMA) return false;
+        lexer.nextToken();
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Moves {@code lexer} past the value starting at its current token, counting the nesting of
+   * objects and arrays instead of binding them.
+   */
+  private static void skipValue(JSONLexer lexer) {
+    int depth = 0;
+    do {
+      int token = lexer.token();
+      if (token == JSONToken.LBRACE || token == JSONToken.LBRACKET) {
+        depth++;
+      } else if (token == JSONToken.RBRACE || token == JSONToken.RBRACKET) {
+        depth--;
+      } else if (token == JSONToken.EOF) {
+        throw new JSONException("unexpected end of json");
+      }
+      lexer.nextToken();
+    } while (depth > 0);
+  }
+
+  /**
+   * Binds the whole document {@code parser} reads as {@code type}, as
+   * {@link JSON#parseObject(String, Type, ParserConfig, int, Feature...)} does, binding empty
+   * documents to null.
+   */
+  private <T> T parse(DefaultJSONParser parser, Type type) {
+    if (parser.getLexer().token() == JSONToken.EOF) {
+      parser.close();
+      return null;
+    }
+    T value = read(parser, type);
+    parser.handleResovleTask(value);
+    parser.close();
+    return value;
+  }
+
+  /**
+   * Binds the value {@code parser} is positioned at as {@code type}, looking the deserializers of
+   * generic types up in this speaker rather than in {@code parserConfig}.
+   */
+  private <T> T read(DefaultJSONParser parser, Type type) {
+    if (type instanceof Class) {
+      scan(type);
+      return parser.parseObject(type);
+    }
+    return read(parser, type, deserializer(type));
+  }
+
+  private static <T> T read(DefaultJSONParser parser, Type type,
+      ObjectDeserializer deserializer) {
+    JSONLexer lexer = parser.getLexer();
+    if (lexer.token() == JSONToken.NULL) {
+      lexer.nextToken();
+      return null;
+    }
+    return deserializer.deserialze(parser, type, null);
+  }
+
+  /**
+   * Returns the deserializer of the generic {@code type}. FastJson caches the deserializer built
+   * for every type by identity and never drops them, so every new but equal instance, such as a
+   * type built per call, would build and retain one of its own. They are kept here by equality
+   * instead, and past {@code maxCachedTypes} dropped all at once, while parses in flight keep
+   * using the ones they hold.
+   */
+  private ObjectDeserializer deserializer(Type type) {
+    ObjectDeserializer deserializer = deserializers.get(type);
+    if (deserializer != null) return deserializer;
+    scan(type);
+    deserializer = newDeserializer(type);
+    if (deserializers.size() >= maxCachedTypes) deserializers.clear();
+    ObjectDeserializer previous = deserializers.putIfAbsent(type, deserializer);
+    return previous != null ? previous : deserializer;
+  }
+
+  /**
+   * Builds the deserializer of the generic {@code type} without caching it in
+   * {@code parserConfig}. Beans need one of their own resolving their type variables, the rest of
+   * the deserializers of a class, such as the ones of collections and maps, read the type
+   * arguments of the type given when binding.
+   */
+  private ObjectDeserializer newDeserializer(Type type) {
+    if (!(type instanceof ParameterizedType)) {
+      // FastJson only caches the deserializers of classes and parameterized types.
+      return parserConfig.getDeserializer(type);
+    }
+    Type rawType = ((ParameterizedType) type).getRawType();
+    ObjectDeserializer deserializer = parserConfig.getDeserializer(rawType);
+    if (deserializer instanceof JavaBeanDeserializer && rawType instanceof Class) {
+      return parserConfig.createJavaBeanDeserializer((Class<?>) rawType, type);
+    }
+    return deserializer;
+  }
+
+  /**
+   * Registers a {@link FieldBasedDeserializer} in {@code parserConfig} for every class reachable
+   * from {@code type}, through its type arguments and fields, which FastJson can not bind by
+   * itself. FastJson looks the deserializers of nested values up on its own, so they are put in
+   * place before binding, the first time each class is seen.
+   */
+  private void scan(Type type) {
+    if (type instanceof Class && scannedClasses.containsKey(type)) return;
+    synchronized (scannedClasses) {
+      Set<Class<?>> scanning = new HashSet<>();
+      scan(type, scanning);
+      for (Class<?> rawType : scanning) {
+        scannedClasses.put(rawType, Boolean.TRUE);
+      }
+    }
+  }
+
+  private void scan(Type type, Set<Class<?>> scanning) {
+    if (type instanceof Class) {
+      Class<?> rawType = (Class<?>) type;
+      if (rawType.isArray()) {
+        scan(rawType.getComponentType(), scanning);
+        return;
+      }
+      if (scannedClasses.containsKey(rawType) || !scanning.add(rawType)) return;
+      if (FieldBasedDeserializer.isPlatformType(rawType)) return;
+
+      ObjectDeserializer current = parserConfig.get(rawType);
+      if (current == null || current instanceof JavaBeanDeserializer) {
+        FieldBasedDeserializer deserializer = FieldBasedDeserializer.create(rawType);
+        if (deserializer != null) parserConfig.putDeserializer(rawType, deserializer);
+      }
+      for (Field field : FieldBasedDeserializer.boundFields(rawType)) {
+        scan(field.getGenericType(), scanning);
+      }
+    } else if (type instanceof ParameterizedType) {
+      scan(((ParameterizedType) type).getRawType(), scanning);
+      for (Type typeArgument : ((ParameterizedType) type).getActualTypeArguments()) {
+        scan(typeArgument, scanning);
+      }
+    } else if (type instanceof GenericArrayType) {
+      scan(((GenericArrayType) type).getGenericComponentType(), scanning);
+    } else if (type instanceof WildcardType) {
+      for (Type bound : ((WildcardType) type).getUpperBounds()) {
+        scan(bound, scanning);
+      }
+    }
+  }
+
+  /**
+   * The number of generic types whose deserializers are currently cached.
+   */
+  int cachedTypes() {
+    return deserializers.size();
+  }
+
+  /**
+   * Binds the elements of the array {@code reader} is positioned in, or its top-level values when
+   * reading lines, as {@code typeOfElement}.
+   */
+  private static final class FastJsonIterator<T> implements JolyglotIterator<T> {
+    private final DefaultJSONParser parser;
+    private final Type typeOfElement;
+    private final ObjectDeserializer deserializer;
+    private final Closeable source;
+    private final boolean lines;
+    private boolean started;
+    private boolean closed;
+
+    /**
+     * @param deserializer the one of {@code typeOfElement} if generic, or null to let
+     * {@code parser} look it up.
+     */
+    FastJsonIterator(DefaultJSONParser parser, Type typeOfElement, ObjectDeserializer deserializer,
+        Closeable source, boolean lines) {
+      this.parser = parser;
+      this.typeOfElement = typeOfElement;
+      this.deserializer = deserializer;
+      this.source = source;
+      this.lines = lines;
+    }
+
+    @Override public boolean hasNext() {
+      if (closed) return false;
+      return parser.getLexer().token() != (lines ? JSONToken.EOF : JSONToken.RBRACKET);
+    }
+
+    @Override public T next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      if (started && !lines) parser.accept(JSONToken.COMMA);
+      started = true;
+      T value = deserializer == null ? parser.<T>parseObject(typeOfElement)
+          : FastJsonSpeaker.<T>read(parser, typeOfElement, deserializer);
+      parser.handleResovleTask(value);
+      return value;
+    }
+
+    @Override public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public void close() {
+      closed = true;
+      if (source != null) {
+        try {
+          source.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * Writes every record followed by a line feed into the same {@link SerializeWriter}, so its
+   * pooled buffer is shared across records. A serializer is created per record because it keeps
+   * track of the instances it has written to detect references.
+   */
+  private static final class FastJsonLineWriter<T> implements JolyglotWriter<T> {
+    private final SerializeWriter out;
+    private final SerializeConfig config;
+    private final Writer writer;
+    private boolean closed;
+
+    FastJsonLineWriter(SerializeWriter out, SerializeConfig config, Writer writer) {
+      this.out = out;
+      this.config = config;
+      this.writer = writer;
+    }
+
+    @Override public void write(T record) {
+      new JSONSerializer(out, config).write(record);
+      out.write('\n');
+    }
+
+    @Override public void flush() {
+      out.flush();
+    }
+
+    @Override public void close() {
+      if (closed) return;
+      closed = true;
+      // Hands the buffer back to the pool after writing what is left of it to the writer.
+      out.close();
+      try {
+        writer.flush();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
     }
   }
 }
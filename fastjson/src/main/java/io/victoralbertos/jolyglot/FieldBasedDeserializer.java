@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.annotation.JSONCreator;
+import com.alibaba.fastjson.annotation.JSONField;
+import com.alibaba.fastjson.annotation.JSONType;
+import com.alibaba.fastjson.parser.DefaultJSONParser;
+import com.alibaba.fastjson.parser.JSONLexer;
+import com.alibaba.fastjson.parser.JSONToken;
+import com.alibaba.fastjson.parser.deserializer.ObjectDeserializer;
+import com.alibaba.fastjson.util.FieldInfo;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binds a class through its fields, final ones included, as FastJson never sets final fields,
+ * even when binding by fields. The type given when binding resolves the type variables of the
+ * fields, so a single instance serves every parameterization of the class.
+ */
+final class FieldBasedDeserializer implements ObjectDeserializer {
+  private final Class<?> rawType;
+  private final Constructor<?> constructor;
+  private final Map<String, Field> fields;
+
+  private FieldBasedDeserializer(Class<?> rawType, Constructor<?> constructor,
+      Map<String, Field> fields) {
+    this.rawType = rawType;
+    this.constructor = constructor;
+    this.fields = fields;
+  }
+
+  /**
+   * Returns a deserializer for {@code rawType} if it has final fields to bind and a no-arg
+   * constructor, or null to leave it to FastJson, as it does for classes annotated to configure
+   * their binding.
+   */
+  static FieldBasedDeserializer create(Class<?> rawType) {
+    if (rawType.isPrimitive() || rawType.isArray() || rawType.isInterface() || rawType.isEnum()
+        || Modifier.isAbstract(rawType.getModifiers()) || isPlatformType(rawType)
+        || rawType.isAnnotationPresent(JSONType.class)) {
+      return null;
+    }
+    Constructor<?> constructor = null;
+    for (Constructor<?> candidate : rawType.getDeclaredConstructors()) {
+      if (candidate.isAnnotationPresent(JSONCreator.class)) return null;
+      if (candidate.getParameterTypes().length == 0) constructor = candidate;
+    }
+    if (constructor == null) return null;
+
+    Map<String, Field> fields = new HashMap<>();
+    boolean finalFields = false;
+    for (Class<?> c = rawType; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+            || field.isSynthetic()) {
+          continue;
+        }
+        JSONField annotation = field.getAnnotation(JSONField.class);
+        if (annotation != null && !annotation.deserialize()) continue;
+        String name = annotation != null && !annotation.name().isEmpty()
+            ? annotation.name() : field.getName();
+        // Fields of subclasses hide the ones of their superclasses with the same name.
+        if (fields.containsKey(name)) continue;
+        fields.put(name, field);
+        finalFields |= Modifier.isFinal(modifiers);
+      }
+    }
+    if (!finalFields) return null;
+
+    constructor.setAccessible(true);
+    for (Field field : fields.values()) {
+      field.setAccessible(true);
+    }
+    return new FieldBasedDeserializer(rawType, constructor, fields);
+  }
+
+  /**
+   * Whether {@code rawType} belongs to the platform or to FastJson, which bind it on their own.
+   */
+  static boolean isPlatformType(Class<?> rawType) {
+    String name = rawType.getName();
+    return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("android.")
+        || name.startsWith("com.alibaba.fastjson.");
+  }
+
+  /**
+   * Instance fields of {@code rawType} and its superclasses which FastJson may bind, for finding
+   * the classes reachable from it.
+   */
+  static Iterable<Field> boundFields(Class<?> rawType) {
+    Map<String, Field> fields = new HashMap<>();
+    for (Class<?> c = rawType; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) continue;
+        if (!fields.containsKey(field.getName())) fields.put(field.getName(), field);
+      }
+    }
+    return fields.values();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+    JSONLexer lexer = parser.getLexer();
+    if (lexer.token() == JSONToken.NULL) {
+      lexer.nextToken(JSONToken.COMMA);
+      return null;
+    }
+    if (lexer.token() != JSONToken.LBRACE) {
+      throw new JSONException("syntax error, expect {, actual " + lexer.info());
+    }
+
+    Object instance = newInstance();
+    lexer.nextToken();
+    while (lexer.token() != JSONToken.RBRACE) {
+      if (lexer.token() != JSONToken.LITERAL_STRING && lexer.token() != JSONToken.IDENTIFIER) {
+        throw new JSONException("syntax error, expect a name, actual " + lexer.info());
+      }
+      Field field = fields.get(lexer.stringVal());
+      lexer.nextTokenWithColon();
+      if (field == null) {
+        parser.parse();
+      } else {
+        Object value = parser.parseObject(
+            FieldInfo.getFieldType(rawType, type, field.getGenericType()));
+        if (value != null || !field.getType().isPrimitive()) set(field, instance, value);
+      }
+      if (lexer.token() == JSONToken.COMMA) {
+        lexer.nextToken();
+      } else if (lexer.token() != JSONToken.RBRACE) {
+        throw new JSONException("syntax error, expect , or }, actual " + lexer.info());
+      }
+    }
+    lexer.nextToken(JSONToken.COMMA);
+    return (T) instance;
+  }
+
+  @Override public int getFastMatchToken() {
+    return JSONToken.LBRACE;
+  }
+
+  private Object newInstance() {
+    try {
+      return constructor.newInstance();
+    } catch (Exception e) {
+      throw new JSONException("Failed to create an instance of " + rawType.getName(), e);
+    }
+  }
+
+  private static void set(Field field, Object instance, Object value) {
+    try {
+      field.set(instance, value);
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
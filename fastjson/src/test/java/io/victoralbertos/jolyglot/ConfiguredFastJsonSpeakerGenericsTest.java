@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import com.alibaba.fastjson.parser.Feature;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.parser.deserializer.ObjectDeserializer;
+import com.alibaba.fastjson.serializer.SerializeConfig;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public final class ConfiguredFastJsonSpeakerGenericsTest extends JolyglotGenericsTest {
+
+  @Override protected JolyglotGenerics jolyglot() {
+    return new FastJsonSpeaker(new ParserConfig(), new SerializeConfig(),
+        new Feature[] {Feature.SupportNonPublicField},
+        new SerializerFeature[] {SerializerFeature.WriteNonStringKeyAsString}, 2);
+  }
+
+  @Test public void cachesDeserializersOfGenericTypesApartFromItsParserConfig() {
+    ParserConfig parserConfig = new ParserConfig();
+    FastJsonSpeaker speaker = new FastJsonSpeaker(parserConfig, new SerializeConfig());
+    Type mocks = speaker.newParameterizedType(Set.class, Mock.class);
+
+    speaker.fromJson("[{\"s1\":\"s1\"}]", mocks);
+    speaker.fromJson("[]", speaker.newParameterizedType(Set.class, Mock.class));
+    assertThat(speaker.cachedTypes(), is(1));
+    assertNotNull(parserConfig.getDeserializers().get(Mock.class));
+    assertNull(parserConfig.getDeserializers().get(mocks));
+    assertNull(ParserConfig.getGlobalInstance().getDeserializers().get(mocks));
+  }
+
+  @Test public void evictsDeserializersPastMaxCachedTypes() {
+    ParserConfig parserConfig = new ParserConfig();
+    FastJsonSpeaker speaker = new FastJsonSpeaker(parserConfig, new SerializeConfig(),
+        new Feature[] {Feature.SupportNonPublicField}, new SerializerFeature[0], 2);
+    Type list = speaker.newParameterizedType(List.class, Mock.class);
+    Type set = speaker.newParameterizedType(Set.class, Mock.class);
+    Type map = speaker.newParameterizedType(Map.class, String.class, Mock.class);
+
+    speaker.fromJson("[]", list);
+    speaker.fromJson("[]", set);
+    assertThat(speaker.cachedTypes(), is(2));
+
+    Map<String, Mock> mocks = speaker.fromJson("{\"a\":{\"s1\":\"s1\"}}", map);
+    assertThat(mocks.get("a").getS1(), is("s1"));
+    assertThat(speaker.cachedTypes(), is(1));
+    assertNull(parserConfig.getDeserializers().get(list));
+    assertNull(parserConfig.getDeserializers().get(set));
+  }
+
+  @Test public void keepsTheDeserializersOfClassesWhenEvicting() {
+    ParserConfig parserConfig = new ParserConfig();
+    FastJsonSpeaker speaker = new FastJsonSpeaker(parserConfig, new SerializeConfig(),
+        new Feature[] {Feature.SupportNonPublicField}, new SerializerFeature[0], 2);
+    speaker.fromJson("{\"s1\":\"s1\"}", Mock.class);
+    ObjectDeserializer deserializer = parserConfig.getDeserializers().get(Mock.class);
+    assertNotNull(deserializer);
+
+    for (int round = 0; round < 5; round++) {
+      speaker.fromJson("[]", speaker.newParameterizedType(List.class, Mock.class));
+      speaker.fromJson("[]", speaker.newParameterizedType(Set.class, Mock.class));
+      speaker.fromJson("{}", speaker.newParameterizedType(Map.class, String.class, Mock.class));
+    }
+    assertThat(parserConfig.getDeserializers().get(Mock.class), is(sameInstance(deserializer)));
+    assertThat(speaker.fromJson("{\"s1\":\"s1\"}", Mock.class).getS1(), is("s1"));
+  }
+
+  @Test public void usesTheGivenFeatures() {
+    FastJsonSpeaker speaker = new FastJsonSpeaker(new ParserConfig(), new SerializeConfig(),
+        new Feature[0], new SerializerFeature[] {SerializerFeature.WriteMapNullValue}, 16);
+
+    assertThat(speaker.toJson(new MockParameterized<Mock>()), is("{\"s1\":null,\"t\":null}"));
+    assertNull(speaker.fromJson("{\"s1\":\"s1\"}", MutableMock.class).s1);
+  }
+
+  @Test public void bindsFinalFieldsThroughItsOwnParserConfig() {
+    ParserConfig parserConfig = new ParserConfig();
+    FastJsonSpeaker speaker = new FastJsonSpeaker(parserConfig, new SerializeConfig());
+    Type type = speaker.newParameterizedType(List.class,
+        speaker.newParameterizedType(MockParameterized.class, Mock.class));
+
+    List<MockParameterized<Mock>> mocks = speaker.fromJson(
+        "[{\"s1\":\"a\",\"t\":{\"s1\":\"b\"}},null,{\"unknown\":[1]}]", type);
+    assertThat(mocks.get(0).getS1(), is("a"));
+    assertThat(mocks.get(0).getT().getS1(), is("b"));
+    assertNull(mocks.get(1));
+    assertNull(mocks.get(2).getT());
+    assertThat(parserConfig.getDeserializers().get(MockParameterized.class),
+        instanceOf(FieldBasedDeserializer.class));
+  }
+
+  @Test public void rejectsNonPositiveMaxCachedTypes() {
+    try {
+      new FastJsonSpeaker(new ParserConfig(), new SerializeConfig(), new Feature[0],
+          new SerializerFeature[0], 0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public static final class MutableMock {
+    private String s1;
+  }
+}
@@ -17,40 +17,168 @@
 package io.victoralbertos.jolyglot;
 
 import com.google.gson.Gson;
-import java.io.BufferedReader;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
- * Gson implementation of Jolyglot
+ * Gson implementation of Jolyglot. Json built as a String is written into a {@link StringBuilder}
+ * recycled per thread, see {@link StringBuilderWriter}.
  */
-public class GsonSpeaker implements JolyglotGenerics {
+public class GsonSpeaker implements JolyglotGenerics, JolyglotStreaming, JolyglotQuery,
+    JolyglotBatch {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
   private final Gson gson;
 
   public GsonSpeaker(Gson gson) {
     this.gson = gson;
   }
 
+  /**
+   * Uses a default {@link Gson}, which binds {@link JolyglotModel} classes with their generated
+   * {@link JolyglotBinding}.
+   */
   public GsonSpeaker() {
-    this.gson = new Gson();
+    this.gson = new GsonBuilder()
+        .registerTypeAdapterFactory(new JolyglotModelTypeAdapterFactory())
+        .create();
   }
 
   /**
    * {@inheritDoc}
    */
   @Override public String toJson(Object src) {
-      return gson.toJson(src);
+    StringBuilderWriter writer = StringBuilderWriter.acquire();
+    try {
+      gson.toJson(src, writer);
+      return writer.toString();
+    } finally {
+      writer.recycle();
+    }
   }
 
   /**
    * {@inheritDoc}
    */
   @Override public String toJson(Object src, Type typeOfSrc) {
-    return gson.toJson(src, typeOfSrc);
+    StringBuilderWriter writer = StringBuilderWriter.acquire();
+    try {
+      gson.toJson(src, typeOfSrc, writer);
+      return writer.toString();
+    } finally {
+      writer.recycle();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, OutputStream out) throws RuntimeException {
+    try {
+      Writer writer = new OutputStreamWriter(out, UTF_8);
+      gson.toJson(src, writer);
+      writer.flush();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, OutputStream out)
+      throws RuntimeException {
+    try {
+      Writer writer = new OutputStreamWriter(out, UTF_8);
+      gson.toJson(src, typeOfSrc, writer);
+      writer.flush();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Appendable out) throws RuntimeException {
+    gson.toJson(src, out);
+    AppendableWriter.flush(out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, Appendable out)
+      throws RuntimeException {
+    gson.toJson(src, typeOfSrc, out);
+    AppendableWriter.flush(out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, File file) throws RuntimeException {
+    AtomicFileOutputStream out = null;
+    try {
+      out = JolyglotFiles.create(file);
+      toJson(src, out);
+      out.commit();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, File file) throws RuntimeException {
+    AtomicFileOutputStream out = null;
+    try {
+      out = JolyglotFiles.create(file);
+      toJson(src, typeOfSrc, out);
+      out.commit();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException i) {}
+      }
+    }
   }
 
   /**
@@ -71,46 +199,355 @@ public class GsonSpeaker implements JolyglotGenerics {
    * {@inheritDoc}
    */
   @Override public <T> T fromJson(File file, Class<T> classOfT) throws RuntimeException {
-    BufferedReader reader = null;
-
+    InputStream in = null;
     try {
-      reader = new BufferedReader(new FileReader(file.getAbsoluteFile()));
-      T object =  gson.fromJson(reader, classOfT);
-      reader.close();
-      return object;
+      in = JolyglotFiles.open(file);
+      return fromJson(in, classOfT);
     } catch (IOException e) {
       throw new RuntimeException(e);
     } finally {
-      if (reader != null) {
+      if (in != null) {
         try {
-          reader.close();
+          in.close();
         } catch (IOException i) {}
       }
     }
   }
 
+
   /**
    * {@inheritDoc}
    */
   @Override public <T> T fromJson(File file, Type typeOfT) throws RuntimeException {
-    BufferedReader reader = null;
+    InputStream in = null;
+    try {
+      in = JolyglotFiles.open(file);
+      return fromJson(in, typeOfT);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Class<T> classOfT) throws RuntimeException {
+    Reader reader = new InputStreamReader(in, UTF_8);
+    return gson.fromJson(reader, classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Type typeOfT) throws RuntimeException {
+    Reader reader = new InputStreamReader(in, UTF_8);
+    return gson.fromJson(reader, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Class<T> classOfT) throws RuntimeException {
+    return fromJson(new ByteArrayInputStream(json), classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Type typeOfT) throws RuntimeException {
+    return fromJson(new ByteArrayInputStream(json), typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterate(InputStream in, Type typeOfElement)
+      throws RuntimeException {
+    return iterate(in, typeOfElement, null, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterate(File file, Type typeOfElement)
+      throws RuntimeException {
+    return iterate(file, typeOfElement, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterateLines(InputStream in, Type typeOfRecord)
+      throws RuntimeException {
+    return iterate(in, typeOfRecord, null, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterateLines(File file, Type typeOfRecord)
+      throws RuntimeException {
+    return iterate(file, typeOfRecord, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @SuppressWarnings("unchecked")
+  @Override public <T> JolyglotWriter<T> newLineWriter(OutputStream out, Type typeOfRecord)
+      throws RuntimeException {
+    try {
+      TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(typeOfRecord));
+      Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+      JsonWriter jsonWriter = gson.newJsonWriter(writer);
+      // One record per line, so neither pretty printing nor the single top-level value rule apply.
+      jsonWriter.setIndent("");
+      jsonWriter.setLenient(true);
+      return new GsonLineWriter<>(jsonWriter, writer, adapter);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(String json, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    return query(new StringReader(json), pointer, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(byte[] json, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    return query(new ByteArrayInputStream(json), pointer, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(InputStream in, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    return query(new InputStreamReader(in, UTF_8), pointer, typeOfT);
+  }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(File file, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    InputStream in = null;
     try {
-      reader = new BufferedReader(new FileReader(file.getAbsoluteFile()));
-      T object =  gson.fromJson(reader, typeOfT);
-      reader.close();
-      return object;
+      in = JolyglotFiles.open(file);
+      return query(in, pointer, typeOfT);
     } catch (IOException e) {
       throw new RuntimeException(e);
     } finally {
-      if (reader != null) {
+      if (in != null) {
         try {
-          reader.close();
+          in.close();
         } catch (IOException i) {}
       }
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @SuppressWarnings("unchecked")
+  @Override public List<String> toJsonAll(Collection<?> srcs, Type typeOfSrc)
+      throws RuntimeException {
+    TypeAdapter<Object> adapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(typeOfSrc));
+    List<String> jsons = new ArrayList<>(srcs.size());
+    StringBuilderWriter writer = StringBuilderWriter.acquire();
+    try {
+      for (Object src : srcs) {
+        writer.reset();
+        write(adapter, src, writer);
+        jsons.add(writer.toString());
+      }
+      return jsons;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      writer.recycle();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @SuppressWarnings("unchecked")
+  @Override public List<byte[]> toJsonBytesAll(Collection<?> srcs, Type typeOfSrc)
+      throws RuntimeException {
+    TypeAdapter<Object> adapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(typeOfSrc));
+    List<byte[]> jsons = new ArrayList<>(srcs.size());
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Writer writer = new OutputStreamWriter(bytes, UTF_8);
+    try {
+      for (Object src : srcs) {
+        bytes.reset();
+        write(adapter, src, writer);
+        writer.flush();
+        jsons.add(bytes.toByteArray());
+      }
+      return jsons;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @SuppressWarnings("unchecked")
+  @Override public <T> List<T> fromJsonAll(List<String> jsons, Type typeOfT)
+      throws RuntimeException {
+    TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(typeOfT));
+    List<T> values = new ArrayList<>(jsons.size());
+    for (String json : jsons) {
+      values.add(read(adapter, new StringReader(json)));
+    }
+    return values;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @SuppressWarnings("unchecked")
+  @Override public <T> List<T> fromJsonBytesAll(List<byte[]> jsons, Type typeOfT)
+      throws RuntimeException {
+    TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(typeOfT));
+    List<T> values = new ArrayList<>(jsons.size());
+    for (byte[] json : jsons) {
+      values.add(read(adapter, new InputStreamReader(new ByteArrayInputStream(json), UTF_8)));
+    }
+    return values;
+  }
+
+  /**
+   * Writes {@code src} through {@code adapter} as {@link Gson#toJson(Object, Type, Appendable)}
+   * does, without looking the adapter up again.
+   */
+  private void write(TypeAdapter<Object> adapter, Object src, Writer writer) throws IOException {
+    JsonWriter jsonWriter = gson.newJsonWriter(writer);
+    jsonWriter.setLenient(true);
+    adapter.write(jsonWriter, src);
+    jsonWriter.flush();
+  }
+
+  /**
+   * Reads a whole document through {@code adapter} as {@link Gson#fromJson(Reader, Type)} does,
+   * without looking the adapter up again.
+   */
+  private <T> T read(TypeAdapter<T> adapter, Reader reader) {
+    try {
+      JsonReader jsonReader = gson.newJsonReader(reader);
+      jsonReader.setLenient(true);
+      if (jsonReader.peek() == JsonToken.END_DOCUMENT) return null;
+      T value = adapter.read(jsonReader);
+      if (jsonReader.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonIOException("JSON document was not fully consumed.");
+      }
+      return value;
+    } catch (IOException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  private <T> JolyglotIterator<T> iterate(File file, Type type, boolean lines) {
+    InputStream in = null;
+    boolean iterating = false;
+    try {
+      in = JolyglotFiles.open(file);
+      JolyglotIterator<T> iterator = iterate(in, type, in, lines);
+      iterating = true;
+      return iterator;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (!iterating && in != null) {
+        try {
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * Binds the elements of a top-level array or, when {@code lines} is set, the top-level values of
+   * newline delimited Json, which the reader only accepts in lenient mode.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> JolyglotIterator<T> iterate(InputStream in, Type type, Closeable source,
+      boolean lines) {
+    try {
+      TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(type));
+      JsonReader reader = gson.newJsonReader(new InputStreamReader(in, UTF_8));
+      if (lines) {
+        reader.setLenient(true);
+      } else {
+        reader.beginArray();
+      }
+      return new GsonIterator<>(reader, adapter, source, lines);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Skips every member and element off the path to the value {@code pointer} refers to, and binds
+   * only that value.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T query(Reader reader, JolyglotPointer pointer, Type type) {
+    try {
+      JsonReader jsonReader = gson.newJsonReader(reader);
+      for (int i = 0; i < pointer.size(); i++) {
+        if (!seek(jsonReader, pointer, i)) return null;
+      }
+      return ((TypeAdapter<T>) gson.getAdapter(TypeToken.get(type))).read(jsonReader);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Moves {@code reader} to the value the token of {@code pointer} at {@code position} refers to
+   * within the current one, returning false if there is no such value.
+   */
+  private static boolean seek(JsonReader reader, JolyglotPointer pointer, int position)
+      throws IOException {
+    JsonToken token = reader.peek();
+    if (token == JsonToken.BEGIN_OBJECT) {
+      String name = pointer.token(position);
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (reader.nextName().equals(name)) return true;
+        reader.skipValue();
+      }
+      return false;
+    } else if (token == JsonToken.BEGIN_ARRAY) {
+      int index = pointer.index(position);
+      if (index < 0) return false;
+      reader.beginArray();
+      for (int i = 0; i < index && reader.hasNext(); i++) {
+        reader.skipValue();
+      }
+      return reader.hasNext();
+    }
+    return false;
+  }
+
   @Override public GenericArrayType arrayOf(Type componentType) {
       return Types.arrayOf(componentType);
   }
@@ -122,4 +559,95 @@ public class GsonSpeaker implements JolyglotGenerics {
       return Types.newParameterizedType(rawType, typeArguments);
   }
 
+  /**
+   * Binds the elements of the array {@code reader} is positioned in, or its top-level values when
+   * reading lines, through {@code adapter}.
+   */
+  private static final class GsonIterator<T> implements JolyglotIterator<T> {
+    private final JsonReader reader;
+    private final TypeAdapter<T> adapter;
+    private final Closeable source;
+    private final boolean lines;
+    private boolean closed;
+
+    GsonIterator(JsonReader reader, TypeAdapter<T> adapter, Closeable source, boolean lines) {
+      this.reader = reader;
+      this.adapter = adapter;
+      this.source = source;
+      this.lines = lines;
+    }
+
+    @Override public boolean hasNext() {
+      if (closed) return false;
+      try {
+        return lines ? reader.peek() != JsonToken.END_DOCUMENT : reader.hasNext();
+      } catch (EOFException e) {
+        // Gson rejects a document without values, which as lines just holds no records.
+        if (lines) return false;
+        throw new RuntimeException(e);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override public T next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      try {
+        return adapter.read(reader);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public void close() {
+      closed = true;
+      if (source != null) {
+        try {
+          source.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * Writes every record through {@code adapter} followed by a line feed, sharing the same buffered
+   * writer across records.
+   */
+  private static final class GsonLineWriter<T> implements JolyglotWriter<T> {
+    private final JsonWriter jsonWriter;
+    private final Writer writer;
+    private final TypeAdapter<T> adapter;
+
+    GsonLineWriter(JsonWriter jsonWriter, Writer writer, TypeAdapter<T> adapter) {
+      this.jsonWriter = jsonWriter;
+      this.writer = writer;
+      this.adapter = adapter;
+    }
+
+    @Override public void write(T record) {
+      try {
+        adapter.write(jsonWriter, record);
+        writer.write('\n');
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override public void flush() {
+      try {
+        writer.flush();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override public void close() {
+      flush();
+    }
+  }
+
 }
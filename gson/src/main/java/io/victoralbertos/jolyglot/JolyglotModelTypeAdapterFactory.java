@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Creates the adapters of {@link JolyglotModel} classes from their generated
+ * {@link JolyglotBinding}, replacing the reflective ones of Gson. {@link GsonSpeaker} registers it
+ * by default, a {@link Gson} supplied to it should register it too.
+ */
+public final class JolyglotModelTypeAdapterFactory implements TypeAdapterFactory {
+
+  @Override public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    if (!(type.getType() instanceof Class)) return null;
+    @SuppressWarnings("unchecked")
+    JolyglotBinding<T> binding = JolyglotBinding.of((Class<T>) type.getType());
+    if (binding == null) return null;
+
+    Type[] types = binding.types();
+    TypeAdapter<?>[] adapters = new TypeAdapter<?>[types.length];
+    for (int i = 0; i < types.length; i++) {
+      adapters[i] = gson.getAdapter(TypeToken.get(types[i]));
+    }
+    return new ModelAdapter<>(binding, adapters);
+  }
+
+  private static final class ModelAdapter<T> extends TypeAdapter<T> {
+    private final JolyglotBinding<T> binding;
+    private final TypeAdapter<?>[] adapters;
+
+    ModelAdapter(JolyglotBinding<T> binding, TypeAdapter<?>[] adapters) {
+      this.binding = binding;
+      this.adapters = adapters;
+    }
+
+    @Override public void write(JsonWriter out, T value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+      binding.write(new Writer(out, adapters), value);
+    }
+
+    @Override public T read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      return binding.read(new Reader(in, adapters));
+    }
+  }
+
+  private static final class Reader implements JolyglotBinding.Reader {
+    private final JsonReader in;
+    private final TypeAdapter<?>[] adapters;
+
+    Reader(JsonReader in, TypeAdapter<?>[] adapters) {
+      this.in = in;
+      this.adapters = adapters;
+    }
+
+    @Override public void beginObject() throws IOException {
+      in.beginObject();
+    }
+
+    @Override public void endObject() throws IOException {
+      in.endObject();
+    }
+
+    @Override public boolean hasNext() throws IOException {
+      return in.hasNext();
+    }
+
+    @Override public String nextName() throws IOException {
+      return in.nextName();
+    }
+
+    @Override public boolean nextNull() throws IOException {
+      if (in.peek() != JsonToken.NULL) return false;
+      in.nextNull();
+      return true;
+    }
+
+    @Override public String nextString() throws IOException {
+      return in.nextString();
+    }
+
+    @Override public boolean nextBoolean() throws IOException {
+      return in.nextBoolean();
+    }
+
+    @Override public int nextInt() throws IOException {
+      return in.nextInt();
+    }
+
+    @Override public long nextLong() throws IOException {
+      return in.nextLong();
+    }
+
+    @Override public double nextDouble() throws IOException {
+      return in.nextDouble();
+    }
+
+    @Override public void skipValue() throws IOException {
+      in.skipValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public <V> V read(int type) throws IOException {
+      return (V) adapters[type].read(in);
+    }
+  }
+
+  private static final class Writer implements JolyglotBinding.Writer {
+    private final JsonWriter out;
+    private final TypeAdapter<?>[] adapters;
+
+    Writer(JsonWriter out, TypeAdapter<?>[] adapters) {
+      this.out = out;
+      this.adapters = adapters;
+    }
+
+    @Override public void beginObject() throws IOException {
+      out.beginObject();
+    }
+
+    @Override public void endObject() throws IOException {
+      out.endObject();
+    }
+
+    @Override public void name(String name) throws IOException {
+      out.name(name);
+    }
+
+    @Override public void nullValue() throws IOException {
+      out.nullValue();
+    }
+
+    @Override public void value(String value) throws IOException {
+      out.value(value);
+    }
+
+    @Override public void value(boolean value) throws IOException {
+      out.value(value);
+    }
+
+    @Override public void value(long value) throws IOException {
+      out.value(value);
+    }
+
+    @Override public void value(float value) throws IOException {
+      // As a Number, so it is written as the shortest decimal of the float rather than the double.
+      out.value(Float.valueOf(value));
+    }
+
+    @Override public void value(double value) throws IOException {
+      out.value(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public void write(int type, Object value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+      ((TypeAdapter<Object>) adapters[type]).write(out, value);
+    }
+  }
+}
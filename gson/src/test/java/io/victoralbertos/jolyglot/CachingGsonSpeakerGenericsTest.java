@@ -0,0 +1,231 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class CachingGsonSpeakerGenericsTest extends JolyglotGenericsTest {
+
+  @Override protected JolyglotGenerics jolyglot() {
+    return new CachingJolyglot(new GsonSpeaker());
+  }
+
+  @Test public void hitsReturnTheSameInstance() throws Exception {
+    CachingJolyglot jolyglot = new CachingJolyglot(new GsonSpeaker());
+    File file = write("mock.json", "{\"s1\":\"s1\"}");
+
+    Mock mock = jolyglot.fromJson(file, Mock.class);
+    assertThat(jolyglot.fromJson(file, Mock.class), is(sameInstance(mock)));
+    assertThat(jolyglot.fromJson(new File(file.getParentFile(), "./mock.json"), Mock.class),
+        is(sameInstance(mock)));
+
+    CachingJolyglot.Stats stats = jolyglot.stats();
+    assertThat(stats.misses(), is(1L));
+    assertThat(stats.hits(), is(2L));
+    assertThat(stats.hitRate(), is(2d / 3));
+    assertThat(stats.entries(), is(1));
+    assertThat(stats.bytes(), is(file.length()));
+  }
+
+  @Test public void typesAreCachedApart() throws Exception {
+    CachingJolyglot jolyglot = new CachingJolyglot(new GsonSpeaker());
+    File file = write("mocks.json", "[{\"s1\":\"s1\"}]");
+    Type type = jolyglot.newParameterizedType(List.class, Mock.class);
+
+    List<Mock> mocks = jolyglot.fromJson(file, type);
+    Mock[] array = jolyglot.fromJson(file, Mock[].class);
+
+    assertThat(array[0].getS1(), is("s1"));
+    assertThat(jolyglot.<List<Mock>>fromJson(file,
+        jolyglot.newParameterizedType(List.class, Mock.class)), is(sameInstance(mocks)));
+    assertThat(jolyglot.stats().misses(), is(2L));
+  }
+
+  @Test public void bindsAgainChangedFiles() throws Exception {
+    CachingJolyglot jolyglot = new CachingJolyglot(new GsonSpeaker());
+    File file = write("mock.json", "{\"s1\":\"s1\"}");
+    Mock mock = jolyglot.fromJson(file, Mock.class);
+
+    write("mock.json", "{\"s1\":\"changed\"}");
+    assertThat(jolyglot.fromJson(file, Mock.class).getS1(), is("changed"));
+
+    jolyglot.toJson(mock, file);
+    assertThat(jolyglot.fromJson(file, Mock.class).getS1(), is("s1"));
+    assertThat(jolyglot.fromJson(file, Mock.class), is(not(sameInstance(mock))));
+    assertThat(jolyglot.stats().misses(), is(3L));
+  }
+
+  @Test public void evictsLeastRecentlyUsedEntries() throws Exception {
+    CachingJolyglot jolyglot = new CachingJolyglot(new GsonSpeaker(), 2, Long.MAX_VALUE);
+    File first = write("first.json", "{\"s1\":\"1\"}");
+    File second = write("second.json", "{\"s1\":\"2\"}");
+    File third = write("third.json", "{\"s1\":\"3\"}");
+
+    Mock mock = jolyglot.fromJson(first, Mock.class);
+    jolyglot.fromJson(second, Mock.class);
+    jolyglot.fromJson(first, Mock.class);
+    jolyglot.fromJson(third, Mock.class);
+
+    assertThat(jolyglot.fromJson(first, Mock.class), is(sameInstance(mock)));
+    assertThat(jolyglot.stats().evictions(), is(1L));
+    jolyglot.fromJson(second, Mock.class);
+    assertThat(jolyglot.stats().misses(), is(4L));
+    assertThat(jolyglot.stats().entries(), is(2));
+  }
+
+  @Test public void evictsBeyondMaxBytes() throws Exception {
+    File first = write("first.json", "{\"s1\":\"1\"}");
+    File second = write("second.json", "{\"s1\":\"2\"}");
+    File third = write("third.json", "{\"s1\":\"3\"}");
+    CachingJolyglot jolyglot = new CachingJolyglot(new GsonSpeaker(), 10, first.length() * 2);
+
+    jolyglot.fromJson(first, Mock.class);
+    Mock mock = jolyglot.fromJson(second, Mock.class);
+    assertThat(jolyglot.stats().bytes(), is(first.length() * 2));
+
+    jolyglot.fromJson(third, Mock.class);
+    assertThat(jolyglot.stats().entries(), is(2));
+    assertThat(jolyglot.stats().bytes(), is(first.length() * 2));
+    assertThat(jolyglot.stats().evictions(), is(1L));
+    assertThat(jolyglot.fromJson(second, Mock.class), is(sameInstance(mock)));
+  }
+
+  @Test public void oversizedFilesAreBoundButNotKept() throws Exception {
+    File first = write("first.json", "{\"s1\":\"1\"}");
+    File second = write("second.json", "{\"s1\":\"2\"}");
+    String padding = new String(new char[64]).replace('\0', 'x');
+    File large = write("large.json", "{\"s1\":\"" + padding + "\"}");
+    CachingJolyglot jolyglot = new CachingJolyglot(new GsonSpeaker(), 10, first.length() * 2);
+
+    Mock mock = jolyglot.fromJson(first, Mock.class);
+    jolyglot.fromJson(second, Mock.class);
+
+    assertThat(jolyglot.fromJson(large, Mock.class).getS1(), is(padding));
+    assertThat(jolyglot.stats().entries(), is(2));
+    assertThat(jolyglot.stats().bytes(), is(first.length() * 2));
+    assertThat(jolyglot.stats().evictions(), is(0L));
+    assertThat(jolyglot.stats().misses(), is(3L));
+    assertThat(jolyglot.fromJson(first, Mock.class), is(sameInstance(mock)));
+  }
+
+  @Test public void concurrentMissesShareOneLoad() throws Exception {
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger loads = new AtomicInteger();
+    final CachingJolyglot jolyglot = new CachingJolyglot(new GsonSpeaker() {
+      @Override public <T> T fromJson(File file, Type typeOfT) throws RuntimeException {
+        loads.incrementAndGet();
+        loading.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        return super.fromJson(file, typeOfT);
+      }
+    });
+    final File file = write("mock.json", "{\"s1\":\"s1\"}");
+
+    final Mock[] results = new Mock[4];
+    Thread[] threads = new Thread[results.length];
+    for (int i = 0; i < threads.length; i++) {
+      final int index = i;
+      threads[i] = new Thread(new Runnable() {
+        @Override public void run() {
+          results[index] = jolyglot.fromJson(file, Mock.class);
+        }
+      });
+      threads[i].start();
+    }
+
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    while (jolyglot.stats().hits() + jolyglot.stats().misses() < threads.length) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+    for (Thread thread : threads) {
+      thread.join(5000);
+    }
+
+    assertThat(loads.get(), is(1));
+    for (Mock result : results) {
+      assertThat(result, is(sameInstance(results[0])));
+    }
+  }
+
+  @Test public void failuresAreNotCached() throws Exception {
+    CachingJolyglot jolyglot = new CachingJolyglot(new GsonSpeaker());
+    File file = write("mock.json", "{");
+
+    try {
+      jolyglot.fromJson(file, Mock.class);
+      fail();
+    } catch (RuntimeException expected) {
+    }
+    assertThat(jolyglot.stats().loadFailures(), is(1L));
+    assertThat(jolyglot.stats().entries(), is(0));
+
+    write("mock.json", "{}");
+    assertThat(jolyglot.fromJson(file, Mock.class).getS1(), is("s1"));
+  }
+
+  @Test public void invalidatesEntries() throws Exception {
+    CachingJolyglot jolyglot = new CachingJolyglot(new GsonSpeaker());
+    File file = write("mock.json", "{\"s1\":\"s1\"}");
+    Mock mock = jolyglot.fromJson(file, Mock.class);
+    jolyglot.fromJson(file, Object.class);
+
+    jolyglot.invalidate(file);
+    assertThat(jolyglot.stats().entries(), is(0));
+    assertThat(jolyglot.fromJson(file, Mock.class), is(not(sameInstance(mock))));
+
+    jolyglot.invalidateAll();
+    assertThat(jolyglot.stats().entries(), is(0));
+    assertThat(jolyglot.stats().bytes(), is(0L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNonPositiveMaxEntries() {
+    new CachingJolyglot(new GsonSpeaker(), 0, Long.MAX_VALUE);
+  }
+
+  private File write(String name, String json) throws IOException {
+    File file = new File(temporaryFolder.getRoot(), name);
+    FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(json.getBytes("UTF-8"));
+    } finally {
+      out.close();
+    }
+    return file;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+public final class CompressingGsonSpeakerTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test public void compressesStreamsAsTheyAreWritten() throws Exception {
+    JolyglotGenerics jolyglot = new CompressingJolyglot(new GsonSpeaker());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    jolyglot.toJson(new Mock(), out);
+
+    byte[] gzip = out.toByteArray();
+    assertThat(JolyglotCodec.detect(gzip, gzip.length), is(JolyglotCodec.GZIP));
+    assertThat(new GsonSpeaker().fromJson(new GZIPInputStream(new ByteArrayInputStream(gzip)),
+        Mock.class).getS1(), is("s1"));
+    assertThat(jolyglot.<Mock>fromJson(gzip, Mock.class).getS1(), is("s1"));
+    assertThat(jolyglot.<Mock>fromJson(new ByteArrayInputStream(gzip), Mock.class).getS1(),
+        is("s1"));
+  }
+
+  @Test public void compressesFilesAsTheyAreWritten() throws Exception {
+    JolyglotGenerics jolyglot = new CompressingJolyglot(new GsonSpeaker());
+    File file = new File(temporaryFolder.getRoot(), "mocks.json.gz");
+    Type type = jolyglot.newParameterizedType(List.class, Mock.class);
+
+    jolyglot.toJson(Arrays.asList(new Mock(), new Mock()), type, file);
+
+    List<Mock> mocks = new GsonSpeaker().fromJson(file, type);
+    assertThat(mocks.size(), is(2));
+    assertThat(mocks.get(1).getS1(), is("s1"));
+    assertThat(temporaryFolder.getRoot().list().length, is(1));
+  }
+
+  @Test public void readsUncompressedJson() throws Exception {
+    JolyglotGenerics jolyglot = new CompressingJolyglot(new GsonSpeaker());
+    byte[] json = "{\"s1\":\"s1\"}".getBytes("UTF-8");
+
+    assertThat(jolyglot.<Mock>fromJson(json, Mock.class).getS1(), is("s1"));
+    assertThat(jolyglot.<Mock>fromJson(new ByteArrayInputStream(json), Mock.class).getS1(),
+        is("s1"));
+    assertThat(jolyglot.toJson(new Mock()), is("{\"s1\":\"s1\"}"));
+  }
+
+  @Test public void compressesWithZstd() throws Exception {
+    assumeTrue(JolyglotCodec.ZSTD.isAvailable());
+    JolyglotGenerics jolyglot = new CompressingJolyglot(new GsonSpeaker(), JolyglotCodec.ZSTD);
+    File file = new File(temporaryFolder.getRoot(), "mock.json.zst");
+
+    jolyglot.toJson(new Mock(), file);
+
+    assertThat(new GsonSpeaker().fromJson(file, Mock.class).getS1(), is("s1"));
+  }
+}
@@ -16,10 +16,40 @@
 
 package io.victoralbertos.jolyglot;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Collections;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
 public final class GsonSpeakerTest extends JolyglotTest {
 
   @Override protected Jolyglot jolyglot() {
     return new GsonSpeaker();
   }
 
+  @Test public void adaptersCallingTheSpeakerDoNotShareItsBuffer() {
+    final GsonSpeaker[] speaker = new GsonSpeaker[1];
+    Gson gson = new GsonBuilder()
+        .registerTypeAdapter(Mock.class, new TypeAdapter<Mock>() {
+          @Override public void write(JsonWriter out, Mock value) throws IOException {
+            out.value(speaker[0].toJson(Collections.singletonList(value.getS1())));
+          }
+
+          @Override public Mock read(JsonReader in) {
+            throw new UnsupportedOperationException();
+          }
+        })
+        .create();
+    speaker[0] = new GsonSpeaker(gson);
+
+    assertThat(speaker[0].toJson(Collections.singletonList(new Mock())),
+        is("[\"[\\\"s1\\\"]\"]"));
+  }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public final class InstrumentedGsonSpeakerGenericsTest extends JolyglotGenericsTest {
+
+  @Override protected JolyglotGenerics jolyglot() {
+    return new InstrumentedJolyglotGenerics(new GsonSpeaker(), new JolyglotMetrics());
+  }
+
+  @Test public void recordsLatenciesPayloadSizesAndFailures() throws Exception {
+    JolyglotMetrics metrics = new JolyglotMetrics();
+    JolyglotGenerics jolyglot = new InstrumentedJolyglotGenerics(new GsonSpeaker(), metrics);
+    Type type = jolyglot.newParameterizedType(List.class, Mock.class);
+    String json = "[{\"s1\":\"s1\"}]";
+
+    jolyglot.fromJson(json, type);
+    jolyglot.fromJson(new ByteArrayInputStream(json.getBytes("UTF-8")), type);
+    try {
+      jolyglot.fromJson("[", type);
+      fail();
+    } catch (RuntimeException expected) {
+    }
+
+    JolyglotMetrics.Stats strings = metrics.stats(JolyglotOperation.FROM_JSON_STRING, type);
+    assertThat(strings.latencies().count(), is(2L));
+    assertThat(strings.payloadSizes().count(), is(1L));
+    assertThat(strings.payloadSizes().max(), is((long) json.length()));
+    assertThat(strings.failures(), is(1L));
+
+    JolyglotMetrics.Stats streams = metrics.stats(JolyglotOperation.FROM_JSON_STREAM, type);
+    assertThat(streams.payloadSizes().max(), is((long) json.length()));
+  }
+
+  @Test public void recordsNullJsonAsAnEmptyPayload() {
+    JolyglotMetrics metrics = new JolyglotMetrics();
+    JolyglotGenerics jolyglot = new InstrumentedJolyglotGenerics(new GsonSpeaker(), metrics);
+
+    assertThat(jolyglot.fromJson((String) null, Mock.class), is(nullValue()));
+    assertThat(jolyglot.<Mock>fromJson((String) null, (Type) Mock.class), is(nullValue()));
+
+    JolyglotMetrics.Stats strings = metrics.stats(JolyglotOperation.FROM_JSON_STRING, Mock.class);
+    assertThat(strings.payloadSizes().count(), is(2L));
+    assertThat(strings.payloadSizes().max(), is(0L));
+  }
+
+  @Test public void recordsCharsAppended() {
+    JolyglotMetrics metrics = new JolyglotMetrics();
+    JolyglotGenerics jolyglot = new InstrumentedJolyglotGenerics(new GsonSpeaker(), metrics);
+    StringBuilder out = new StringBuilder("[");
+
+    jolyglot.toJson(new Mock(), out);
+    jolyglot.toJson(new Mock(), Mock.class, out);
+
+    JolyglotMetrics.Stats appendables =
+        metrics.stats(JolyglotOperation.TO_JSON_APPENDABLE, Mock.class);
+    assertThat(appendables.latencies().count(), is(2L));
+    assertThat(appendables.payloadSizes().max(), is((long) "{\"s1\":\"s1\"}".length()));
+  }
+}
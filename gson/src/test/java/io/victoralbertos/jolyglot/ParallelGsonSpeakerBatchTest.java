@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public final class ParallelGsonSpeakerBatchTest extends JolyglotBatchTest {
+  private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+  @AfterClass public static void tearDownPool() {
+    POOL.shutdown();
+  }
+
+  @Override protected JolyglotBatch jolyglot() {
+    return new ParallelJolyglotBatch(new GsonSpeaker(), POOL, 3);
+  }
+
+  @Test public void largeBatchesKeepTheirOrder() {
+    JolyglotBatch batch = jolyglot();
+    List<String> jsons = batch.toJsonAll(lines(1000), MockLine.class);
+    assertThat(jsons.get(999), is("{\"index\":999}"));
+
+    List<MockLine> values = batch.fromJsonAll(jsons, MockLine.class);
+    assertIndexes(values, 1000);
+    assertIndexes(batch.<MockLine>fromJsonBytesAll(batch.toJsonBytesAll(values, MockLine.class),
+        MockLine.class), 1000);
+  }
+
+  @Test(expected = IllegalArgumentException.class) public void chunkSizeMustBePositive() {
+    new ParallelJolyglotBatch(new GsonSpeaker(), POOL, 0);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.GsonBuilder;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class RoutingGsonSpeakerGenericsTest extends JolyglotGenericsTest {
+  private static final String JSON = "{\"s1\":\"s1\"}";
+
+  @Override protected JolyglotGenerics jolyglot() {
+    return new RoutingJolyglot(Arrays.asList(new GsonSpeaker(), new GsonSpeaker()), 1, 2);
+  }
+
+  @Test public void pinsTheFastestSpeaker() {
+    GsonSpeaker fast = new GsonSpeaker();
+    RoutingJolyglot jolyglot =
+        new RoutingJolyglot(Arrays.asList(new SlowGsonSpeaker(), fast), 2, 5);
+
+    for (int i = 0; i < 7; i++) {
+      assertThat(jolyglot.fromJson(JSON, Mock.class).getS1(), is("s1"));
+    }
+    assertThat(jolyglot.routes().get(Mock.class), is(sameInstance((JolyglotGenerics) fast)));
+  }
+
+  @Test public void neverPinsSpeakersWritingDifferentJson() {
+    SlowGsonSpeaker primary = new SlowGsonSpeaker();
+    GsonSpeaker upperCamelCase = new GsonSpeaker(new GsonBuilder()
+        .setFieldNamingPolicy(FieldNamingPolicy.UPPER_CAMEL_CASE)
+        .create());
+    RoutingJolyglot jolyglot = new RoutingJolyglot(Arrays.asList(primary, upperCamelCase), 2, 5);
+
+    for (int i = 0; i < 7; i++) {
+      assertThat(jolyglot.toJson(new Mock(), Mock.class), is(JSON));
+    }
+    assertThat(jolyglot.routes().get(Mock.class), is(sameInstance((JolyglotGenerics) primary)));
+  }
+
+  @Test public void failingSpeakersDoNotFailCallsAndAreNeverPinned() {
+    SlowGsonSpeaker primary = new SlowGsonSpeaker();
+    GsonSpeaker failing = new GsonSpeaker() {
+      @Override public String toJson(Object src, Type typeOfSrc) {
+        throw new IllegalStateException();
+      }
+    };
+    RoutingJolyglot jolyglot = new RoutingJolyglot(Arrays.asList(primary, failing), 2, 5);
+
+    for (int i = 0; i < 7; i++) {
+      assertThat(jolyglot.toJson(new Mock(), Mock.class), is(JSON));
+    }
+    assertThat(jolyglot.routes().get(Mock.class), is(sameInstance((JolyglotGenerics) primary)));
+  }
+
+  @Test public void pinnedAndFrozenRoutesAreNotSampled() {
+    final int[] calls = {0};
+    GsonSpeaker counting = new GsonSpeaker() {
+      @Override public <T> T fromJson(String json, Type type) {
+        calls[0]++;
+        return super.fromJson(json, type);
+      }
+    };
+    RoutingJolyglot jolyglot = new RoutingJolyglot(Arrays.asList(new GsonSpeaker(), counting));
+    Type mocks = jolyglot.newParameterizedType(List.class, Mock.class);
+    jolyglot.pin(mocks, counting);
+    jolyglot.freeze();
+
+    jolyglot.fromJson("[" + JSON + "]", mocks);
+    jolyglot.fromJson(JSON, (Type) Mock.class);
+    assertThat(calls[0], is(1));
+    assertThat(jolyglot.routes().size(), is(1));
+    assertTrue(jolyglot.routes().get(mocks) == counting);
+  }
+
+  @Test public void pinRejectsUnknownSpeakers() {
+    RoutingJolyglot jolyglot = new RoutingJolyglot(Arrays.asList(new GsonSpeaker()));
+    try {
+      jolyglot.pin(Mock.class, new GsonSpeaker());
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  private static final class SlowGsonSpeaker extends GsonSpeaker {
+
+    @Override public String toJson(Object src, Type typeOfSrc) {
+      sleep();
+      return super.toJson(src, typeOfSrc);
+    }
+
+    @Override public <T> T fromJson(String json, Class<T> classOfT) {
+      sleep();
+      return super.fromJson(json, classOfT);
+    }
+
+    private void sleep() {
+      try {
+        Thread.sleep(2);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
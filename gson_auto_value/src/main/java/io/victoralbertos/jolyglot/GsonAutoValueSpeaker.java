@@ -20,19 +20,25 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.TypeAdapterFactory;
 import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Gson implementation of Jolyglot
  */
-public abstract class GsonAutoValueSpeaker implements JolyglotGenerics {
+public abstract class GsonAutoValueSpeaker implements JolyglotGenerics, JolyglotStreaming,
+    JolyglotQuery, JolyglotBatch {
   private final GsonSpeaker gsonSpeaker;
 
   public GsonAutoValueSpeaker() {
     Gson gson = new GsonBuilder()
         .registerTypeAdapterFactory(autoValueGsonTypeAdapterFactory())
+        .registerTypeAdapterFactory(new JolyglotModelTypeAdapterFactory())
         .create();
     gsonSpeaker = new GsonSpeaker(gson);
   }
@@ -51,6 +57,50 @@ public abstract class GsonAutoValueSpeaker implements JolyglotGenerics {
     return gsonSpeaker.toJson(src, typeOfSrc);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, OutputStream out) throws RuntimeException {
+    gsonSpeaker.toJson(src, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, OutputStream out)
+      throws RuntimeException {
+    gsonSpeaker.toJson(src, typeOfSrc, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Appendable out) throws RuntimeException {
+    gsonSpeaker.toJson(src, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, Appendable out)
+      throws RuntimeException {
+    gsonSpeaker.toJson(src, typeOfSrc, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, File file) throws RuntimeException {
+    gsonSpeaker.toJson(src, file);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, File file) throws RuntimeException {
+    gsonSpeaker.toJson(src, typeOfSrc, file);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -79,6 +129,138 @@ public abstract class GsonAutoValueSpeaker implements JolyglotGenerics {
     return gsonSpeaker.fromJson(file, typeOfT);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Class<T> classOfT) throws RuntimeException {
+    return gsonSpeaker.fromJson(in, classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Type typeOfT) throws RuntimeException {
+    return gsonSpeaker.fromJson(in, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Class<T> classOfT) throws RuntimeException {
+    return gsonSpeaker.fromJson(json, classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Type typeOfT) throws RuntimeException {
+    return gsonSpeaker.fromJson(json, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterate(InputStream in, Type typeOfElement)
+      throws RuntimeException {
+    return gsonSpeaker.iterate(in, typeOfElement);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterate(File file, Type typeOfElement)
+      throws RuntimeException {
+    return gsonSpeaker.iterate(file, typeOfElement);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterateLines(InputStream in, Type typeOfRecord)
+      throws RuntimeException {
+    return gsonSpeaker.iterateLines(in, typeOfRecord);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterateLines(File file, Type typeOfRecord)
+      throws RuntimeException {
+    return gsonSpeaker.iterateLines(file, typeOfRecord);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotWriter<T> newLineWriter(OutputStream out, Type typeOfRecord)
+      throws RuntimeException {
+    return gsonSpeaker.newLineWriter(out, typeOfRecord);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(String json, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    return gsonSpeaker.query(json, pointer, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(byte[] json, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    return gsonSpeaker.query(json, pointer, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(InputStream in, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    return gsonSpeaker.query(in, pointer, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(File file, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    return gsonSpeaker.query(file, pointer, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public List<String> toJsonAll(Collection<?> srcs, Type typeOfSrc)
+      throws RuntimeException {
+    return gsonSpeaker.toJsonAll(srcs, typeOfSrc);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public List<byte[]> toJsonBytesAll(Collection<?> srcs, Type typeOfSrc)
+      throws RuntimeException {
+    return gsonSpeaker.toJsonBytesAll(srcs, typeOfSrc);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> List<T> fromJsonAll(List<String> jsons, Type typeOfT)
+      throws RuntimeException {
+    return gsonSpeaker.fromJsonAll(jsons, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> List<T> fromJsonBytesAll(List<byte[]> jsons, Type typeOfT)
+      throws RuntimeException {
+    return gsonSpeaker.fromJsonBytesAll(jsons, typeOfT);
+  }
+
   @Override public GenericArrayType arrayOf(Type componentType) {
       return Types.arrayOf(componentType);
   }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+public final class GsonAutoValueSpeakerBatchTest extends JolyglotBatchTest {
+
+  @Override protected JolyglotBatch jolyglot() {
+    return new GsonAutoValueSpeaker() {
+      @Override protected TypeAdapterFactory autoValueGsonTypeAdapterFactory() {
+        return new TypeAdapterFactory() {
+          @Override public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            return gson.getDelegateAdapter(this, type);
+          }
+        };
+      }
+    };
+  }
+
+}
@@ -16,28 +16,61 @@
 
 package io.victoralbertos.jolyglot;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.LRUMap;
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Jackson implementation of Jolyglot
  */
-public class JacksonSpeaker implements JolyglotGenerics {
+public class JacksonSpeaker implements JolyglotGenerics, JolyglotStreaming, JolyglotQuery,
+    JolyglotBatch {
+  private static final int MAX_CACHED_TYPES = 512;
   private final ObjectMapper mapper;
+  private final ObjectWriter writer;
+  private final LRUMap<Type, ObjectReader> readers =
+      new LRUMap<Type, ObjectReader>(16, MAX_CACHED_TYPES);
+  private final LRUMap<Type, ObjectWriter> writers =
+      new LRUMap<Type, ObjectWriter>(16, MAX_CACHED_TYPES);
 
+  /**
+   * Readers and writers are built from {@code mapper} once and cached, so it should be fully
+   * configured before being supplied.
+   */
   public JacksonSpeaker(ObjectMapper mapper) {
     this.mapper = mapper;
+    this.writer = mapper.writer();
   }
 
+  /**
+   * Uses a default {@link ObjectMapper}, which binds {@link JolyglotModel} classes with their
+   * generated {@link JolyglotBinding}.
+   */
   public JacksonSpeaker() {
     this.mapper = new ObjectMapper();
     this.mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    this.mapper.registerModule(new JolyglotModelModule());
+    this.writer = mapper.writer();
   }
 
   /**
@@ -45,7 +78,7 @@ public class JacksonSpeaker implements JolyglotGenerics {
    */
   @Override public String toJson(Object src) {
     try {
-      return mapper.writeValueAsString(src);
+      return writer.writeValueAsString(src);
     } catch (JsonProcessingException e) {
       throw new RuntimeException(e);
     }
@@ -56,19 +89,121 @@ public class JacksonSpeaker implements JolyglotGenerics {
    */
   @Override public String toJson(Object src, Type typeOfSrc) {
     try {
-      String json = mapper.writeValueAsString(src);
+      String json = writer(typeOfSrc).writeValueAsString(src);
       return json;
     } catch (JsonProcessingException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, OutputStream out) throws RuntimeException {
+    toJson(src, writer, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, OutputStream out)
+      throws RuntimeException {
+    toJson(src, writer(typeOfSrc), out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Appendable out) throws RuntimeException {
+    toJson(src, writer, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, Appendable out)
+      throws RuntimeException {
+    toJson(src, writer(typeOfSrc), out);
+  }
+
+  private void toJson(Object src, ObjectWriter writer, OutputStream out) {
+    try {
+      toJson(src, writer, createGenerator(out));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void toJson(Object src, ObjectWriter writer, Appendable out) {
+    try {
+      toJson(src, writer, createGenerator(out));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void toJson(Object src, ObjectWriter writer, JsonGenerator generator)
+      throws IOException {
+    try {
+      writer.writeValue(generator, src);
+    } finally {
+      generator.close();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, File file) throws RuntimeException {
+    AtomicFileOutputStream out = null;
+    try {
+      out = JolyglotFiles.create(file);
+      toJson(src, out);
+      out.commit();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, File file) throws RuntimeException {
+    AtomicFileOutputStream out = null;
+    try {
+      out = JolyglotFiles.create(file);
+      toJson(src, typeOfSrc, out);
+      out.commit();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override public <T> T fromJson(String json, Class<T> classOfT) throws RuntimeException {
+    return fromJson(json, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(String json, Type typeOfT) throws RuntimeException {
     try {
-      return mapper.readValue(json, classOfT);
+      return reader(typeOfT).readValue(json);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -77,14 +212,47 @@ public class JacksonSpeaker implements JolyglotGenerics {
   /**
    * {@inheritDoc}
    */
-  @Override public <T> T fromJson(String json, final Type typeOfT) throws RuntimeException {
+  @Override public <T> T fromJson(File file, Class<T> classOfT) throws RuntimeException {
+    return fromJson(file, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(File file, Type typeOfT) throws RuntimeException {
+    InputStream in = null;
+    try {
+      in = JolyglotFiles.open(file);
+      return fromJson(in, typeOfT);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Class<T> classOfT) throws RuntimeException {
+    return fromJson(in, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Type typeOfT) throws RuntimeException {
     try {
-      TypeReference<T> referenceType = new TypeReference<T>(){
-        @Override public Type getType() {
-          return typeOfT;
-        }
-      };
-      return mapper.readValue(json, referenceType);
+      JsonParser parser = createParser(in);
+      try {
+        return reader(typeOfT).readValue(parser);
+      } finally {
+        parser.close();
+      }
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -93,9 +261,16 @@ public class JacksonSpeaker implements JolyglotGenerics {
   /**
    * {@inheritDoc}
    */
-  @Override public <T> T fromJson(File file, Class<T> classOfT) throws RuntimeException {
+  @Override public <T> T fromJson(byte[] json, Class<T> classOfT) throws RuntimeException {
+    return fromJson(json, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Type typeOfT) throws RuntimeException {
     try {
-      return mapper.readValue(file, classOfT);
+      return reader(typeOfT).readValue(json);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -104,20 +279,264 @@ public class JacksonSpeaker implements JolyglotGenerics {
   /**
    * {@inheritDoc}
    */
-  @Override public <T> T fromJson(File file, final Type typeOfT) throws RuntimeException {
+  @Override public <T> JolyglotIterator<T> iterate(InputStream in, Type typeOfElement)
+      throws RuntimeException {
+    return iterate(in, typeOfElement, null, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterate(File file, Type typeOfElement)
+      throws RuntimeException {
+    return iterate(file, typeOfElement, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterateLines(InputStream in, Type typeOfRecord)
+      throws RuntimeException {
+    return iterate(in, typeOfRecord, null, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterateLines(File file, Type typeOfRecord)
+      throws RuntimeException {
+    return iterate(file, typeOfRecord, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotWriter<T> newLineWriter(OutputStream out, Type typeOfRecord)
+      throws RuntimeException {
+    try {
+      JsonGenerator generator = createGenerator(out);
+      // Records are followed by a line feed instead of separated by the default root space.
+      generator.setRootValueSeparator(null);
+      ObjectWriter writer = writer(typeOfRecord)
+          .without(SerializationFeature.INDENT_OUTPUT)
+          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+      return new JacksonLineWriter<>(generator, writer);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(String json, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
     try {
-      TypeReference<T> referenceType = new TypeReference<T>(){
-        @Override public Type getType() {
-          return typeOfT;
+      return query(mapper.getFactory().createParser(json), pointer, typeOfT);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(byte[] json, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    try {
+      return query(mapper.getFactory().createParser(json), pointer, typeOfT);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(InputStream in, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    try {
+      return query(createParser(in), pointer, typeOfT);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(File file, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    InputStream in = null;
+    try {
+      in = JolyglotFiles.open(file);
+      return query(in, pointer, typeOfT);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public List<String> toJsonAll(Collection<?> srcs, Type typeOfSrc)
+      throws RuntimeException {
+    ObjectWriter writer = writer(typeOfSrc);
+    List<String> jsons = new ArrayList<>(srcs.size());
+    try {
+      for (Object src : srcs) {
+        jsons.add(writer.writeValueAsString(src));
+      }
+      return jsons;
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public List<byte[]> toJsonBytesAll(Collection<?> srcs, Type typeOfSrc)
+      throws RuntimeException {
+    ObjectWriter writer = writer(typeOfSrc);
+    List<byte[]> jsons = new ArrayList<>(srcs.size());
+    try {
+      for (Object src : srcs) {
+        jsons.add(writer.writeValueAsBytes(src));
+      }
+      return jsons;
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> List<T> fromJsonAll(List<String> jsons, Type typeOfT)
+      throws RuntimeException {
+    ObjectReader reader = reader(typeOfT);
+    List<T> values = new ArrayList<>(jsons.size());
+    try {
+      for (String json : jsons) {
+        values.add(reader.<T>readValue(json));
+      }
+      return values;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> List<T> fromJsonBytesAll(List<byte[]> jsons, Type typeOfT)
+      throws RuntimeException {
+    ObjectReader reader = reader(typeOfT);
+    List<T> values = new ArrayList<>(jsons.size());
+    try {
+      for (byte[] json : jsons) {
+        values.add(reader.<T>readValue(json));
+      }
+      return values;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private <T> JolyglotIterator<T> iterate(File file, Type type, boolean lines) {
+    InputStream in = null;
+    boolean iterating = false;
+    try {
+      in = JolyglotFiles.open(file);
+      JolyglotIterator<T> iterator = iterate(in, type, in, lines);
+      iterating = true;
+      return iterator;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (!iterating && in != null) {
+        try {
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * Binds the elements of a top-level array or, when {@code lines} is set, the sequence of root
+   * level values of newline delimited Json.
+   */
+  private <T> JolyglotIterator<T> iterate(InputStream in, Type type, Closeable source,
+      boolean lines) {
+    try {
+      JsonParser parser = createParser(in);
+      if (!lines) {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+          throw new IllegalStateException("Expected a Json array but was " + parser.currentToken());
         }
-      };
-      T object = mapper.readValue(file, referenceType);
-      return object;
-    } catch (Exception e) {
+        // MappingIterator advances to the first element itself, and stops at the closing END_ARRAY.
+        parser.clearCurrentToken();
+      }
+      MappingIterator<T> iterator = reader(type).readValues(parser);
+      return new JacksonIterator<>(iterator, source);
+    } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Skips every member and element off the path to the value {@code pointer} refers to, and binds
+   * only that value. Field names are matched against the ones canonicalized by the parser, so
+   * skipped members are not materialized.
+   */
+  private <T> T query(JsonParser parser, JolyglotPointer pointer, Type type) throws IOException {
+    try {
+      if (parser.nextToken() == null) return null;
+      for (int i = 0; i < pointer.size(); i++) {
+        if (!seek(parser, pointer, i)) return null;
+      }
+      return reader(type).readValue(parser);
+    } finally {
+      parser.close();
+    }
+  }
+
+  /**
+   * Moves {@code parser} to the value the token of {@code pointer} at {@code position} refers to
+   * within the current one, returning false if there is no such value.
+   */
+  private static boolean seek(JsonParser parser, JolyglotPointer pointer, int position)
+      throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      String name = pointer.token(position);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        boolean matches = name.equals(parser.getCurrentName());
+        parser.nextToken();
+        if (matches) return true;
+        parser.skipChildren();
+      }
+      return false;
+    } else if (token == JsonToken.START_ARRAY) {
+      int index = pointer.index(position);
+      if (index < 0) return false;
+      for (int i = 0; ; i++) {
+        token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY || token == null) return false;
+        if (i == index) return true;
+        parser.skipChildren();
+      }
+    }
+    return false;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -133,4 +552,134 @@ public class JacksonSpeaker implements JolyglotGenerics {
     return Types.newParameterizedType(rawType, typeArguments);
   }
 
+  /**
+   * Returns the reader bound to {@code type}. Building it resolves the {@code JavaType} and its
+   * root deserializer, so it is done once per type and kept in a bounded cache.
+   */
+  private ObjectReader reader(Type type) {
+    ObjectReader reader = readers.get(type);
+    if (reader == null) {
+      reader = mapper.readerFor(mapper.constructType(type));
+      readers.putIfAbsent(type, reader);
+    }
+    return reader;
+  }
+
+  /**
+   * Returns the writer bound to {@code type}, so the root serializer, and for collections and maps
+   * the element serializers, are resolved statically from the declared type instead of looked up
+   * from the runtime class of every value.
+   */
+  private ObjectWriter writer(Type type) {
+    ObjectWriter writer = writers.get(type);
+    if (writer == null) {
+      writer = mapper.writerFor(mapper.constructType(type));
+      writers.putIfAbsent(type, writer);
+    }
+    return writer;
+  }
+
+  /**
+   * Creates a byte-level UTF-8 generator over {@code out} which flushes but does not close it.
+   */
+  private JsonGenerator createGenerator(OutputStream out) throws IOException {
+    JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    return generator;
+  }
+
+  /**
+   * Creates a char-level generator over {@code out} which flushes but does not close it. Its
+   * buffers are recycled by Jackson as for any other generator.
+   */
+  private JsonGenerator createGenerator(Appendable out) throws IOException {
+    JsonGenerator generator = mapper.getFactory().createGenerator(AppendableWriter.of(out));
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    return generator;
+  }
+
+  /**
+   * Creates a byte-level parser over {@code in} which does not close it.
+   */
+  private JsonParser createParser(InputStream in) throws IOException {
+    JsonParser parser = mapper.getFactory().createParser(in);
+    parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    return parser;
+  }
+
+  /**
+   * Exposes a {@link MappingIterator} over the elements of an array as a {@link JolyglotIterator}.
+   */
+  private static final class JacksonIterator<T> implements JolyglotIterator<T> {
+    private final MappingIterator<T> iterator;
+    private final Closeable source;
+
+    JacksonIterator(MappingIterator<T> iterator, Closeable source) {
+      this.iterator = iterator;
+      this.source = source;
+    }
+
+    @Override public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override public T next() {
+      return iterator.next();
+    }
+
+    @Override public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public void close() {
+      try {
+        iterator.close();
+      } catch (IOException i) {}
+      if (source != null) {
+        try {
+          source.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * Writes every record through {@code writer} followed by a line feed, sharing the same generator
+   * and its output buffer across records.
+   */
+  private static final class JacksonLineWriter<T> implements JolyglotWriter<T> {
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+
+    JacksonLineWriter(JsonGenerator generator, ObjectWriter writer) {
+      this.generator = generator;
+      this.writer = writer;
+    }
+
+    @Override public void write(T record) {
+      try {
+        writer.writeValue(generator, record);
+        generator.writeRaw('\n');
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override public void flush() {
+      try {
+        generator.flush();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override public void close() {
+      try {
+        generator.close();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
 }
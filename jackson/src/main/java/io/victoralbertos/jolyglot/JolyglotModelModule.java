@@ -0,0 +1,357 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.Deserializers;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.Serializers;
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Provides the serializers and deserializers of {@link JolyglotModel} classes from their generated
+ * {@link JolyglotBinding}, replacing the bean introspection of Jackson. {@link JacksonSpeaker}
+ * registers it by default, an {@link com.fasterxml.jackson.databind.ObjectMapper} supplied to it
+ * should register it too.
+ *
+ * <p>Fields are written as bound, null ones included, regardless of the inclusion settings of the
+ * mapper.
+ */
+public final class JolyglotModelModule extends Module {
+
+  @Override public String getModuleName() {
+    return "JolyglotModelModule";
+  }
+
+  @Override public Version version() {
+    return Version.unknownVersion();
+  }
+
+  @Override public void setupModule(SetupContext context) {
+    context.addSerializers(new Serializers.Base() {
+      @Override public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type,
+          BeanDescription beanDesc) {
+        JolyglotBinding<?> binding = JolyglotBinding.of(type.getRawClass());
+        return binding == null ? null : new ModelSerializer<>(binding);
+      }
+    });
+    context.addDeserializers(new Deserializers.Base() {
+      @Override public JsonDeserializer<?> findBeanDeserializer(JavaType type,
+          DeserializationConfig config, BeanDescription beanDesc) {
+        JolyglotBinding<?> binding = JolyglotBinding.of(type.getRawClass());
+        return binding == null ? null : new ModelDeserializer<>(binding);
+      }
+    });
+  }
+
+  /**
+   * Resolves the serializers of the delegated types once it is cached by Jackson, so models which
+   * refer to themselves resolve to the same instance.
+   */
+  private static final class ModelSerializer<T> extends JsonSerializer<T>
+      implements ResolvableSerializer {
+    private final JolyglotBinding<T> binding;
+    /**
+     * The serializer of every delegated type, or null for types which are neither final nor
+     * containers, whose serializer is looked up by the class of the value as Jackson does.
+     */
+    private final JsonSerializer<?>[] serializers;
+
+    ModelSerializer(JolyglotBinding<T> binding) {
+      this.binding = binding;
+      this.serializers = new JsonSerializer<?>[binding.types().length];
+    }
+
+    @Override public void resolve(SerializerProvider provider) throws JsonMappingException {
+      Type[] types = binding.types();
+      for (int i = 0; i < types.length; i++) {
+        JavaType type = provider.constructType(types[i]);
+        if (type.isFinal() || type.isContainerType()) {
+          serializers[i] = provider.findValueSerializer(type, null);
+        }
+      }
+    }
+
+    @Override public void serialize(T value, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      binding.write(new Writer(gen, provider, serializers), value);
+    }
+  }
+
+  /**
+   * Resolves the deserializers of the delegated types once it is cached by Jackson, so models which
+   * refer to themselves resolve to the same instance.
+   */
+  private static final class ModelDeserializer<T> extends JsonDeserializer<T>
+      implements ResolvableDeserializer {
+    private final JolyglotBinding<T> binding;
+    private final JsonDeserializer<?>[] deserializers;
+
+    ModelDeserializer(JolyglotBinding<T> binding) {
+      this.binding = binding;
+      this.deserializers = new JsonDeserializer<?>[binding.types().length];
+    }
+
+    @Override public void resolve(DeserializationContext context) throws JsonMappingException {
+      Type[] types = binding.types();
+      for (int i = 0; i < types.length; i++) {
+        deserializers[i] =
+            context.findContextualValueDeserializer(context.constructType(types[i]), null);
+      }
+    }
+
+    @Override public boolean isCachable() {
+      return true;
+    }
+
+    @Override public T deserialize(JsonParser parser, DeserializationContext context)
+        throws IOException {
+      return binding.read(new Reader(parser, context, deserializers));
+    }
+  }
+
+  /**
+   * Pulls tokens from a {@link JsonParser}, which is left on the last token of the model, as
+   * Jackson expects from a deserializer. Hence the token after a consumed one is only fetched once
+   * there is something else to read.
+   *
+   * <p>Scalars are read from their own tokens or from strings holding them. Anything else fails,
+   * as it does with the rest of providers, instead of being coerced into a default value.
+   */
+  private static final class Reader implements JolyglotBinding.Reader {
+    private final JsonParser parser;
+    private final DeserializationContext context;
+    private final JsonDeserializer<?>[] deserializers;
+    private boolean consumed;
+
+    Reader(JsonParser parser, DeserializationContext context,
+        JsonDeserializer<?>[] deserializers) {
+      this.parser = parser;
+      this.context = context;
+      this.deserializers = deserializers;
+    }
+
+    private JsonToken peek() throws IOException {
+      if (consumed) {
+        parser.nextToken();
+        consumed = false;
+      }
+      return parser.getCurrentToken();
+    }
+
+    private JsonToken expect(JsonToken expected) throws IOException {
+      JsonToken token = peek();
+      if (token != expected) throw unexpected(expected.toString(), token);
+      consumed = true;
+      return token;
+    }
+
+    private JsonMappingException unexpected(String expected, JsonToken token) {
+      return JsonMappingException.from(parser, "Expected " + expected + " but was " + token);
+    }
+
+    /**
+     * Fails on a string value that is not {@code expected}.
+     */
+    private JsonMappingException invalid(String expected) throws IOException {
+      return JsonMappingException.from(parser,
+          "Expected " + expected + " but was \"" + parser.getText() + "\"");
+    }
+
+    @Override public void beginObject() throws IOException {
+      // A deserializer may be handed the first field of an object already started.
+      if (peek() != JsonToken.FIELD_NAME) expect(JsonToken.START_OBJECT);
+    }
+
+    @Override public void endObject() throws IOException {
+      expect(JsonToken.END_OBJECT);
+    }
+
+    @Override public boolean hasNext() throws IOException {
+      JsonToken token = peek();
+      return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY;
+    }
+
+    @Override public String nextName() throws IOException {
+      expect(JsonToken.FIELD_NAME);
+      return parser.getCurrentName();
+    }
+
+    @Override public boolean nextNull() throws IOException {
+      if (peek() != JsonToken.VALUE_NULL) return false;
+      consumed = true;
+      return true;
+    }
+
+    @Override public String nextString() throws IOException {
+      JsonToken token = peek();
+      if (token != JsonToken.VALUE_STRING && token != JsonToken.VALUE_NUMBER_INT
+          && token != JsonToken.VALUE_NUMBER_FLOAT) {
+        throw unexpected("a string", token);
+      }
+      consumed = true;
+      return parser.getText();
+    }
+
+    @Override public boolean nextBoolean() throws IOException {
+      JsonToken token = peek();
+      if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+        consumed = true;
+        return token == JsonToken.VALUE_TRUE;
+      }
+      if (token != JsonToken.VALUE_STRING) throw unexpected("a boolean", token);
+      consumed = true;
+      String text = parser.getText();
+      if ("true".equals(text)) return true;
+      if ("false".equals(text)) return false;
+      throw invalid("a boolean");
+    }
+
+    @Override public int nextInt() throws IOException {
+      JsonToken token = peek();
+      if (token == JsonToken.VALUE_NUMBER_INT) {
+        consumed = true;
+        return parser.getIntValue();
+      }
+      if (token != JsonToken.VALUE_STRING) throw unexpected("an int", token);
+      consumed = true;
+      try {
+        return Integer.parseInt(parser.getText());
+      } catch (NumberFormatException e) {
+        throw invalid("an int");
+      }
+    }
+
+    @Override public long nextLong() throws IOException {
+      JsonToken token = peek();
+      if (token == JsonToken.VALUE_NUMBER_INT) {
+        consumed = true;
+        return parser.getLongValue();
+      }
+      if (token != JsonToken.VALUE_STRING) throw unexpected("a long", token);
+      consumed = true;
+      try {
+        return Long.parseLong(parser.getText());
+      } catch (NumberFormatException e) {
+        throw invalid("a long");
+      }
+    }
+
+    @Override public double nextDouble() throws IOException {
+      JsonToken token = peek();
+      if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+        consumed = true;
+        return parser.getDoubleValue();
+      }
+      if (token != JsonToken.VALUE_STRING) throw unexpected("a double", token);
+      consumed = true;
+      try {
+        return Double.parseDouble(parser.getText());
+      } catch (NumberFormatException e) {
+        throw invalid("a double");
+      }
+    }
+
+    @Override public void skipValue() throws IOException {
+      peek();
+      parser.skipChildren();
+      consumed = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public <V> V read(int type) throws IOException {
+      peek();
+      V value = (V) deserializers[type].deserialize(parser, context);
+      consumed = true;
+      return value;
+    }
+  }
+
+  private static final class Writer implements JolyglotBinding.Writer {
+    private final JsonGenerator gen;
+    private final SerializerProvider provider;
+    private final JsonSerializer<?>[] serializers;
+
+    Writer(JsonGenerator gen, SerializerProvider provider, JsonSerializer<?>[] serializers) {
+      this.gen = gen;
+      this.provider = provider;
+      this.serializers = serializers;
+    }
+
+    @Override public void beginObject() throws IOException {
+      gen.writeStartObject();
+    }
+
+    @Override public void endObject() throws IOException {
+      gen.writeEndObject();
+    }
+
+    @Override public void name(String name) throws IOException {
+      gen.writeFieldName(name);
+    }
+
+    @Override public void nullValue() throws IOException {
+      gen.writeNull();
+    }
+
+    @Override public void value(String value) throws IOException {
+      gen.writeString(value);
+    }
+
+    @Override public void value(boolean value) throws IOException {
+      gen.writeBoolean(value);
+    }
+
+    @Override public void value(long value) throws IOException {
+      gen.writeNumber(value);
+    }
+
+    @Override public void value(float value) throws IOException {
+      gen.writeNumber(value);
+    }
+
+    @Override public void value(double value) throws IOException {
+      gen.writeNumber(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public void write(int type, Object value) throws IOException {
+      if (value == null) {
+        gen.writeNull();
+        return;
+      }
+      JsonSerializer<Object> serializer = (JsonSerializer<Object>) serializers[type];
+      if (serializer == null) serializer = provider.findValueSerializer(value.getClass(), null);
+      serializer.serialize(value, gen, provider);
+    }
+  }
+}
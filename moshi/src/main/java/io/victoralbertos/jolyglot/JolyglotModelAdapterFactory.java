@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Set;
+
+/**
+ * Creates the adapters of {@link JolyglotModel} classes from their generated
+ * {@link JolyglotBinding}, replacing the reflective ones of Moshi. {@link MoshiSpeaker} adds it by
+ * default, a {@link Moshi} supplied to it should add it too.
+ */
+public final class JolyglotModelAdapterFactory implements JsonAdapter.Factory {
+
+  @Override public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations,
+      Moshi moshi) {
+    if (!annotations.isEmpty() || !(type instanceof Class)) return null;
+    JolyglotBinding<?> binding = JolyglotBinding.of((Class<?>) type);
+    if (binding == null) return null;
+
+    Type[] types = binding.types();
+    JsonAdapter<?>[] adapters = new JsonAdapter<?>[types.length];
+    for (int i = 0; i < types.length; i++) {
+      adapters[i] = moshi.adapter(types[i]);
+    }
+    return new ModelAdapter<>(binding, adapters);
+  }
+
+  private static final class ModelAdapter<T> extends JsonAdapter<T> {
+    private final JolyglotBinding<T> binding;
+    private final JsonAdapter<?>[] adapters;
+
+    ModelAdapter(JolyglotBinding<T> binding, JsonAdapter<?>[] adapters) {
+      this.binding = binding;
+      this.adapters = adapters;
+    }
+
+    @Override public T fromJson(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+      return binding.read(new Reader(reader, adapters));
+    }
+
+    @Override public void toJson(JsonWriter writer, T value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+        return;
+      }
+      binding.write(new Writer(writer, adapters), value);
+    }
+
+    @Override public String toString() {
+      return "JolyglotModelAdapter(" + binding.getClass().getName() + ")";
+    }
+  }
+
+  private static final class Reader implements JolyglotBinding.Reader {
+    private final JsonReader reader;
+    private final JsonAdapter<?>[] adapters;
+
+    Reader(JsonReader reader, JsonAdapter<?>[] adapters) {
+      this.reader = reader;
+      this.adapters = adapters;
+    }
+
+    @Override public void beginObject() throws IOException {
+      reader.beginObject();
+    }
+
+    @Override public void endObject() throws IOException {
+      reader.endObject();
+    }
+
+    @Override public boolean hasNext() throws IOException {
+      return reader.hasNext();
+    }
+
+    @Override public String nextName() throws IOException {
+      return reader.nextName();
+    }
+
+    @Override public boolean nextNull() throws IOException {
+      if (reader.peek() != JsonReader.Token.NULL) return false;
+      reader.nextNull();
+      return true;
+    }
+
+    @Override public String nextString() throws IOException {
+      return reader.nextString();
+    }
+
+    @Override public boolean nextBoolean() throws IOException {
+      return reader.nextBoolean();
+    }
+
+    @Override public int nextInt() throws IOException {
+      return reader.nextInt();
+    }
+
+    @Override public long nextLong() throws IOException {
+      return reader.nextLong();
+    }
+
+    @Override public double nextDouble() throws IOException {
+      return reader.nextDouble();
+    }
+
+    @Override public void skipValue() throws IOException {
+      reader.skipValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public <V> V read(int type) throws IOException {
+      return (V) adapters[type].fromJson(reader);
+    }
+  }
+
+  private static final class Writer implements JolyglotBinding.Writer {
+    private final JsonWriter writer;
+    private final JsonAdapter<?>[] adapters;
+
+    Writer(JsonWriter writer, JsonAdapter<?>[] adapters) {
+      this.writer = writer;
+      this.adapters = adapters;
+    }
+
+    @Override public void beginObject() throws IOException {
+      writer.beginObject();
+    }
+
+    @Override public void endObject() throws IOException {
+      writer.endObject();
+    }
+
+    @Override public void name(String name) throws IOException {
+      writer.name(name);
+    }
+
+    @Override public void nullValue() throws IOException {
+      writer.nullValue();
+    }
+
+    @Override public void value(String value) throws IOException {
+      writer.value(value);
+    }
+
+    @Override public void value(boolean value) throws IOException {
+      writer.value(value);
+    }
+
+    @Override public void value(long value) throws IOException {
+      writer.value(value);
+    }
+
+    @Override public void value(float value) throws IOException {
+      // As a Number, so it is written as the shortest decimal of the float rather than the double.
+      writer.value(Float.valueOf(value));
+    }
+
+    @Override public void value(double value) throws IOException {
+      writer.value(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public void write(int type, Object value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+        return;
+      }
+      ((JsonAdapter<Object>) adapters[type]).toJson(writer, value);
+    }
+  }
+}
@@ -17,45 +17,165 @@
 package io.victoralbertos.jolyglot;
 
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
 import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
+import java.io.Closeable;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import okio.Buffer;
+import okio.BufferedSink;
 import okio.BufferedSource;
 import okio.Okio;
 
 /**
- * Moshi implementation of Jolyglot
+ * Moshi implementation of Jolyglot. Json built as a String is written into an Okio {@link Buffer}
+ * recycled per thread, whose segments go back to the pool of Okio once read.
  */
-public class MoshiSpeaker implements JolyglotGenerics {
+public class MoshiSpeaker implements JolyglotGenerics, JolyglotStreaming, JolyglotQuery,
+    JolyglotBatch {
+  private static final ThreadLocal<Buffer> BUFFERS = new ThreadLocal<>();
   private final Moshi moshi;
+  private final ConcurrentMap<Type, JsonAdapter<?>> adapters =
+      new ConcurrentHashMap<Type, JsonAdapter<?>>();
 
   public MoshiSpeaker(Moshi moshi) {
     this.moshi = moshi;
   }
 
+  /**
+   * Uses a default {@link Moshi}, which binds {@link JolyglotModel} classes with their generated
+   * {@link JolyglotBinding}.
+   */
   public MoshiSpeaker() {
-    this.moshi = new Moshi.Builder().build();
+    this.moshi = new Moshi.Builder()
+        .add(new JolyglotModelAdapterFactory())
+        .build();
   }
 
   /**
    * {@inheritDoc}
    */
   @Override public String toJson(Object src)  {
-    JsonAdapter<Object> jsonAdapter = moshi.adapter(Object.class);
-    return jsonAdapter.toJson(src);
+    return toJson(src, Object.class);
   }
 
   /**
    * {@inheritDoc}
    */
   @Override public String toJson(Object src, Type typeOfSrc) {
-    JsonAdapter<Object> jsonAdapter = moshi.adapter(typeOfSrc);
-    return jsonAdapter.toJson(src);
+    Buffer buffer = acquireBuffer();
+    try {
+      JsonAdapter<Object> jsonAdapter = adapter(typeOfSrc);
+      jsonAdapter.toJson(buffer, src);
+      return buffer.readUtf8();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      recycleBuffer(buffer);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, OutputStream out) throws RuntimeException {
+    toJson(src, Object.class, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, OutputStream out)
+      throws RuntimeException {
+    try {
+      JsonAdapter<Object> jsonAdapter = adapter(typeOfSrc);
+      BufferedSink sink = Okio.buffer(Okio.sink(out));
+      jsonAdapter.toJson(sink, src);
+      sink.flush();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Appendable out) throws RuntimeException {
+    toJson(src, Object.class, out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, Appendable out)
+      throws RuntimeException {
+    Buffer buffer = acquireBuffer();
+    try {
+      JsonAdapter<Object> jsonAdapter = adapter(typeOfSrc);
+      jsonAdapter.toJson(buffer, src);
+      // Decoded at once, as reading the bytes in chunks could split a multi-byte char.
+      out.append(buffer.readUtf8());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      recycleBuffer(buffer);
+    }
+    AppendableWriter.flush(out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, File file) throws RuntimeException {
+    AtomicFileOutputStream out = null;
+    try {
+      out = JolyglotFiles.create(file);
+      toJson(src, out);
+      out.commit();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, File file) throws RuntimeException {
+    AtomicFileOutputStream out = null;
+    try {
+      out = JolyglotFiles.create(file);
+      toJson(src, typeOfSrc, out);
+      out.commit();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException i) {}
+      }
+    }
   }
 
   /**
@@ -63,7 +183,7 @@ public class MoshiSpeaker implements JolyglotGenerics {
    */
   @Override public <T> T fromJson(String json, Class<T> classOfT) throws RuntimeException {
     try {
-      JsonAdapter<T> jsonAdapter = moshi.adapter(classOfT);
+      JsonAdapter<T> jsonAdapter = adapter(classOfT);
       return jsonAdapter.fromJson(json);
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -75,7 +195,7 @@ public class MoshiSpeaker implements JolyglotGenerics {
    */
   @Override public <T> T fromJson(String json, Type type) throws RuntimeException {
     try {
-      JsonAdapter<T> jsonAdapter = moshi.adapter(type);
+      JsonAdapter<T> jsonAdapter = adapter(type);
       return jsonAdapter.fromJson(json);
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -86,42 +206,336 @@ public class MoshiSpeaker implements JolyglotGenerics {
    * {@inheritDoc}
    */
   @Override public <T> T fromJson(File file, Class<T> classOfT) throws RuntimeException {
-    BufferedSource bufferedSource = null;
+    InputStream in = null;
     try {
-      bufferedSource = Okio.buffer(Okio.source(file));
-      JsonAdapter<T> jsonAdapter = moshi.adapter(classOfT);
-      return jsonAdapter.fromJson(JsonReader.of(bufferedSource));
+      in = JolyglotFiles.open(file);
+      return fromJson(in, classOfT);
     } catch (IOException e) {
       throw new RuntimeException(e);
     } finally {
-      if(bufferedSource != null){
+      if (in != null) {
         try {
-          bufferedSource.close();
-        } catch (IOException ignored) {
-        }
+          in.close();
+        } catch (IOException i) {}
       }
     }
   }
 
+
   /**
    * {@inheritDoc}
    */
   @Override public <T> T fromJson(File file, Type typeOfT) throws RuntimeException {
-    BufferedSource bufferedSource = null;
+    InputStream in = null;
+    try {
+      in = JolyglotFiles.open(file);
+      return fromJson(in, typeOfT);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Class<T> classOfT) throws RuntimeException {
+    return fromJson(in, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Type typeOfT) throws RuntimeException {
+    try {
+      JsonAdapter<T> jsonAdapter = adapter(typeOfT);
+      return jsonAdapter.fromJson(Okio.buffer(Okio.source(in)));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Class<T> classOfT) throws RuntimeException {
+    return fromJson(json, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Type typeOfT) throws RuntimeException {
+    try {
+      JsonAdapter<T> jsonAdapter = adapter(typeOfT);
+      return jsonAdapter.fromJson(new Buffer().write(json));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterate(InputStream in, Type typeOfElement)
+      throws RuntimeException {
+    return iterate(in, typeOfElement, null, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterate(File file, Type typeOfElement)
+      throws RuntimeException {
+    return iterate(file, typeOfElement, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterateLines(InputStream in, Type typeOfRecord)
+      throws RuntimeException {
+    return iterate(in, typeOfRecord, null, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotIterator<T> iterateLines(File file, Type typeOfRecord)
+      throws RuntimeException {
+    return iterate(file, typeOfRecord, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> JolyglotWriter<T> newLineWriter(OutputStream out, Type typeOfRecord)
+      throws RuntimeException {
+    JsonAdapter<T> jsonAdapter = adapter(typeOfRecord);
+    BufferedSink sink = Okio.buffer(Okio.sink(out));
+    JsonWriter writer = JsonWriter.of(sink);
+    // Every line holds its own top-level value, which the writer only accepts in lenient mode.
+    writer.setLenient(true);
+    return new MoshiLineWriter<>(writer, sink, jsonAdapter);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(String json, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    return query(new Buffer().writeUtf8(json), pointer, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(byte[] json, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    return query(new Buffer().write(json), pointer, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(InputStream in, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    return query(Okio.buffer(Okio.source(in)), pointer, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T query(File file, JolyglotPointer pointer, Type typeOfT)
+      throws RuntimeException {
+    InputStream in = null;
     try {
-      bufferedSource = Okio.buffer(Okio.source(file));
-      JsonAdapter<T> jsonAdapter = moshi.adapter(typeOfT);
-      return jsonAdapter.fromJson(JsonReader.of(bufferedSource));
+      in = JolyglotFiles.open(file);
+      return query(in, pointer, typeOfT);
     } catch (IOException e) {
       throw new RuntimeException(e);
     } finally {
-      if(bufferedSource != null){
+      if (in != null) {
         try {
-          bufferedSource.close();
-        } catch (IOException ignored) {
-        }
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public List<String> toJsonAll(Collection<?> srcs, Type typeOfSrc)
+      throws RuntimeException {
+    JsonAdapter<Object> jsonAdapter = adapter(typeOfSrc);
+    List<String> jsons = new ArrayList<>(srcs.size());
+    Buffer buffer = acquireBuffer();
+    try {
+      for (Object src : srcs) {
+        jsonAdapter.toJson(buffer, src);
+        jsons.add(buffer.readUtf8());
+      }
+      return jsons;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      recycleBuffer(buffer);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public List<byte[]> toJsonBytesAll(Collection<?> srcs, Type typeOfSrc)
+      throws RuntimeException {
+    JsonAdapter<Object> jsonAdapter = adapter(typeOfSrc);
+    List<byte[]> jsons = new ArrayList<>(srcs.size());
+    Buffer buffer = acquireBuffer();
+    try {
+      for (Object src : srcs) {
+        jsonAdapter.toJson(buffer, src);
+        jsons.add(buffer.readByteArray());
+      }
+      return jsons;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      recycleBuffer(buffer);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> List<T> fromJsonAll(List<String> jsons, Type typeOfT)
+      throws RuntimeException {
+    JsonAdapter<T> jsonAdapter = adapter(typeOfT);
+    List<T> values = new ArrayList<>(jsons.size());
+    Buffer buffer = acquireBuffer();
+    try {
+      for (String json : jsons) {
+        values.add(fromJson(jsonAdapter, buffer.writeUtf8(json)));
+        buffer.clear();
+      }
+      return values;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      recycleBuffer(buffer);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> List<T> fromJsonBytesAll(List<byte[]> jsons, Type typeOfT)
+      throws RuntimeException {
+    JsonAdapter<T> jsonAdapter = adapter(typeOfT);
+    List<T> values = new ArrayList<>(jsons.size());
+    Buffer buffer = acquireBuffer();
+    try {
+      for (byte[] json : jsons) {
+        values.add(fromJson(jsonAdapter, buffer.write(json)));
+        buffer.clear();
+      }
+      return values;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      recycleBuffer(buffer);
+    }
+  }
+
+  private <T> JolyglotIterator<T> iterate(File file, Type type, boolean lines) {
+    InputStream in = null;
+    boolean iterating = false;
+    try {
+      in = JolyglotFiles.open(file);
+      JolyglotIterator<T> iterator = iterate(in, type, in, lines);
+      iterating = true;
+      return iterator;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (!iterating && in != null) {
+        try {
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * Binds the elements of a top-level array or, when {@code lines} is set, the top-level values of
+   * newline delimited Json, which the reader only accepts in lenient mode.
+   */
+  private <T> JolyglotIterator<T> iterate(InputStream in, Type type, Closeable source,
+      boolean lines) {
+    try {
+      JsonAdapter<T> jsonAdapter = adapter(type);
+      JsonReader reader = JsonReader.of(Okio.buffer(Okio.source(in)));
+      if (lines) {
+        reader.setLenient(true);
+      } else {
+        reader.beginArray();
+      }
+      return new MoshiIterator<>(reader, jsonAdapter, source, lines);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Skips every member and element off the path to the value {@code pointer} refers to, and binds
+   * only that value. Names are selected against their UTF-8 bytes, so skipped members are not
+   * decoded into strings.
+   */
+  private <T> T query(BufferedSource source, JolyglotPointer pointer, Type type) {
+    try {
+      JsonReader reader = JsonReader.of(source);
+      for (int i = 0; i < pointer.size(); i++) {
+        if (!seek(reader, pointer, i)) return null;
+      }
+      JsonAdapter<T> jsonAdapter = adapter(type);
+      return jsonAdapter.fromJson(reader);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Moves {@code reader} to the value the token of {@code pointer} at {@code position} refers to
+   * within the current one, returning false if there is no such value.
+   */
+  private static boolean seek(JsonReader reader, JolyglotPointer pointer, int position)
+      throws IOException {
+    JsonReader.Token token = reader.peek();
+    if (token == JsonReader.Token.BEGIN_OBJECT) {
+      JsonReader.Options name = JsonReader.Options.of(pointer.token(position));
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (reader.selectName(name) == 0) return true;
+        reader.skipName();
+        reader.skipValue();
+      }
+      return false;
+    } else if (token == JsonReader.Token.BEGIN_ARRAY) {
+      int index = pointer.index(position);
+      if (index < 0) return false;
+      reader.beginArray();
+      for (int i = 0; i < index && reader.hasNext(); i++) {
+        reader.skipValue();
       }
+      return reader.hasNext();
     }
+    return false;
   }
 
   /**
@@ -139,4 +553,142 @@ public class MoshiSpeaker implements JolyglotGenerics {
     return Types.newParameterizedType(rawType, typeArguments);
   }
 
+  /**
+   * Returns the adapter for {@code type}, resolving it through {@link Moshi#adapter(Type)} only the
+   * first time. Moshi synchronizes its own lookup, so steady state calls are served from a
+   * non-blocking map read instead.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> JsonAdapter<T> adapter(Type type) {
+    JsonAdapter<?> adapter = adapters.get(type);
+    if (adapter == null) {
+      adapter = moshi.adapter(type);
+      JsonAdapter<?> previous = adapters.putIfAbsent(type, adapter);
+      if (previous != null) adapter = previous;
+    }
+    return (JsonAdapter<T>) adapter;
+  }
+
+  /**
+   * Returns the buffer recycled by the current thread, or a new one when it is in use by an
+   * enclosing call, such as one made by a custom adapter.
+   */
+  private static Buffer acquireBuffer() {
+    Buffer buffer = BUFFERS.get();
+    if (buffer == null) return new Buffer();
+    BUFFERS.set(null);
+    return buffer;
+  }
+
+  private static void recycleBuffer(Buffer buffer) {
+    buffer.clear();
+    BUFFERS.set(buffer);
+  }
+
+  /**
+   * Binds the single value held by {@code source}, rejecting trailing content the way
+   * {@link JsonAdapter#fromJson(String)} does.
+   */
+  private static <T> T fromJson(JsonAdapter<T> jsonAdapter, BufferedSource source)
+      throws IOException {
+    JsonReader reader = JsonReader.of(source);
+    T value = jsonAdapter.fromJson(reader);
+    if (reader.peek() != JsonReader.Token.END_DOCUMENT) {
+      throw new JsonDataException("JSON document was not fully consumed.");
+    }
+    return value;
+  }
+
+  /**
+   * Binds the elements of the array {@code reader} is positioned in, or its top-level values when
+   * reading lines, through {@code jsonAdapter}.
+   */
+  private static final class MoshiIterator<T> implements JolyglotIterator<T> {
+    private final JsonReader reader;
+    private final JsonAdapter<T> jsonAdapter;
+    private final Closeable source;
+    private final boolean lines;
+    private boolean closed;
+
+    MoshiIterator(JsonReader reader, JsonAdapter<T> jsonAdapter, Closeable source,
+        boolean lines) {
+      this.reader = reader;
+      this.jsonAdapter = jsonAdapter;
+      this.source = source;
+      this.lines = lines;
+    }
+
+    @Override public boolean hasNext() {
+      if (closed) return false;
+      try {
+        return lines ? reader.peek() != JsonReader.Token.END_DOCUMENT : reader.hasNext();
+      } catch (EOFException e) {
+        // Moshi rejects a document without values, which as lines just holds no records.
+        if (lines) return false;
+        throw new RuntimeException(e);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override public T next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      try {
+        return jsonAdapter.fromJson(reader);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override public void close() {
+      closed = true;
+      if (source != null) {
+        try {
+          source.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * Writes every record through {@code jsonAdapter} followed by a line feed, sharing the same
+   * buffered sink across records.
+   */
+  private static final class MoshiLineWriter<T> implements JolyglotWriter<T> {
+    private final JsonWriter writer;
+    private final BufferedSink sink;
+    private final JsonAdapter<T> jsonAdapter;
+
+    MoshiLineWriter(JsonWriter writer, BufferedSink sink, JsonAdapter<T> jsonAdapter) {
+      this.writer = writer;
+      this.sink = sink;
+      this.jsonAdapter = jsonAdapter;
+    }
+
+    @Override public void write(T record) {
+      try {
+        jsonAdapter.toJson(writer, record);
+        sink.writeByte('\n');
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override public void flush() {
+      try {
+        writer.flush();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override public void close() {
+      flush();
+    }
+  }
+
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public final class MoshiSpeakerBatchTest extends JolyglotBatchTest {
+
+  @Override protected JolyglotBatch jolyglot() {
+    return new MoshiSpeaker();
+  }
+
+  @Test(expected = RuntimeException.class) public void fromJsonAllTrailingContent() {
+    new MoshiSpeaker().fromJsonAll(Arrays.asList("{\"index\":1}", "{\"index\":2} x"),
+        MockLine.class);
+  }
+
+  @Test(expected = RuntimeException.class) public void fromJsonBytesAllTrailingContent() {
+    byte[] json = "{\"index\":1} x".getBytes(Charset.forName("UTF-8"));
+    new MoshiSpeaker().fromJsonBytesAll(Collections.singletonList(json), MockLine.class);
+  }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Binds {@link JolyglotModel} classes through their generated {@link JolyglotBinding}, instead of
+ * reflecting on their fields.
+ */
+final class ModelBinder<T> extends NativeBinder<T> {
+  private final NativeBinders binders;
+  private final JolyglotBinding<T> binding;
+  /**
+   * The binders of the types of the binding, resolved on first use as a model may refer to
+   * itself.
+   */
+  private volatile NativeBinder<?>[] delegates;
+
+  ModelBinder(NativeBinders binders, JolyglotBinding<T> binding) {
+    this.binders = binders;
+    this.binding = binding;
+  }
+
+  @Override T read(NativeReader reader) {
+    if (reader.nextNull()) return null;
+    try {
+      return binding.read(new Reader(reader, delegates()));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override void write(NativeWriter writer, T value) throws IOException {
+    if (value == null) {
+      writer.nullValue();
+      return;
+    }
+    binding.write(new Writer(writer, delegates()), value);
+  }
+
+  private NativeBinder<?>[] delegates() {
+    NativeBinder<?>[] delegates = this.delegates;
+    if (delegates == null) {
+      Type[] types = binding.types();
+      delegates = new NativeBinder<?>[types.length];
+      for (int i = 0; i < types.length; i++) {
+        delegates[i] = binders.runtimeBinder(types[i]);
+      }
+      this.delegates = delegates;
+    }
+    return delegates;
+  }
+
+  private static final class Reader implements JolyglotBinding.Reader {
+    private final NativeReader reader;
+    private final NativeBinder<?>[] delegates;
+    private boolean first;
+
+    Reader(NativeReader reader, NativeBinder<?>[] delegates) {
+      this.reader = reader;
+      this.delegates = delegates;
+    }
+
+    @Override public void beginObject() {
+      reader.expect('{');
+      first = true;
+    }
+
+    @Override public void endObject() {
+      reader.expect('}');
+    }
+
+    @Override public boolean hasNext() {
+      if (reader.peek() == '}') return false;
+      if (!first) reader.expect(',');
+      first = false;
+      return true;
+    }
+
+    @Override public String nextName() {
+      String name = reader.nextString();
+      reader.expect(':');
+      return name;
+    }
+
+    @Override public boolean nextNull() {
+      return reader.nextNull();
+    }
+
+    @Override public String nextString() {
+      return NativeBinders.STRING.read(reader);
+    }
+
+    @Override public boolean nextBoolean() {
+      return reader.nextBoolean();
+    }
+
+    @Override public int nextInt() {
+      return reader.nextInt();
+    }
+
+    @Override public long nextLong() {
+      return reader.nextLong();
+    }
+
+    @Override public double nextDouble() {
+      return reader.nextDouble();
+    }
+
+    @Override public void skipValue() {
+      reader.skipValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public <V> V read(int type) {
+      return (V) delegates[type].read(reader);
+    }
+  }
+
+  /**
+   * Writes the members of the model, leaving out the null ones: their name is held until their
+   * value is known.
+   */
+  private static final class Writer implements JolyglotBinding.Writer {
+    private final NativeWriter writer;
+    private final NativeBinder<?>[] delegates;
+    private String name;
+    private boolean first;
+
+    Writer(NativeWriter writer, NativeBinder<?>[] delegates) {
+      this.writer = writer;
+      this.delegates = delegates;
+    }
+
+    @Override public void beginObject() throws IOException {
+      writer.write('{');
+      first = true;
+    }
+
+    @Override public void endObject() throws IOException {
+      writer.write('}');
+    }
+
+    @Override public void name(String name) {
+      this.name = name;
+    }
+
+    private void writeName() throws IOException {
+      if (name == null) return;
+      if (!first) writer.write(',');
+      first = false;
+      writer.value(name);
+      writer.write(':');
+      name = null;
+    }
+
+    @Override public void nullValue() throws IOException {
+      if (name != null) {
+        name = null;
+        return;
+      }
+      writer.nullValue();
+    }
+
+    @Override public void value(String value) throws IOException {
+      if (value == null) {
+        nullValue();
+        return;
+      }
+      writeName();
+      writer.value(value);
+    }
+
+    @Override public void value(boolean value) throws IOException {
+      writeName();
+      writer.value(value);
+    }
+
+    @Override public void value(long value) throws IOException {
+      writeName();
+      writer.value(value);
+    }
+
+    @Override public void value(float value) throws IOException {
+      writeName();
+      writer.value(value);
+    }
+
+    @Override public void value(double value) throws IOException {
+      writeName();
+      writer.value(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override public void write(int type, Object value) throws IOException {
+      if (value == null) {
+        nullValue();
+        return;
+      }
+      writeName();
+      ((NativeBinder<Object>) delegates[type]).write(writer, value);
+    }
+  }
+}
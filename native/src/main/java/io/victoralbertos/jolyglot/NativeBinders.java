@@ -0,0 +1,700 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Creates the {@link NativeBinder} of every type once and caches it, keyed by the type as it was
+ * requested and by its canonical form, so equal types built by different means share a binder.
+ */
+final class NativeBinders {
+  private static final Map<Class<?>, NativeBinder<?>> SCALARS = new HashMap<>();
+  private final ConcurrentMap<Type, NativeBinder<?>> binders = new ConcurrentHashMap<>();
+
+  @SuppressWarnings("unchecked")
+  <T> NativeBinder<T> binder(Type type) {
+    NativeBinder<?> binder = binders.get(type);
+    if (binder != null) return (NativeBinder<T>) binder;
+
+    Type canonical = Types.canonicalize(type);
+    binder = binders.get(canonical);
+    if (binder == null) {
+      binder = create(canonical);
+      NativeBinder<?> previous = binders.putIfAbsent(canonical, binder);
+      if (previous != null) binder = previous;
+    }
+    binders.putIfAbsent(type, binder);
+    return (NativeBinder<T>) binder;
+  }
+
+  /**
+   * Returns the binder writing values declared as {@code type} which, unless they are containers
+   * or final, may be instances of a subclass holding more fields.
+   */
+  <T> NativeBinder<T> runtimeBinder(Type type) {
+    NativeBinder<T> binder = binder(type);
+    Class<?> rawType = Types.getRawType(type);
+    boolean exact = Modifier.isFinal(rawType.getModifiers()) || rawType.isArray()
+        || Collection.class.isAssignableFrom(rawType) || Map.class.isAssignableFrom(rawType);
+    return exact ? binder : new RuntimeBinder<>(this, rawType, binder);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private NativeBinder<?> create(Type type) {
+    if (type instanceof WildcardType) return binder(((WildcardType) type).getUpperBounds()[0]);
+    if (type instanceof TypeVariable) return binder(Object.class);
+    Class<?> rawType = Types.getRawType(type);
+    NativeBinder<?> scalar = SCALARS.get(rawType);
+    if (scalar != null) return scalar;
+
+    if (rawType == Object.class) return new ValueBinder(this);
+    if (rawType.isEnum()) return new EnumBinder(rawType);
+    if (rawType.getSuperclass() != null && rawType.getSuperclass().isEnum()) {
+      return new EnumBinder(rawType.getSuperclass());
+    }
+    if (rawType.isArray()) {
+      Type componentType = Types.arrayComponentType(type);
+      return new ArrayBinder<>(Types.getRawType(componentType), runtimeBinder(componentType));
+    }
+    if (Collection.class.isAssignableFrom(rawType)) {
+      Type elementType = Types.collectionElementType(type, rawType);
+      return new CollectionBinder(constructor(rawType, collectionType(rawType)),
+          runtimeBinder(elementType));
+    }
+    if (Map.class.isAssignableFrom(rawType)) {
+      Type[] keyAndValueTypes = Types.mapKeyAndValueTypes(type, rawType);
+      return new MapBinder(constructor(rawType, mapType(rawType)),
+          binder(keyAndValueTypes[0]), runtimeBinder(keyAndValueTypes[1]));
+    }
+
+    JolyglotBinding<?> binding = type instanceof Class ? JolyglotBinding.of(rawType) : null;
+    if (binding != null) return new ModelBinder<>(this, binding);
+    if (rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers())) {
+      return new AbstractBinder<>(this, rawType);
+    }
+    return new ReflectiveBinder<>(this, type, rawType);
+  }
+
+  private static Class<?> collectionType(Class<?> rawType) {
+    if (SortedSet.class.isAssignableFrom(rawType)) return TreeSet.class;
+    if (Set.class.isAssignableFrom(rawType)) return LinkedHashSet.class;
+    if (Queue.class.isAssignableFrom(rawType)) return ArrayDeque.class;
+    return ArrayList.class;
+  }
+
+  private static Class<?> mapType(Class<?> rawType) {
+    if (ConcurrentNavigableMap.class.isAssignableFrom(rawType)) {
+      return ConcurrentSkipListMap.class;
+    }
+    if (ConcurrentMap.class.isAssignableFrom(rawType)) return ConcurrentHashMap.class;
+    if (SortedMap.class.isAssignableFrom(rawType)) return TreeMap.class;
+    return LinkedHashMap.class;
+  }
+
+  /**
+   * Returns the no-arg constructor of {@code rawType}, or of {@code fallback} when it is abstract
+   * or has none.
+   */
+  private static Constructor<?> constructor(Class<?> rawType, Class<?> fallback) {
+    if (!rawType.isInterface() && !Modifier.isAbstract(rawType.getModifiers())
+        && rawType != AbstractMap.class) {
+      try {
+        Constructor<?> constructor = rawType.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return constructor;
+      } catch (NoSuchMethodException ignored) {
+      }
+    }
+    if (!rawType.isAssignableFrom(fallback)) {
+      throw new IllegalArgumentException("Unable to create an instance of " + rawType.getName());
+    }
+    try {
+      return fallback.getConstructor();
+    } catch (NoSuchMethodException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  static Object newInstance(Constructor<?> constructor) {
+    try {
+      return constructor.newInstance();
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Delegates values of a subclass of the declared type to the binder of their class.
+   */
+  private static final class RuntimeBinder<T> extends NativeBinder<T> {
+    private final NativeBinders binders;
+    private final Class<?> rawType;
+    private final NativeBinder<T> binder;
+
+    RuntimeBinder(NativeBinders binders, Class<?> rawType, NativeBinder<T> binder) {
+      this.binders = binders;
+      this.rawType = rawType;
+      this.binder = binder;
+    }
+
+    @Override T read(NativeReader reader) {
+      return binder.read(reader);
+    }
+
+    @Override void write(NativeWriter writer, T value) throws IOException {
+      if (value == null || value.getClass() == rawType) {
+        binder.write(writer, value);
+      } else {
+        binders.<T>binder(value.getClass()).write(writer, value);
+      }
+    }
+  }
+
+  /**
+   * Reads abstract types as well as {@link ValueBinder} does, if it is able to, and writes them by
+   * the class of the value.
+   */
+  private static final class AbstractBinder<T> extends NativeBinder<T> {
+    private final NativeBinders binders;
+    private final Class<?> rawType;
+
+    AbstractBinder(NativeBinders binders, Class<?> rawType) {
+      this.binders = binders;
+      this.rawType = rawType;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override T read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      Object value = reader.nextValue();
+      if (!rawType.isInstance(value)) {
+        throw new IllegalArgumentException("Unable to create an instance of " + rawType.getName());
+      }
+      return (T) rawType.cast(value);
+    }
+
+    @Override void write(NativeWriter writer, T value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        binders.<T>binder(value.getClass()).write(writer, value);
+      }
+    }
+  }
+
+  /**
+   * Binds values declared as {@link Object}, reading them as {@link NativeReader#nextValue()}
+   * does and writing them by their class.
+   */
+  private static final class ValueBinder extends NativeBinder<Object> {
+    private final NativeBinders binders;
+
+    ValueBinder(NativeBinders binders) {
+      this.binders = binders;
+    }
+
+    @Override Object read(NativeReader reader) {
+      return reader.nextValue();
+    }
+
+    @Override void write(NativeWriter writer, Object value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else if (value.getClass() == Object.class) {
+        writer.write('{');
+        writer.write('}');
+      } else {
+        binders.binder(value.getClass()).write(writer, value);
+      }
+    }
+  }
+
+  private static final class EnumBinder<T extends Enum<T>> extends NativeBinder<T> {
+    private final Map<String, T> constants = new HashMap<>();
+    private final byte[][] names;
+
+    EnumBinder(Class<T> type) {
+      T[] values = type.getEnumConstants();
+      names = new byte[values.length][];
+      for (T value : values) {
+        constants.put(value.name(), value);
+        names[value.ordinal()] = quote(value.name());
+      }
+    }
+
+    T constant(String name) {
+      return constants.get(name);
+    }
+
+    @Override T read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      return constants.get(reader.nextString());
+    }
+
+    @Override void write(NativeWriter writer, T value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.write(names[value.ordinal()]);
+      }
+    }
+  }
+
+  private static final class ArrayBinder<E> extends NativeBinder<Object> {
+    private final Class<?> componentType;
+    private final NativeBinder<E> binder;
+
+    ArrayBinder(Class<?> componentType, NativeBinder<E> binder) {
+      this.componentType = componentType;
+      this.binder = binder;
+    }
+
+    @Override Object read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      List<E> elements = new ArrayList<>();
+      reader.expect('[');
+      if (reader.first(']')) {
+        do {
+          elements.add(binder.read(reader));
+        } while (reader.next(']'));
+      }
+
+      Object array = Array.newInstance(componentType, elements.size());
+      if (componentType.isPrimitive()) {
+        for (int i = 0; i < elements.size(); i++) {
+          Array.set(array, i, elements.get(i));
+        }
+        return array;
+      }
+      return elements.toArray((Object[]) array);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override void write(NativeWriter writer, Object array) throws IOException {
+      if (array == null) {
+        writer.nullValue();
+        return;
+      }
+      writer.write('[');
+      for (int i = 0, length = Array.getLength(array); i < length; i++) {
+        if (i > 0) writer.write(',');
+        binder.write(writer, (E) Array.get(array, i));
+      }
+      writer.write(']');
+    }
+  }
+
+  private static final class CollectionBinder<E> extends NativeBinder<Collection<E>> {
+    private final Constructor<?> constructor;
+    private final NativeBinder<E> binder;
+
+    CollectionBinder(Constructor<?> constructor, NativeBinder<E> binder) {
+      this.constructor = constructor;
+      this.binder = binder;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override Collection<E> read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      Collection<E> collection = (Collection<E>) newInstance(constructor);
+      reader.expect('[');
+      if (reader.first(']')) {
+        do {
+          collection.add(binder.read(reader));
+        } while (reader.next(']'));
+      }
+      return collection;
+    }
+
+    @Override void write(NativeWriter writer, Collection<E> collection) throws IOException {
+      if (collection == null) {
+        writer.nullValue();
+        return;
+      }
+      writer.write('[');
+      boolean first = true;
+      for (E element : collection) {
+        if (!first) writer.write(',');
+        first = false;
+        binder.write(writer, element);
+      }
+      writer.write(']');
+    }
+  }
+
+  /**
+   * Binds maps as objects, writing their keys by {@link String#valueOf(Object)} and reading them
+   * back with the binder of the key type when they are not strings.
+   */
+  private static final class MapBinder<K, V> extends NativeBinder<Map<K, V>> {
+    private final Constructor<?> constructor;
+    private final NativeBinder<K> keyBinder;
+    private final NativeBinder<V> valueBinder;
+
+    MapBinder(Constructor<?> constructor, NativeBinder<K> keyBinder,
+        NativeBinder<V> valueBinder) {
+      this.constructor = constructor;
+      this.keyBinder = keyBinder;
+      this.valueBinder = valueBinder;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override Map<K, V> read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      Map<K, V> map = (Map<K, V>) newInstance(constructor);
+      reader.expect('{');
+      if (reader.first('}')) {
+        do {
+          K key = key(reader.nextString());
+          reader.expect(':');
+          if (map.put(key, valueBinder.read(reader)) != null) {
+            throw new IllegalStateException("Duplicate key: " + key);
+          }
+        } while (reader.next('}'));
+      }
+      return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(String name) {
+      if (keyBinder == STRING || keyBinder instanceof ValueBinder) return (K) name;
+      if (keyBinder instanceof EnumBinder) return (K) ((EnumBinder<?>) keyBinder).constant(name);
+      byte[] bytes = name.getBytes(NativeWriter.UTF_8);
+      NativeReader reader = new NativeReader(bytes, 0, bytes.length);
+      K key = keyBinder.read(reader);
+      reader.end();
+      return key;
+    }
+
+    @Override void write(NativeWriter writer, Map<K, V> map) throws IOException {
+      if (map == null) {
+        writer.nullValue();
+        return;
+      }
+      writer.write('{');
+      boolean first = true;
+      for (Map.Entry<K, V> entry : map.entrySet()) {
+        if (!first) writer.write(',');
+        first = false;
+        K key = entry.getKey();
+        writer.value(key instanceof Enum ? ((Enum<?>) key).name() : String.valueOf(key));
+        writer.write(':');
+        valueBinder.write(writer, entry.getValue());
+      }
+      writer.write('}');
+    }
+  }
+
+  /**
+   * Returns the quoted and escaped UTF-8 bytes of {@code name}.
+   */
+  static byte[] quote(String name) {
+    NativeWriter writer = new NativeWriter(name.length() + 2);
+    try {
+      writer.value(name);
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return writer.toByteArray();
+  }
+
+  /**
+   * Reads an int, accepting it quoted as a string too.
+   */
+  static int readInt(NativeReader reader) {
+    if (reader.peek() == '"') return Integer.parseInt(reader.nextString());
+    return reader.nextInt();
+  }
+
+  /**
+   * Reads a long, accepting it quoted as a string too.
+   */
+  static long readLong(NativeReader reader) {
+    if (reader.peek() == '"') return Long.parseLong(reader.nextString());
+    return reader.nextLong();
+  }
+
+  /**
+   * Reads a double, accepting it quoted as a string too.
+   */
+  static double readDouble(NativeReader reader) {
+    if (reader.peek() == '"') return Double.parseDouble(reader.nextString());
+    return reader.nextDouble();
+  }
+
+  static final NativeBinder<String> STRING = new NativeBinder<String>() {
+    @Override String read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      switch (reader.peek()) {
+        case '"':
+          return reader.nextString();
+        case 't':
+        case 'f':
+          return String.valueOf(reader.nextBoolean());
+        default:
+          return reader.nextNumber();
+      }
+    }
+
+    @Override void write(NativeWriter writer, String value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.value(value);
+      }
+    }
+  };
+
+  static final NativeBinder<Boolean> BOOLEAN = new NativeBinder<Boolean>() {
+    @Override Boolean read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      if (reader.peek() == '"') return Boolean.parseBoolean(reader.nextString());
+      return reader.nextBoolean();
+    }
+
+    @Override void write(NativeWriter writer, Boolean value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.value(value.booleanValue());
+      }
+    }
+  };
+
+  static final NativeBinder<Integer> INTEGER = new NativeBinder<Integer>() {
+    @Override Integer read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      return readInt(reader);
+    }
+
+    @Override void write(NativeWriter writer, Integer value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.value(value.longValue());
+      }
+    }
+  };
+
+  static final NativeBinder<Long> LONG = new NativeBinder<Long>() {
+    @Override Long read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      return readLong(reader);
+    }
+
+    @Override void write(NativeWriter writer, Long value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.value(value.longValue());
+      }
+    }
+  };
+
+  static final NativeBinder<Short> SHORT = new NativeBinder<Short>() {
+    @Override Short read(NativeReader reader) {
+      Integer value = INTEGER.read(reader);
+      if (value == null) return null;
+      if (value.shortValue() != value) {
+        throw new IllegalStateException("Expected a short but was " + value);
+      }
+      return value.shortValue();
+    }
+
+    @Override void write(NativeWriter writer, Short value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.value(value.longValue());
+      }
+    }
+  };
+
+  static final NativeBinder<Byte> BYTE = new NativeBinder<Byte>() {
+    @Override Byte read(NativeReader reader) {
+      Integer value = INTEGER.read(reader);
+      if (value == null) return null;
+      if (value.byteValue() != value) {
+        throw new IllegalStateException("Expected a byte but was " + value);
+      }
+      return value.byteValue();
+    }
+
+    @Override void write(NativeWriter writer, Byte value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.value(value.longValue());
+      }
+    }
+  };
+
+  static final NativeBinder<Double> DOUBLE = new NativeBinder<Double>() {
+    @Override Double read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      return readDouble(reader);
+    }
+
+    @Override void write(NativeWriter writer, Double value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.value(value.doubleValue());
+      }
+    }
+  };
+
+  static final NativeBinder<Float> FLOAT = new NativeBinder<Float>() {
+    @Override Float read(NativeReader reader) {
+      Double value = DOUBLE.read(reader);
+      return value == null ? null : value.floatValue();
+    }
+
+    @Override void write(NativeWriter writer, Float value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.value(value.floatValue());
+      }
+    }
+  };
+
+  static final NativeBinder<Character> CHARACTER = new NativeBinder<Character>() {
+    @Override Character read(NativeReader reader) {
+      String value = STRING.read(reader);
+      if (value == null) return null;
+      if (value.length() != 1) {
+        throw new IllegalStateException("Expected a char but was \"" + value + "\"");
+      }
+      return value.charAt(0);
+    }
+
+    @Override void write(NativeWriter writer, Character value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.value(String.valueOf(value.charValue()));
+      }
+    }
+  };
+
+  static final NativeBinder<BigDecimal> BIG_DECIMAL = new NativeBinder<BigDecimal>() {
+    @Override BigDecimal read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      return new BigDecimal(reader.nextNumber());
+    }
+
+    @Override void write(NativeWriter writer, BigDecimal value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.writeAscii(value.toString());
+      }
+    }
+  };
+
+  static final NativeBinder<BigInteger> BIG_INTEGER = new NativeBinder<BigInteger>() {
+    @Override BigInteger read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      return new BigInteger(reader.nextNumber());
+    }
+
+    @Override void write(NativeWriter writer, BigInteger value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else {
+        writer.writeAscii(value.toString());
+      }
+    }
+  };
+
+  /**
+   * Reads numbers declared as {@link Number} as {@link Long} when they are integral and
+   * {@link Double} otherwise, and writes any number by its decimal string.
+   */
+  static final NativeBinder<Number> NUMBER = new NativeBinder<Number>() {
+    @Override Number read(NativeReader reader) {
+      if (reader.nextNull()) return null;
+      Object value = reader.nextValue();
+      if (!(value instanceof Number)) {
+        throw new IllegalStateException("Expected a number but was " + value);
+      }
+      return (Number) value;
+    }
+
+    @Override void write(NativeWriter writer, Number value) throws IOException {
+      if (value == null) {
+        writer.nullValue();
+      } else if (value instanceof Double || value instanceof Float) {
+        writer.value(value.doubleValue());
+      } else {
+        writer.writeAscii(value.toString());
+      }
+    }
+  };
+
+  static {
+    SCALARS.put(String.class, STRING);
+    SCALARS.put(boolean.class, BOOLEAN);
+    SCALARS.put(Boolean.class, BOOLEAN);
+    SCALARS.put(int.class, INTEGER);
+    SCALARS.put(Integer.class, INTEGER);
+    SCALARS.put(long.class, LONG);
+    SCALARS.put(Long.class, LONG);
+    SCALARS.put(short.class, SHORT);
+    SCALARS.put(Short.class, SHORT);
+    SCALARS.put(byte.class, BYTE);
+    SCALARS.put(Byte.class, BYTE);
+    SCALARS.put(double.class, DOUBLE);
+    SCALARS.put(Double.class, DOUBLE);
+    SCALARS.put(float.class, FLOAT);
+    SCALARS.put(Float.class, FLOAT);
+    SCALARS.put(char.class, CHARACTER);
+    SCALARS.put(Character.class, CHARACTER);
+    SCALARS.put(BigDecimal.class, BIG_DECIMAL);
+    SCALARS.put(BigInteger.class, BIG_INTEGER);
+    SCALARS.put(Number.class, NUMBER);
+  }
+}
@@ -0,0 +1,593 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tokenizer of a Json document held as UTF-8 bytes, which are read straight from the array
+ * without decoding them into chars first.
+ *
+ * <p>Strings and digits are scanned eight bytes at a time within a {@code long} (SWAR): a string
+ * is copied as Latin-1 up to the first byte which is a quote, a backslash, a control character or
+ * not ASCII, so only strings holding escapes or multi-byte characters are decoded one char at a
+ * time. Member names are matched against the expected ones as bytes, never built as strings.
+ *
+ * <p>Malformed documents throw an {@link IllegalStateException} holding the offset of the error.
+ */
+final class NativeReader {
+  private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+  private static final long QUOTES = 0x2222222222222222L;
+  private static final long BACKSLASHES = 0x5C5C5C5C5C5C5C5CL;
+  private static final long SPACES = 0x2020202020202020L;
+  /**
+   * Doubles with up to this many significant digits and a power of ten within
+   * {@link #POWERS_OF_TEN} are exact products or quotients of two doubles.
+   */
+  private static final int MAX_EXACT_DIGITS = 15;
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+  private static final int MAX_LONG_DIGITS = 18;
+  private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+  private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+  private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+  private final byte[] buf;
+  private final ByteBuffer words;
+  private final int limit;
+  private int pos;
+  private char[] chars = new char[0];
+  /**
+   * The length of {@link #chars} after the last call to {@link #unescape} or
+   * {@link #decodeMultiByte}.
+   */
+  private int unescaped;
+
+  NativeReader(byte[] buf, int offset, int length) {
+    this.buf = buf;
+    this.words = ByteBuffer.wrap(buf).order(ByteOrder.LITTLE_ENDIAN);
+    this.pos = offset;
+    this.limit = offset + length;
+  }
+
+  /**
+   * Skips whitespace, returning the next byte without consuming it, or -1 at the end.
+   */
+  int peek() {
+    while (pos < limit) {
+      int b = buf[pos] & 0xFF;
+      if (b != ' ' && b != '\n' && b != '\r' && b != '\t') return b;
+      pos++;
+    }
+    return -1;
+  }
+
+  /**
+   * Checks nothing but whitespace is left.
+   */
+  void end() {
+    if (peek() != -1) throw unexpected("the end of the document");
+  }
+
+  void expect(char c) {
+    if (peek() != c) throw unexpected("'" + c + "'");
+    pos++;
+  }
+
+  /**
+   * Called after an opening bracket, consumes {@code close} if the container is empty.
+   * @return whether the container holds an element.
+   */
+  boolean first(char close) {
+    if (peek() != close) return true;
+    pos++;
+    return false;
+  }
+
+  /**
+   * Called after an element, consumes the comma before the next one or {@code close}.
+   * @return whether another element follows.
+   */
+  boolean next(char close) {
+    int b = peek();
+    if (b == ',') {
+      pos++;
+      return true;
+    }
+    if (b != close) throw unexpected("',' or '" + close + "'");
+    pos++;
+    return false;
+  }
+
+  /**
+   * Consumes the next value if it is null.
+   * @return whether the next value was null.
+   */
+  boolean nextNull() {
+    if (peek() != 'n') return false;
+    literal(NULL);
+    return true;
+  }
+
+  boolean nextBoolean() {
+    int b = peek();
+    if (b == 't') {
+      literal(TRUE);
+      return true;
+    }
+    if (b == 'f') {
+      literal(FALSE);
+      return false;
+    }
+    throw unexpected("a boolean");
+  }
+
+  private void literal(byte[] literal) {
+    if (limit - pos < literal.length) throw unexpected(new String(literal, ISO_8859_1));
+    for (int i = 0; i < literal.length; i++) {
+      if (buf[pos + i] != literal[i]) throw unexpected(new String(literal, ISO_8859_1));
+    }
+    pos += literal.length;
+  }
+
+  String nextString() {
+    if (peek() != '"') throw unexpected("a string");
+    int start = pos + 1;
+    int end = scan(start);
+    if (buf[end] == '"') {
+      pos = end + 1;
+      return new String(buf, start, end - start, ISO_8859_1);
+    }
+    return decode(start, end);
+  }
+
+  /**
+   * Reads a member name and the colon after it, matching it against {@code names}, which are
+   * UTF-8 encoded and unescaped. Names usually come in the order they were written, so the one at
+   * {@code expected} is tried first.
+   * @return the index of the name within {@code names}, or -1 if it is not one of them.
+   */
+  int nextName(byte[][] names, int expected) {
+    if (peek() != '"') throw unexpected("a name");
+    int start = pos + 1;
+    int end = scan(start);
+    while (buf[end] != '"' && buf[end] != '\\') {
+      if ((buf[end] & 0xFF) < 0x20) throw unexpected("an escaped control character", end);
+      end = scan(end + 1);
+    }
+
+    int index;
+    if (buf[end] == '"') {
+      index = indexOf(names, expected, buf, start, end - start);
+      pos = end + 1;
+    } else {
+      byte[] name = decode(start, end).getBytes(NativeWriter.UTF_8);
+      index = indexOf(names, expected, name, 0, name.length);
+    }
+    expect(':');
+    return index;
+  }
+
+  private static int indexOf(byte[][] names, int expected, byte[] bytes, int start, int length) {
+    if (expected < names.length && equal(names[expected], bytes, start, length)) return expected;
+    for (int i = 0; i < names.length; i++) {
+      if (i != expected && equal(names[i], bytes, start, length)) return i;
+    }
+    return -1;
+  }
+
+  private static boolean equal(byte[] name, byte[] bytes, int start, int length) {
+    if (name.length != length) return false;
+    for (int i = 0; i < length; i++) {
+      if (name[i] != bytes[start + i]) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the position of the first byte from {@code p} which is a quote, a backslash, a
+   * control character or not ASCII.
+   */
+  private int scan(int p) {
+    while (p + 8 <= limit) {
+      long word = words.getLong(p);
+      long quotes = word ^ QUOTES;
+      long backslashes = word ^ BACKSLASHES;
+      long special = ((quotes - ONES) & ~quotes)
+          | ((backslashes - ONES) & ~backslashes)
+          | ((word - SPACES) & ~word)
+          | word;
+      special &= HIGHS;
+      // Borrows only carry into the bytes after a special one, so the lowest flag is exact.
+      if (special != 0) return p + (Long.numberOfTrailingZeros(special) >>> 3);
+      p += 8;
+    }
+    while (p < limit) {
+      int b = buf[p];
+      if (b == '"' || b == '\\' || b < 0x20) return p;
+      p++;
+    }
+    throw unexpected("'\"'", limit);
+  }
+
+  /**
+   * Decodes the string starting at {@code start}, whose bytes are ASCII up to {@code p}, unescaping
+   * it and consuming its closing quote.
+   */
+  private String decode(int start, int p) {
+    int length = p - start;
+    ensureChars(length + 16);
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) buf[start + i];
+    }
+
+    while (true) {
+      if (p >= limit) throw unexpected("'\"'", limit);
+      int b = buf[p];
+      if (b == '"') break;
+      ensureChars(length + 2);
+      if (b == '\\') {
+        p = unescape(p + 1, length);
+        length = unescaped;
+      } else if (b >= 0x20) {
+        chars[length++] = (char) b;
+        p++;
+      } else if (b >= 0) {
+        throw unexpected("an escaped control character", p);
+      } else {
+        p = decodeMultiByte(p, length);
+        length = unescaped;
+      }
+    }
+    pos = p + 1;
+    return new String(chars, 0, length);
+  }
+
+  /**
+   * Unescapes the sequence at {@code p}, after the backslash, into {@link #chars} at
+   * {@code length}.
+   * @return the position after the sequence.
+   */
+  private int unescape(int p, int length) {
+    if (p >= limit) throw unexpected("an escape sequence", p);
+    char c;
+    switch (buf[p]) {
+      case '"': c = '"'; break;
+      case '\\': c = '\\'; break;
+      case '/': c = '/'; break;
+      case 'b': c = '\b'; break;
+      case 'f': c = '\f'; break;
+      case 'n': c = '\n'; break;
+      case 'r': c = '\r'; break;
+      case 't': c = '\t'; break;
+      case 'u':
+        if (limit - p < 5) throw unexpected("4 hex digits", p);
+        int value = 0;
+        for (int i = 1; i <= 4; i++) {
+          int digit = Character.digit(buf[p + i], 16);
+          if (digit < 0) throw unexpected("a hex digit", p + i);
+          value = (value << 4) | digit;
+        }
+        chars[length] = (char) value;
+        unescaped = length + 1;
+        return p + 5;
+      default:
+        throw unexpected("an escape sequence", p);
+    }
+    chars[length] = c;
+    unescaped = length + 1;
+    return p + 1;
+  }
+
+  /**
+   * Decodes the UTF-8 sequence starting at {@code p} into {@link #chars} at {@code length}.
+   * @return the position after the sequence.
+   */
+  private int decodeMultiByte(int p, int length) {
+    int b = buf[p] & 0xFF;
+    int size;
+    int codePoint;
+    if (b >= 0xC2 && b <= 0xDF) {
+      size = 2;
+      codePoint = b & 0x1F;
+    } else if (b >= 0xE0 && b <= 0xEF) {
+      size = 3;
+      codePoint = b & 0x0F;
+    } else if (b >= 0xF0 && b <= 0xF4) {
+      size = 4;
+      codePoint = b & 0x07;
+    } else {
+      throw unexpected("UTF-8", p);
+    }
+    if (limit - p < size) throw unexpected("UTF-8", p);
+    for (int i = 1; i < size; i++) {
+      int continuation = buf[p + i] & 0xFF;
+      if ((continuation & 0xC0) != 0x80) throw unexpected("UTF-8", p + i);
+      codePoint = (codePoint << 6) | (continuation & 0x3F);
+    }
+    unescaped = length + Character.toChars(codePoint, chars, length);
+    return p + size;
+  }
+
+  private void ensureChars(int length) {
+    if (chars.length < length) {
+      char[] grown = new char[Math.max(length, chars.length * 2)];
+      System.arraycopy(chars, 0, grown, 0, chars.length);
+      chars = grown;
+    }
+  }
+
+  long nextLong() {
+    int b = peek();
+    int start = pos;
+    int p = start;
+    if (b == '-') p++;
+    int digitsStart = p;
+    long value = 0;
+    while (p + 8 <= limit) {
+      long word = words.getLong(p);
+      if (!isEightDigits(word)) break;
+      value = value * 100000000L + parseEightDigits(word);
+      p += 8;
+    }
+    while (p < limit && isDigit(buf[p])) {
+      value = value * 10 + (buf[p] - '0');
+      p++;
+    }
+
+    int digits = p - digitsStart;
+    if (digits == 0) throw unexpected("a number");
+    if (p < limit && (buf[p] == '.' || buf[p] == 'e' || buf[p] == 'E')) {
+      double d = nextDouble();
+      if (d != (long) d) throw unexpected("a long but was " + d, start);
+      return (long) d;
+    }
+    if (digits > MAX_LONG_DIGITS) {
+      try {
+        value = Long.parseLong(new String(buf, start, p - start, ISO_8859_1));
+      } catch (NumberFormatException e) {
+        throw unexpected("a long", start);
+      }
+      pos = p;
+      return value;
+    }
+    pos = p;
+    return b == '-' ? -value : value;
+  }
+
+  int nextInt() {
+    int start = pos;
+    long value = nextLong();
+    if ((int) value != value) throw unexpected("an int but was " + value, start);
+    return (int) value;
+  }
+
+  /**
+   * Parses the next number exactly from its digits when they fit the significand of a double
+   * and its exponent is small (Clinger's fast path), falling back to
+   * {@link Double#parseDouble(String)} otherwise.
+   */
+  double nextDouble() {
+    int b = peek();
+    int start = pos;
+    int p = start;
+    if (b == '-') p++;
+
+    long significand = 0;
+    int digits = 0;
+    int exponent = 0;
+    int integerStart = p;
+    while (p < limit && isDigit(buf[p])) {
+      significand = significand * 10 + (buf[p] - '0');
+      p++;
+    }
+    digits += p - integerStart;
+    if (digits == 0) throw unexpected("a number");
+    if (p < limit && buf[p] == '.') {
+      int fractionStart = ++p;
+      while (p < limit && isDigit(buf[p])) {
+        significand = significand * 10 + (buf[p] - '0');
+        p++;
+      }
+      if (p == fractionStart) throw unexpected("a digit", p);
+      digits += p - fractionStart;
+      exponent -= p - fractionStart;
+    }
+    if (p < limit && (buf[p] == 'e' || buf[p] == 'E')) {
+      p++;
+      boolean negative = false;
+      if (p < limit && (buf[p] == '-' || buf[p] == '+')) negative = buf[p++] == '-';
+      int exponentStart = p;
+      int value = 0;
+      while (p < limit && isDigit(buf[p])) {
+        if (value < 10000) value = value * 10 + (buf[p] - '0');
+        p++;
+      }
+      if (p == exponentStart) throw unexpected("a digit", p);
+      exponent += negative ? -value : value;
+    }
+
+    double value;
+    if (digits <= MAX_EXACT_DIGITS && exponent >= -22 && exponent <= 22) {
+      value = significand;
+      value = exponent < 0 ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+      if (b == '-') value = -value;
+    } else {
+      value = Double.parseDouble(new String(buf, start, p - start, ISO_8859_1));
+    }
+    pos = p;
+    return value;
+  }
+
+  /**
+   * Reads the next number as a string, unchanged, for the types parsing their own digits.
+   */
+  String nextNumber() {
+    int b = peek();
+    if (b == '"') return nextString();
+    int start = pos;
+    int p = start;
+    while (p < limit && isNumberPart(buf[p])) p++;
+    if (p == start) throw unexpected("a number");
+    pos = p;
+    return new String(buf, start, p - start, ISO_8859_1);
+  }
+
+  /**
+   * Reads the next value as a {@link Map}, a {@link List}, a {@link String}, a {@link Boolean},
+   * null, or a {@link Long} when the number is integral and a {@link Double} otherwise.
+   */
+  Object nextValue() {
+    switch (peek()) {
+      case '{':
+        pos++;
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (first('}')) {
+          do {
+            String name = nextString();
+            expect(':');
+            map.put(name, nextValue());
+          } while (next('}'));
+        }
+        return map;
+      case '[':
+        pos++;
+        List<Object> list = new ArrayList<>();
+        if (first(']')) {
+          do {
+            list.add(nextValue());
+          } while (next(']'));
+        }
+        return list;
+      case '"':
+        return nextString();
+      case 't':
+      case 'f':
+        return nextBoolean();
+      case 'n':
+        literal(NULL);
+        return null;
+      default:
+        int p = pos;
+        if (p < limit && buf[p] == '-') p++;
+        int digits = 0;
+        while (p < limit && isDigit(buf[p])) {
+          p++;
+          digits++;
+        }
+        boolean integral = p >= limit || (buf[p] != '.' && buf[p] != 'e' && buf[p] != 'E');
+        if (integral && digits <= MAX_LONG_DIGITS) return nextLong();
+        return nextDouble();
+    }
+  }
+
+  void skipValue() {
+    int b = peek();
+    switch (b) {
+      case '"':
+        skipString();
+        return;
+      case '{':
+      case '[':
+        int depth = 0;
+        int p = pos;
+        while (p < limit) {
+          int c = buf[p];
+          if (c == '"') {
+            pos = p;
+            skipString();
+            p = pos;
+            continue;
+          }
+          if (c == '{' || c == '[') {
+            depth++;
+          } else if ((c == '}' || c == ']') && --depth == 0) {
+            pos = p + 1;
+            return;
+          }
+          p++;
+        }
+        throw unexpected("'" + (b == '{' ? '}' : ']') + "'", limit);
+      case 't':
+        literal(TRUE);
+        return;
+      case 'f':
+        literal(FALSE);
+        return;
+      case 'n':
+        literal(NULL);
+        return;
+      default:
+        if (b != '-' && (b < '0' || b > '9')) throw unexpected("a value");
+        nextNumber();
+    }
+  }
+
+  private void skipString() {
+    int p = scan(pos + 1);
+    while (buf[p] != '"') {
+      p = scan(buf[p] == '\\' ? p + 2 : p + 1);
+    }
+    pos = p + 1;
+  }
+
+  /**
+   * Whether the eight bytes of {@code word} are all ascii digits.
+   */
+  static boolean isEightDigits(long word) {
+    return (((word & 0xF0F0F0F0F0F0F0F0L)
+        | (((word + 0x0606060606060606L) & 0xF0F0F0F0F0F0F0F0L) >>> 4)) == 0x3333333333333333L);
+  }
+
+  /**
+   * Parses the eight ascii digits of {@code word}, the first one in its lowest byte, by combining
+   * adjacent digits pairwise with one multiplication each: into 4 numbers of 2 digits, then 2 of
+   * 4 and finally 1 of 8.
+   */
+  static int parseEightDigits(long word) {
+    word = ((word & 0x0F0F0F0F0F0F0F0FL) * 2561) >>> 8;
+    word = ((word & 0x00FF00FF00FF00FFL) * 6553601) >>> 16;
+    return (int) (((word & 0x0000FFFF0000FFFFL) * 42949672960001L) >>> 32);
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  private static boolean isNumberPart(byte b) {
+    return isDigit(b) || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E';
+  }
+
+  private IllegalStateException unexpected(String expected) {
+    return unexpected(expected, pos);
+  }
+
+  private IllegalStateException unexpected(String expected, int p) {
+    String actual = p >= limit ? "the end of the document" : "'" + (char) (buf[p] & 0xFF) + "'";
+    return new IllegalStateException("Expected " + expected + " but was " + actual
+        + " at offset " + p);
+  }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * A speaker with no Json library behind it. Documents are tokenized straight from their UTF-8
+ * bytes and written straight into a recycled byte buffer, with no intermediate chars, by the
+ * binder of each type, which is created once and cached. Classes are bound by their fields,
+ * {@link JolyglotModel} ones by their generated {@link JolyglotBinding}.
+ *
+ * <p>Like the default Gson and Moshi speakers it leaves out null fields, ignores unknown ones and
+ * writes maps as objects whose keys are {@link String#valueOf(Object)}. Streams and files are read
+ * whole into memory before being parsed.
+ */
+public class NativeSpeaker implements JolyglotGenerics {
+  private static final int READ_BUFFER_SIZE = 8 * 1024;
+  /**
+   * Buffers grown past this number of bytes are dropped instead of recycled, so a single large
+   * document is not retained by the thread.
+   */
+  private static final int MAX_RECYCLED_READ_BUFFER_SIZE = 256 * 1024;
+  private static final ThreadLocal<byte[]> READ_BUFFERS = new ThreadLocal<>();
+  private final NativeBinders binders = new NativeBinders();
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public String toJson(Object src) {
+    return toJson(src, typeOf(src));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public String toJson(Object src, Type typeOfSrc) {
+    NativeWriter writer = NativeWriter.acquire();
+    try {
+      write(writer, src, typeOfSrc);
+      return writer.toString();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      writer.recycle();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, OutputStream out) throws RuntimeException {
+    toJson(src, typeOf(src), out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, OutputStream out)
+      throws RuntimeException {
+    NativeWriter writer = NativeWriter.acquire();
+    try {
+      writer.sink(out);
+      write(writer, src, typeOfSrc);
+      writer.flush();
+      out.flush();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      writer.recycle();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Appendable out) throws RuntimeException {
+    toJson(src, typeOf(src), out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, Appendable out)
+      throws RuntimeException {
+    NativeWriter writer = NativeWriter.acquire();
+    try {
+      write(writer, src, typeOfSrc);
+      writer.appendTo(out);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      writer.recycle();
+    }
+    AppendableWriter.flush(out);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, File file) throws RuntimeException {
+    toJson(src, typeOf(src), file);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void toJson(Object src, Type typeOfSrc, File file) throws RuntimeException {
+    AtomicFileOutputStream out = null;
+    try {
+      out = JolyglotFiles.create(file);
+      toJson(src, typeOfSrc, out);
+      out.commit();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(String json, Class<T> classOfT) throws RuntimeException {
+    return fromJson(json, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(String json, Type typeOfT) throws RuntimeException {
+    return fromJson(json.getBytes(NativeWriter.UTF_8), typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(File file, Class<T> classOfT) throws RuntimeException {
+    return fromJson(file, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(File file, Type typeOfT) throws RuntimeException {
+    InputStream in = null;
+    try {
+      in = JolyglotFiles.open(file);
+      return fromJson(in, typeOfT);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException i) {}
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Class<T> classOfT) throws RuntimeException {
+    return fromJson(in, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(InputStream in, Type typeOfT) throws RuntimeException {
+    byte[] buffer = READ_BUFFERS.get();
+    READ_BUFFERS.set(null);
+    if (buffer == null) buffer = new byte[READ_BUFFER_SIZE];
+
+    try {
+      int length = 0;
+      for (int read; (read = in.read(buffer, length, buffer.length - length)) != -1; ) {
+        length += read;
+        if (length == buffer.length) {
+          byte[] grown = new byte[buffer.length * 2];
+          System.arraycopy(buffer, 0, grown, 0, length);
+          buffer = grown;
+        }
+      }
+      return read(buffer, 0, length, typeOfT);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      // Strings are copied out of the buffer, so it can be reused right away.
+      if (buffer.length <= MAX_RECYCLED_READ_BUFFER_SIZE) READ_BUFFERS.set(buffer);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Class<T> classOfT) throws RuntimeException {
+    return fromJson(json, (Type) classOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public <T> T fromJson(byte[] json, Type typeOfT) throws RuntimeException {
+    return read(json, 0, json.length, typeOfT);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public GenericArrayType arrayOf(Type componentType) {
+    return Types.arrayOf(componentType);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public ParameterizedType newParameterizedType(Type rawType, Type... typeArguments) {
+    return Types.newParameterizedType(rawType, typeArguments);
+  }
+
+  /**
+   * Reads the document held by {@code json}, which is null when it is empty.
+   */
+  private <T> T read(byte[] json, int offset, int length, Type typeOfT) {
+    NativeReader reader = new NativeReader(json, offset, length);
+    if (reader.peek() == -1) return null;
+    T value = binders.<T>binder(typeOfT).read(reader);
+    reader.end();
+    return value;
+  }
+
+  private void write(NativeWriter writer, Object src, Type typeOfSrc) throws IOException {
+    binders.runtimeBinder(typeOfSrc).write(writer, src);
+  }
+
+  private static Type typeOf(Object src) {
+    return src == null ? Object.class : src.getClass();
+  }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * Writes Json as UTF-8 bytes straight into a growable array, which is recycled by the thread
+ * that used it like {@link StringBuilderWriter}. When a sink is set the array is drained into it
+ * every time it fills up, so its size stays bounded while writing to a stream.
+ */
+final class NativeWriter {
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int INITIAL_CAPACITY = 1024;
+  /**
+   * Buffers grown past this number of bytes are dropped instead of recycled, so a single large
+   * payload is not retained by the thread.
+   */
+  static final int MAX_RECYCLED_CAPACITY = 256 * 1024;
+  /**
+   * Chars of a string encoded between two checks of the remaining capacity, each one taking up
+   * to 6 bytes once escaped.
+   */
+  private static final int STRING_CHUNK = 1024;
+  private static final ThreadLocal<NativeWriter> POOL = new ThreadLocal<>();
+  private static final byte[] HEX = {
+      '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+  };
+  /**
+   * For each ascii char, 0 if it is written as is, otherwise the char following the backslash
+   * of its escape sequence.
+   */
+  private static final byte[] ESCAPES = new byte[128];
+  private static final byte[] MIN_LONG = ascii(String.valueOf(Long.MIN_VALUE));
+  private static final byte[] NULL = ascii("null");
+  private static final byte[] TRUE = ascii("true");
+  private static final byte[] FALSE = ascii("false");
+
+  static {
+    for (int c = 0; c < 0x20; c++) {
+      ESCAPES[c] = 'u';
+    }
+    ESCAPES['"'] = '"';
+    ESCAPES['\\'] = '\\';
+    ESCAPES['\t'] = 't';
+    ESCAPES['\b'] = 'b';
+    ESCAPES['\n'] = 'n';
+    ESCAPES['\r'] = 'r';
+    ESCAPES['\f'] = 'f';
+  }
+
+  private byte[] buf;
+  private int count;
+  private OutputStream sink;
+
+  NativeWriter(int capacity) {
+    this.buf = new byte[capacity];
+  }
+
+  /**
+   * Returns an empty writer, the one recycled by the current thread when it is not in use.
+   */
+  static NativeWriter acquire() {
+    NativeWriter writer = POOL.get();
+    if (writer == null) return new NativeWriter(INITIAL_CAPACITY);
+    POOL.set(null);
+    return writer;
+  }
+
+  /**
+   * Empties this writer and hands it back to the pool of the current thread. It must not be used
+   * afterwards.
+   */
+  void recycle() {
+    sink = null;
+    if (buf.length > MAX_RECYCLED_CAPACITY) return;
+    count = 0;
+    POOL.set(this);
+  }
+
+  /**
+   * Drains the bytes written into {@code sink} whenever the buffer fills up.
+   */
+  void sink(OutputStream sink) {
+    this.sink = sink;
+  }
+
+  /**
+   * Writes the bytes not drained yet into the sink.
+   */
+  void flush() throws IOException {
+    if (count == 0) return;
+    sink.write(buf, 0, count);
+    count = 0;
+  }
+
+  byte[] toByteArray() {
+    byte[] bytes = new byte[count];
+    System.arraycopy(buf, 0, bytes, 0, count);
+    return bytes;
+  }
+
+  /**
+   * Appends the chars of the bytes written to {@code out}, decoding them a chunk at a time.
+   */
+  void appendTo(Appendable out) throws IOException {
+    CharsetDecoder decoder = UTF_8.newDecoder();
+    ByteBuffer in = ByteBuffer.wrap(buf, 0, count);
+    CharBuffer chars = CharBuffer.allocate(Math.min(count, STRING_CHUNK * 4) + 1);
+    while (true) {
+      CoderResult result = decoder.decode(in, chars, true);
+      if (result.isError()) result.throwException();
+      chars.flip();
+      out.append(chars);
+      chars.clear();
+      if (result.isUnderflow()) break;
+    }
+  }
+
+  @Override public String toString() {
+    return new String(buf, 0, count, UTF_8);
+  }
+
+  private void require(int length) throws IOException {
+    if (buf.length - count >= length) return;
+    if (sink != null) {
+      flush();
+      if (buf.length >= length) return;
+    }
+    byte[] grown = new byte[Math.max(buf.length * 2, count + length)];
+    System.arraycopy(buf, 0, grown, 0, count);
+    buf = grown;
+  }
+
+  void write(char c) throws IOException {
+    require(1);
+    buf[count++] = (byte) c;
+  }
+
+  /**
+   * Writes {@code bytes} as they are, which must already be valid Json.
+   */
+  void write(byte[] bytes) throws IOException {
+    require(bytes.length);
+    System.arraycopy(bytes, 0, buf, count, bytes.length);
+    count += bytes.length;
+  }
+
+  void nullValue() throws IOException {
+    write(NULL);
+  }
+
+  void value(boolean value) throws IOException {
+    write(value ? TRUE : FALSE);
+  }
+
+  void value(long value) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      write(MIN_LONG);
+      return;
+    }
+    require(20);
+    if (value < 0) {
+      buf[count++] = '-';
+      value = -value;
+    }
+    int digits = 1;
+    for (long bound = 10; digits < 19 && value >= bound; bound *= 10) {
+      digits++;
+    }
+    int p = count + digits;
+    count = p;
+    while (value >= 10) {
+      long quotient = value / 10;
+      buf[--p] = (byte) ('0' + (value - quotient * 10));
+      value = quotient;
+    }
+    buf[--p] = (byte) ('0' + value);
+  }
+
+  void value(double value) throws IOException {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    // Double.toString switches to scientific notation from 10^7 on.
+    if (value == (long) value && Math.abs(value) < 1e7 && !isNegativeZero(value)) {
+      value((long) value);
+      write('.');
+      write('0');
+      return;
+    }
+    writeAscii(Double.toString(value));
+  }
+
+  void value(float value) throws IOException {
+    if (Float.isNaN(value) || Float.isInfinite(value)) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+    writeAscii(Float.toString(value));
+  }
+
+  private static boolean isNegativeZero(double value) {
+    return value == 0 && Double.doubleToRawLongBits(value) != 0;
+  }
+
+  /**
+   * Writes {@code value}, which must be a Json number or literal, as it is.
+   */
+  void writeAscii(String value) throws IOException {
+    int length = value.length();
+    require(length);
+    for (int i = 0; i < length; i++) {
+      buf[count++] = (byte) value.charAt(i);
+    }
+  }
+
+  /**
+   * Writes {@code value} quoted and escaped. Besides the chars Json requires escaping, the line
+   * and paragraph separators are escaped too, as they end lines in javascript.
+   */
+  void value(String value) throws IOException {
+    int length = value.length();
+    require(1);
+    buf[count++] = '"';
+    int start = 0;
+    while (start < length) {
+      int end = Math.min(length, start + STRING_CHUNK);
+      require((end - start) * 6 + 1);
+      byte[] buf = this.buf;
+      int p = count;
+      for (int i = start; i < end; i++) {
+        char c = value.charAt(i);
+        if (c < 0x80) {
+          byte escape = ESCAPES[c];
+          if (escape == 0) {
+            buf[p++] = (byte) c;
+          } else {
+            buf[p++] = '\\';
+            buf[p++] = escape;
+            if (escape == 'u') p = hex(buf, p, c);
+          }
+        } else if (c < 0x800) {
+          buf[p++] = (byte) (0xC0 | (c >> 6));
+          buf[p++] = (byte) (0x80 | (c & 0x3F));
+        } else if (c == 0x2028 || c == 0x2029) {
+          buf[p++] = '\\';
+          buf[p++] = 'u';
+          p = hex(buf, p, c);
+        } else if (Character.isHighSurrogate(c) && i + 1 < length
+            && Character.isLowSurrogate(value.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, value.charAt(++i));
+          buf[p++] = (byte) (0xF0 | (codePoint >> 18));
+          buf[p++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+          buf[p++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+          buf[p++] = (byte) (0x80 | (codePoint & 0x3F));
+          // The low surrogate may have been the first char of the next chunk.
+          if (i == end) end++;
+        } else if (Character.isSurrogate(c)) {
+          buf[p++] = '?';
+        } else {
+          buf[p++] = (byte) (0xE0 | (c >> 12));
+          buf[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+          buf[p++] = (byte) (0x80 | (c & 0x3F));
+        }
+      }
+      count = p;
+      start = end;
+    }
+    require(1);
+    buf[count++] = '"';
+  }
+
+  private static int hex(byte[] buf, int p, char c) {
+    buf[p++] = HEX[(c >> 12) & 0xF];
+    buf[p++] = HEX[(c >> 8) & 0xF];
+    buf[p++] = HEX[(c >> 4) & 0xF];
+    buf[p++] = HEX[c & 0xF];
+    return p;
+  }
+
+  /**
+   * Returns the ascii bytes of {@code value}.
+   */
+  static byte[] ascii(String value) {
+    byte[] bytes = new byte[value.length()];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) value.charAt(i);
+    }
+    return bytes;
+  }
+}
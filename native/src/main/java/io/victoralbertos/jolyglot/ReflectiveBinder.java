@@ -0,0 +1,359 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Binds the fields of a class, and those of its superclasses, by reflection. Static, transient
+ * and synthetic fields are skipped and null ones are not written. Fields are named as the Gson,
+ * Jackson and Moshi annotations renaming them say, as the generated {@link JolyglotBinding}s do.
+ *
+ * <p>The fields are bound the first time a value is read or written rather than when the binder
+ * is created, so classes referring to themselves get the binder being created.
+ */
+final class ReflectiveBinder<T> extends NativeBinder<T> {
+  private static final String[][] RENAMES = {
+      {"com.google.gson.annotations.SerializedName", "value"},
+      {"com.fasterxml.jackson.annotation.JsonProperty", "value"},
+      {"com.squareup.moshi.Json", "name"}
+  };
+  private final NativeBinders binders;
+  private final Type type;
+  private final Class<?> rawType;
+  private volatile Layout layout;
+
+  ReflectiveBinder(NativeBinders binders, Type type, Class<?> rawType) {
+    this.binders = binders;
+    this.type = type;
+    this.rawType = rawType;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override T read(NativeReader reader) {
+    if (reader.nextNull()) return null;
+    Layout layout = layout();
+    T instance = (T) layout.instantiator.newInstance();
+    reader.expect('{');
+    if (reader.first('}')) {
+      int expected = 0;
+      do {
+        int index = reader.nextName(layout.names, expected);
+        if (index < 0) {
+          reader.skipValue();
+        } else {
+          layout.fields[index].read(reader, instance);
+          expected = index + 1;
+        }
+      } while (reader.next('}'));
+    }
+    return instance;
+  }
+
+  @Override void write(NativeWriter writer, T value) throws IOException {
+    if (value == null) {
+      writer.nullValue();
+      return;
+    }
+    writer.write('{');
+    boolean first = true;
+    for (BoundField field : layout().fields) {
+      if (field.write(writer, value, first)) first = false;
+    }
+    writer.write('}');
+  }
+
+  private Layout layout() {
+    Layout layout = this.layout;
+    if (layout == null) {
+      layout = new Layout(instantiator(rawType), bind());
+      this.layout = layout;
+    }
+    return layout;
+  }
+
+  private BoundField[] bind() {
+    List<BoundField> fields = new ArrayList<>();
+    Set<String> names = new HashSet<>();
+    Type type = this.type;
+    Class<?> rawType = this.rawType;
+    while (rawType != Object.class && rawType != null) {
+      for (Field field : rawType.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+            || field.isSynthetic()) {
+          continue;
+        }
+        String name = name(field);
+        if (!names.add(name)) {
+          throw new IllegalArgumentException(this.rawType.getName()
+              + " declares multiple Json fields named " + name);
+        }
+        field.setAccessible(true);
+        Type fieldType = Types.resolve(type, rawType, field.getGenericType());
+        fields.add(bind(field, name, fieldType));
+      }
+      type = Types.resolve(type, rawType, rawType.getGenericSuperclass());
+      rawType = rawType.getSuperclass();
+    }
+    return fields.toArray(new BoundField[fields.size()]);
+  }
+
+  private BoundField bind(Field field, String name, Type fieldType) {
+    Class<?> fieldRawType = field.getType();
+    if (fieldRawType == int.class) return new IntField(field, name);
+    if (fieldRawType == long.class) return new LongField(field, name);
+    if (fieldRawType == double.class) return new DoubleField(field, name);
+    if (fieldRawType == boolean.class) return new BooleanField(field, name);
+    return new ObjectField(field, name, binders.runtimeBinder(fieldType));
+  }
+
+  private static String name(Field field) {
+    for (Annotation annotation : field.getAnnotations()) {
+      for (String[] rename : RENAMES) {
+        if (!annotation.annotationType().getName().equals(rename[0])) continue;
+        try {
+          Method method = annotation.annotationType().getMethod(rename[1]);
+          String name = (String) method.invoke(annotation);
+          if (!name.isEmpty()) return name;
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    }
+    return field.getName();
+  }
+
+  private static Instantiator instantiator(final Class<?> rawType) {
+    try {
+      final Constructor<?> constructor = rawType.getDeclaredConstructor();
+      constructor.setAccessible(true);
+      return new Instantiator() {
+        @Override Object newInstance() {
+          return NativeBinders.newInstance(constructor);
+        }
+      };
+    } catch (NoSuchMethodException ignored) {
+    }
+
+    // Like Gson, classes without a no-arg constructor are allocated without running any.
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      final Object unsafe = theUnsafe.get(null);
+      final Method allocateInstance = unsafeClass.getMethod("allocateInstance", Class.class);
+      return new Instantiator() {
+        @Override Object newInstance() {
+          try {
+            return allocateInstance.invoke(unsafe, rawType);
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        }
+      };
+    } catch (Exception e) {
+      return new Instantiator() {
+        @Override Object newInstance() {
+          throw new IllegalArgumentException("Unable to create an instance of "
+              + rawType.getName() + ", it needs a no-arg constructor");
+        }
+      };
+    }
+  }
+
+  private abstract static class Instantiator {
+    abstract Object newInstance();
+  }
+
+  private static final class Layout {
+    final Instantiator instantiator;
+    final BoundField[] fields;
+    /**
+     * The UTF-8 bytes of the name of each field, to match the names read against.
+     */
+    final byte[][] names;
+
+    Layout(Instantiator instantiator, BoundField[] fields) {
+      this.instantiator = instantiator;
+      this.fields = fields;
+      this.names = new byte[fields.length][];
+      for (int i = 0; i < fields.length; i++) {
+        names[i] = fields[i].name;
+      }
+    }
+  }
+
+  /**
+   * A field along with its name encoded once: unescaped to match it while reading, and quoted
+   * with its colon to write it, either first or after a comma.
+   */
+  private abstract static class BoundField {
+    final Field field;
+    final byte[] name;
+    private final byte[] key;
+    private final byte[] nextKey;
+
+    BoundField(Field field, String name) {
+      this.field = field;
+      this.name = name.getBytes(NativeWriter.UTF_8);
+      byte[] quoted = NativeBinders.quote(name);
+      this.key = new byte[quoted.length + 1];
+      System.arraycopy(quoted, 0, key, 0, quoted.length);
+      key[quoted.length] = ':';
+      this.nextKey = new byte[key.length + 1];
+      nextKey[0] = ',';
+      System.arraycopy(key, 0, nextKey, 1, key.length);
+    }
+
+    final void writeKey(NativeWriter writer, boolean first) throws IOException {
+      writer.write(first ? key : nextKey);
+    }
+
+    final void read(NativeReader reader, Object instance) {
+      try {
+        readField(reader, instance);
+      } catch (IllegalAccessException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    /**
+     * Writes the field unless it is null.
+     * @return whether it was written.
+     */
+    final boolean write(NativeWriter writer, Object instance, boolean first) throws IOException {
+      try {
+        return writeField(writer, instance, first);
+      } catch (IllegalAccessException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    abstract void readField(NativeReader reader, Object instance) throws IllegalAccessException;
+
+    abstract boolean writeField(NativeWriter writer, Object instance, boolean first)
+        throws IOException, IllegalAccessException;
+  }
+
+  private static final class ObjectField extends BoundField {
+    private final NativeBinder<Object> binder;
+    private final boolean primitive;
+
+    ObjectField(Field field, String name, NativeBinder<Object> binder) {
+      super(field, name);
+      this.binder = binder;
+      this.primitive = field.getType().isPrimitive();
+    }
+
+    @Override void readField(NativeReader reader, Object instance) throws IllegalAccessException {
+      Object value = binder.read(reader);
+      if (value != null || !primitive) field.set(instance, value);
+    }
+
+    @Override boolean writeField(NativeWriter writer, Object instance, boolean first)
+        throws IOException, IllegalAccessException {
+      Object value = field.get(instance);
+      if (value == null) return false;
+      writeKey(writer, first);
+      binder.write(writer, value);
+      return true;
+    }
+  }
+
+  private static final class IntField extends BoundField {
+
+    IntField(Field field, String name) {
+      super(field, name);
+    }
+
+    @Override void readField(NativeReader reader, Object instance) throws IllegalAccessException {
+      if (!reader.nextNull()) field.setInt(instance, NativeBinders.readInt(reader));
+    }
+
+    @Override boolean writeField(NativeWriter writer, Object instance, boolean first)
+        throws IOException, IllegalAccessException {
+      writeKey(writer, first);
+      writer.value(field.getInt(instance));
+      return true;
+    }
+  }
+
+  private static final class LongField extends BoundField {
+
+    LongField(Field field, String name) {
+      super(field, name);
+    }
+
+    @Override void readField(NativeReader reader, Object instance) throws IllegalAccessException {
+      if (!reader.nextNull()) field.setLong(instance, NativeBinders.readLong(reader));
+    }
+
+    @Override boolean writeField(NativeWriter writer, Object instance, boolean first)
+        throws IOException, IllegalAccessException {
+      writeKey(writer, first);
+      writer.value(field.getLong(instance));
+      return true;
+    }
+  }
+
+  private static final class DoubleField extends BoundField {
+
+    DoubleField(Field field, String name) {
+      super(field, name);
+    }
+
+    @Override void readField(NativeReader reader, Object instance) throws IllegalAccessException {
+      if (!reader.nextNull()) field.setDouble(instance, NativeBinders.readDouble(reader));
+    }
+
+    @Override boolean writeField(NativeWriter writer, Object instance, boolean first)
+        throws IOException, IllegalAccessException {
+      writeKey(writer, first);
+      writer.value(field.getDouble(instance));
+      return true;
+    }
+  }
+
+  private static final class BooleanField extends BoundField {
+
+    BooleanField(Field field, String name) {
+      super(field, name);
+    }
+
+    @Override void readField(NativeReader reader, Object instance) throws IllegalAccessException {
+      if (!reader.nextNull()) field.setBoolean(instance, reader.nextBoolean());
+    }
+
+    @Override boolean writeField(NativeWriter writer, Object instance, boolean first)
+        throws IOException, IllegalAccessException {
+      writeKey(writer, first);
+      writer.value(field.getBoolean(instance));
+      return true;
+    }
+  }
+}
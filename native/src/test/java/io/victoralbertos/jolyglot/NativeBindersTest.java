@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public final class NativeBindersTest {
+  private final NativeSpeaker speaker = new NativeSpeaker();
+
+  @Test public void skipsUnknownFieldsAndReadsOnesOutOfOrder() {
+    Node node = speaker.fromJson("{\"unknown\":{\"a\":[1,2]},\"value\":2,\"next\":{\"value\":3}}",
+        Node.class);
+    assertThat(node.value, is(2));
+    assertThat(node.next.value, is(3));
+    assertThat(node.next.next, is(nullValue()));
+  }
+
+  @Test public void readsQuotedNumbersIntoPrimitiveFields() {
+    Numbers numbers = speaker.fromJson("{\"i\":\"5\",\"l\":\"6\",\"d\":\"1.5\"}",
+        Numbers.class);
+    assertThat(numbers.i, is(5));
+    assertThat(numbers.l, is(6L));
+    assertThat(numbers.d, is(1.5));
+  }
+
+  @Test public void bindsClassesReferringToThemselves() {
+    Node node = new Node(1, new Node(2, null));
+    String json = speaker.toJson(node);
+    assertThat(json, is("{\"value\":1,\"next\":{\"value\":2}}"));
+    assertThat(speaker.fromJson(json, Node.class).next.value, is(2));
+  }
+
+  @Test public void writesSubclassesByTheirClass() {
+    Holder holder = new Holder();
+    holder.node = new NamedNode("n", 1);
+    assertThat(speaker.toJson(holder), is("{\"node\":{\"name\":\"n\",\"value\":1}}"));
+  }
+
+  @Test public void bindsEnumsByName() {
+    assertThat(speaker.toJson(Color.RED), is("\"RED\""));
+    assertThat(speaker.fromJson("\"GREEN\"", Color.class), is(Color.GREEN));
+  }
+
+  @Test public void allocatesClassesWithoutNoArgConstructor() {
+    NamedNode node = speaker.fromJson("{\"name\":\"n\",\"value\":1}", NamedNode.class);
+    assertThat(node.name, is("n"));
+    assertThat(node.value, is(1));
+  }
+
+  @Test public void readsMapKeysAsTheirType() {
+    Map<Color, Long> map = speaker.fromJson("{\"RED\":1}",
+        speaker.newParameterizedType(Map.class, Color.class, Long.class));
+    assertThat(map.get(Color.RED), is(1L));
+
+    Map<Double, String> doubles = new LinkedHashMap<>();
+    doubles.put(1.5, "a");
+    String json = speaker.toJson(doubles);
+    assertThat(json, is("{\"1.5\":\"a\"}"));
+    Map<Double, String> read = speaker.fromJson(json,
+        speaker.newParameterizedType(Map.class, Double.class, String.class));
+    assertThat(read, is(doubles));
+  }
+
+  @Test public void createsTheCollectionDeclared() {
+    SortedSet<Integer> set = speaker.fromJson("[3,1,2]",
+        speaker.newParameterizedType(SortedSet.class, Integer.class));
+    assertThat(set, instanceOf(TreeSet.class));
+    assertThat(set.first(), is(1));
+
+    int[][] matrix = speaker.fromJson("[[1,2],[3]]", int[][].class);
+    assertThat(matrix[1][0], is(3));
+    assertThat(speaker.toJson(matrix), is("[[1,2],[3]]"));
+  }
+
+  @Test public void readsObjectsAsTheirNaturalTypes() {
+    List<Object> values = speaker.fromJson("[1,1.5,\"s\",true,null,{\"a\":[]}]", List.class);
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("a", Arrays.asList());
+    assertThat(values, is(Arrays.<Object>asList(1L, 1.5, "s", true, null, map)));
+    assertThat(speaker.toJson(values), is("[1,1.5,\"s\",true,null,{\"a\":[]}]"));
+  }
+
+  static class Node {
+    int value;
+    Node next;
+
+    Node() {}
+
+    Node(int value, Node next) {
+      this.value = value;
+      this.next = next;
+    }
+  }
+
+  static final class NamedNode extends Node {
+    String name;
+
+    NamedNode(String name, int value) {
+      super(value, null);
+      this.name = name;
+    }
+  }
+
+  static final class Numbers {
+    int i;
+    long l;
+    double d;
+  }
+
+  static final class Holder {
+    Node node;
+  }
+
+  enum Color {
+    RED, GREEN
+  }
+}
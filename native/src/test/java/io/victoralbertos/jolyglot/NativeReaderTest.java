@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public final class NativeReaderTest {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  @Test public void detectsAndParsesEightDigits() {
+    assertThat(NativeReader.isEightDigits(word("12345678")), is(true));
+    assertThat(NativeReader.isEightDigits(word("1234567a")), is(false));
+    assertThat(NativeReader.isEightDigits(word("1234567/")), is(false));
+    assertThat(NativeReader.isEightDigits(word("1234567:")), is(false));
+    assertThat(NativeReader.parseEightDigits(word("12345678")), is(12345678));
+    assertThat(NativeReader.parseEightDigits(word("00000009")), is(9));
+    assertThat(NativeReader.parseEightDigits(word("99999999")), is(99999999));
+  }
+
+  @Test public void readsLongsAcrossWordBoundaries() {
+    long[] values = {0, 7, -7, 12345678, 123456789, -1234567890123L, 999999999999999999L,
+        Long.MAX_VALUE, Long.MIN_VALUE};
+    for (long value : values) {
+      assertThat(reader(value + " ").nextLong(), is(value));
+      assertThat(reader("[" + value + "]", 1).nextLong(), is(value));
+    }
+    assertThat(reader("1.0e3").nextLong(), is(1000L));
+  }
+
+  @Test public void rejectsOverflowingIntsAndLongs() {
+    try {
+      reader("2147483648").nextInt();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), containsString("an int"));
+    }
+    try {
+      reader("9223372036854775808").nextLong();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), containsString("a long"));
+    }
+  }
+
+  @Test public void readsDoublesAsDoubleParsesThem() {
+    String[] values = {"0", "-0", "0.1", "1.5", "-2.25e-3", "3.14159265358979", "1e22", "1e23",
+        "123456789012345678", "0.30000000000000004", "4.9e-324", "1.7976931348623157E308",
+        "2.2250738585072014E-308", "7.0E-10", "1E+2"};
+    for (String value : values) {
+      assertThat(value, reader(value).nextDouble(), is(Double.parseDouble(value)));
+    }
+  }
+
+  @Test public void readsAsciiStringsAcrossWordBoundaries() {
+    for (int length = 0; length < 20; length++) {
+      char[] chars = new char[length];
+      Arrays.fill(chars, 'a');
+      String value = new String(chars);
+      assertThat(reader("\"" + value + "\"").nextString(), is(value));
+    }
+  }
+
+  @Test public void unescapesAndDecodesStrings() {
+    assertThat(reader("\"a\\\"b\\\\c\\/d\\b\\f\\n\\r\\t\"").nextString(),
+        is("a\"b\\c/d\b\f\n\r\t"));
+    assertThat(reader("\"\\u00f1\\u2028\\ud83d\\ude00\"").nextString(),
+        is("\u00f1\u2028\ud83d\ude00"));
+    String multiByte = "12345678\u00f1\u20ac\ud83d\ude00 tail";
+    assertThat(reader("\"" + multiByte + "\"").nextString(), is(multiByte));
+  }
+
+  @Test public void rejectsUnescapedControlCharactersAndBadUtf8() {
+    try {
+      reader("\"ab\ncd\"").nextString();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), containsString("at offset 3"));
+    }
+    byte[] json = {'"', 'a', (byte) 0xC3, 'b', '"'};
+    try {
+      new NativeReader(json, 0, json.length).nextString();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), containsString("UTF-8"));
+    }
+  }
+
+  @Test public void matchesNamesOutOfOrderAndEscaped() {
+    byte[][] names = {"one".getBytes(UTF_8), "tw\u00f3".getBytes(UTF_8)};
+    assertThat(reader("\"one\":").nextName(names, 0), is(0));
+    assertThat(reader("\"one\":").nextName(names, 1), is(0));
+    assertThat(reader("\"tw\u00f3\" :").nextName(names, 0), is(1));
+    assertThat(reader("\"tw\\u00f3\":").nextName(names, 1), is(1));
+    assertThat(reader("\"three\":").nextName(names, 0), is(-1));
+  }
+
+  @Test public void skipsNestedValues() {
+    NativeReader reader =
+        reader("[{\"a\":[1,{\"b\":\"]}\\\"\"}],\"c\":true}, -1.5e3, null, \"s\"]");
+    reader.expect('[');
+    reader.skipValue();
+    reader.next(']');
+    reader.skipValue();
+    reader.next(']');
+    reader.skipValue();
+    reader.next(']');
+    assertThat(reader.nextString(), is("s"));
+    assertThat(reader.next(']'), is(false));
+    reader.end();
+  }
+
+  @Test public void readsValuesAsTheirNaturalTypes() {
+    Map<String, Object> expected = new LinkedHashMap<>();
+    expected.put("l", 1L);
+    expected.put("d", 1.5);
+    expected.put("s", "s");
+    expected.put("b", true);
+    expected.put("n", null);
+    expected.put("a", Arrays.<Object>asList(1L, "2"));
+    assertThat(reader("{\"l\":1,\"d\":1.5,\"s\":\"s\",\"b\":true,\"n\":null,\"a\":[1,\"2\"]}")
+        .nextValue(), is((Object) expected));
+  }
+
+  @Test public void reportsTheOffsetOfTrailingData() {
+    NativeReader reader = reader("{} x");
+    reader.skipValue();
+    try {
+      reader.end();
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), is("Expected the end of the document but was 'x' at offset 3"));
+    }
+  }
+
+  private static NativeReader reader(String json) {
+    return reader(json, 0);
+  }
+
+  private static NativeReader reader(String json, int offset) {
+    byte[] bytes = json.getBytes(UTF_8);
+    return new NativeReader(bytes, offset, bytes.length - offset);
+  }
+
+  private static long word(String digits) {
+    return ByteBuffer.wrap(digits.getBytes(UTF_8)).order(ByteOrder.LITTLE_ENDIAN).getLong();
+  }
+}
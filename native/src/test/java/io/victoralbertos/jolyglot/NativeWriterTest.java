@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public final class NativeWriterTest {
+
+  @Test public void writesNumbersAsJavaPrintsThem() throws IOException {
+    long[] longs = {0, 9, 10, -10, 123456789, Long.MAX_VALUE, Long.MIN_VALUE};
+    for (long value : longs) {
+      assertThat(write(value), is(String.valueOf(value)));
+    }
+    double[] doubles = {0, -0.0, 1, -1, 0.1, 1.5e-7, 9999999, 1e7, 123.456, Double.MAX_VALUE};
+    for (double value : doubles) {
+      assertThat(write(value), is(String.valueOf(value)));
+    }
+  }
+
+  @Test public void rejectsNonFiniteNumbers() throws IOException {
+    try {
+      NativeWriter.acquire().value(Double.NaN);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  @Test public void escapesStrings() throws IOException {
+    assertThat(write("a\"b\\c\n\t\u0001"), is("\"a\\\"b\\\\c\\n\\t\\u0001\""));
+    assertThat(write("\u00f1\u20ac\ud83d\ude00"), is("\"\u00f1\u20ac\ud83d\ude00\""));
+    assertThat(write("\u2028\u2029"), is("\"\\u2028\\u2029\""));
+    assertThat(write("\ud83d"), is("\"?\""));
+  }
+
+  @Test public void writesSurrogatePairsSplitAcrossChunks() throws IOException {
+    char[] chars = new char[3000];
+    Arrays.fill(chars, 'a');
+    chars[1023] = '\ud83d';
+    chars[1024] = '\ude00';
+    String value = new String(chars);
+    assertThat(write(value), is("\"" + value + "\""));
+  }
+
+  @Test public void drainsIntoTheSinkWhenFull() throws IOException {
+    char[] chars = new char[NativeWriter.MAX_RECYCLED_CAPACITY];
+    Arrays.fill(chars, '\u00f1');
+    String value = new String(chars);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    NativeWriter writer = NativeWriter.acquire();
+    writer.sink(out);
+    for (int i = 0; i < 4; i++) {
+      writer.value(value);
+    }
+    writer.flush();
+    writer.recycle();
+
+    assertThat(out.size(), is(4 * (value.length() * 2 + 2)));
+    assertThat(NativeWriter.acquire(), is(sameInstance(writer)));
+  }
+
+  @Test public void dropsWritersGrownPastTheMaxRecycledCapacity() throws IOException {
+    NativeWriter writer = NativeWriter.acquire();
+    writer.write(new byte[NativeWriter.MAX_RECYCLED_CAPACITY + 1]);
+    writer.recycle();
+
+    NativeWriter next = NativeWriter.acquire();
+    assertThat(next, is(not(sameInstance(writer))));
+    next.recycle();
+  }
+
+  @Test public void appendsDecodedChars() throws IOException {
+    NativeWriter writer = NativeWriter.acquire();
+    char[] chars = new char[10000];
+    Arrays.fill(chars, '\u20ac');
+    String value = new String(chars);
+    writer.value(value);
+    StringBuilder out = new StringBuilder();
+    writer.appendTo(out);
+    writer.recycle();
+    assertThat(out.toString(), is("\"" + value + "\""));
+  }
+
+  private static String write(long value) throws IOException {
+    NativeWriter writer = NativeWriter.acquire();
+    writer.value(value);
+    return release(writer);
+  }
+
+  private static String write(double value) throws IOException {
+    NativeWriter writer = NativeWriter.acquire();
+    writer.value(value);
+    return release(writer);
+  }
+
+  private static String write(String value) throws IOException {
+    NativeWriter writer = NativeWriter.acquire();
+    writer.value(value);
+    return release(writer);
+  }
+
+  private static String release(NativeWriter writer) {
+    String json = writer.toString();
+    writer.recycle();
+    return json;
+  }
+}
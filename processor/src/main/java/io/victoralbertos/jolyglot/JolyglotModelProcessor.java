@@ -0,0 +1,477 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@code JolyglotBinding} for every class annotated with {@code JolyglotModel}, which
+ * reads and writes its fields one by one, switching over their names, instead of through
+ * reflection. The binding is named after the binary name of the model plus
+ * {@code _JolyglotBinding}, in the same package, so it can access fields which are not public.
+ *
+ * <p>It depends on no other module, not even {@code api}, so it can be added to the annotation
+ * processor path on its own.
+ */
+public final class JolyglotModelProcessor extends AbstractProcessor {
+  private static final String MODEL = "io.victoralbertos.jolyglot.JolyglotModel";
+  private static final String BINDING = "io.victoralbertos.jolyglot.JolyglotBinding";
+  private static final String SUFFIX = "_JolyglotBinding";
+  /**
+   * The annotations of every provider which rename a field, along with the member holding the
+   * name.
+   */
+  private static final String[][] NAMES = {
+      {"com.google.gson.annotations.SerializedName", "value"},
+      {"com.fasterxml.jackson.annotation.JsonProperty", "value"},
+      {"com.squareup.moshi.Json", "name"}
+  };
+
+  @Override public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(MODEL);
+  }
+
+  @Override public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override public boolean process(Set<? extends TypeElement> annotations,
+      RoundEnvironment roundEnv) {
+    TypeElement model = processingEnv.getElementUtils().getTypeElement(MODEL);
+    if (model == null) return false;
+
+    for (Element element : roundEnv.getElementsAnnotatedWith(model)) {
+      if (element.getKind() != ElementKind.CLASS) {
+        error(element, "@JolyglotModel only applies to classes");
+        continue;
+      }
+      TypeElement type = (TypeElement) element;
+      List<Property> properties = new ArrayList<>();
+      boolean valid = validate(type);
+      // Fields are checked even for an invalid class, so every error is reported at once.
+      valid = collect(type, properties) && valid;
+      if (!valid) continue;
+
+      try {
+        write(type, properties);
+      } catch (IOException e) {
+        error(type, "Unable to write the binding of " + type + ": " + e.getMessage());
+      }
+    }
+    return false;
+  }
+
+  private boolean validate(TypeElement type) {
+    boolean valid = true;
+    if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+      valid = error(type, "@JolyglotModel classes must not be abstract");
+    }
+    if (!type.getTypeParameters().isEmpty()) {
+      valid = error(type, "@JolyglotModel classes must not declare type parameters");
+    }
+    if (type.getNestingKind() == NestingKind.LOCAL
+        || type.getNestingKind() == NestingKind.ANONYMOUS) {
+      valid = error(type, "@JolyglotModel classes must be top level or nested ones");
+    } else if (type.getNestingKind() == NestingKind.MEMBER
+        && !type.getModifiers().contains(Modifier.STATIC)) {
+      valid = error(type, "Nested @JolyglotModel classes must be static");
+    }
+    for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      if (e.getModifiers().contains(Modifier.PRIVATE)) {
+        valid = error(type, "@JolyglotModel classes must not be private, nor nested in one");
+      }
+    }
+
+    boolean constructor = false;
+    for (ExecutableElement candidate : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      constructor |= candidate.getParameters().isEmpty()
+          && !candidate.getModifiers().contains(Modifier.PRIVATE);
+    }
+    if (!constructor) {
+      valid = error(type, "@JolyglotModel classes need a non-private constructor without "
+          + "parameters");
+    }
+    return valid;
+  }
+
+  /**
+   * Adds to {@code properties} every field of {@code type} to bind, the ones inherited last.
+   */
+  private boolean collect(TypeElement type, List<Property> properties) {
+    boolean valid = true;
+    DeclaredType declaredType = (DeclaredType) type.asType();
+    String packageName = packageOf(type);
+    Set<String> names = new HashSet<>();
+
+    for (TypeMirror current = declaredType; current.getKind() == TypeKind.DECLARED;
+        current = ((TypeElement) asElement(current)).getSuperclass()) {
+      TypeElement declaring = (TypeElement) asElement(current);
+      if (declaring.getQualifiedName().contentEquals("java.lang.Object")) break;
+
+      for (VariableElement field : ElementFilter.fieldsIn(declaring.getEnclosedElements())) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+          continue;
+        }
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)) {
+          valid = error(field, "Fields of @JolyglotModel classes must not be private nor final");
+          continue;
+        }
+        if (!modifiers.contains(Modifier.PUBLIC) && !packageOf(declaring).equals(packageName)) {
+          valid = error(field, "Field " + field + " of " + declaring + " is not accessible from "
+              + "package " + packageName);
+          continue;
+        }
+
+        TypeMirror fieldType = processingEnv.getTypeUtils().asMemberOf(declaredType, field);
+        if (!supported(fieldType)) {
+          valid = error(field, "Type " + fieldType + " is not supported by @JolyglotModel");
+          continue;
+        }
+        String name = name(field);
+        if (!names.add(name)) {
+          valid = error(field, type + " declares more than one field named " + name);
+          continue;
+        }
+        properties.add(new Property(field.getSimpleName().toString(), name, fieldType));
+      }
+    }
+    return valid;
+  }
+
+  private void write(TypeElement type, List<Property> properties) throws IOException {
+    String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+    String packageName = packageOf(type);
+    String bindingName = binaryName.substring(binaryName.lastIndexOf('.') + 1) + SUFFIX;
+    String modelName = type.getQualifiedName().toString();
+
+    Map<String, Integer> delegates = new LinkedHashMap<>();
+    for (Property property : properties) {
+      if (primitive(property.type) == null) {
+        String expression = typeExpression(property.type);
+        Integer index = delegates.get(expression);
+        if (index == null) {
+          index = delegates.size();
+          delegates.put(expression, index);
+        }
+        property.delegate = index;
+      }
+    }
+
+    StringBuilder source = new StringBuilder();
+    source.append("// Generated by JolyglotModelProcessor from ").append(modelName)
+        .append(". Do not edit.\n");
+    if (!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n");
+    source.append('\n')
+        .append("public final class ").append(bindingName).append(" extends ").append(BINDING)
+        .append('<').append(modelName).append("> {\n")
+        .append("  public ").append(bindingName).append("() {\n")
+        .append("    super(");
+    String separator = "\n        ";
+    for (String expression : delegates.keySet()) {
+      source.append(separator).append(expression);
+      separator = ",\n        ";
+    }
+    source.append(");\n")
+        .append("  }\n\n");
+
+    source.append("  @Override public ").append(modelName).append(" read(").append(BINDING)
+        .append(".Reader reader)\n")
+        .append("      throws java.io.IOException {\n")
+        .append("    ").append(modelName).append(" value = new ").append(modelName).append("();\n")
+        .append("    reader.beginObject();\n")
+        .append("    while (reader.hasNext()) {\n")
+        .append("      switch (reader.nextName()) {\n");
+    for (Property property : properties) {
+      source.append("        case ").append(literal(property.name)).append(":\n")
+          .append("          ").append(read(property)).append('\n')
+          .append("          break;\n");
+    }
+    source.append("        default:\n")
+        .append("          reader.skipValue();\n")
+        .append("      }\n")
+        .append("    }\n")
+        .append("    reader.endObject();\n")
+        .append("    return value;\n")
+        .append("  }\n\n");
+
+    source.append("  @Override public void write(").append(BINDING).append(".Writer writer, ")
+        .append(modelName).append(" value)\n")
+        .append("      throws java.io.IOException {\n")
+        .append("    writer.beginObject();\n");
+    for (Property property : properties) {
+      source.append("    writer.name(").append(literal(property.name)).append(");\n")
+          .append("    ").append(write(property)).append('\n');
+    }
+    source.append("    writer.endObject();\n")
+        .append("  }\n")
+        .append("}\n");
+
+    String fileName = packageName.isEmpty() ? bindingName : packageName + '.' + bindingName;
+    Writer writer = processingEnv.getFiler().createSourceFile(fileName, type).openWriter();
+    try {
+      writer.write(source.toString());
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Returns the statement reading {@code property} into {@code value}. Null values leave
+   * primitives untouched, like reflection does.
+   */
+  private String read(Property property) {
+    String field = "value." + property.field;
+    if (property.delegate >= 0) {
+      return "if (reader.nextNull()) " + field + " = null; else " + field + " = reader.read("
+          + property.delegate + ");";
+    }
+
+    TypeKind kind = primitive(property.type);
+    String next;
+    switch (kind) {
+      case BOOLEAN: next = "reader.nextBoolean()"; break;
+      case INT: next = "reader.nextInt()"; break;
+      case LONG: next = "reader.nextLong()"; break;
+      case DOUBLE: next = "reader.nextDouble()"; break;
+      case FLOAT: next = "(float) reader.nextDouble()"; break;
+      case SHORT: next = "toShort(reader.nextInt())"; break;
+      case BYTE: next = "toByte(reader.nextInt())"; break;
+      case CHAR: next = "toChar(reader.nextString())"; break;
+      default: next = "reader.nextString()"; break;
+    }
+    if (property.type.getKind().isPrimitive()) {
+      return "if (!reader.nextNull()) " + field + " = " + next + ";";
+    }
+    if (kind != TypeKind.DECLARED) {
+      next = qualifiedName(property.type) + ".valueOf(" + next + ")";
+    }
+    return field + " = reader.nextNull() ? null : " + next + ";";
+  }
+
+  /**
+   * Returns the statement writing {@code property} of {@code value}.
+   */
+  private String write(Property property) {
+    String field = "value." + property.field;
+    if (property.delegate >= 0) {
+      return "writer.write(" + property.delegate + ", " + field + ");";
+    }
+
+    TypeKind kind = primitive(property.type);
+    if (kind == TypeKind.DECLARED) return "writer.value(" + field + ");";
+    boolean boxed = !property.type.getKind().isPrimitive();
+    String unboxed = field;
+    if (boxed) {
+      unboxed += "." + kind.name().toLowerCase(Locale.ROOT) + "Value()";
+    }
+    String value = kind == TypeKind.CHAR ? "String.valueOf(" + unboxed + ")" : unboxed;
+    String statement = "writer.value(" + value + ");";
+    return boxed ? "if (" + field + " == null) writer.nullValue(); else " + statement : statement;
+  }
+
+  /**
+   * Returns the primitive kind of {@code type} or of its box, {@link TypeKind#DECLARED} for
+   * {@link String}, or null for types delegated to the provider.
+   */
+  private TypeKind primitive(TypeMirror type) {
+    if (type.getKind().isPrimitive()) return type.getKind();
+    if (type.getKind() != TypeKind.DECLARED) return null;
+
+    String name = ((TypeElement) asElement(type)).getQualifiedName().toString();
+    if (name.equals("java.lang.String")) return TypeKind.DECLARED;
+    try {
+      return processingEnv.getTypeUtils().unboxedType(type).getKind();
+    } catch (IllegalArgumentException notABox) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the source of the {@link java.lang.reflect.Type} of {@code type}. Wildcards are bound
+   * by their bound, as the value is read and written as one.
+   */
+  private String typeExpression(TypeMirror type) {
+    switch (type.getKind()) {
+      case DECLARED:
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        String raw = qualifiedName(type) + ".class";
+        if (arguments.isEmpty()) return raw;
+        StringBuilder expression = new StringBuilder("parameterized(").append(raw);
+        for (TypeMirror argument : arguments) {
+          expression.append(", ").append(typeExpression(argument));
+        }
+        return expression.append(')').toString();
+      case ARRAY:
+        TypeMirror component = ((ArrayType) type).getComponentType();
+        if (generic(component)) return "arrayOf(" + typeExpression(component) + ")";
+        return classLiteral(type);
+      case WILDCARD:
+        WildcardType wildcard = (WildcardType) type;
+        if (wildcard.getExtendsBound() != null) return typeExpression(wildcard.getExtendsBound());
+        if (wildcard.getSuperBound() != null) return typeExpression(wildcard.getSuperBound());
+        return "java.lang.Object.class";
+      default:
+        return classLiteral(type);
+    }
+  }
+
+  private String classLiteral(TypeMirror type) {
+    return erasedName(type) + ".class";
+  }
+
+  private String erasedName(TypeMirror type) {
+    if (type.getKind().isPrimitive()) return type.getKind().name().toLowerCase(Locale.ROOT);
+    if (type.getKind() == TypeKind.ARRAY) {
+      return erasedName(((ArrayType) type).getComponentType()) + "[]";
+    }
+    return qualifiedName(type);
+  }
+
+  private boolean generic(TypeMirror type) {
+    if (type.getKind() == TypeKind.ARRAY) return generic(((ArrayType) type).getComponentType());
+    return type.getKind() == TypeKind.DECLARED
+        && !((DeclaredType) type).getTypeArguments().isEmpty();
+  }
+
+  /**
+   * Returns whether {@code type} can be expressed without type variables.
+   */
+  private boolean supported(TypeMirror type) {
+    if (type.getKind().isPrimitive()) return true;
+    switch (type.getKind()) {
+      case DECLARED:
+        for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+          if (!supported(argument)) return false;
+        }
+        return true;
+      case ARRAY:
+        return supported(((ArrayType) type).getComponentType());
+      case WILDCARD:
+        WildcardType wildcard = (WildcardType) type;
+        TypeMirror bound = wildcard.getExtendsBound() != null
+            ? wildcard.getExtendsBound() : wildcard.getSuperBound();
+        return bound == null || supported(bound);
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns the name of {@code field} in json, as renamed by the annotation of any provider.
+   */
+  private String name(VariableElement field) {
+    for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+      String annotationName =
+          ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+      for (String[] rename : NAMES) {
+        if (!rename[0].equals(annotationName)) continue;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> member
+            : annotation.getElementValues().entrySet()) {
+          if (!member.getKey().getSimpleName().contentEquals(rename[1])) continue;
+          String name = String.valueOf(member.getValue().getValue());
+          if (!name.isEmpty()) return name;
+        }
+      }
+    }
+    return field.getSimpleName().toString();
+  }
+
+  private Element asElement(TypeMirror type) {
+    return processingEnv.getTypeUtils().asElement(type);
+  }
+
+  private String qualifiedName(TypeMirror type) {
+    return ((TypeElement) asElement(type)).getQualifiedName().toString();
+  }
+
+  private String packageOf(Element element) {
+    return processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+  }
+
+  /**
+   * Returns {@code value} as a Java string literal.
+   */
+  private static String literal(String value) {
+    StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        literal.append('\\').append(c);
+      } else if (c < 0x20 || c > 0x7e) {
+        literal.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+      } else {
+        literal.append(c);
+      }
+    }
+    return literal.append('"').toString();
+  }
+
+  /**
+   * Reports an error on {@code element}, failing the compilation.
+   * @return false, so it can be assigned as the result of a validation.
+   */
+  private boolean error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    return false;
+  }
+
+  private static final class Property {
+    final String field;
+    final String name;
+    final TypeMirror type;
+    /**
+     * The index of the type this property is delegated to, or -1 if it is read and written by
+     * the binding itself.
+     */
+    int delegate = -1;
+
+    Property(String field, String name, TypeMirror type) {
+      this.field = field;
+      this.name = name;
+      this.type = type;
+    }
+  }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * A Reactive Streams {@link Publisher} of the elements of a top-level Json array, or of the
+ * records of newline delimited Json, bound lazily by a {@link JolyglotStreaming} speaker.
+ *
+ * <p>Elements are only bound as they are requested, so parsing never outruns the demand signaled
+ * through {@link Subscription#request(long)} and the memory needed is bounded by the elements
+ * requested but not yet delivered. The end of the source is looked for once the demand is met, so
+ * subscribers requesting exactly the number of elements left are completed too.
+ *
+ * <p>Publishers of files are cold: every subscriber reads the file from its start, and it is
+ * closed once the subscription completes, fails or is cancelled. Publishers of streams can only be
+ * subscribed once, and the stream is never closed.
+ *
+ * <p>Elements are emitted from the thread calling {@code request} unless an {@link Executor} is
+ * given, in which case reading and binding, which may block on I/O, runs on it.
+ */
+public final class JolyglotPublisher<T> implements Publisher<T> {
+  private static final Executor DIRECT = new Executor() {
+    @Override public void execute(Runnable command) {
+      command.run();
+    }
+  };
+  private final Source<T> source;
+  private final Executor executor;
+
+  private JolyglotPublisher(Source<T> source, Executor executor) {
+    if (executor == null) throw new IllegalArgumentException("executor can not be null");
+    this.source = source;
+    this.executor = executor;
+  }
+
+  /**
+   * Publishes the elements of the top-level Json array held by {@code file}.
+   */
+  public static <T> JolyglotPublisher<T> ofArray(JolyglotStreaming jolyglot, File file,
+      Type typeOfElement) {
+    return ofArray(jolyglot, file, typeOfElement, DIRECT);
+  }
+
+  /**
+   * Publishes the elements of the top-level Json array held by {@code file}, reading it on
+   * {@code executor}.
+   */
+  public static <T> JolyglotPublisher<T> ofArray(JolyglotStreaming jolyglot, File file,
+      Type typeOfElement, Executor executor) {
+    return new JolyglotPublisher<>(new FileSource<T>(jolyglot, file, typeOfElement, false),
+        executor);
+  }
+
+  /**
+   * Publishes the elements of the top-level Json array read from {@code in}.
+   */
+  public static <T> JolyglotPublisher<T> ofArray(JolyglotStreaming jolyglot, InputStream in,
+      Type typeOfElement) {
+    return ofArray(jolyglot, in, typeOfElement, DIRECT);
+  }
+
+  /**
+   * Publishes the elements of the top-level Json array read from {@code in} on {@code executor}.
+   */
+  public static <T> JolyglotPublisher<T> ofArray(JolyglotStreaming jolyglot, InputStream in,
+      Type typeOfElement, Executor executor) {
+    return new JolyglotPublisher<>(new StreamSource<T>(jolyglot, in, typeOfElement, false),
+        executor);
+  }
+
+  /**
+   * Publishes the records of the newline delimited Json held by {@code file}.
+   */
+  public static <T> JolyglotPublisher<T> ofLines(JolyglotStreaming jolyglot, File file,
+      Type typeOfRecord) {
+    return ofLines(jolyglot, file, typeOfRecord, DIRECT);
+  }
+
+  /**
+   * Publishes the records of the newline delimited Json held by {@code file}, reading it on
+   * {@code executor}.
+   */
+  public static <T> JolyglotPublisher<T> ofLines(JolyglotStreaming jolyglot, File file,
+      Type typeOfRecord, Executor executor) {
+    return new JolyglotPublisher<>(new FileSource<T>(jolyglot, file, typeOfRecord, true),
+        executor);
+  }
+
+  /**
+   * Publishes the records of the newline delimited Json read from {@code in}.
+   */
+  public static <T> JolyglotPublisher<T> ofLines(JolyglotStreaming jolyglot, InputStream in,
+      Type typeOfRecord) {
+    return ofLines(jolyglot, in, typeOfRecord, DIRECT);
+  }
+
+  /**
+   * Publishes the records of the newline delimited Json read from {@code in} on
+   * {@code executor}.
+   */
+  public static <T> JolyglotPublisher<T> ofLines(JolyglotStreaming jolyglot, InputStream in,
+      Type typeOfRecord, Executor executor) {
+    return new JolyglotPublisher<>(new StreamSource<T>(jolyglot, in, typeOfRecord, true),
+        executor);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override public void subscribe(Subscriber<? super T> subscriber) {
+    if (subscriber == null) throw new NullPointerException("subscriber == null");
+    if (!source.subscribe()) {
+      subscriber.onSubscribe(CancelledSubscription.INSTANCE);
+      subscriber.onError(
+          new IllegalStateException("A publisher of a stream can only be subscribed once"));
+      return;
+    }
+    subscriber.onSubscribe(new IteratorSubscription<>(subscriber, source, executor));
+  }
+
+  /**
+   * Opens the iterator of every subscription.
+   */
+  private interface Source<T> {
+    /**
+     * Returns false when no more subscriptions are allowed.
+     */
+    boolean subscribe();
+
+    JolyglotIterator<T> open();
+  }
+
+  private static final class FileSource<T> implements Source<T> {
+    private final JolyglotStreaming jolyglot;
+    private final File file;
+    private final Type type;
+    private final boolean lines;
+
+    FileSource(JolyglotStreaming jolyglot, File file, Type type, boolean lines) {
+      this.jolyglot = jolyglot;
+      this.file = file;
+      this.type = type;
+      this.lines = lines;
+    }
+
+    @Override public boolean subscribe() {
+      return true;
+    }
+
+    @Override public JolyglotIterator<T> open() {
+      return lines ? jolyglot.<T>iterateLines(file, type) : jolyglot.<T>iterate(file, type);
+    }
+  }
+
+  private static final class StreamSource<T> implements Source<T> {
+    private final JolyglotStreaming jolyglot;
+    private final InputStream in;
+    private final Type type;
+    private final boolean lines;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    StreamSource(JolyglotStreaming jolyglot, InputStream in, Type type, boolean lines) {
+      this.jolyglot = jolyglot;
+      this.in = in;
+      this.type = type;
+      this.lines = lines;
+    }
+
+    @Override public boolean subscribe() {
+      return subscribed.compareAndSet(false, true);
+    }
+
+    @Override public JolyglotIterator<T> open() {
+      return lines ? jolyglot.<T>iterateLines(in, type) : jolyglot.<T>iterate(in, type);
+    }
+  }
+
+  /**
+   * Emits the elements of an iterator opened on the first request. Requests and cancellations
+   * only record their signal and schedule a drain; {@code pending} makes sure a single drain runs
+   * at a time, so the subscriber is signaled serially, and that requests made from
+   * {@code onNext} are served by the running drain instead of recursing.
+   */
+  private static final class IteratorSubscription<T> implements Subscription, Runnable {
+    private final Subscriber<? super T> subscriber;
+    private final Source<T> source;
+    private final Executor executor;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile IllegalArgumentException invalidRequest;
+    // Only accessed by the drain, whose runs are ordered by pending.
+    private JolyglotIterator<T> iterator;
+    private boolean done;
+
+    IteratorSubscription(Subscriber<? super T> subscriber, Source<T> source, Executor executor) {
+      this.subscriber = subscriber;
+      this.source = source;
+      this.executor = executor;
+    }
+
+    @Override public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException(
+            "request must be positive, see rule 3.9 of Reactive Streams: " + n);
+        cancelled = true;
+      } else {
+        while (true) {
+          long current = requested.get();
+          long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+          if (requested.compareAndSet(current, next)) break;
+        }
+      }
+      schedule();
+    }
+
+    @Override public void cancel() {
+      cancelled = true;
+      schedule();
+    }
+
+    private void schedule() {
+      if (pending.getAndIncrement() == 0) executor.execute(this);
+    }
+
+    @Override public void run() {
+      int missed = 1;
+      while (true) {
+        drain();
+        missed = pending.addAndGet(-missed);
+        if (missed == 0) return;
+      }
+    }
+
+    private void drain() {
+      if (done) return;
+      long demand = requested.get();
+      long emitted = 0;
+      while (true) {
+        if (cancelled) {
+          terminate();
+          if (invalidRequest != null) subscriber.onError(invalidRequest);
+          return;
+        }
+
+        T element;
+        try {
+          if (iterator == null) iterator = source.open();
+          // Looked for once the demand is met as well, to complete without waiting for more.
+          if (!iterator.hasNext()) {
+            terminate();
+            subscriber.onComplete();
+            return;
+          }
+          if (emitted == demand) break;
+          element = iterator.next();
+        } catch (RuntimeException e) {
+          terminate();
+          subscriber.onError(e);
+          return;
+        }
+
+        try {
+          subscriber.onNext(element);
+        } catch (RuntimeException e) {
+          // Breaks rule 2.13 of Reactive Streams, so the subscription is considered cancelled.
+          terminate();
+          throw e;
+        }
+        emitted++;
+      }
+      if (demand != Long.MAX_VALUE) requested.addAndGet(-emitted);
+    }
+
+    private void terminate() {
+      done = true;
+      if (iterator != null) iterator.close();
+    }
+  }
+
+  private static final class CancelledSubscription implements Subscription {
+    static final CancelledSubscription INSTANCE = new CancelledSubscription();
+
+    @Override public void request(long n) {
+    }
+
+    @Override public void cancel() {
+    }
+  }
+}
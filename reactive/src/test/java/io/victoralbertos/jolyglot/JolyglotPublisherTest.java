@@ -0,0 +1,278 @@
+/*
+ * Copyright 2016 Victor Albertos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.victoralbertos.jolyglot;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class JolyglotPublisherTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private final CountingSpeaker jolyglot = new CountingSpeaker();
+
+  @Test public void bindsOnlyTheElementsRequested() throws IOException {
+    File file = arrayFile(10);
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    JolyglotPublisher.<Mock>ofArray(jolyglot, file, Mock.class).subscribe(subscriber);
+
+    subscriber.subscription.request(3);
+    assertThat(subscriber.elements.size(), is(3));
+    assertThat(jolyglot.bound, is(3));
+    assertThat(subscriber.completed, is(false));
+
+    subscriber.subscription.request(7);
+    assertThat(subscriber.elements.size(), is(10));
+    assertThat(subscriber.elements.get(9).index, is(9));
+    assertThat(subscriber.completed, is(true));
+  }
+
+  @Test public void requestsFromOnNextDoNotRecurse() throws IOException {
+    File file = arrayFile(5000);
+    RecordingSubscriber subscriber = new RecordingSubscriber() {
+      @Override public void onNext(Mock mock) {
+        super.onNext(mock);
+        subscription.request(1);
+      }
+    };
+    JolyglotPublisher.<Mock>ofArray(jolyglot, file, Mock.class).subscribe(subscriber);
+
+    subscriber.subscription.request(1);
+    assertThat(subscriber.elements.size(), is(5000));
+    assertThat(subscriber.completed, is(true));
+  }
+
+  @Test public void publishesLinesOfStreams() throws IOException {
+    InputStream in = new ByteArrayInputStream(
+        "{\"index\":0}\n\n{\"index\":1}\n".getBytes("UTF-8"));
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    JolyglotPublisher.<Mock>ofLines(jolyglot, in, Mock.class).subscribe(subscriber);
+
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertThat(subscriber.elements.size(), is(2));
+    assertThat(subscriber.completed, is(true));
+  }
+
+  @Test public void streamsCanOnlyBeSubscribedOnce() throws IOException {
+    JolyglotPublisher<Mock> publisher = JolyglotPublisher.ofArray(jolyglot,
+        new ByteArrayInputStream("[]".getBytes("UTF-8")), Mock.class);
+    publisher.subscribe(new RecordingSubscriber());
+
+    RecordingSubscriber second = new RecordingSubscriber();
+    publisher.subscribe(second);
+    assertThat(second.error, instanceOf(IllegalStateException.class));
+  }
+
+  @Test public void filesCanBeSubscribedMoreThanOnce() throws IOException {
+    JolyglotPublisher<Mock> publisher =
+        JolyglotPublisher.ofArray(jolyglot, arrayFile(2), Mock.class);
+    for (int i = 0; i < 2; i++) {
+      RecordingSubscriber subscriber = new RecordingSubscriber();
+      publisher.subscribe(subscriber);
+      subscriber.subscription.request(2);
+      assertThat(subscriber.elements.size(), is(2));
+      assertThat(subscriber.completed, is(true));
+    }
+  }
+
+  @Test public void cancelStopsBinding() throws IOException {
+    RecordingSubscriber subscriber = new RecordingSubscriber() {
+      @Override public void onNext(Mock mock) {
+        super.onNext(mock);
+        subscription.cancel();
+      }
+    };
+    JolyglotPublisher.<Mock>ofArray(jolyglot, arrayFile(10), Mock.class).subscribe(subscriber);
+
+    subscriber.subscription.request(5);
+    subscriber.subscription.request(5);
+    assertThat(subscriber.elements.size(), is(1));
+    assertThat(jolyglot.bound, is(1));
+    assertThat(subscriber.completed, is(false));
+    assertNull(subscriber.error);
+  }
+
+  @Test public void malformedJsonIsSignaledAsAnError() throws IOException {
+    File file = temporaryFolder.newFile("malformed.json");
+    write(file, "[{\"index\":0},{\"index\":");
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    JolyglotPublisher.<Mock>ofArray(jolyglot, file, Mock.class).subscribe(subscriber);
+
+    subscriber.subscription.request(5);
+    assertThat(subscriber.elements.size(), is(1));
+    assertThat(subscriber.error, instanceOf(RuntimeException.class));
+  }
+
+  @Test public void nonPositiveRequestsAreSignaledAsAnError() throws IOException {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    JolyglotPublisher.<Mock>ofArray(jolyglot, arrayFile(1), Mock.class).subscribe(subscriber);
+
+    subscriber.subscription.request(0);
+    assertThat(subscriber.error, instanceOf(IllegalArgumentException.class));
+  }
+
+  @Test public void bindsOnTheGivenExecutor() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override public Thread newThread(Runnable runnable) {
+        return new Thread(runnable, "publisher-test");
+      }
+    });
+    try {
+      final CountDownLatch completion = new CountDownLatch(1);
+      final List<String> threads = new ArrayList<>();
+      RecordingSubscriber subscriber = new RecordingSubscriber() {
+        @Override public void onNext(Mock mock) {
+          super.onNext(mock);
+          threads.add(Thread.currentThread().getName());
+        }
+
+        @Override public void onComplete() {
+          super.onComplete();
+          completion.countDown();
+        }
+      };
+      JolyglotPublisher.<Mock>ofArray(jolyglot, arrayFile(3), Mock.class, executor)
+          .subscribe(subscriber);
+
+      subscriber.subscription.request(3);
+      assertTrue(completion.await(5, TimeUnit.SECONDS));
+      assertThat(threads.size(), is(3));
+      for (String thread : threads) {
+        assertThat(thread, is("publisher-test"));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private File arrayFile(int elements) throws IOException {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < elements; i++) {
+      if (i > 0) json.append(',');
+      json.append("{\"index\":").append(i).append('}');
+    }
+    File file = temporaryFolder.newFile();
+    write(file, json.append(']').toString());
+    return file;
+  }
+
+  private static void write(File file, String json) throws IOException {
+    FileWriter writer = new FileWriter(file);
+    try {
+      writer.write(json);
+    } finally {
+      writer.close();
+    }
+  }
+
+  public static final class Mock {
+    int index;
+  }
+
+  private static class RecordingSubscriber implements Subscriber<Mock> {
+    final List<Mock> elements = new ArrayList<>();
+    volatile Subscription subscription;
+    volatile boolean completed;
+    volatile Throwable error;
+
+    @Override public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override public void onNext(Mock mock) {
+      elements.add(mock);
+    }
+
+    @Override public void onError(Throwable error) {
+      this.error = error;
+    }
+
+    @Override public void onComplete() {
+      completed = true;
+    }
+  }
+
+  /**
+   * Counts the elements bound by the iterators of a {@link GsonSpeaker}.
+   */
+  private static final class CountingSpeaker implements JolyglotStreaming {
+    private final GsonSpeaker speaker = new GsonSpeaker();
+    volatile int bound;
+
+    @Override public <T> JolyglotIterator<T> iterate(InputStream in, Type typeOfElement) {
+      return counting(speaker.<T>iterate(in, typeOfElement));
+    }
+
+    @Override public <T> JolyglotIterator<T> iterate(File file, Type typeOfElement) {
+      return counting(speaker.<T>iterate(file, typeOfElement));
+    }
+
+    @Override public <T> JolyglotIterator<T> iterateLines(InputStream in, Type typeOfRecord) {
+      return counting(speaker.<T>iterateLines(in, typeOfRecord));
+    }
+
+    @Override public <T> JolyglotIterator<T> iterateLines(File file, Type typeOfRecord) {
+      return counting(speaker.<T>iterateLines(file, typeOfRecord));
+    }
+
+    @Override public <T> JolyglotWriter<T> newLineWriter(OutputStream out, Type typeOfRecord) {
+      return speaker.newLineWriter(out, typeOfRecord);
+    }
+
+    private <T> JolyglotIterator<T> counting(final JolyglotIterator<T> iterator) {
+      return new JolyglotIterator<T>() {
+        @Override public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override public T next() {
+          bound++;
+          return iterator.next();
+        }
+
+        @Override public void remove() {
+          iterator.remove();
+        }
+
+        @Override public void close() {
+          iterator.close();
+        }
+      };
+    }
+  }
+}